@@ -20,6 +20,7 @@ import { useLocalPlayback } from './hooks/useLocalPlayback';
 import { useSoundActions } from './hooks/useSoundActions';
 import { useFilters } from './hooks/useFilters';
 import { usePlaybackHistory } from './hooks/usePlaybackHistory';
+import { setEventStreamGuild } from './utils/eventStream';
 
 export default function App() {
   // Authentication
@@ -40,7 +41,12 @@ export default function App() {
   const [selectedUserGuildId, setSelectedUserGuildId] = useState<string | null>(null);
 
   // Volume SSE connection
-  useVolumeSSE({ selectedUserId, setVolume });
+  useVolumeSSE({ selectedUserId, selectedUserGuildId, setVolume });
+
+  // Only get volume, playback and voice users of the selected user's guild
+  useEffect(() => {
+    setEventStreamGuild(selectedUserGuildId);
+  }, [selectedUserGuildId]);
 
   // Playback tracking
   const { currentlyPlayingSoundId, setCurrentlyPlayingSoundId, currentPlayback } = usePlaybackTracking({
@@ -1,6 +1,7 @@
 import React, { useEffect, useState, useRef } from 'react';
 import { Users, CheckCircle, Mic } from 'lucide-react';
-import { API_BASE_URL, API_ENDPOINTS } from '../config';
+import { API_BASE_URL } from '../config';
+import { subscribeToEvents } from '../utils/eventStream';
 import { getAuthHeaders } from '../utils/api';
 
 interface DiscordUser {
@@ -172,8 +173,8 @@ export function DiscordUsersList({ onUserSelect, selectedUserId, onVolumeUpdate,
   }, [onUserSelect, onVolumeUpdate, onPlaybackEnabledChange, onGuildIdChange]);
 
   useEffect(() => {
-    // Keep a single stable SSE connection for Discord users
-    let eventSource: EventSource | null = null;
+    // Discord users arrive on the shared event stream
+    let unsubscribe: (() => void) | null = null;
     let isMounted = true;
 
     const applySelectionSideEffects = (sortedUsers: DiscordUser[]) => {
@@ -246,34 +247,29 @@ export function DiscordUsersList({ onUserSelect, selectedUserId, onVolumeUpdate,
     };
 
     try {
-      eventSource = new EventSource(API_ENDPOINTS.DISCORD_USERS_STREAM);
-
-      eventSource.onopen = () => {
-        // connected
-      };
-
-      eventSource.onerror = (error) => {
-        // Let EventSource auto-reconnect; don't aggressively close/recreate here.
-        console.error('Discord Users SSE error:', error);
-      };
-
-      eventSource.addEventListener('discordUsers', (event) => {
-        if (!isMounted) return;
-        try {
-          const data = JSON.parse(event.data);
-          const usersData = Array.isArray(data) ? data : (data.content || []);
-
-          const sortedUsers = [...usersData].sort((a, b) => {
-            if (a.selected && !b.selected) return -1;
-            if (!a.selected && b.selected) return 1;
-            return 0;
-          });
-
-          setUsers(sortedUsers);
-          applySelectionSideEffects(sortedUsers);
-        } catch (error) {
-          console.error('Error parsing Discord Users SSE data:', error);
-        }
+      unsubscribe = subscribeToEvents({
+        error: (error) => {
+          // Let EventSource auto-reconnect; don't aggressively close/recreate here.
+          console.error('Discord Users SSE error:', error);
+        },
+        discordUsers: (event) => {
+          if (!isMounted) return;
+          try {
+            const data = JSON.parse(event.data);
+            const usersData = Array.isArray(data) ? data : (data.content || []);
+
+            const sortedUsers = [...usersData].sort((a, b) => {
+              if (a.selected && !b.selected) return -1;
+              if (!a.selected && b.selected) return 1;
+              return 0;
+            });
+
+            setUsers(sortedUsers);
+            applySelectionSideEffects(sortedUsers);
+          } catch (error) {
+            console.error('Error parsing Discord Users SSE data:', error);
+          }
+        },
       });
     } catch (error) {
       console.error('Failed to create Discord Users SSE connection:', error);
@@ -281,9 +277,7 @@ export function DiscordUsersList({ onUserSelect, selectedUserId, onVolumeUpdate,
 
     return () => {
       isMounted = false;
-      if (eventSource) {
-        eventSource.close();
-      }
+      unsubscribe?.();
     };
   }, [onUserSelect, onVolumeUpdate, onPlaybackEnabledChange, onGuildIdChange]);
 
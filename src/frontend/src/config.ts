@@ -8,7 +8,10 @@ export const API_BASE_URL = isDevelopment ? 'http://localhost:8080' : '';
 
 export const API_ENDPOINTS = {
   BASE: API_BASE_URL,
+  // Single stream carrying sound, user, volume and playback events
+  EVENTS_STREAM: `${API_BASE_URL}/api/events`,
   SOUNDS_STREAM: `${API_BASE_URL}/api/soundFiles/stream`,
+  SOUNDS_SNAPSHOT: `${API_BASE_URL}/api/soundFiles/snapshot`,
   VOLUME: `${API_BASE_URL}/api/volume`,
   VOLUME_STREAM: `${API_BASE_URL}/api/volume/stream`,
   FAVORITE: `${API_BASE_URL}/api/soundFiles/favorite`,
@@ -18,6 +21,9 @@ export const API_ENDPOINTS = {
   PLAY_FILE: `${API_BASE_URL}/bot/playFile`,
   RANDOM: `${API_BASE_URL}/bot/random`,
   STOP: `${API_BASE_URL}/bot/stop`,
+  PLAY_REQUESTS: `${API_BASE_URL}/bot/requests`,
+  // WebSocket for play, stop and volume commands once it's open
+  CONTROL_SOCKET: `${API_BASE_URL}/ws/control`,
   USERS_STREAM: `${API_BASE_URL}/api/users/stream`,
   DISCORD_USERS_STREAM: `${API_BASE_URL}/api/discordUsers/invoiceorselected/stream`,
   DISCORD_USERS: `${API_BASE_URL}/api/discordUsers`,
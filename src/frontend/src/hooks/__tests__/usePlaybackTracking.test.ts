@@ -37,7 +37,7 @@ class MockEventSource {
 
 vi.mock('../../config', () => ({
   API_ENDPOINTS: {
-    PLAYBACK_STREAM: '/api/playback/stream',
+    EVENTS_STREAM: '/api/events',
   },
 }))
 
@@ -58,12 +58,12 @@ describe('usePlaybackTracking', () => {
     return usePlaybackTracking
   }
 
-  it('connects to PLAYBACK_STREAM on mount', async () => {
+  it('connects to EVENTS_STREAM on mount', async () => {
     const usePlaybackTracking = await usePlaybackTrackingHook()
     renderHook(() => usePlaybackTracking({ selectedUserGuildId: 'guild1' }))
 
     await waitFor(() => expect(MockEventSource.instance).not.toBeNull())
-    expect(MockEventSource.instance!.url).toBe('/api/playback/stream')
+    expect(MockEventSource.instance!.url).toBe('/api/events')
   })
 
   it('initializes with null currentlyPlayingSoundId and currentPlayback', async () => {
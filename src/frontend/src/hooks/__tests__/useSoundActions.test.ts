@@ -12,12 +12,27 @@ vi.mock('../../utils/api', () => ({
   fetchWithAuth: (url: string, opts: any) => fetchWithAuthMock(url, opts),
 }))
 
+// The control socket is closed unless a test opens it, so commands go over REST
+const sendControlCommandMock = vi.fn()
+vi.mock('../../utils/controlChannel', () => ({
+  sendControlCommand: (command: any) => sendControlCommandMock(command),
+}))
+
+let playRequestHandler: ((event: { data: string }) => void) | undefined
+vi.mock('../../utils/eventStream', () => ({
+  subscribeToEvents: (handlers: any) => {
+    playRequestHandler = handlers.playRequest
+    return () => {}
+  },
+}))
+
 vi.mock('../../config', () => ({
   API_ENDPOINTS: {
     FAVORITE: '/api/soundFiles/favorite',
     PLAY_FILE: '/bot/playFile',
     RANDOM: '/bot/random',
     STOP: '/bot/stop',
+    PLAY_REQUESTS: '/bot/requests',
     SOUND_FILE: '/api/soundFiles',
     DOWNLOAD: '/api/soundFiles/download',
     UPLOAD: '/api/soundFiles/upload',
@@ -68,6 +83,8 @@ describe('useSoundActions', () => {
     global.fetch = vi.fn()
     getAuthHeadersWithCsrfMock.mockReturnValue({})
     fetchWithAuthMock.mockReset()
+    sendControlCommandMock.mockReset()
+    sendControlCommandMock.mockReturnValue(null)
   })
 
   afterEach(() => {
@@ -189,6 +206,85 @@ describe('useSoundActions', () => {
       expect(setCurrentlyPlayingSoundId).toHaveBeenCalledWith('sound1')
     })
 
+    it('plays over the control socket when it is open', async () => {
+      const useSoundActions = await useSoundActionsHook()
+      const setCurrentlyPlayingSoundId = vi.fn()
+      const props = { ...defaultProps(), setCurrentlyPlayingSoundId }
+
+      sendControlCommandMock.mockReturnValueOnce(Promise.resolve({ ok: true, status: 200 }))
+
+      const { result } = renderHook(() => useSoundActions(props))
+
+      await act(async () => {
+        await result.current.playSoundWithBot('sound1')
+      })
+
+      expect(sendControlCommandMock).toHaveBeenCalledWith({ type: 'play', sound: 'sound1', username: 'user123' })
+      expect(global.fetch).not.toHaveBeenCalled()
+      expect(setCurrentlyPlayingSoundId).toHaveBeenCalledWith('sound1')
+    })
+
+    it('shows an error when the queued play request fails', async () => {
+      const useSoundActions = await useSoundActionsHook()
+      const { toast } = await import('sonner')
+      vi.mocked(toast.error).mockClear()
+      const setCurrentlyPlayingSoundId = vi.fn()
+      const props = { ...defaultProps(), setCurrentlyPlayingSoundId }
+
+      ;(global.fetch as any).mockResolvedValueOnce({
+        ok: true,
+        status: 202,
+        json: async () => ({ requestId: 'request1' }),
+      })
+
+      const { result } = renderHook(() => useSoundActions(props))
+
+      await act(async () => {
+        await result.current.playSoundWithBot('sound1')
+      })
+      act(() => {
+        playRequestHandler?.({ data: JSON.stringify({ requestId: 'other', status: 'failed', message: 'nope' }) })
+        playRequestHandler?.({ data: JSON.stringify({ requestId: 'request1', status: 'failed', message: 'Not in voice' }) })
+      })
+
+      expect(setCurrentlyPlayingSoundId).toHaveBeenLastCalledWith(null)
+      expect(toast.error).toHaveBeenCalledTimes(1)
+      expect(toast.error).toHaveBeenCalledWith('Failed to play sound: Not in voice', expect.anything())
+    })
+
+    it('looks up a play request the event stream has not settled', async () => {
+      vi.useFakeTimers()
+      const useSoundActions = await useSoundActionsHook()
+      const { toast } = await import('sonner')
+      vi.mocked(toast.error).mockClear()
+      const setCurrentlyPlayingSoundId = vi.fn()
+      const props = { ...defaultProps(), setCurrentlyPlayingSoundId }
+
+      ;(global.fetch as any).mockResolvedValueOnce({
+        ok: true,
+        status: 202,
+        json: async () => ({ requestId: 'request1' }),
+      })
+      fetchWithAuthMock.mockResolvedValueOnce({
+        ok: true,
+        json: async () => ({ requestId: 'request1', status: 'failed', message: 'Not in voice' }),
+      })
+
+      const { result } = renderHook(() => useSoundActions(props))
+
+      await act(async () => {
+        await result.current.playSoundWithBot('sound1')
+      })
+      await act(async () => {
+        await vi.advanceTimersByTimeAsync(3000)
+      })
+
+      expect(fetchWithAuthMock).toHaveBeenCalledWith('/bot/requests/request1', undefined)
+      expect(setCurrentlyPlayingSoundId).toHaveBeenLastCalledWith(null)
+      expect(toast.error).toHaveBeenCalledWith('Failed to play sound: Not in voice', expect.anything())
+      vi.useRealTimers()
+    })
+
     it('shows warning toast when no user is selected', async () => {
       const useSoundActions = await useSoundActionsHook()
       const props = { ...defaultProps(), selectedUserId: null }
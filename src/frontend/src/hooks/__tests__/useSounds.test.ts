@@ -40,7 +40,8 @@ class MockEventSource {
 
 vi.mock('../../config', () => ({
   API_ENDPOINTS: {
-    SOUNDS_STREAM: '/api/soundFiles/stream',
+    EVENTS_STREAM: '/api/events',
+    SOUNDS_SNAPSHOT: '/api/soundFiles/snapshot',
   },
 }))
 
@@ -63,12 +64,12 @@ describe('useSounds', () => {
     return useSounds
   }
 
-  it('opens EventSource connection to SOUNDS_STREAM on mount', async () => {
+  it('opens EventSource connection to EVENTS_STREAM on mount', async () => {
     const useSounds = await useSoundsHook()
     renderHook(() => useSounds())
 
     await waitFor(() => expect(MockEventSource.instance).not.toBeNull())
-    expect(MockEventSource.instance!.url).toBe('/api/soundFiles/stream')
+    expect(MockEventSource.instance!.url).toBe('/api/events')
   })
 
   it('initially shows loading=true and connectionStatus=connecting', async () => {
@@ -218,4 +219,138 @@ describe('useSounds', () => {
     expect(errorSpy).toHaveBeenCalled()
     expect(result.current.sounds).toHaveLength(0) // unchanged
   })
+
+  describe('catalog events', () => {
+    const beep = {
+      soundFileId: 'beep',
+      soundFileLocation: '/sounds/beep.mp3',
+      category: 'sfx',
+      timesPlayed: 5,
+      dateAdded: '2024-01-01',
+      favorite: false,
+      displayName: 'Beep Sound',
+      volumeOffsetPercentage: null,
+    }
+
+    async function connectedHook(version = 4) {
+      const useSounds = await useSoundsHook()
+      const hook = renderHook(() => useSounds())
+      await waitFor(() => expect(MockEventSource.instance).not.toBeNull())
+      act(() => {
+        MockEventSource.instance!.emit('sounds', JSON.stringify({ version, content: [beep] }))
+      })
+      return hook
+    }
+
+    it('applies soundUpdated changes on top of the current version', async () => {
+      const { result } = await connectedHook()
+
+      act(() => {
+        MockEventSource.instance!.emit('soundUpdated', JSON.stringify({
+          version: 5, baseVersion: 4, soundFileId: 'beep', changes: { timesPlayed: 6, favorite: true },
+        }))
+      })
+
+      expect(result.current.sounds[0].timesPlayed).toBe(6)
+      expect(result.current.sounds[0].name).toBe('Beep Sound') // untouched fields are kept
+      expect(result.current.favorites.has('beep')).toBe(true)
+    })
+
+    it('applies soundAdded and soundRemoved', async () => {
+      const { result } = await connectedHook()
+
+      act(() => {
+        MockEventSource.instance!.emit('soundAdded', JSON.stringify({
+          version: 5, baseVersion: 4, soundFileId: 'boop',
+          sound: { ...beep, soundFileId: 'boop', displayName: null },
+        }))
+        MockEventSource.instance!.emit('soundRemoved', JSON.stringify({
+          version: 6, baseVersion: 5, soundFileId: 'beep',
+        }))
+      })
+
+      expect(result.current.sounds.map(sound => sound.id)).toEqual(['boop'])
+    })
+
+    it('applies each change of a soundsChanged batch in order', async () => {
+      const { result } = await connectedHook()
+      const fetchSpy = vi.spyOn(globalThis, 'fetch')
+
+      act(() => {
+        MockEventSource.instance!.emit('soundsChanged', JSON.stringify({
+          version: 6, baseVersion: 4, changes: [
+            { event: 'soundUpdated', version: 5, baseVersion: 4, soundFileId: 'beep', changes: { timesPlayed: 6 } },
+            { event: 'soundAdded', version: 6, baseVersion: 5, soundFileId: 'boop',
+              sound: { ...beep, soundFileId: 'boop', displayName: null } },
+          ],
+        }))
+      })
+
+      expect(result.current.sounds.map(sound => sound.id)).toEqual(['beep', 'boop'])
+      expect(result.current.sounds[0].timesPlayed).toBe(6)
+      expect(fetchSpy).not.toHaveBeenCalled()
+    })
+
+    it('ignores events it already has', async () => {
+      const { result } = await connectedHook()
+      const fetchSpy = vi.spyOn(globalThis, 'fetch')
+
+      act(() => {
+        MockEventSource.instance!.emit('soundUpdated', JSON.stringify({
+          version: 4, baseVersion: 3, soundFileId: 'beep', changes: { timesPlayed: 99 },
+        }))
+      })
+
+      expect(result.current.sounds[0].timesPlayed).toBe(5)
+      expect(fetchSpy).not.toHaveBeenCalled()
+    })
+
+    it('fetches a snapshot when it misses an event', async () => {
+      const { result } = await connectedHook()
+      const fetchSpy = vi.spyOn(globalThis, 'fetch').mockResolvedValue({
+        ok: true,
+        json: async () => ({ version: 7, content: [{ ...beep, timesPlayed: 8 }] }),
+      } as Response)
+
+      act(() => {
+        MockEventSource.instance!.emit('soundUpdated', JSON.stringify({
+          version: 7, baseVersion: 6, soundFileId: 'beep', changes: { timesPlayed: 8 },
+        }))
+      })
+
+      await waitFor(() => expect(result.current.sounds[0].timesPlayed).toBe(8))
+      expect(fetchSpy).toHaveBeenCalledWith('/api/soundFiles/snapshot', expect.anything())
+    })
+
+    it('reads a columnar snapshot', async () => {
+      const { result } = await connectedHook()
+      const fetchSpy = vi.spyOn(globalThis, 'fetch').mockResolvedValue({
+        ok: true,
+        json: async () => ({
+          version: 7,
+          size: 1,
+          soundFileId: ['beep'],
+          soundFileLocation: [beep.soundFileLocation],
+          category: [beep.category],
+          timesPlayed: [8],
+          dateAdded: [Date.UTC(2024, 0, 2)],
+          favorite: [false],
+          displayName: [null],
+          volumeOffsetPercentage: [null],
+        }),
+      } as Response)
+
+      act(() => {
+        MockEventSource.instance!.emit('soundUpdated', JSON.stringify({
+          version: 7, baseVersion: 6, soundFileId: 'beep', changes: { timesPlayed: 8 },
+        }))
+      })
+
+      await waitFor(() => expect(result.current.sounds[0].timesPlayed).toBe(8))
+      expect(result.current.sounds[0].dateAdded).toBe('2024-01-02T00:00:00.000Z')
+      expect(fetchSpy).toHaveBeenCalledWith('/api/soundFiles/snapshot', expect.objectContaining({
+        headers: { Accept: 'application/vnd.soundboard.columnar+json' },
+      }))
+    })
+  })
 })
@@ -8,6 +8,11 @@ vi.mock('../../utils/api', () => ({
   getAuthHeadersWithCsrf: () => getAuthHeadersWithCsrfMock()
 }))
 
+// The control socket is closed, so volume changes go over REST
+vi.mock('../../utils/controlChannel', () => ({
+  sendControlCommand: () => null
+}))
+
 // Mock config
 vi.mock('../../config', () => ({
   API_ENDPOINTS: {
@@ -48,7 +48,7 @@ vi.mock('../../utils/api', () => ({
 vi.mock('../../config', () => ({
   API_ENDPOINTS: {
     VOLUME: '/api/volume',
-    VOLUME_STREAM: '/api/volume/stream',
+    EVENTS_STREAM: '/api/events',
   },
 }))
 
@@ -153,7 +153,7 @@ describe('useVolumeSSE', () => {
     vi.advanceTimersByTime(150)
 
     expect(MockEventSource.instance).not.toBeNull()
-    expect(MockEventSource.instance!.url).toBe('/api/volume/stream/user123')
+    expect(MockEventSource.instance!.url).toBe('/api/events')
   })
 
   it('handles volume SSE event (named "volume")', async () => {
@@ -188,6 +188,24 @@ describe('useVolumeSSE', () => {
     expect(setVolume).toHaveBeenCalledWith(83) // Math.round(82.7)
   })
 
+  it('handles globalVolume SSE event of the selected guild', async () => {
+    const useVolumeSSE = await useVolumeSSEHook()
+    const setVolume = vi.fn()
+
+    ;(global.fetch as any).mockResolvedValueOnce({ ok: false })
+
+    renderHook(() => useVolumeSSE({ selectedUserId: 'user123', selectedUserGuildId: 'guild1', setVolume }))
+
+    vi.advanceTimersByTime(150)
+    setVolume.mockClear()
+
+    MockEventSource.instance!.emit('globalVolume', '{"guildId":"guild2","volume":20.0}')
+    expect(setVolume).not.toHaveBeenCalled()
+
+    MockEventSource.instance!.emit('globalVolume', '{"guildId":"guild1","volume":64.6}')
+    expect(setVolume).toHaveBeenCalledWith(65)
+  })
+
   it('handles onmessage event', async () => {
     const useVolumeSSE = await useVolumeSSEHook()
     const setVolume = vi.fn()
@@ -1,5 +1,5 @@
 import { useState, useEffect, useRef } from 'react';
-import { API_ENDPOINTS } from '../config';
+import { subscribeToEvents } from '../utils/eventStream';
 
 interface PlaybackState {
   soundFileId: string;
@@ -21,7 +21,7 @@ export function usePlaybackTracking({ selectedUserGuildId }: UsePlaybackTracking
   }, [selectedUserGuildId]);
 
   useEffect(() => {
-    let playbackEventSource: EventSource | null = null;
+    let unsubscribe: (() => void) | null = null;
     let isMounted = true;
 
     const handleTrackStart = (data: any) => {
@@ -53,30 +53,25 @@ export function usePlaybackTracking({ selectedUserGuildId }: UsePlaybackTracking
     };
 
     try {
-      playbackEventSource = new EventSource(API_ENDPOINTS.PLAYBACK_STREAM);
-
-      playbackEventSource.onerror = () => {
-        // Let EventSource auto-reconnect silently
-      };
-
-      playbackEventSource.addEventListener('trackStart', (event) => {
-        if (!isMounted) return;
-        try {
-          const data = JSON.parse(event.data);
-          handleTrackStart(data);
-        } catch {
-          // Ignore parse errors
-        }
-      });
-
-      playbackEventSource.addEventListener('trackEnd', (event) => {
-        if (!isMounted) return;
-        try {
-          const data = JSON.parse(event.data);
-          handleTrackEnd(data);
-        } catch {
-          // Ignore parse errors
-        }
+      unsubscribe = subscribeToEvents({
+        trackStart: (event) => {
+          if (!isMounted) return;
+          try {
+            const data = JSON.parse(event.data);
+            handleTrackStart(data);
+          } catch {
+            // Ignore parse errors
+          }
+        },
+        trackEnd: (event) => {
+          if (!isMounted) return;
+          try {
+            const data = JSON.parse(event.data);
+            handleTrackEnd(data);
+          } catch {
+            // Ignore parse errors
+          }
+        },
       });
     } catch {
       // SSE connection failed, will retry on next mount
@@ -84,9 +79,7 @@ export function usePlaybackTracking({ selectedUserGuildId }: UsePlaybackTracking
 
     return () => {
       isMounted = false;
-      if (playbackEventSource) {
-        playbackEventSource.close();
-      }
+      unsubscribe?.();
     };
   }, []);
 
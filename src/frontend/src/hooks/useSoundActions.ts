@@ -1,7 +1,9 @@
-import { useRef } from 'react';
+import { useEffect, useRef } from 'react';
 import type { Sound } from './useSounds';
 import { API_ENDPOINTS } from '../config';
 import { getAuthHeadersWithCsrf, fetchWithAuth } from '../utils/api';
+import { sendControlCommand } from '../utils/controlChannel';
+import { subscribeToEvents } from '../utils/eventStream';
 import { toast } from 'sonner@2.0.3';
 
 interface UseSoundActionsProps {
@@ -13,6 +15,28 @@ interface UseSoundActionsProps {
   setFavorites: React.Dispatch<React.SetStateAction<Set<string>>>;
 }
 
+// Progress from before the bot finds the user's guild (a failure to find the user) isn't sent on the event stream,
+// so a request that hasn't settled is looked up this often
+const PLAY_REQUEST_CHECK_MS = 3000;
+
+interface PlayRequestUpdate {
+  requestId?: string;
+  status?: string;
+  message?: string | null;
+}
+
+// The play endpoint answers 202 with the id that its playRequest progress events carry
+async function readRequestId(response: { status: number; requestId?: string; json?: () => Promise<any> }) {
+  if (response.requestId) return response.requestId;
+  if (response.status !== 202 || !response.json) return undefined;
+  try {
+    const body = await response.json();
+    return typeof body?.requestId === 'string' ? body.requestId : undefined;
+  } catch {
+    return undefined;
+  }
+}
+
 export function useSoundActions({
   selectedUserId,
   isPlaybackEnabled,
@@ -22,6 +46,55 @@ export function useSoundActions({
   setFavorites
 }: UseSoundActionsProps) {
   const toggleFavoriteInProgressRef = useRef<Set<string>>(new Set());
+  // Play requests of this browser that haven't started playing or failed yet
+  const pendingPlayRequestsRef = useRef<Set<string>>(new Set());
+  const setCurrentlyPlayingSoundIdRef = useRef(setCurrentlyPlayingSoundId);
+  setCurrentlyPlayingSoundIdRef.current = setCurrentlyPlayingSoundId;
+
+  // Returns whether the update settled the request
+  const settlePlayRequest = (update: PlayRequestUpdate) => {
+    if (!update.requestId || !pendingPlayRequestsRef.current.has(update.requestId)) return true;
+    if (update.status === 'playing') {
+      pendingPlayRequestsRef.current.delete(update.requestId);
+    } else if (update.status === 'failed') {
+      pendingPlayRequestsRef.current.delete(update.requestId);
+      setCurrentlyPlayingSoundIdRef.current(null);
+      toast.error(`Failed to play sound: ${update.message || 'unknown error'}`, { duration: 3000 });
+    } else {
+      return false;
+    }
+    return true;
+  };
+
+  const checkPlayRequest = async (requestId: string) => {
+    if (!pendingPlayRequestsRef.current.has(requestId)) return;
+    try {
+      const response = await fetchWithAuth(`${API_ENDPOINTS.PLAY_REQUESTS}/${requestId}`);
+      if (!response.ok) {
+        // Forgotten by the server or not ours to see; nothing more will be learned about it
+        pendingPlayRequestsRef.current.delete(requestId);
+        return;
+      }
+      if (!settlePlayRequest(await response.json())) {
+        setTimeout(() => checkPlayRequest(requestId), PLAY_REQUEST_CHECK_MS);
+      }
+    } catch {
+      pendingPlayRequestsRef.current.delete(requestId);
+    }
+  };
+
+  useEffect(() => {
+    return subscribeToEvents({
+      playRequest: (event) => {
+        try {
+          settlePlayRequest(JSON.parse(event.data));
+        } catch {
+          // Ignore parse errors
+        }
+      },
+    });
+  // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, []);
 
   const toggleFavorite = async (soundId: string) => {
     const isFavorite = favorites.has(soundId);
@@ -87,7 +160,7 @@ export function useSoundActions({
     }
 
     try {
-      const response = await fetch(
+      const response = await (sendControlCommand({ type: 'play', sound: soundId, username: selectedUserId }) ?? fetch(
         `${API_ENDPOINTS.PLAY_FILE}?soundFileId=${soundId}&username=${selectedUserId}`,
         {
           method: 'POST',
@@ -95,12 +168,17 @@ export function useSoundActions({
           credentials: 'include',
           headers: getAuthHeadersWithCsrf()
         }
-      );
+      ));
 
       if (!response.ok) {
         throw new Error(`Failed to play sound through bot: ${response.status}`);
       }
 
+      const requestId = await readRequestId(response);
+      if (requestId) {
+        pendingPlayRequestsRef.current.add(requestId);
+        setTimeout(() => checkPlayRequest(requestId), PLAY_REQUEST_CHECK_MS);
+      }
       setCurrentlyPlayingSoundId(soundId);
     } catch (error) {
       if (error instanceof TypeError || (error instanceof Error && error.message.includes('Failed to play'))) {
@@ -133,6 +211,12 @@ export function useSoundActions({
       if (!response.ok) {
         throw new Error(`Failed to play random sound: ${response.status}`);
       }
+
+      const requestId = await readRequestId(response);
+      if (requestId) {
+        pendingPlayRequestsRef.current.add(requestId);
+        setTimeout(() => checkPlayRequest(requestId), PLAY_REQUEST_CHECK_MS);
+      }
     } catch (error) {
       if (error instanceof TypeError) {
         toast.error('Failed to play random sound. Please make sure the backend is running', { duration: 3000 });
@@ -149,7 +233,8 @@ export function useSoundActions({
     }
 
     try {
-      const response = await fetch(
+      const command = selectedUserId ? sendControlCommand({ type: 'stop', username: selectedUserId }) : null;
+      const response = await (command ?? fetch(
         `${API_ENDPOINTS.STOP}?username=${selectedUserId}`,
         {
           method: 'POST',
@@ -157,7 +242,7 @@ export function useSoundActions({
           credentials: 'include',
           headers: getAuthHeadersWithCsrf()
         }
-      );
+      ));
 
       if (!response.ok) {
         throw new Error(`Failed to stop sound: ${response.status}`);
@@ -1,5 +1,6 @@
 import { useState, useEffect } from 'react';
 import { API_ENDPOINTS } from '../config';
+import { subscribeToEvents, EventStreamHandlers } from '../utils/eventStream';
 
 export interface Sound {
   id: string;
@@ -34,8 +35,45 @@ interface ApiResponse {
   };
 }
 
-function transformApiSounds(apiSounds: ApiSoundFile[]): Sound[] {
-  return apiSounds.map(sound => ({
+// A single catalog change. Applies on top of baseVersion and moves the catalog to version.
+interface CatalogEvent {
+  version: number;
+  baseVersion: number;
+  soundFileId: string;
+  sound?: ApiSoundFile;
+  changes?: Partial<ApiSoundFile>;
+  event?: CatalogEventType;
+}
+
+type CatalogEventType = 'soundAdded' | 'soundUpdated' | 'soundRemoved';
+
+// Consecutive changes sent together when several happen at once; each names its own event type
+interface CatalogBatch {
+  version: number;
+  baseVersion: number;
+  changes: CatalogEvent[];
+}
+
+// Snapshot layout with one array per field instead of one object per sound; much smaller to download
+interface ColumnarCatalog {
+  version: number;
+  size: number;
+  soundFileId: string[];
+  soundFileLocation: string[];
+  category: string[];
+  timesPlayed: number[];
+  dateAdded: (number | null)[];
+  favorite: boolean[];
+  displayName: (string | null)[];
+  volumeOffsetPercentage: (number | null)[];
+}
+
+const COLUMNAR_CATALOG_TYPE = 'application/vnd.soundboard.columnar+json';
+
+const CATALOG_EVENT_TYPES: CatalogEventType[] = ['soundAdded', 'soundUpdated', 'soundRemoved'];
+
+function transformApiSound(sound: ApiSoundFile): Sound {
+  return {
     id: sound.soundFileId,
     name: sound.displayName || sound.soundFileId.replace(/_/g, ' '),
     category: sound.category,
@@ -45,7 +83,34 @@ function transformApiSounds(apiSounds: ApiSoundFile[]): Sound[] {
     timesPlayed: sound.timesPlayed,
     dateAdded: sound.dateAdded,
     volumeOffset: sound.volumeOffsetPercentage
-  }));
+  };
+}
+
+function transformApiSounds(apiSounds: ApiSoundFile[]): Sound[] {
+  return apiSounds.map(transformApiSound);
+}
+
+// Turns a columnar catalog back into a list of sounds; anything else (e.g. from an older server) is returned as is
+function fromColumnar(data: any): any {
+  if (!data || Array.isArray(data) || !Array.isArray(data.soundFileId)) {
+    return data;
+  }
+  const columns = data as ColumnarCatalog;
+  const content: ApiSoundFile[] = [];
+  for (let i = 0; i < columns.size; i++) {
+    const dateAdded = columns.dateAdded[i];
+    content.push({
+      soundFileId: columns.soundFileId[i],
+      soundFileLocation: columns.soundFileLocation[i],
+      category: columns.category[i],
+      timesPlayed: columns.timesPlayed[i],
+      dateAdded: dateAdded === null ? (null as any) : new Date(dateAdded).toISOString(),
+      favorite: columns.favorite[i],
+      displayName: columns.displayName[i],
+      volumeOffsetPercentage: columns.volumeOffsetPercentage[i],
+    });
+  }
+  return { version: columns.version, content };
 }
 
 export function useSounds() {
@@ -55,11 +120,20 @@ export function useSounds() {
   const [connectionStatus, setConnectionStatus] = useState<'connecting' | 'connected' | 'error'>('connecting');
 
   useEffect(() => {
-    let eventSource: EventSource | null = null;
+    let unsubscribe: (() => void) | null = null;
     let isMounted = true;
+    // Catalog version the current sounds reflect; null when the server didn't send one
+    let version: number | null = null;
+    // Latest server copy of each sound, so partial updates can be merged
+    const apiSoundsById = new Map<string, ApiSoundFile>();
+    // Changes that arrive while a snapshot is being fetched
+    let pendingEvents: Array<[CatalogEventType, CatalogEvent]> | null = null;
 
     const handleSoundsUpdate = (data: any) => {
-      const apiSounds = Array.isArray(data) ? data : (data.content || []);
+      const apiSounds: ApiSoundFile[] = Array.isArray(data) ? data : (data.content || []);
+      version = typeof data?.version === 'number' ? data.version : null;
+      apiSoundsById.clear();
+      apiSounds.forEach(sound => apiSoundsById.set(sound.soundFileId, sound));
       const transformedSounds = transformApiSounds(apiSounds);
       setSounds(transformedSounds);
       
@@ -76,19 +150,96 @@ export function useSounds() {
       setConnectionStatus('connected');
     };
 
-    try {
-      eventSource = new EventSource(API_ENDPOINTS.SOUNDS_STREAM);
+    const updateFavorite = (id: string, favorite: boolean) => {
+      setFavorites(prev => {
+        if (prev.has(id) === favorite) return prev;
+        const next = new Set(prev);
+        if (favorite) {
+          next.add(id);
+        } else {
+          next.delete(id);
+        }
+        return next;
+      });
+    };
+
+    const applyCatalogEvent = (type: CatalogEventType, event: CatalogEvent) => {
+      const id = event.soundFileId;
+      if (type === 'soundRemoved') {
+        apiSoundsById.delete(id);
+        setSounds(prev => prev.filter(sound => sound.id !== id));
+        updateFavorite(id, false);
+        return;
+      }
+
+      const previous = apiSoundsById.get(id);
+      const apiSound = type === 'soundAdded'
+        ? event.sound
+        : previous && { ...previous, ...event.changes };
+      if (!apiSound) return;
+
+      // The id itself can change case, so the old entry is always dropped first
+      apiSoundsById.delete(id);
+      apiSoundsById.set(apiSound.soundFileId, apiSound);
+      const sound = transformApiSound(apiSound);
+      setSounds(prev => previous
+        ? prev.map(existing => (existing.id === id ? sound : existing))
+        : [...prev.filter(existing => existing.id !== id), sound]);
+      if (previous && previous.soundFileId !== apiSound.soundFileId) {
+        updateFavorite(previous.soundFileId, false);
+      }
+      updateFavorite(apiSound.soundFileId, Boolean(apiSound.favorite));
+    };
 
-      eventSource.onopen = () => {
+    // Fetches the whole catalog after a missed change, then replays anything that arrived meanwhile
+    const resync = async () => {
+      if (pendingEvents) return;
+      pendingEvents = [];
+      try {
+        const response = await fetch(API_ENDPOINTS.SOUNDS_SNAPSHOT, {
+          credentials: 'include',
+          headers: { Accept: COLUMNAR_CATALOG_TYPE },
+        });
+        if (!response.ok) {
+          throw new Error(`Snapshot request failed: ${response.status}`);
+        }
+        const snapshot = fromColumnar(await response.json());
         if (!isMounted) return;
-        setConnectionStatus('connected');
-      };
+        handleSoundsUpdate(snapshot);
+      } catch (error) {
+        console.error('Error fetching sound snapshot:', error);
+      } finally {
+        const replay = pendingEvents || [];
+        pendingEvents = null;
+        if (isMounted) {
+          replay.forEach(([type, event]) => handleCatalogEvent(type, event));
+        }
+      }
+    };
 
-      eventSource.onerror = () => {
-        // Let EventSource auto-reconnect silently
-      };
+    const handleCatalogEvent = (type: CatalogEventType, event: CatalogEvent) => {
+      if (pendingEvents) {
+        pendingEvents.push([type, event]);
+        return;
+      }
+      if (version !== null && event.version <= version) {
+        // Already part of what we have
+        return;
+      }
+      if (version === null || event.baseVersion !== version) {
+        void resync();
+        return;
+      }
+      applyCatalogEvent(type, event);
+      version = event.version;
+    };
 
-      eventSource.addEventListener('sounds', (event) => {
+    const handlers: EventStreamHandlers = {
+      open: () => {
+        if (!isMounted) return;
+        setConnectionStatus('connected');
+      },
+      sounds: (event) => {
         if (!isMounted) return;
         try {
           const data = JSON.parse(event.data);
@@ -96,7 +247,32 @@ export function useSounds() {
         } catch (error) {
           console.error('Error parsing SSE data:', error);
         }
-      });
+      },
+    };
+    CATALOG_EVENT_TYPES.forEach(type => {
+      handlers[type] = (event) => {
+        if (!isMounted) return;
+        try {
+          handleCatalogEvent(type, JSON.parse(event.data));
+        } catch (error) {
+          console.error('Error parsing SSE data:', error);
+        }
+      };
+    });
+    handlers.soundsChanged = (event) => {
+      if (!isMounted) return;
+      try {
+        const batch: CatalogBatch = JSON.parse(event.data);
+        batch.changes.forEach(change => {
+          if (change.event) handleCatalogEvent(change.event, change);
+        });
+      } catch (error) {
+        console.error('Error parsing SSE data:', error);
+      }
+    };
+
+    try {
+      unsubscribe = subscribeToEvents(handlers);
     } catch (error) {
       console.error('Failed to create SSE connection:', error);
       setConnectionStatus('error');
@@ -110,9 +286,7 @@ export function useSounds() {
 
     return () => {
       isMounted = false;
-      if (eventSource) {
-        eventSource.close();
-      }
+      unsubscribe?.();
     };
   }, []);
 
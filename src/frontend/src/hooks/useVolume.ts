@@ -1,6 +1,7 @@
 import { useState, useEffect } from 'react';
 import { API_ENDPOINTS } from '../config';
 import { getAuthHeadersWithCsrf } from '../utils/api';
+import { sendControlCommand } from '../utils/controlChannel';
 
 export function useVolume() {
   const [volume, setVolume] = useState<number>(100);
@@ -25,7 +26,8 @@ export function useVolume() {
     setVolume(newVolume);
 
     try {
-      const response = await fetch(
+      const command = sendControlCommand({ type: 'volume', username: selectedUserId, volume: newVolume });
+      const response = await (command ?? fetch(
         `${API_ENDPOINTS.VOLUME}?username=${selectedUserId}&volume=${newVolume}`,
         {
           method: 'POST',
@@ -36,7 +38,7 @@ export function useVolume() {
             ...getAuthHeadersWithCsrf()
           }
         }
-      );
+      ));
 
       if (!response.ok) {
         // Volume update failed silently
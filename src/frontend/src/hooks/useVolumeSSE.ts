@@ -1,19 +1,33 @@
-import { useEffect } from 'react';
+import { useEffect, useRef } from 'react';
 import { API_ENDPOINTS } from '../config';
 import { getAuthHeaders } from '../utils/api';
+import { subscribeToEvents } from '../utils/eventStream';
 
 interface UseVolumeSSEProps {
   selectedUserId: string | null;
+  selectedUserGuildId?: string | null;
   setVolume: (volume: number) => void;
 }
 
-export function useVolumeSSE({ selectedUserId, setVolume }: UseVolumeSSEProps) {
+// Volume of one guild as sent by the server
+interface GuildVolume {
+  guildId: string;
+  volume: number;
+}
+
+export function useVolumeSSE({ selectedUserId, selectedUserGuildId = null, setVolume }: UseVolumeSSEProps) {
+  const selectedUserGuildIdRef = useRef<string | null>(selectedUserGuildId);
+
+  useEffect(() => {
+    selectedUserGuildIdRef.current = selectedUserGuildId;
+  }, [selectedUserGuildId]);
+
   useEffect(() => {
     if (!selectedUserId) {
       return;
     }
     
-    let volumeEventSource: EventSource | null = null;
+    let unsubscribe: (() => void) | null = null;
     let isMounted = true;
 
     const handleVolumeUpdate = (volumeData: string) => {
@@ -44,44 +58,39 @@ export function useVolumeSSE({ selectedUserId, setVolume }: UseVolumeSSEProps) {
 
     fetchInitialVolume();
 
-    // Connect to SSE
+    // Listen on the shared event stream; the initial volume comes from the fetch above
     const sseTimeout = setTimeout(() => {
       if (!isMounted) return;
 
       try {
-        const sseUrl = `${API_ENDPOINTS.VOLUME_STREAM}/${selectedUserId}`;
-        volumeEventSource = new EventSource(sseUrl);
-
-        volumeEventSource.onopen = () => {
-          // Connected
-        };
-
-        volumeEventSource.onmessage = (event) => {
-          if (!isMounted) return;
-          handleVolumeUpdate(event.data);
-        };
-
-        volumeEventSource.addEventListener('volume', (event) => {
-          if (!isMounted) return;
-          handleVolumeUpdate(event.data);
-        });
-
-        volumeEventSource.addEventListener('globalVolume', (event) => {
-          if (!isMounted) return;
-          try {
-            const volumeValue = parseFloat(event.data);
-            const volumePercentage = Math.round(volumeValue);
-            if (!isNaN(volumePercentage) && volumePercentage >= 0 && volumePercentage <= 100) {
-              setVolume(volumePercentage);
+        unsubscribe = subscribeToEvents({
+          message: (event) => {
+            if (!isMounted) return;
+            handleVolumeUpdate(event.data);
+          },
+          volume: (event) => {
+            if (!isMounted) return;
+            handleVolumeUpdate(event.data);
+          },
+          globalVolume: (event) => {
+            if (!isMounted) return;
+            try {
+              const data: GuildVolume | number = JSON.parse(event.data);
+              // Each guild has its own volume; only follow the selected user's guild
+              if (typeof data === 'object' && selectedUserGuildIdRef.current
+                  && data.guildId !== selectedUserGuildIdRef.current) {
+                return;
+              }
+              const volumeValue = typeof data === 'number' ? data : data.volume;
+              const volumePercentage = Math.round(volumeValue);
+              if (!isNaN(volumePercentage) && volumePercentage >= 0 && volumePercentage <= 100) {
+                setVolume(volumePercentage);
+              }
+            } catch {
+              // Ignore parse errors
             }
-          } catch {
-            // Ignore parse errors
-          }
+          },
         });
-
-        volumeEventSource.onerror = () => {
-          // Let EventSource auto-reconnect silently
-        };
       } catch {
         // SSE connection failed
       }
@@ -90,9 +99,7 @@ export function useVolumeSSE({ selectedUserId, setVolume }: UseVolumeSSEProps) {
     return () => {
       clearTimeout(sseTimeout);
       isMounted = false;
-      if (volumeEventSource) {
-        volumeEventSource.close();
-      }
+      unsubscribe?.();
     };
   }, [selectedUserId, setVolume]);
 }
\ No newline at end of file
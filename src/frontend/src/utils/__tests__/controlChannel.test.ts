@@ -0,0 +1,111 @@
+import { describe, it, expect, beforeEach, vi } from 'vitest'
+
+class MockWebSocket {
+  static OPEN = 1
+  static instances: MockWebSocket[] = []
+  url: string
+  readyState = 0
+  sent: any[] = []
+  closed = false
+  onopen: (() => void) | null = null
+  onmessage: ((ev: { data: string }) => void) | null = null
+  onclose: (() => void) | null = null
+
+  constructor(url: string) {
+    this.url = url
+    MockWebSocket.instances.push(this)
+  }
+
+  send(data: string) {
+    this.sent.push(JSON.parse(data))
+  }
+
+  close() {
+    this.closed = true
+    this.onclose?.()
+  }
+
+  open() {
+    this.readyState = MockWebSocket.OPEN
+    this.onopen?.()
+  }
+
+  reply(message: object) {
+    this.onmessage?.({ data: JSON.stringify(message) })
+  }
+}
+
+const loadAuthMock = vi.fn()
+vi.mock('../auth', () => ({
+  loadAuth: () => loadAuthMock(),
+}))
+
+vi.mock('../api', () => ({
+  getCsrfToken: () => 'csrf-token',
+}))
+
+vi.mock('../../config', () => ({
+  API_ENDPOINTS: {
+    CONTROL_SOCKET: 'http://localhost:8080/ws/control',
+  },
+}))
+
+async function openChannel() {
+  const { sendControlCommand } = await import('../controlChannel')
+  expect(sendControlCommand({ type: 'stop', username: 'bob' })).toBeNull()
+  const ws = MockWebSocket.instances[0]
+  ws.open()
+  ws.reply({ type: 'ack', id: ws.sent[0].id })
+  await Promise.resolve()
+  return { sendControlCommand, ws }
+}
+
+describe('sendControlCommand', () => {
+  beforeEach(() => {
+    vi.resetModules()
+    MockWebSocket.instances = []
+    ;(globalThis as any).WebSocket = MockWebSocket
+    loadAuthMock.mockReturnValue({ accessToken: 'jwt', user: null })
+  })
+
+  it('says hello with the token and CSRF token, using REST until the server accepts it', async () => {
+    const { ws } = await openChannel()
+
+    expect(ws.url).toBe('ws://localhost:8080/ws/control')
+    expect(ws.sent[0]).toMatchObject({ type: 'hello', token: 'jwt', csrf: 'csrf-token' })
+  })
+
+  it('sends commands over the open socket and resolves with the reply', async () => {
+    const { sendControlCommand, ws } = await openChannel()
+
+    const played = sendControlCommand({ type: 'play', sound: 'airhorn', username: 'bob' })
+    const denied = sendControlCommand({ type: 'stop', username: 'bob' })
+    expect(ws.sent[1]).toMatchObject({ type: 'play', sound: 'airhorn', username: 'bob' })
+    ws.reply({ type: 'ack', id: ws.sent[1].id, requestId: 'request1' })
+    ws.reply({ type: 'error', id: ws.sent[2].id, status: 403 })
+
+    await expect(played).resolves.toEqual({ ok: true, status: 200, requestId: 'request1' })
+    await expect(denied).resolves.toEqual({ ok: false, status: 403 })
+  })
+
+  it('fails pending commands when the socket closes', async () => {
+    const { sendControlCommand, ws } = await openChannel()
+
+    const pending = sendControlCommand({ type: 'volume', username: 'bob', volume: 50 })
+    ws.close()
+
+    await expect(pending).resolves.toEqual({ ok: false, status: 503 })
+    expect(sendControlCommand({ type: 'stop', username: 'bob' })).toBeNull()
+    expect(MockWebSocket.instances).toHaveLength(2)
+  })
+
+  it('reconnects when the user signs in or out', async () => {
+    const { sendControlCommand, ws } = await openChannel()
+
+    loadAuthMock.mockReturnValue({ accessToken: null, user: null })
+
+    expect(sendControlCommand({ type: 'stop', username: 'bob' })).toBeNull()
+    expect(ws.closed).toBe(true)
+    expect(MockWebSocket.instances).toHaveLength(2)
+  })
+})
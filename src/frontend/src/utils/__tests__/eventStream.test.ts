@@ -0,0 +1,129 @@
+import { describe, it, expect, beforeEach, vi } from 'vitest'
+
+class MockEventSource {
+  static instances: MockEventSource[] = []
+  url: string
+  onopen: ((ev: any) => any) | null = null
+  onerror: ((ev: any) => any) | null = null
+  onmessage: ((ev: any) => any) | null = null
+  private listeners: Record<string, Array<(ev: any) => void>> = {}
+  closed = false
+
+  constructor(url: string) {
+    this.url = url
+    MockEventSource.instances.push(this)
+  }
+
+  addEventListener(type: string, fn: (ev: any) => void) {
+    if (!this.listeners[type]) this.listeners[type] = []
+    this.listeners[type].push(fn)
+  }
+
+  removeEventListener() {}
+
+  emit(type: string, data: string) {
+    if (type === 'message' && this.onmessage) {
+      this.onmessage({ data })
+    }
+    ;(this.listeners[type] || []).forEach(fn => fn({ data }))
+  }
+
+  close() {
+    this.closed = true
+  }
+}
+
+vi.mock('../../config', () => ({
+  API_ENDPOINTS: {
+    EVENTS_STREAM: '/api/events',
+  },
+}))
+
+describe('subscribeToEvents', () => {
+  beforeEach(() => {
+    MockEventSource.instances = []
+    ;(globalThis as any).EventSource = MockEventSource
+  })
+
+  it('shares one connection between subscribers', async () => {
+    const { subscribeToEvents } = await import('../eventStream')
+    const onSounds = vi.fn()
+    const onTrackStart = vi.fn()
+
+    const unsubscribeSounds = subscribeToEvents({ sounds: onSounds })
+    const unsubscribePlayback = subscribeToEvents({ trackStart: onTrackStart })
+
+    expect(MockEventSource.instances).toHaveLength(1)
+    expect(MockEventSource.instances[0].url).toBe('/api/events')
+
+    MockEventSource.instances[0].emit('trackStart', '{}')
+    expect(onTrackStart).toHaveBeenCalledTimes(1)
+    expect(onSounds).not.toHaveBeenCalled()
+
+    unsubscribeSounds()
+    unsubscribePlayback()
+  })
+
+  it('closes the connection when the last subscriber leaves', async () => {
+    const { subscribeToEvents } = await import('../eventStream')
+
+    const first = subscribeToEvents({ sounds: vi.fn() })
+    const second = subscribeToEvents({ discordUsers: vi.fn() })
+    const es = MockEventSource.instances[0]
+
+    first()
+    first()
+    expect(es.closed).toBe(false)
+
+    second()
+    expect(es.closed).toBe(true)
+
+    subscribeToEvents({ sounds: vi.fn() })()
+    expect(MockEventSource.instances).toHaveLength(2)
+  })
+
+  it('replays the latest state event to late subscribers', async () => {
+    const { subscribeToEvents } = await import('../eventStream')
+    const unsubscribeFirst = subscribeToEvents({ discordUsers: vi.fn() })
+    MockEventSource.instances[0].emit('discordUsers', '[1]')
+    MockEventSource.instances[0].emit('discordUsers', '[2]')
+
+    const late = vi.fn()
+    const unsubscribeLate = subscribeToEvents({ discordUsers: late })
+
+    expect(late).toHaveBeenCalledTimes(1)
+    expect(late).toHaveBeenCalledWith({ data: '[2]' })
+
+    unsubscribeFirst()
+    unsubscribeLate()
+  })
+
+  it('reconnects to the chosen guild and keeps its subscribers', async () => {
+    const { subscribeToEvents, setEventStreamGuild } = await import('../eventStream')
+    const onVolume = vi.fn()
+    const unsubscribe = subscribeToEvents({ globalVolume: onVolume })
+
+    setEventStreamGuild('guild 1')
+    setEventStreamGuild('guild 1')
+
+    expect(MockEventSource.instances).toHaveLength(2)
+    expect(MockEventSource.instances[0].closed).toBe(true)
+    expect(MockEventSource.instances[1].url).toBe('/api/events?guilds=guild%201')
+    MockEventSource.instances[1].emit('globalVolume', '{}')
+    expect(onVolume).toHaveBeenCalledTimes(1)
+
+    unsubscribe()
+    setEventStreamGuild(null)
+  })
+
+  it('forwards the open callback', async () => {
+    const { subscribeToEvents } = await import('../eventStream')
+    const onOpen = vi.fn()
+    const unsubscribe = subscribeToEvents({ open: onOpen })
+
+    MockEventSource.instances[0].onopen!({})
+
+    expect(onOpen).toHaveBeenCalledTimes(1)
+    unsubscribe()
+  })
+})
@@ -0,0 +1,126 @@
+import { API_ENDPOINTS } from '../config';
+import { loadAuth } from './auth';
+import { getCsrfToken } from './api';
+
+export type ControlCommand =
+  | { type: 'play'; sound: string; username: string; repeat?: number; channel?: string }
+  | { type: 'stop'; username: string; channel?: string }
+  | { type: 'volume'; username: string; volume: number; channel?: string };
+
+// Shaped like the part of a fetch Response the callers look at, so they can handle both the same way
+export interface ControlResult {
+  ok: boolean;
+  status: number;
+  // Set for play commands: the id the playRequest progress events carry
+  requestId?: string;
+}
+
+interface ControlReply {
+  type: 'ack' | 'error';
+  id?: number;
+  status?: number;
+  requestId?: string;
+}
+
+// A command the server doesn't answer within this time counts as failed
+const REPLY_TIMEOUT_MS = 5000;
+
+let socket: WebSocket | null = null;
+let ready = false;
+// Token the socket said hello with; a login or logout means saying hello again
+let helloToken: string | null = null;
+let nextId = 1;
+const pending = new Map<number, (result: ControlResult) => void>();
+
+function socketUrl(): string {
+  const url = new URL(API_ENDPOINTS.CONTROL_SOCKET, window.location.href);
+  url.protocol = url.protocol === 'https:' ? 'wss:' : 'ws:';
+  return url.toString();
+}
+
+function request(ws: WebSocket, message: Record<string, unknown>): Promise<ControlResult> {
+  const id = nextId++;
+  return new Promise(resolve => {
+    const timer = setTimeout(() => {
+      pending.delete(id);
+      resolve({ ok: false, status: 504 });
+    }, REPLY_TIMEOUT_MS);
+    pending.set(id, result => {
+      clearTimeout(timer);
+      resolve(result);
+    });
+    ws.send(JSON.stringify({ ...message, id }));
+  });
+}
+
+function connect() {
+  if (socket || typeof WebSocket === 'undefined') return;
+
+  const ws = new WebSocket(socketUrl());
+  const token = loadAuth().accessToken;
+  socket = ws;
+
+  ws.onopen = () => {
+    const hello: Record<string, unknown> = { type: 'hello', csrf: getCsrfToken() };
+    if (token) {
+      hello.token = token;
+    }
+    request(ws, hello).then(result => {
+      if (result.ok) {
+        ready = true;
+        helloToken = token;
+      } else {
+        ws.close();
+      }
+    });
+  };
+
+  ws.onmessage = (event) => {
+    let reply: ControlReply;
+    try {
+      reply = JSON.parse(event.data);
+    } catch {
+      return;
+    }
+    if ((reply.type !== 'ack' && reply.type !== 'error') || reply.id === undefined) return;
+    const resolve = pending.get(reply.id);
+    if (resolve) {
+      pending.delete(reply.id);
+      resolve(reply.type === 'ack'
+        ? { ok: true, status: 200, requestId: reply.requestId }
+        : { ok: false, status: reply.status ?? 500 });
+    }
+  };
+
+  ws.onclose = () => {
+    if (socket === ws) {
+      socket = null;
+      ready = false;
+      helloToken = null;
+    }
+    pending.forEach(resolve => resolve({ ok: false, status: 503 }));
+    pending.clear();
+  };
+}
+
+/**
+ * Sends a command on the shared control socket. The socket is opened on first use and commands go over it once the
+ * server accepted its hello; until then, and whenever it's closed, this returns null and the caller should use the REST
+ * endpoint instead.
+ *
+ * @returns The outcome of the command, or null if the socket can't take it right now.
+ */
+export function sendControlCommand(command: ControlCommand): Promise<ControlResult> | null {
+  const token = loadAuth().accessToken;
+  if (socket && ready && token !== helloToken) {
+    // Signed in or out since hello; reconnect as the new user and use REST meanwhile
+    socket.close();
+    socket = null;
+    ready = false;
+  }
+  if (!socket || !ready || socket.readyState !== WebSocket.OPEN) {
+    connect();
+    return null;
+  }
+  return request(socket, command);
+}
@@ -0,0 +1,106 @@
+import { API_ENDPOINTS } from '../config';
+
+export type EventStreamHandler = (event: MessageEvent) => void;
+
+// Handlers keyed by SSE event name. 'open', 'message' and 'error' map to the EventSource callbacks.
+export type EventStreamHandlers = Record<string, EventStreamHandler>;
+
+// Events that carry a full state; the latest one is handed to components that subscribe after it arrived
+const STATE_EVENTS = new Set(['sounds', 'discordUsers']);
+
+const CALLBACK_EVENTS = new Set(['open', 'message', 'error']);
+
+let source: EventSource | null = null;
+let subscriberCount = 0;
+// Guild the stream is limited to; null follows every guild
+let guildId: string | null = null;
+const handlers = new Map<string, Set<EventStreamHandler>>();
+const listenedEvents = new Set<string>();
+const lastStateEvents = new Map<string, MessageEvent>();
+
+function dispatch(type: string, event: MessageEvent) {
+  if (STATE_EVENTS.has(type)) {
+    lastStateEvents.set(type, event);
+  }
+  handlers.get(type)?.forEach(handler => handler(event));
+}
+
+function listen(type: string) {
+  if (!source || CALLBACK_EVENTS.has(type) || listenedEvents.has(type)) return;
+  listenedEvents.add(type);
+  source.addEventListener(type, (event) => dispatch(type, event as MessageEvent));
+}
+
+function open() {
+  source = new EventSource(guildId
+    ? `${API_ENDPOINTS.EVENTS_STREAM}?guilds=${encodeURIComponent(guildId)}`
+    : API_ENDPOINTS.EVENTS_STREAM);
+  source.onopen = (event) => dispatch('open', event as MessageEvent);
+  source.onmessage = (event) => dispatch('message', event);
+  // Let EventSource auto-reconnect; subscribers only get told about it
+  source.onerror = (event) => dispatch('error', event as MessageEvent);
+}
+
+function close() {
+  source?.close();
+  source = null;
+  handlers.clear();
+  listenedEvents.clear();
+  lastStateEvents.clear();
+}
+
+/**
+ * Limits the guild events of the shared stream (volume, playback, users in voice) to one guild, so the server doesn't
+ * send those of every other guild. An open stream reconnects to apply it; the server sends each topic's state again.
+ *
+ * @param guild - Guild to follow, or null for every guild.
+ */
+export function setEventStreamGuild(guild: string | null) {
+  if (guild === guildId) return;
+  guildId = guild;
+  if (!source) return;
+
+  source.close();
+  lastStateEvents.clear();
+  open();
+  const types = [...listenedEvents];
+  listenedEvents.clear();
+  types.forEach(listen);
+}
+
+/**
+ * Subscribes to the shared server event stream. Every component uses the same connection, which is opened for the
+ * first subscriber and closed when the last one unsubscribes.
+ *
+ * @returns A function that removes the handlers again.
+ */
+export function subscribeToEvents(eventHandlers: EventStreamHandlers): () => void {
+  if (!source) {
+    open();
+  }
+  subscriberCount++;
+
+  Object.entries(eventHandlers).forEach(([type, handler]) => {
+    if (!handlers.has(type)) {
+      handlers.set(type, new Set());
+    }
+    handlers.get(type)!.add(handler);
+    listen(type);
+
+    const last = lastStateEvents.get(type);
+    if (last) {
+      handler(last);
+    }
+  });
+
+  let subscribed = true;
+  return () => {
+    if (!subscribed) return;
+    subscribed = false;
+    Object.entries(eventHandlers).forEach(([type, handler]) => handlers.get(type)?.delete(handler));
+    subscriberCount--;
+    if (subscriberCount === 0) {
+      close();
+    }
+  };
+}
@@ -0,0 +1,100 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cost of one catalog sync in each encoding the snapshot endpoint offers: JSON (what browsers used to get), the
+ * columnar JSON layout and CBOR, each with and without gzip. The size of every encoding is printed once per trial, as
+ * bytes per sync are what this is about; the benchmarks give the CPU it costs to get there.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogEncodingBenchmark {
+
+    @Param({"1000"})
+    private int sounds;
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper cborMapper;
+    private CatalogSnapshot snapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Configured like Spring's converters: ISO dates in JSON, timestamps in CBOR
+        jsonMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cborMapper = new ObjectMapper(new CBORFactory()).findAndRegisterModules();
+
+        List<SoundSnapshot> content = new ArrayList<>(sounds);
+        ZonedDateTime added = ZonedDateTime.now();
+        for (int i = 0; i < sounds; i++) {
+            content.add(new SoundSnapshot("sound_" + i, "sounds/memes/sound_" + i + ".mp3", "memes", i, added,
+                    i % 10 == 0, "Sound " + i, 0));
+        }
+        snapshot = new CatalogSnapshot(1, content);
+
+        System.out.printf("%nBytes per catalog sync of %d sounds:%n", sounds);
+        printSize("json", json());
+        printSize("columnar", columnar());
+        printSize("cbor", cbor());
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return jsonMapper.writeValueAsBytes(snapshot);
+    }
+
+    @Benchmark
+    public byte[] columnar() throws IOException {
+        return jsonMapper.writeValueAsBytes(ColumnarCatalogSnapshot.of(snapshot));
+    }
+
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return cborMapper.writeValueAsBytes(snapshot);
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        return gzip(json());
+    }
+
+    @Benchmark
+    public byte[] columnarGzip() throws IOException {
+        return gzip(columnar());
+    }
+
+    @Benchmark
+    public byte[] cborGzip() throws IOException {
+        return gzip(cbor());
+    }
+
+    private static void printSize(String encoding, byte[] bytes) throws IOException {
+        System.out.printf("  %-8s %8d (gzip %d)%n", encoding, bytes.length, gzip(bytes).length);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
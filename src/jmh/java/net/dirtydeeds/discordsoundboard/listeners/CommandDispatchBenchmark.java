@@ -0,0 +1,116 @@
+package net.dirtydeeds.discordsoundboard.listeners;
+
+import net.dirtydeeds.discordsoundboard.commands.Command;
+import net.dirtydeeds.discordsoundboard.commands.CommandEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cost of handling a chat message in {@link CommandListener}, before and after the prefix check moved ahead of
+ * parsing. Building a {@link CommandEvent} needs a JDA event, so the parsing it does is repeated here on the message.
+ * <p>
+ * {@code parseEveryMessage} is what each message used to cost, command or not: compiling the tokenizer, splitting the
+ * message and trimming it for the prefix check. {@code prefixCheck} is what a message that isn't a command costs now.
+ * The tokenize benchmarks compare compiling the tokenizer per command with the precompiled one, and the find
+ * benchmarks searching the registered commands with {@code equalsIgnoreCase} against one lookup by lowercased name.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandDispatchBenchmark {
+
+    private static final String ARGUMENT_REGEX = "([^\"]\\S*|\".+?\")\\s*";
+    private static final Pattern ARGUMENT = Pattern.compile(ARGUMENT_REGEX);
+
+    // The commands SoundPlayer registers
+    private static final List<String> COMMAND_NAMES = List.of("disconnect", "entrance", "help", "info", "leave",
+            "list", "ping", "play", "random", "reload", "remove", "stop", "url", "userdetails", "volume");
+
+    private final String chatMessage = "anyone up for a game later tonight? I'll be on around nine";
+    private final String commandMessage = "?Volume 75";
+    private final String commandName = "Volume";
+
+    private Set<Command> commands;
+    private Map<String, Command> commandsByName;
+
+    @Setup
+    public void setUp() {
+        commands = new HashSet<>();
+        commandsByName = new HashMap<>();
+        for (String name : COMMAND_NAMES) {
+            Command command = new NamedCommand(name);
+            commands.add(command);
+            commandsByName.put(name, command);
+        }
+    }
+
+    @Benchmark
+    public boolean parseEveryMessage() {
+        List<String> arguments = tokenize(chatMessage, Pattern.compile(ARGUMENT_REGEX));
+        return !arguments.isEmpty() && chatMessage.trim().startsWith("?");
+    }
+
+    @Benchmark
+    public boolean prefixCheck() {
+        return CommandListener.isCommand(chatMessage, "?");
+    }
+
+    @Benchmark
+    public List<String> tokenizeCompilingPattern() {
+        return tokenize(commandMessage, Pattern.compile(ARGUMENT_REGEX));
+    }
+
+    @Benchmark
+    public List<String> tokenizePrecompiled() {
+        return tokenize(commandMessage, ARGUMENT);
+    }
+
+    @Benchmark
+    public Optional<Command> findByStream() {
+        return commands.stream()
+                .filter(c -> c.getName().equalsIgnoreCase(commandName))
+                .findFirst();
+    }
+
+    @Benchmark
+    public Optional<Command> findByName() {
+        return Optional.ofNullable(commandsByName.get(commandName.toLowerCase(Locale.ROOT)));
+    }
+
+    // What the CommandEvent constructor does with the message
+    private static List<String> tokenize(String input, Pattern pattern) {
+        LinkedList<String> arguments = new LinkedList<>();
+        Matcher m = pattern.matcher(input.substring(1));
+        while (m.find()) {
+            arguments.add(m.group(1).replace("\"", ""));
+        }
+        return arguments;
+    }
+
+    private static final class NamedCommand extends Command {
+
+        NamedCommand(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected void execute(CommandEvent event) {
+        }
+    }
+}
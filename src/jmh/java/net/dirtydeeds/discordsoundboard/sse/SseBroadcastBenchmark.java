@@ -0,0 +1,110 @@
+package net.dirtydeeds.discordsoundboard.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.dirtydeeds.discordsoundboard.catalog.CatalogSnapshot;
+import net.dirtydeeds.discordsoundboard.catalog.SoundSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of broadcasting the sound catalog to a growing number of SSE clients, serializing per client (what
+ * {@code SseEmitter.event().data(object)} does) versus serializing once into an {@link SseFrame}. Writes happen on
+ * the benchmark thread so the numbers are CPU per broadcast, not queueing.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SseBroadcastBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int clients;
+
+    @Param({"1000"})
+    private int sounds;
+
+    private ObjectMapper objectMapper;
+    private CatalogSnapshot snapshot;
+    private List<SseEmitter> emitters;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        List<SoundSnapshot> content = new ArrayList<>(sounds);
+        ZonedDateTime added = ZonedDateTime.now();
+        for (int i = 0; i < sounds; i++) {
+            content.add(new SoundSnapshot("sound_" + i, "sounds/memes/sound_" + i + ".mp3", "memes", i, added,
+                    i % 10 == 0, "Sound " + i, 0));
+        }
+        snapshot = new CatalogSnapshot(1, content);
+
+        emitters = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            emitters.add(new ConvertingEmitter(objectMapper));
+        }
+    }
+
+    @Benchmark
+    public void serializePerClient() throws IOException {
+        for (SseEmitter emitter : emitters) {
+            emitter.send(SseEmitter.event().name("sounds").data(snapshot));
+        }
+    }
+
+    @Benchmark
+    public void serializeOnce() throws IOException {
+        SseFrame frame = SseFrame.of(objectMapper, "sounds", snapshot);
+        for (SseEmitter emitter : emitters) {
+            emitter.send(frame.parts());
+        }
+    }
+
+    /**
+     * Writes what it is sent the way Spring's message converters would, to an output stream that discards it.
+     */
+    private static final class ConvertingEmitter extends SseEmitter {
+        private final ObjectMapper objectMapper;
+        // Jackson closes the target after writing, so this must not reject writes once closed
+        private final OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+
+        private ConvertingEmitter(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            for (DataWithMediaType item : items) {
+                Object data = item.getData();
+                if (data instanceof byte[] bytes) {
+                    out.write(bytes);
+                } else if (data instanceof String text) {
+                    out.write(text.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    objectMapper.writeValue(out, data);
+                }
+            }
+        }
+    }
+}
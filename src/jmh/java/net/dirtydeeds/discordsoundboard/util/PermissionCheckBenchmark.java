@@ -0,0 +1,91 @@
+package net.dirtydeeds.discordsoundboard.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one permission check and of the permission flags sent to the web UI, with permissions held as names and as
+ * a {@link UserPermission} mask. The database lookups behind both are cached and left out.
+ * <p>
+ * {@code freshStringSet} is how a check used to work: the names of every role of the user were copied into a new set
+ * that was then searched. {@code cachedStringSet} searches a set kept from an earlier check, and {@code mask} is the
+ * single AND a check is now. The flags benchmarks compare searching the token's permission list once per flag with
+ * reading the flags off a mask.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+    private Map<String, List<String>> rolePermissionNames;
+    private List<String> userRoles;
+    private Set<String> cachedPermissions;
+    private List<String> tokenPermissions;
+    private int permissionMask;
+
+    @Setup
+    public void setUp() {
+        // The roles and permissions application.yml ships with, for a user who is both moderator and DJ
+        rolePermissionNames = Map.of(
+                "dj", List.of("upload", "edit-sounds", "play-sounds", "download-sounds"),
+                "moderator", List.of("delete-sounds", "edit-sounds", "play-sounds", "download-sounds",
+                        "update-volume"));
+        userRoles = List.of("moderator", "dj");
+
+        Set<String> names = new HashSet<>();
+        for (String role : userRoles) {
+            names.addAll(rolePermissionNames.get(role));
+        }
+        cachedPermissions = Set.copyOf(names);
+        tokenPermissions = List.copyOf(names);
+        permissionMask = UserPermission.maskOf(names);
+    }
+
+    @Benchmark
+    public boolean freshStringSet() {
+        Set<String> userPermissions = new HashSet<>();
+        for (String role : userRoles) {
+            userPermissions.addAll(rolePermissionNames.get(role));
+        }
+        return userPermissions.contains("update-volume");
+    }
+
+    @Benchmark
+    public boolean cachedStringSet() {
+        return cachedPermissions.contains("update-volume");
+    }
+
+    @Benchmark
+    public boolean mask() {
+        return UserPermission.UPDATE_VOLUME.in(permissionMask);
+    }
+
+    @Benchmark
+    public Map<String, Boolean> flagsFromNames() {
+        Map<String, Boolean> permissions = new HashMap<>();
+        permissions.put("upload", tokenPermissions.contains("upload"));
+        permissions.put("delete", tokenPermissions.contains("delete-sounds"));
+        permissions.put("manageUsers", tokenPermissions.contains("manage-users"));
+        permissions.put("editSounds", tokenPermissions.contains("edit-sounds"));
+        permissions.put("playSounds", tokenPermissions.contains("play-sounds"));
+        permissions.put("downloadSounds", tokenPermissions.contains("download-sounds"));
+        permissions.put("updateVolume", tokenPermissions.contains("update-volume"));
+        return permissions;
+    }
+
+    @Benchmark
+    public Map<String, Boolean> flagsFromMask() {
+        return UserPermission.flagsOf(permissionMask);
+    }
+}
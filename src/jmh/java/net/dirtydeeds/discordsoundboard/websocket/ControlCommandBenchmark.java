@@ -0,0 +1,180 @@
+package net.dirtydeeds.discordsoundboard.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
+import net.dirtydeeds.discordsoundboard.config.RequestPrincipalArgumentResolver;
+import net.dirtydeeds.discordsoundboard.controllers.BotCommandController;
+import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
+import net.dirtydeeds.discordsoundboard.service.PlayRequestService;
+import net.dirtydeeds.discordsoundboard.service.PlaybackService;
+import net.dirtydeeds.discordsoundboard.service.RolePermissionService;
+import net.dirtydeeds.discordsoundboard.util.JwtUtil;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Server-side cost of one play command sent to /bot/playFile versus sent on the control socket. Both queue the sound
+ * with the same {@link PlayRequestService}, stubbed here so playing it is left out, and both look the permissions up
+ * in {@link UserRoleConfig}'s snapshot, warmed up and backed by stub services so no lookup fails or reaches a
+ * database.
+ * <p>
+ * {@code restPlay} sends the request through Spring MVC's dispatcher with MockMvc: mapping, parameter binding, the
+ * token lookup, the permission check and writing the JSON reply. {@code socketPlay} hands the same command to the
+ * socket handler, which parses it, checks the permission and writes the ack to the session. The security filter chain
+ * and the HTTP request itself (connection, headers, CSRF check) aren't part of {@code restPlay}, so the real gap per
+ * command is wider than what this measures. {@code restAuthorization} and {@code socketAuthorization} are the
+ * authorization steps of each on their own.
+ * <p>
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControlCommandBenchmark {
+
+    private static final String CSRF = "benchmark-csrf";
+
+    private static final String PLAY_MESSAGE =
+            "{\"type\":\"play\",\"id\":42,\"sound\":\"airhorn\",\"username\":\"bob\",\"channel\":\"\"}";
+
+    private UserRoleConfig userRoleConfig;
+    private String authorization;
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    private ControlSocketHandler handler;
+    private WebSocketSession session;
+    private TextMessage playMessage;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil();
+        set(jwtUtil, "secret", "benchmark-secret-key-that-is-long-enough-for-hs256");
+        set(jwtUtil, "expiration", TimeUnit.HOURS.toMillis(1));
+        String token = jwtUtil.generateToken("user123", Map.of("username", "bob"));
+        authorization = "Bearer " + token;
+
+        DiscordUser bob = new DiscordUser();
+        bob.setId("user123");
+        bob.setUsername("bob");
+        DiscordUserService discordUserService = stub(DiscordUserService.class, Map.of(
+                "findById", Optional.of(bob),
+                "findOneByIdOrUsernameIgnoreCase", bob));
+        RolePermissionService rolePermissionService = stub(RolePermissionService.class,
+                Map.of("hasCustomPermissions", false));
+        PlayRequestService playRequestService = stub(PlayRequestService.class, Map.of("submit", "request1"));
+
+        userRoleConfig = new UserRoleConfig();
+        set(userRoleConfig, "jwtUtil", jwtUtil);
+        set(userRoleConfig, "discordUserService", discordUserService);
+        set(userRoleConfig, "rolePermissionService", rolePermissionService);
+        userRoleConfig.setPermissions(Map.of("user", List.of("play-sounds", "upload")));
+        if (!userRoleConfig.hasPermission("user123", UserPermission.PLAY_SOUNDS)) {
+            throw new IllegalStateException("Benchmark user can't play sounds");
+        }
+
+        objectMapper = new ObjectMapper();
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new BotCommandController(null, playRequestService, null))
+                .setCustomArgumentResolvers(new RequestPrincipalArgumentResolver(userRoleConfig))
+                .build();
+
+        handler = new ControlSocketHandler(null, playRequestService, userRoleConfig, discordUserService, jwtUtil,
+                objectMapper, stub(PlaybackService.class, Map.of()));
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(CsrfCookieHandshakeInterceptor.CSRF_TOKEN_ATTRIBUTE, CSRF);
+        session = stub(WebSocketSession.class, Map.of("getId", "benchmark", "getAttributes", attributes,
+                "isOpen", true));
+        handler.afterConnectionEstablished(session);
+        handler.handleTextMessage(session, new TextMessage(
+                "{\"type\":\"hello\",\"id\":1,\"token\":\"" + token + "\",\"csrf\":\"" + CSRF + "\"}"));
+        playMessage = new TextMessage(PLAY_MESSAGE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        handler.shutdown();
+    }
+
+    @Benchmark
+    public int restPlay() throws Exception {
+        return mockMvc.perform(post("/bot/playFile")
+                        .param("soundFileId", "airhorn")
+                        .param("username", "bob")
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public void socketPlay() {
+        handler.handleTextMessage(session, playMessage);
+    }
+
+    @Benchmark
+    public boolean restAuthorization() {
+        String userId = userRoleConfig.getUserIdFromAuth(authorization);
+        return userRoleConfig.hasPermission(userId, UserPermission.PLAY_SOUNDS);
+    }
+
+    @Benchmark
+    public boolean socketAuthorization() throws IOException {
+        ControlMessage message = objectMapper.readValue(PLAY_MESSAGE, ControlMessage.class);
+        return message.sound() != null && userRoleConfig.hasPermission("user123", UserPermission.PLAY_SOUNDS);
+    }
+
+    // An implementation of the interface answering by method name, with false, 0 or null for everything else
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> type.getSimpleName() + " stub";
+                    default -> {
+                        if (answers.containsKey(method.getName())) {
+                            yield answers.get(method.getName());
+                        }
+                        Class<?> returnType = method.getReturnType();
+                        if (returnType == boolean.class) {
+                            yield false;
+                        }
+                        if (returnType == int.class) {
+                            yield 0;
+                        }
+                        if (returnType == long.class) {
+                            yield 0L;
+                        }
+                        yield null;
+                    }
+                });
+    }
+
+    private static void set(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
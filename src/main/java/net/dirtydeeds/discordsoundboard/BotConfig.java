@@ -6,8 +6,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 
 @Singleton
@@ -46,6 +45,10 @@ public class BotConfig {
     String botOwnerName;
     @Value("${sounds_directory:}")
     String soundFileDir;
+    @Value("${upload_sounds_directory:}")
+    String uploadSoundFileDir;
+    @Value("${sounds_directory_rescan_minutes:}")
+    String soundFileDirRescanMinutes;
     @Value("${maxFileSizeInBytes:10000000}")
     int maxFileSizeInBytes;
     @Value("${spring.application.version:unknown}")
@@ -55,36 +58,64 @@ public class BotConfig {
     @Value("${leaveOnEmptyChannel:false}")
     boolean leaveOnEmptyChannel;
 
-    public List<String> getAllowedUsersList() {
-        String allowedUsersString = getAllowedUsersString();
-        if (allowedUsersString != null) {
-            if (!allowedUsersString.isEmpty()) {
-                String[] allowedUsersArray = allowedUsersString.trim().split(",");
-                if (allowedUsersArray.length > 0) {
-                    return Arrays.asList(allowedUsersArray);
+    /**
+     * Gets the sound library roots in priority order. The sounds_directory property accepts a comma separated list
+     * of directories. When two roots contain a sound with the same id, the root listed first wins. The upload
+     * directory is always part of the library, so if it is not listed it is appended as the lowest priority root.
+     *
+     * @return List of sound library root directories.
+     */
+    public List<String> getSoundFileDirs() {
+        List<String> soundFileDirs = new ArrayList<>();
+        if (soundFileDir != null) {
+            for (String dir : soundFileDir.split(",")) {
+                if (!dir.isBlank() && !soundFileDirs.contains(dir.trim())) {
+                    soundFileDirs.add(dir.trim());
                 }
             }
         }
-        return Collections.emptyList();
+        if (soundFileDirs.isEmpty()) {
+            soundFileDirs.add(System.getProperty("user.dir") + "/sounds");
+        }
+        if (uploadSoundFileDir != null && !uploadSoundFileDir.isBlank()
+                && !soundFileDirs.contains(uploadSoundFileDir.trim())) {
+            soundFileDirs.add(uploadSoundFileDir.trim());
+        }
+        return soundFileDirs;
     }
 
-    public List<String> getBannedUsersList() {
-        String bannedUsersString = getBannedUsersString();
-        if (bannedUsersString != null) {
-            if (!bannedUsersString.isEmpty()) {
-                String[] bannedUsersArray = bannedUsersString.split(",");
-                if (bannedUsersArray.length > 0) {
-                    return Arrays.asList(bannedUsersArray);
-                }
-            }
+    /**
+     * Gets the directory new sounds are written to (web uploads and discord attachments). Defaults to the first
+     * sound library root when upload_sounds_directory is not set.
+     *
+     * @return The upload target directory.
+     */
+    public String getSoundFileDir() {
+        if (uploadSoundFileDir != null && !uploadSoundFileDir.isBlank()) {
+            return uploadSoundFileDir.trim();
         }
-        return Collections.emptyList();
+        return getSoundFileDirs().get(0);
     }
 
-    public String getSoundFileDir() {
-        if (soundFileDir == null || soundFileDir.isEmpty()) {
-            soundFileDir = System.getProperty("user.dir") + "/sounds";
+    /**
+     * Gets how often the root at the given index should be fully rescanned. The sounds_directory_rescan_minutes
+     * property is a comma separated list lined up with sounds_directory. Missing or invalid entries default to 0,
+     * which means the root is only refreshed by its directory watcher.
+     *
+     * @param rootIndex - Index of the root in {@link #getSoundFileDirs()}.
+     * @return Minutes between full rescans of the root, 0 when no periodic rescan is configured.
+     */
+    public long getSoundFileDirRescanMinutes(int rootIndex) {
+        if (soundFileDirRescanMinutes != null && !soundFileDirRescanMinutes.isBlank()) {
+            String[] intervals = soundFileDirRescanMinutes.split(",");
+            if (rootIndex < intervals.length) {
+                try {
+                    return Math.max(0, Long.parseLong(intervals[rootIndex].trim()));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
         }
-        return soundFileDir;
+        return 0;
     }
 }
@@ -0,0 +1,141 @@
+package net.dirtydeeds.discordsoundboard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.boot.origin.Origin;
+import org.springframework.boot.origin.OriginLookup;
+import org.springframework.boot.origin.TextResourceOrigin;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The users allowed to and banned from issuing chat commands. The allowedUsers and bannedUsers lists are compiled
+ * into sets once, so checking the author of a message is a hash lookup instead of splitting the lists again.
+ * <p>
+ * {@link #reload()} reads both lists again from the config file Spring read them from at startup, wherever
+ * spring.config.location put it, so they can be changed without a restart.
+ */
+@Component
+public class ChatAccessList {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChatAccessList.class);
+
+    private static final String ALLOWED_USERS = "allowedUsers";
+    private static final String BANNED_USERS = "bannedUsers";
+
+    private static final List<PropertySourceLoader> LOADERS =
+            List.of(new PropertiesPropertySourceLoader(), new YamlPropertySourceLoader());
+
+    private final ConfigurableEnvironment environment;
+
+    // Replaced as a whole on reload, so a check never sees the allowed list of one load and the banned of another
+    private volatile Lists lists;
+
+    private record Lists(Set<String> allowed, Set<String> banned, Instant loadedAt) {
+    }
+
+    public ChatAccessList(BotConfig botConfig, ConfigurableEnvironment environment) {
+        this.environment = environment;
+        this.lists = compile(botConfig.getAllowedUsersString(), botConfig.getBannedUsersString());
+    }
+
+    /**
+     * Whether the user may issue chat commands: everyone when no allowed users are configured
+     */
+    public boolean isUserAllowed(String username) {
+        Set<String> allowed = lists.allowed();
+        return allowed.isEmpty() || allowed.contains(username);
+    }
+
+    public boolean isUserBanned(String username) {
+        return lists.banned().contains(username);
+    }
+
+    /**
+     * Reads allowedUsers and bannedUsers again and swaps them in. A list set in a config file is read from that file
+     * again; one set on the command line or in the environment can't change while running and is kept as it is.
+     *
+     * @return The sizes of the lists now in use.
+     * @throws IOException if a config file can't be read, the lists in use are kept.
+     * @throws IllegalStateException if a config file no longer sets a list, the lists in use are kept.
+     */
+    public ChatAccessStats reload() throws IOException {
+        lists = compile(currentValue(ALLOWED_USERS), currentValue(BANNED_USERS));
+        ChatAccessStats stats = stats();
+        LOG.info("Reloaded chat access lists: {} allowed, {} banned users.", stats.allowedUsers(),
+                stats.bannedUsers());
+        return stats;
+    }
+
+    public ChatAccessStats stats() {
+        Lists current = lists;
+        return new ChatAccessStats(current.allowed().size(), current.banned().size(), current.loadedAt());
+    }
+
+    // The value the key has now, looked up where the environment found it at startup
+    private String currentValue(String key) throws IOException {
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            if (!source.containsProperty(key)) {
+                continue;
+            }
+            Origin origin = OriginLookup.getOrigin(source, key);
+            if (origin instanceof TextResourceOrigin textOrigin && textOrigin.getResource() != null) {
+                return readValue(textOrigin.getResource(), key);
+            }
+            return environment.getProperty(key);
+        }
+        return null;
+    }
+
+    private static String readValue(Resource resource, String key) throws IOException {
+        String extension = resource.getFilename() == null ? ""
+                : resource.getFilename().substring(resource.getFilename().lastIndexOf('.') + 1);
+        PropertySourceLoader loader = LOADERS.stream()
+                .filter(candidate -> Arrays.asList(candidate.getFileExtensions())
+                        .contains(extension.toLowerCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IOException("Can't read " + resource.getDescription()));
+
+        for (PropertySource<?> source : loader.load(resource.getDescription(), resource)) {
+            Object value = source.getProperty(key);
+            if (value != null) {
+                return value.toString();
+            }
+        }
+        // Taking a missing key as an empty list would allow or unban everyone
+        throw new IllegalStateException(resource.getDescription() + " no longer sets " + key);
+    }
+
+    private static Lists compile(String allowedUsers, String bannedUsers) {
+        return new Lists(toSet(allowedUsers), toSet(bannedUsers), Instant.now());
+    }
+
+    private static Set<String> toSet(String users) {
+        if (users == null || users.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(users.split(","))
+                .map(String::trim)
+                .filter(user -> !user.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * How many users the loaded lists hold and when they were loaded
+     */
+    public record ChatAccessStats(int allowedUsers, int bannedUsers, Instant loadedAt) {
+    }
+}
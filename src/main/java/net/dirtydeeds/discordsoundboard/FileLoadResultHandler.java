@@ -11,10 +11,16 @@ import net.dv8tion.jda.api.entities.Guild;
 public class FileLoadResultHandler implements AudioLoadResultHandler {
     private final Guild guild;
     private final int repeatTimes;
+    private final PlayProgressListener progress;
 
     public FileLoadResultHandler(Guild guild, int repeatTimes) {
+        this(guild, repeatTimes, PlayProgressListener.NONE);
+    }
+
+    public FileLoadResultHandler(Guild guild, int repeatTimes, PlayProgressListener progress) {
         this.guild = guild;
         this.repeatTimes = repeatTimes;
+        this.progress = progress;
     }
 
     private void loadSingle(AudioTrack track, AudioPlaylist playlist) {
@@ -23,6 +29,9 @@ public class FileLoadResultHandler implements AudioLoadResultHandler {
         track.setUserData(repeatTimes);
         if (handler != null) {
             handler.addTrack(track);
+            progress.onProgress(PlayRequestStatus.PLAYING, guild.getId(), null);
+        } else {
+            progress.onProgress(PlayRequestStatus.FAILED, guild.getId(), "The bot is not connected to voice");
         }
     }
 
@@ -52,16 +61,19 @@ public class FileLoadResultHandler implements AudioLoadResultHandler {
             AudioTrack single = playlist.getSelectedTrack();
             loadSingle(single, playlist);
         }
+        else {
+            progress.onProgress(PlayRequestStatus.FAILED, guild.getId(), "Playlist has no track to play");
+        }
     }
 
     @Override
     public void noMatches() {
-
+        progress.onProgress(PlayRequestStatus.FAILED, guild.getId(), "No sound or track found");
     }
 
     @Override
     public void loadFailed(FriendlyException throwable) {
-
+        progress.onProgress(PlayRequestStatus.FAILED, guild.getId(), "Loading failed: " + throwable.getMessage());
     }
 }
 
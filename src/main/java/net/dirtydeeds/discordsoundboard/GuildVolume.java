@@ -0,0 +1,10 @@
+package net.dirtydeeds.discordsoundboard;
+
+/**
+ * The bot's global volume in one guild, as sent to the web UI.
+ *
+ * @param guildId - Id of the guild.
+ * @param volume  - Volume percentage.
+ */
+public record GuildVolume(String guildId, float volume) {
+}
@@ -1,18 +1,24 @@
 package net.dirtydeeds.discordsoundboard;
 
+import jakarta.annotation.PreDestroy;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * MainWatch monitors the sound file directory for changes (create/modify/delete) and updates the file list.
+ * MainWatch monitors the sound library roots for changes (create/modify/delete) and updates the file list. Each root
+ * gets its own watcher thread and, optionally, its own periodic full rescan.
  *
  * @author dfurrer.
  */
@@ -23,13 +29,26 @@ public class MainWatch {
 
     @Setter
     private SoundPlayer soundPlayer;
-    private boolean shutdown = false;
+    private volatile boolean shutdown = false;
 
-    @Async
+    // Virtual threads so roots on slow volumes never hold up the rescans of other roots
+    private final ScheduledExecutorService rescanExecutor =
+            Executors.newScheduledThreadPool(4, Thread.ofVirtual().name("sound-rescan-", 0).factory());
+
+    // One per root, each waiting on its root for as long as the bot runs
+    private final List<Thread> watchers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Starts watching a root on a virtual thread of its own, so every root is watched however many there are.
+     *
+     * @param path - The root to watch.
+     */
     public void watchDirectoryPath(Path path) {
-        try {
-            WatchService watchService = FileSystems.getDefault().newWatchService();
+        watchers.add(Thread.ofVirtual().name("sound-watch-" + path).start(() -> watch(path)));
+    }
 
+    private void watch(Path path) {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
             Boolean isFolder = (Boolean) Files.getAttribute(path,
                     "basic:isDirectory", NOFOLLOW_LINKS);
             if (!isFolder) {
@@ -42,7 +61,11 @@ public class MainWatch {
                     StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
 
             while (!shutdown) {
-                watchKey.pollEvents().forEach(event -> soundPlayer.updateFileList());
+                // One rescan of this root covers every event in the batch
+                List<WatchEvent<?>> events = watchKey.pollEvents();
+                if (!events.isEmpty()) {
+                    soundPlayer.updateFileList(path);
+                }
 
                 // Reset the watch key everytime for continuing to use it for further event polling
                 boolean valid = watchKey.reset();
@@ -51,13 +74,37 @@ public class MainWatch {
                 }
                 Thread.sleep(1000);
             }
-        } catch (IOException | InterruptedException e) {
-            // Folder does not exist or we were interrupted
+        } catch (IOException | IllegalArgumentException | InterruptedException e) {
+            // Folder does not exist, is not a folder, or we were interrupted
             LOG.warn(e.getLocalizedMessage());
         }
     }
 
+    /**
+     * Schedules a periodic full rescan of a single sound library root. Useful for roots on volumes where file system
+     * events are unreliable (network shares, some HDD enclosures).
+     *
+     * @param path    - The root to rescan.
+     * @param minutes - Minutes between rescans. Values less than 1 disable the periodic rescan.
+     */
+    public void scheduleRescan(Path path, long minutes) {
+        if (minutes < 1) {
+            return;
+        }
+        LOG.info("Rescanning path: {} every {} minutes", path, minutes);
+        rescanExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                soundPlayer.updateFileList(path);
+            } catch (Exception e) {
+                LOG.warn("Scheduled rescan of {} failed: {}", path, e.getMessage());
+            }
+        }, minutes, minutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
     public void shutdown() {
         shutdown = true;
+        watchers.forEach(Thread::interrupt);
+        rescanExecutor.shutdownNow();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package net.dirtydeeds.discordsoundboard;
+
+/**
+ * Told how a request to play a sound is coming along. Called from whichever thread does the work, including the
+ * audio player's, so it must be quick.
+ */
+@FunctionalInterface
+public interface PlayProgressListener {
+
+    PlayProgressListener NONE = (status, guildId, message) -> {
+    };
+
+    /**
+     * @param status  - The stage the request reached.
+     * @param guildId - Guild the sound plays in, null while it isn't known yet.
+     * @param message - Why the request failed, null for the other stages.
+     */
+    void onProgress(PlayRequestStatus status, String guildId, String message);
+}
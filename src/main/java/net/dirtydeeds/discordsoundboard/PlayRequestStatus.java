@@ -0,0 +1,25 @@
+package net.dirtydeeds.discordsoundboard;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * The stages a play request from the web UI goes through. A request ends in PLAYING or FAILED.
+ */
+public enum PlayRequestStatus {
+    QUEUED,
+    CONNECTING,
+    LOADING,
+    PLAYING,
+    FAILED;
+
+    public boolean isFinal() {
+        return this == PLAYING || this == FAILED;
+    }
+
+    @JsonValue
+    public String toJson() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
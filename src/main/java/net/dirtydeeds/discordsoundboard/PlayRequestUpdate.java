@@ -0,0 +1,19 @@
+package net.dirtydeeds.discordsoundboard;
+
+import java.time.Instant;
+
+/**
+ * Where a play request stands, sent to the web UI as a playRequest event every time it moves on.
+ *
+ * @param requestId - Id the play endpoint answered with.
+ * @param sound     - The sound id or URL that was requested.
+ * @param guildId   - Guild the sound plays in, null while it isn't known yet.
+ * @param message   - Why the request failed, null unless the status is FAILED.
+ */
+public record PlayRequestUpdate(String requestId,
+                                String sound,
+                                PlayRequestStatus status,
+                                String guildId,
+                                String message,
+                                Instant timestamp) {
+}
@@ -7,6 +7,7 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
 import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import net.dirtydeeds.discordsoundboard.catalog.RandomMode;
 import net.dirtydeeds.discordsoundboard.commands.*;
 import net.dirtydeeds.discordsoundboard.controllers.BotVolumeController;
 import net.dirtydeeds.discordsoundboard.controllers.DiscordUserController;
@@ -35,9 +36,10 @@ import java.io.*;
 import java.nio.file.*;
 import java.time.ZonedDateTime;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 /**
@@ -58,12 +60,14 @@ public class SoundPlayer {
     private final ServletWebServerApplicationContext webServerApplicationContext;
     private final ShutdownManager shutdownManager;
     private final BotConfig botConfig;
+    private final ChatAccessList chatAccessList;
     private JDA bot;
     private JDABot jdaBot;
     private final DiscordUserController discordUserController;
     private final SoundController soundController;
     private final PlaybackService playbackService;
     private final BotVolumeController botVolumeController;
+    private final Map<Path, List<ScannedSoundFile>> rootScans = new ConcurrentHashMap<>();
 
     @Inject
     public SoundPlayer(MainWatch mainWatch, SoundService soundService,
@@ -72,7 +76,8 @@ public class SoundPlayer {
                        DiscordUserController discordUserController,
                        SoundController soundController,
                        PlaybackService playbackService,
-                       BotVolumeController botVolumeController) {
+                       BotVolumeController botVolumeController,
+                       ChatAccessList chatAccessList) {
         this.playbackService = playbackService;
         this.mainWatch = mainWatch;
         this.mainWatch.setSoundPlayer(this);
@@ -81,6 +86,7 @@ public class SoundPlayer {
         this.discordUserService.setSoundPlayer(this);
         this.shutdownManager = shutdownManager;
         this.botConfig = botConfig;
+        this.chatAccessList = chatAccessList;
         this.webServerApplicationContext = webServerApplicationContext;
         this.discordUserController = discordUserController;
         this.botVolumeController = botVolumeController;
@@ -104,7 +110,7 @@ public class SoundPlayer {
         updateFileList();
         updateUsersInDb();
 
-        CommandListener commandListener = new CommandListener(botConfig);
+        CommandListener commandListener = new CommandListener(botConfig, chatAccessList);
         commandListener.addCommand(new DisconnectCommand(this));
         commandListener.addCommand(new EntranceCommand(this, discordUserService, soundService));
         commandListener.addCommand(new HelpCommand(commandListener, botConfig));
@@ -133,7 +139,12 @@ public class SoundPlayer {
 
         ConnectorNativeLibLoader.loadConnectorLibrary();
 
-        mainWatch.watchDirectoryPath(Paths.get(botConfig.getSoundFileDir()));
+        List<String> soundFileDirs = botConfig.getSoundFileDirs();
+        for (int i = 0; i < soundFileDirs.size(); i++) {
+            Path root = Paths.get(soundFileDirs.get(i)).toAbsolutePath().normalize();
+            mainWatch.watchDirectoryPath(root);
+            mainWatch.scheduleRescan(root, botConfig.getSoundFileDirRescanMinutes(i));
+        }
     }
 
     @PreDestroy
@@ -147,16 +158,31 @@ public class SoundPlayer {
     }
 
     /**
-     * Gets a Map of the loaded sound files.
+     * Gets a Map of the loaded sound files. This is a read only view of the in-memory catalog, so it does not query
+     * the database.
      *
-     * @return Map of sound files that have been loaded.
+     * @return Map of sound files that have been loaded, keyed case-insensitively by soundFileId.
      */
     public Map<String, SoundFile> getAvailableSoundFiles() {
-        Map<String, SoundFile> returnFiles = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
-        for (SoundFile soundFile : soundService.findAll(Pageable.unpaged())) {
-            returnFiles.put(soundFile.getSoundFileId(), soundFile);
+        return soundService.getCatalog();
+    }
+
+    /**
+     * Suggests sounds close to a name that did not match any sound exactly.
+     *
+     * @param fileName - The sound name that was requested.
+     * @param limit    - Maximum number of suggestions.
+     * @return Ids of the closest sounds, or an empty list if the name matches a sound or looks like a URL or other
+     * identifier lavaplayer can load.
+     */
+    public List<String> suggestSoundFiles(String fileName, int limit) {
+        if (fileName == null || fileName.isBlank() || fileName.contains(":")
+                || soundService.findOneBySoundFileIdIgnoreCase(fileName) != null) {
+            return List.of();
         }
-        return returnFiles;
+        return soundService.search(fileName, limit).stream()
+                .map(SoundFile::getSoundFileId)
+                .toList();
     }
 
     /**
@@ -171,7 +197,7 @@ public class SoundPlayer {
             AudioHandler handler = (AudioHandler) guild.getAudioManager().getSendingHandler();
             if (handler != null) {
                 handler.setGlobalVolume(volume);
-                broadcastGlobalVolumeUpdate(user);
+                broadcastGlobalVolumeUpdate(new GuildVolume(guild.getId(), handler.getGlobalVolume()));
             }
         }
     }
@@ -193,6 +219,23 @@ public class SoundPlayer {
         return 0;
     }
 
+    /**
+     * Returns the global volume of the guild the user is in, looking the user up once.
+     *
+     * @param user - The user to look for.
+     * @return The guild and its volume, or null if the user isn't in a voice channel the bot can see.
+     */
+    public GuildVolume getGuildVolume(String user) {
+        Guild guild = getGuildForUserOrChannelId(user, null);
+        if (guild != null) {
+            AudioHandler handler = (AudioHandler) guild.getAudioManager().getSendingHandler();
+            if (handler != null) {
+                return new GuildVolume(guild.getId(), handler.getGlobalVolume());
+            }
+        }
+        return null;
+    }
+
     /**
      * Sets volume of the player.
      *
@@ -210,10 +253,24 @@ public class SoundPlayer {
     }
 
     public SoundFile playRandomSoundFile(String User, MessageReceivedEvent event, String requestingUser) throws SoundPlaybackException {
+        return playRandomSoundFile(User, event, requestingUser, RandomMode.UNIFORM, null);
+    }
+
+    /**
+     * Plays a random sound file. The pick does not copy the catalog.
+     *
+     * @param mode     - How to weight the pick.
+     * @param category - Only pick from this category, or null for any category.
+     * @return The sound file that was picked.
+     */
+    public SoundFile playRandomSoundFile(String User, MessageReceivedEvent event, String requestingUser,
+                                         RandomMode mode, String category) throws SoundPlaybackException {
         try {
-            Map<String, SoundFile> sounds = getAvailableSoundFiles();
-            List<String> keysAsArray = new ArrayList<>(sounds.keySet());
-            SoundFile randomValue = sounds.get(keysAsArray.get(ThreadLocalRandom.current().nextInt(keysAsArray.size())));
+            SoundFile randomValue = soundService.getRandomSoundFile(mode, category);
+            if (randomValue == null) {
+                throw new SoundPlaybackException(category == null
+                        ? "No sounds to pick from." : "No sounds in category " + category + ".");
+            }
 
             LOG.info("Attempting to play random file: {}, requested by : {}", randomValue.getSoundFileId(), requestingUser);
             try {
@@ -251,14 +308,29 @@ public class SoundPlayer {
      * @param requestingUser - The name of the requestingUser
      */
     public void playForUser(String fileName, String userName, Integer repeatTimes, String voiceChannelId, String requestingUser) {
+        playForUser(fileName, userName, repeatTimes, voiceChannelId, requestingUser, PlayProgressListener.NONE);
+    }
+
+    /**
+     * Like {@link #playForUser(String, String, Integer, String, String)}, telling the listener as the request moves from
+     * connecting to loading to playing, or why it failed. Loading finishes on the audio player's thread, so this can
+     * return before the listener hears PLAYING or FAILED.
+     *
+     * @param progress - Told about every stage of the request.
+     */
+    public void playForUser(String fileName, String userName, Integer repeatTimes, String voiceChannelId,
+                            String requestingUser, PlayProgressListener progress) {
         if (userName == null || userName.isEmpty()) {
             userName = botConfig.getBotOwnerName();
         }
         try {
             Guild guild = getGuildForUserOrChannelId(userName, voiceChannelId);
+            if (guild != null) {
+                progress.onProgress(PlayRequestStatus.CONNECTING, guild.getId(), null);
+            }
             joinUsersCurrentChannel(userName, voiceChannelId);
 
-            playFile(fileName, guild, repeatTimes, userName, voiceChannelId, requestingUser);
+            playFile(fileName, guild, repeatTimes, userName, voiceChannelId, requestingUser, progress);
 
             if (botConfig.isLeaveAfterPlayback()) {
                 disconnectFromChannel(guild);
@@ -266,6 +338,7 @@ public class SoundPlayer {
         } catch (Exception e) {
             LOG.warn("Playback request failed. fileName={}, userName={}, voiceChannelId={}",
                     fileName, userName, voiceChannelId, e);
+            progress.onProgress(PlayRequestStatus.FAILED, null, "Playback failed: " + e.getMessage());
         }
     }
 
@@ -280,7 +353,8 @@ public class SoundPlayer {
         moveToChannel(channel, channel.getGuild());
         LOG.info("Playing file for user: {} in channel: {}", fileName, channel.getName());
 
-        playFile(fileName, channel.getGuild(), 1, user.getUsername(), channel.getName(), user.getUsername());
+        playFile(fileName, channel.getGuild(), 1, user.getUsername(), channel.getName(), user.getUsername(),
+                PlayProgressListener.NONE);
         if (botConfig.isLeaveAfterPlayback()) {
             disconnectFromChannel(channel.getGuild());
         }
@@ -300,7 +374,8 @@ public class SoundPlayer {
             if (fileToPlay != null) {
                 moveToUserIdsChannel(event, guild);
 
-                playFile(fileName, guild, 1, event.getAuthor().getName(), findUsersChannel(event, guild).getName(), event.getAuthor().getName());
+                playFile(fileName, guild, 1, event.getAuthor().getName(), findUsersChannel(event, guild).getName(), event.getAuthor().getName(),
+                        PlayProgressListener.NONE);
 
                 if (botConfig.isLeaveAfterPlayback()) {
                     disconnectFromChannel(event.getGuild());
@@ -316,7 +391,8 @@ public class SoundPlayer {
      *
      * @param fileName - fileName to play.
      */
-    private void playFile(String fileName, Guild guild, Integer repeatTimes, String user, String voiceChannelId, String requestingUser) {
+    private void playFile(String fileName, Guild guild, Integer repeatTimes, String user, String voiceChannelId,
+                          String requestingUser, PlayProgressListener progress) {
         SoundFile fileToPlay = soundService.findOneBySoundFileIdIgnoreCase(fileName);
 
         if (fileToPlay != null) {
@@ -324,6 +400,8 @@ public class SoundPlayer {
             File soundFile = new File(fileToPlay.getSoundFileLocation());
             if (guild == null) {
                 LOG.error("Guild is null or you're not in a voice channel the bot has permission to access. Have you added your bot to a guild? https://discord.com/developers/docs/topics/oauth2");
+                progress.onProgress(PlayRequestStatus.FAILED, null,
+                        "User is not in a voice channel the bot can access");
             } else {
                 AudioHandler audioHandler = (AudioHandler) guild.getAudioManager().getSendingHandler();
                 if (audioHandler != null && audioHandler.getPlayer().getPlayingTrack() != null) {
@@ -335,7 +413,6 @@ public class SoundPlayer {
                     requestingUserName = requestingDiscordUser.getUsername();
                 }
                 playbackService.sendTrackStart(fileToPlay.getSoundFileId(), fileToPlay.getDisplayName(), requestingUserName, guild.getId());
-                soundController.broadcastUpdate();
 
                 try {
                     fileToPlay = soundService.updateSoundPlayed(fileToPlay);
@@ -351,15 +428,22 @@ public class SoundPlayer {
 
                     setSoundPlayerVolume((int) (globalVolume + (globalVolume * ((float) volumeOffset / 100))), user, voiceChannelId);
 
-                    jdaBot.getPlayerManager().loadItem(soundFile.getAbsolutePath(), new FileLoadResultHandler(guild, repeatTimes));
+                    progress.onProgress(PlayRequestStatus.LOADING, guild.getId(), null);
+                    jdaBot.getPlayerManager().loadItem(soundFile.getAbsolutePath(),
+                            new FileLoadResultHandler(guild, repeatTimes, progress));
                 } catch (Exception e) {
                     LOG.error("Exception when attempting to play file: {}", fileName);
                     playbackService.sendTrackEnd(fileToPlay.getSoundFileId(), guild.getId());
-                    soundController.broadcastUpdate();
+                    progress.onProgress(PlayRequestStatus.FAILED, guild.getId(), "Could not play " + fileName);
                 }
             }
+        } else if (guild == null) {
+            // Nothing to load the track into
+            LOG.warn("Not playing {}, the user is not in a voice channel the bot can access", fileName);
+            progress.onProgress(PlayRequestStatus.FAILED, null, "User is not in a voice channel the bot can access");
         } else {
-            jdaBot.getPlayerManager().loadItem(fileName, new FileLoadResultHandler(guild, repeatTimes));
+            progress.onProgress(PlayRequestStatus.LOADING, guild.getId(), null);
+            jdaBot.getPlayerManager().loadItem(fileName, new FileLoadResultHandler(guild, repeatTimes, progress));
         }
     }
 
@@ -488,89 +572,162 @@ public class SoundPlayer {
     }
 
     public boolean isUserAllowed(String username) {
-        if (botConfig.getAllowedUsersList() == null) {
-            return true;
-        } else if (botConfig.getAllowedUsersList().isEmpty()) {
-            return true;
-        } else return botConfig.getAllowedUsersList().contains(username);
+        return chatAccessList.isUserAllowed(username);
     }
 
     public boolean isUserBanned(String username) {
-        return botConfig.getBannedUsersList() != null && !botConfig.getBannedUsersList().isEmpty()
-                && botConfig.getBannedUsersList().contains(username);
+        return chatAccessList.isUserBanned(username);
     }
 
     /**
-     * This method loads the files. This checks if you are running from a .jar file and loads from the /sounds dir relative
-     * to the jar file. If not, it assumes you are running from code and loads relative to your resource dir.
+     * This method loads the files from every sound library root. The roots are walked concurrently and the results
+     * are merged in root priority order, so a sound id that exists in several roots always resolves to the file in
+     * the root listed first in sounds_directory (and, within a root, to the first path in sort order).
      */
     public void updateFileList() {
+        List<Path> roots = getSoundFileRoots();
+        try (ExecutorService scanExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<Path, Future<List<ScannedSoundFile>>> scans = new LinkedHashMap<>();
+            roots.forEach(root -> scans.put(root, scanExecutor.submit(() -> scanRoot(root))));
+            scans.forEach((root, scan) -> {
+                try {
+                    rootScans.put(root, scan.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    LOG.error("Could not scan sound root {}: {}", root, e.getCause().toString());
+                }
+            });
+        }
+        reconcileSoundFiles(roots);
+    }
+
+    /**
+     * Rescans a single sound library root and merges the result with the last known state of the other roots. Used
+     * by the per-root watchers and rescan schedules.
+     *
+     * @param root - The root to rescan.
+     */
+    public void updateFileList(Path root) {
+        List<Path> roots = getSoundFileRoots();
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        if (!roots.contains(normalizedRoot) || roots.stream().anyMatch(r -> !rootScans.containsKey(r))) {
+            updateFileList();
+            return;
+        }
         try {
-            String soundFileDir = botConfig.getSoundFileDir();
-            if (StringUtils.isBlank(soundFileDir)) {
-                soundFileDir = System.getProperty("user.dir") + "/sounds";
-            }
-            LOG.info("Loading from {}", soundFileDir);
-            Path soundFilePath = Paths.get(soundFileDir);
+            rootScans.put(normalizedRoot, scanRoot(normalizedRoot));
+        } catch (IOException e) {
+            LOG.error("Could not scan sound root {}: {}", normalizedRoot, e.toString());
+            return;
+        }
+        reconcileSoundFiles(roots);
+    }
 
-            if (!soundFilePath.toFile().exists()) {
-                LOG.info("creating directory: {} ", soundFilePath.toFile());
-                boolean result = false;
+    private List<Path> getSoundFileRoots() {
+        return botConfig.getSoundFileDirs().stream()
+                .map(dir -> Paths.get(dir).toAbsolutePath().normalize())
+                .distinct()
+                .toList();
+    }
 
-                try {
-                    result = soundFilePath.toFile().mkdir();
-                } catch (SecurityException se) {
-                    LOG.error("Could not create directory: {}", soundFilePath.toFile());
-                }
-                if (result) {
-                    LOG.info("DIR: {} created.", soundFilePath.toFile());
-                }
+    private List<ScannedSoundFile> scanRoot(Path soundFilePath) throws IOException {
+        LOG.info("Loading from {}", soundFilePath);
+
+        if (!soundFilePath.toFile().exists()) {
+            LOG.info("creating directory: {} ", soundFilePath.toFile());
+            boolean result = false;
+
+            try {
+                result = soundFilePath.toFile().mkdirs();
+            } catch (SecurityException se) {
+                LOG.error("Could not create directory: {}", soundFilePath.toFile());
+            }
+            if (result) {
+                LOG.info("DIR: {} created.", soundFilePath.toFile());
             }
+        }
 
-            List<SoundFile> soundFilesFromPath = new ArrayList<>();
-            Files.walk(soundFilePath).forEach(filePath -> {
-                if (Files.isRegularFile(filePath)) {
-                    String fileName = filePath.getFileName().toString();
-                    fileName = fileName.substring(fileName.indexOf("/") + 1);
-                    int fileExtensionPeriodIndex = fileName.lastIndexOf(".");
-                    if (fileExtensionPeriodIndex > 0) {
-                        fileName = fileName.substring(0, fileExtensionPeriodIndex);
-                        LOG.info(fileName);
-                        File file = filePath.toFile();
-                        String parent = file.getParentFile().getName();
-
-                        SoundFile soundFile = soundService.findOneBySoundFileIdIgnoreCase(fileName);
-                        if (soundFile == null) {
-                            soundFile = new SoundFile(fileName, filePath.toString(), parent, 0,
-                                    ZonedDateTime.now(), false, null, null);
-                            soundFilesFromPath.add(soundFile);
-                        } else {
-                            soundFile = soundService.initializeDateAdded(soundFile);
-                            soundFile.setSoundFileLocation(filePath.toString());
-                            soundFile.setCategory(parent);
-                        }
-                        soundFile = soundService.save(soundFile);
-                        soundFilesFromPath.add(soundFile);
-                    }
+        List<ScannedSoundFile> soundFilesFromPath = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(soundFilePath)) {
+            paths.filter(Files::isRegularFile).sorted().forEach(filePath -> {
+                String fileName = filePath.getFileName().toString();
+                int fileExtensionPeriodIndex = fileName.lastIndexOf(".");
+                if (fileExtensionPeriodIndex > 0) {
+                    fileName = fileName.substring(0, fileExtensionPeriodIndex);
+                    LOG.debug(fileName);
+                    String parent = filePath.toFile().getParentFile().getName();
+                    soundFilesFromPath.add(new ScannedSoundFile(fileName, filePath.toString(), parent));
                 }
             });
+        }
+        return soundFilesFromPath;
+    }
 
-            Iterable<SoundFile> soundFilesFromDB = soundService.findAll(Pageable.unpaged());
+    /**
+     * Merges the latest scan of every root and brings the database in line with it. Synchronized so concurrent
+     * watcher and schedule triggered rescans cannot interleave their database writes. Sounds in a root that has never
+     * been scanned successfully (e.g. a network share that isn't mounted yet) are kept, so their favorites, play
+     * counts and volumes survive until the root can be read.
+     */
+    private synchronized void reconcileSoundFiles(List<Path> roots) {
+        List<Path> unscannedRoots = roots.stream().filter(root -> !rootScans.containsKey(root)).toList();
+        if (!unscannedRoots.isEmpty()) {
+            LOG.warn("Sound roots {} could not be scanned. Keeping their sounds until they can be.", unscannedRoots);
+        }
 
-            List<SoundFile> difference = StreamSupport
-                    .stream(soundFilesFromDB.spliterator(), false)
-                    .filter(s -> soundFilesFromPath.stream()
-                                .noneMatch(path -> path.getSoundFileId().equals(s.getSoundFileId())))
-                    .toList();
+        Map<String, ScannedSoundFile> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Path root : roots) {
+            for (ScannedSoundFile scanned : rootScans.getOrDefault(root, List.of())) {
+                ScannedSoundFile winner = merged.putIfAbsent(scanned.soundFileId(), scanned);
+                if (winner != null) {
+                    LOG.warn("Sound id {} exists more than once. Using {} and ignoring {}",
+                            scanned.soundFileId(), winner.location(), scanned.location());
+                }
+            }
+        }
 
-            difference.forEach(soundService::delete);
+        merged.values().forEach(scanned -> {
+            SoundFile soundFile = soundService.findOneBySoundFileIdIgnoreCase(scanned.soundFileId());
+            if (soundFile == null) {
+                soundService.save(new SoundFile(scanned.soundFileId(), scanned.location(), scanned.category(), 0,
+                        ZonedDateTime.now(), false, null, null));
+            } else if (soundFile.getDateAdded() == null
+                    || !scanned.location().equals(soundFile.getSoundFileLocation())
+                    || !scanned.category().equals(soundFile.getCategory())) {
+                soundFile = soundService.initializeDateAdded(soundFile);
+                soundFile.setSoundFileLocation(scanned.location());
+                soundFile.setCategory(scanned.category());
+                soundService.save(soundFile);
+            }
+        });
 
-            soundController.broadcastUpdate();
-        } catch (IOException e) {
-            LOG.error(e.toString());
+        List<SoundFile> difference = soundService.getCatalog().values().stream()
+                .filter(s -> !merged.containsKey(s.getSoundFileId()))
+                .filter(s -> !isInRoot(s.getSoundFileLocation(), unscannedRoots))
+                .toList();
+
+        difference.forEach(soundService::delete);
+    }
+
+    private static boolean isInRoot(String location, List<Path> roots) {
+        if (location == null || roots.isEmpty()) {
+            return false;
+        }
+        try {
+            Path path = Paths.get(location).toAbsolutePath().normalize();
+            return roots.stream().anyMatch(path::startsWith);
+        } catch (InvalidPathException e) {
+            return false;
         }
     }
 
+    /**
+     * A sound file found on disk during a root scan.
+     */
+    private record ScannedSoundFile(String soundFileId, String location, String category) {
+    }
+
     /**
      * Looks through all the guilds the bot has access to and returns the VoiceChannel the requested user is connected to.
      *
@@ -715,8 +872,8 @@ public class SoundPlayer {
         discordUserController.broadcastUpdate();
     }
 
-    public void broadcastGlobalVolumeUpdate(String username) {
-        botVolumeController.broadcastUpdate(username);
+    public void broadcastGlobalVolumeUpdate(GuildVolume volume) {
+        botVolumeController.broadcastUpdate(volume);
     }
 
     @PreDestroy
@@ -1,18 +1,19 @@
 package net.dirtydeeds.discordsoundboard.beans;
 
-import jakarta.persistence.Id;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
 import lombok.*;
+import net.dirtydeeds.discordsoundboard.util.LookupKeys;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.OnlineStatus;
 
-import jakarta.persistence.Entity;
-
 /**
  * Class that represents a user of discord.
  *
  * @author dfurrer.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_discord_user_normalized_username", columnList = "normalizedUsername"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -40,6 +41,10 @@ public class DiscordUser {
     private String assignedRole;
     private java.time.Instant roleAssignedAt;
     private String roleAssignedBy;
+    // Lower case copy of username so case-insensitive lookups can use an index
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private String normalizedUsername;
 
     public DiscordUser(@NonNull String id, String username, @NonNull Boolean selected, @NonNull JDA.Status status, @NonNull OnlineStatus onlineStatus) {
         this.id = id;
@@ -58,4 +63,10 @@ public class DiscordUser {
         this.onlineStatus = onlineStatus;
         this.inVoice = inVoice;
     }
-}
\ No newline at end of file
+
+    @PrePersist
+    @PreUpdate
+    void updateNormalizedUsername() {
+        normalizedUsername = LookupKeys.normalize(username);
+    }
+}
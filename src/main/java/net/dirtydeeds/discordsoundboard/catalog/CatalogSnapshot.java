@@ -0,0 +1,12 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import java.util.List;
+
+/**
+ * The whole sound catalog at one version. Clients start from this and then apply {@link SoundCatalogEvent}s.
+ *
+ * @param version - Catalog version the content reflects.
+ * @param content - Every sound, sorted case-insensitively by id.
+ */
+public record CatalogSnapshot(long version, List<SoundSnapshot> content) {
+}
@@ -0,0 +1,49 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A {@link CatalogSnapshot} laid out by column: one array per field, where index i of every array belongs to the same
+ * sound. Field names appear once instead of once per sound, and dateAdded is sent as epoch milliseconds instead of an
+ * ISO date, which shrinks a catalog sync to well under half its JSON size before compression.
+ *
+ * @param version - Catalog version the content reflects.
+ * @param size    - Number of sounds, i.e. the length of every column.
+ */
+public record ColumnarCatalogSnapshot(long version,
+                                      int size,
+                                      List<String> soundFileId,
+                                      List<String> soundFileLocation,
+                                      List<String> category,
+                                      List<Integer> timesPlayed,
+                                      List<Long> dateAdded,
+                                      List<Boolean> favorite,
+                                      List<String> displayName,
+                                      List<Integer> volumeOffsetPercentage) {
+
+    // Media type clients put in the Accept header to get this layout
+    public static final String MEDIA_TYPE = "application/vnd.soundboard.columnar+json";
+
+    public static ColumnarCatalogSnapshot of(CatalogSnapshot snapshot) {
+        List<SoundSnapshot> content = snapshot.content();
+        return new ColumnarCatalogSnapshot(snapshot.version(), content.size(),
+                column(content, SoundSnapshot::soundFileId),
+                column(content, SoundSnapshot::soundFileLocation),
+                column(content, SoundSnapshot::category),
+                column(content, SoundSnapshot::timesPlayed),
+                column(content, sound -> toEpochMilli(sound.dateAdded())),
+                column(content, SoundSnapshot::favorite),
+                column(content, SoundSnapshot::displayName),
+                column(content, SoundSnapshot::volumeOffsetPercentage));
+    }
+
+    private static <T> List<T> column(List<SoundSnapshot> content, Function<SoundSnapshot, T> field) {
+        return content.stream().map(field).toList();
+    }
+
+    private static Long toEpochMilli(ZonedDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toInstant().toEpochMilli();
+    }
+}
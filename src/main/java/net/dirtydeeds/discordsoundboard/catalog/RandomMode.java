@@ -0,0 +1,34 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import java.util.Locale;
+
+/**
+ * How a random sound is picked.
+ */
+public enum RandomMode {
+    /** Every sound is equally likely. */
+    UNIFORM,
+    /** Sounds marked as favorite are much more likely. */
+    FAVORITES,
+    /** Sounds that have been played less often are more likely. */
+    LEAST_PLAYED;
+
+    /**
+     * Parses a mode name, ignoring case and accepting "-" or nothing in place of "_" (e.g. "leastplayed").
+     *
+     * @param value - The mode name.
+     * @return The mode, or null if the value is not a mode name.
+     */
+    public static RandomMode fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace("-", "").replace("_", "");
+        for (RandomMode mode : values()) {
+            if (mode.name().replace("_", "").equals(normalized)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,223 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-memory, case-insensitive index of the sound library keyed by soundFileId. The database stays the durable store;
+ * this catalog is kept in step with it on every save and delete so lookups and listings never have to query it.
+ * <p>
+ * Each change that actually alters a sound bumps the version by one and is published to listeners as a
+ * {@link SoundCatalogEvent}, so clients can follow the catalog without refetching it.
+ */
+public class SoundCatalog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SoundCatalog.class);
+
+    // Fields the search index looks at; other changes (e.g. play counts) don't need re-indexing
+    private static final Set<String> SEARCHABLE_FIELDS = Set.of("soundFileId", "displayName", "category");
+
+    private final ConcurrentSkipListMap<String, SoundFile> sounds =
+            new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final NavigableMap<String, SoundFile> readOnlyView = Collections.unmodifiableNavigableMap(sounds);
+    private final ConcurrentSkipListMap<String, SoundSnapshot> published =
+            new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant lastModified = Instant.now();
+    private final SoundSearchIndex searchIndex = new SoundSearchIndex();
+    private final SoundRandomIndex randomIndex = new SoundRandomIndex();
+    private final SoundSortIndex sortIndex = new SoundSortIndex();
+    private final List<Consumer<SoundCatalogEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Replaces the contents of the catalog. No change events are published; listeners see the version jump and
+     * should fall back to {@link #snapshot()}.
+     *
+     * @param soundFiles - Every sound file in the library.
+     */
+    public synchronized void load(Iterable<SoundFile> soundFiles) {
+        sounds.clear();
+        published.clear();
+        searchIndex.clear();
+        randomIndex.clear();
+        sortIndex.clear();
+        soundFiles.forEach(soundFile -> {
+            sounds.put(soundFile.getSoundFileId(), soundFile);
+            published.put(soundFile.getSoundFileId(), SoundSnapshot.of(soundFile));
+            searchIndex.put(soundFile);
+            randomIndex.put(soundFile);
+            sortIndex.put(soundFile);
+        });
+        version.incrementAndGet();
+        lastModified = Instant.now();
+    }
+
+    public SoundFile get(String soundFileId) {
+        if (soundFileId == null) {
+            return null;
+        }
+        return sounds.get(soundFileId);
+    }
+
+    /**
+     * Adds or updates a sound. Saving a sound that hasn't changed since it was last put doesn't bump the version.
+     */
+    public synchronized void put(SoundFile soundFile) {
+        String soundFileId = soundFile.getSoundFileId();
+        SoundSnapshot next = SoundSnapshot.of(soundFile);
+        SoundSnapshot previous = published.get(soundFileId);
+
+        if (previous == null) {
+            sounds.put(soundFileId, soundFile);
+            published.put(soundFileId, next);
+            searchIndex.put(soundFile);
+            randomIndex.put(soundFile);
+            sortIndex.put(soundFile);
+            publish(SoundCatalogEvent.added(version.incrementAndGet(), next));
+            return;
+        }
+
+        Map<String, Object> changes = previous.changesTo(next);
+        if (changes.containsKey("soundFileId")) {
+            // The map keeps the original key when only the case of the id changes, so replace it outright
+            sounds.remove(soundFileId);
+            published.remove(soundFileId);
+        }
+        sounds.put(soundFileId, soundFile);
+        randomIndex.put(soundFile);
+        sortIndex.put(soundFile);
+        if (changes.isEmpty()) {
+            return;
+        }
+        published.put(soundFileId, next);
+        if (!Collections.disjoint(changes.keySet(), SEARCHABLE_FIELDS)) {
+            searchIndex.put(soundFile);
+        }
+        publish(SoundCatalogEvent.updated(version.incrementAndGet(), previous.soundFileId(), changes));
+    }
+
+    public synchronized void remove(String soundFileId) {
+        if (soundFileId == null) {
+            return;
+        }
+        SoundSnapshot removed = published.remove(soundFileId);
+        if (sounds.remove(soundFileId) != null) {
+            searchIndex.remove(soundFileId);
+            randomIndex.remove(soundFileId);
+            sortIndex.remove(soundFileId);
+            String removedId = removed == null ? soundFileId : removed.soundFileId();
+            publish(SoundCatalogEvent.removed(version.incrementAndGet(), removedId));
+        }
+    }
+
+    /**
+     * Registers a listener for catalog changes. Listeners are called in version order on the thread making the change,
+     * so they must be quick.
+     */
+    public void addListener(Consumer<SoundCatalogEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<SoundCatalogEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return Every sound as last published, together with the version it belongs to.
+     */
+    public synchronized CatalogSnapshot snapshot() {
+        return new CatalogSnapshot(version.get(), List.copyOf(published.values()));
+    }
+
+    /**
+     * @return Read only, live view of the catalog sorted case-insensitively by soundFileId.
+     */
+    public NavigableMap<String, SoundFile> view() {
+        return readOnlyView;
+    }
+
+    /**
+     * @return Counter that increases every time the catalog changes.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @return When the version last changed, or when the catalog was created if it never did.
+     */
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Searches the catalog by id, display name and category, tolerating typos and partial names.
+     *
+     * @param query - What the user typed.
+     * @param limit - Maximum number of results.
+     * @return Matching sound files, best match first.
+     */
+    public List<SoundFile> search(String query, int limit) {
+        return searchIndex.search(query, limit).stream()
+                .map(match -> sounds.get(match.soundFileId()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Picks a random sound without copying the library. Uniform picks are constant time, weighted picks O(log n).
+     *
+     * @param mode     - How to weight the pick.
+     * @param category - Only pick from this category, or null for the whole library.
+     * @return The picked sound, or null if there are no sounds (in the category).
+     */
+    public SoundFile random(RandomMode mode, String category) {
+        return randomIndex.pick(mode, category, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Reads one page of sounds, sorted and filtered. Deep pages cost the same as the first; see {@link SoundSortIndex}.
+     *
+     * @param query - The page to read.
+     * @return The page.
+     * @throws IllegalArgumentException If the query's cursor is not valid for its sort.
+     */
+    public SoundPage page(SoundQuery query) {
+        long pageVersion = version.get();
+        SoundSortIndex.Result result = sortIndex.page(query);
+        List<SoundFile> content = result.soundFileIds().stream()
+                .map(sounds::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new SoundPage(pageVersion, content, result.nextCursor());
+    }
+
+    public int size() {
+        return sounds.size();
+    }
+
+    private void publish(SoundCatalogEvent event) {
+        lastModified = Instant.now();
+        for (Consumer<SoundCatalogEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                LOG.warn("Sound catalog listener failed for version {}", event.version(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import java.util.List;
+
+/**
+ * Consecutive catalog changes sent as one event. Applying them in order moves the catalog from {@code baseVersion} to
+ * {@code version}, so a burst of changes (a bulk upload, a rescan) costs clients one small event instead of the whole
+ * catalog.
+ *
+ * @param version     - Catalog version after the last change.
+ * @param baseVersion - Catalog version the first change applies to.
+ * @param changes     - The changes, oldest first.
+ */
+public record SoundCatalogBatch(long version, long baseVersion, List<SoundCatalogEvent> changes) {
+
+    /**
+     * Name of the SSE event a batch is sent as.
+     */
+    public static final String EVENT_NAME = "soundsChanged";
+
+    /**
+     * @param changes - Changes in the order they happened.
+     * @return The changes as one batch, or null if there are none or one doesn't apply to the version the one before
+     * it left the catalog at.
+     */
+    public static SoundCatalogBatch of(List<SoundCatalogEvent> changes) {
+        if (changes.isEmpty()) {
+            return null;
+        }
+        for (int i = 1; i < changes.size(); i++) {
+            if (changes.get(i).baseVersion() != changes.get(i - 1).version()) {
+                return null;
+            }
+        }
+        return new SoundCatalogBatch(changes.getLast().version(), changes.getFirst().baseVersion(),
+                List.copyOf(changes));
+    }
+}
@@ -0,0 +1,85 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single change to the sound catalog. Every change moves the catalog from {@code baseVersion} to {@code version},
+ * so a client that holds {@code baseVersion} can apply it and one that doesn't knows it missed something.
+ *
+ * @param type        - What happened.
+ * @param version     - Catalog version after the change.
+ * @param baseVersion - Catalog version the change applies to.
+ * @param soundFileId - Id of the sound as clients know it (its id before the change).
+ * @param sound       - The whole sound, for {@link Type#ADDED} only.
+ * @param changes     - Only the fields that changed, for {@link Type#UPDATED} only.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SoundCatalogEvent(@JsonIgnore Type type,
+                                long version,
+                                long baseVersion,
+                                String soundFileId,
+                                SoundSnapshot sound,
+                                Map<String, Object> changes) {
+
+    public enum Type {
+        ADDED("soundAdded"),
+        UPDATED("soundUpdated"),
+        REMOVED("soundRemoved");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        /**
+         * @return Name of the SSE event this change is sent as.
+         */
+        public String eventName() {
+            return eventName;
+        }
+    }
+
+    /**
+     * @return Name of the SSE event this change is sent as, so each change in a {@link SoundCatalogBatch} says what it
+     * is.
+     */
+    @JsonProperty("event")
+    public String eventName() {
+        return type.eventName();
+    }
+
+    /**
+     * Combines this change with the one directly after it when both only update the same sound, e.g. the play counts
+     * of a sound that is played repeatedly.
+     *
+     * @param next - The change that follows this one.
+     * @return One change covering both, or null if they can't be combined.
+     */
+    public SoundCatalogEvent mergeWith(SoundCatalogEvent next) {
+        if (type != Type.UPDATED || next.type() != Type.UPDATED || next.baseVersion() != version
+                || !soundFileId.equals(next.soundFileId()) || changes.containsKey("soundFileId")) {
+            return null;
+        }
+        Map<String, Object> merged = new LinkedHashMap<>(changes);
+        merged.putAll(next.changes());
+        return new SoundCatalogEvent(Type.UPDATED, next.version(), baseVersion, soundFileId, null, merged);
+    }
+
+    static SoundCatalogEvent added(long version, SoundSnapshot sound) {
+        return new SoundCatalogEvent(Type.ADDED, version, version - 1, sound.soundFileId(), sound, null);
+    }
+
+    static SoundCatalogEvent updated(long version, String soundFileId, Map<String, Object> changes) {
+        return new SoundCatalogEvent(Type.UPDATED, version, version - 1, soundFileId, null, changes);
+    }
+
+    static SoundCatalogEvent removed(long version, String soundFileId) {
+        return new SoundCatalogEvent(Type.REMOVED, version, version - 1, soundFileId, null, null);
+    }
+}
@@ -0,0 +1,15 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+
+import java.util.List;
+
+/**
+ * One page of a {@link SoundQuery}.
+ *
+ * @param version    - Catalog version the page was read at.
+ * @param content    - The sounds on the page.
+ * @param nextCursor - Pass this as the cursor to get the next page, or null if this is the last page.
+ */
+public record SoundPage(long version, List<SoundFile> content, String nextCursor) {
+}
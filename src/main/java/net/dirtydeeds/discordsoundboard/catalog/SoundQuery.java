@@ -0,0 +1,34 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import java.util.Objects;
+
+/**
+ * A page of sounds to look up in the catalog.
+ *
+ * @param sort       - Order of the sounds.
+ * @param descending - Whether to reverse the order.
+ * @param category   - Only sounds in this category (ignoring case), or null for every category.
+ * @param favorite   - Only favorites (true) or only other sounds (false), or null for both.
+ * @param text       - Only sounds whose name contains this text (ignoring case), or null.
+ * @param cursor     - {@link SoundPage#nextCursor()} of the previous page, or null for the first page.
+ * @param limit      - Maximum number of sounds on the page.
+ * @throws IllegalArgumentException If the limit is below 1 or the cursor is not one handed out for this sort.
+ */
+public record SoundQuery(SoundSort sort,
+                         boolean descending,
+                         String category,
+                         Boolean favorite,
+                         String text,
+                         String cursor,
+                         int limit) {
+
+    public SoundQuery {
+        Objects.requireNonNull(sort, "sort");
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        if (cursor != null) {
+            SoundSortIndex.checkCursor(sort, cursor);
+        }
+    }
+}
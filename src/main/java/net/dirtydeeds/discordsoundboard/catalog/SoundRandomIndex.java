@@ -0,0 +1,283 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks random sounds. Sounds are kept in arrays (one for the whole library and one per category) that are updated in
+ * place with swap-remove, so a uniform pick is a single array read.
+ * <p>
+ * Weighted picks use a sum tree of the weights per array, lined up with it. Changing a weight (e.g. a sound being
+ * played, which changes its LEAST_PLAYED weight) updates the tree in place, and a pick walks it down to the sound, both
+ * in O(log n). Nothing is rebuilt when the library changes.
+ */
+public class SoundRandomIndex {
+
+    // How much more likely a favorite is than any other sound in FAVORITES mode
+    static final double FAVORITE_WEIGHT = 10;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Indexed> indexed = new HashMap<>();
+    private final Bucket all = new Bucket();
+    private final Map<String, Bucket> categories = new HashMap<>();
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            indexed.clear();
+            all.clear();
+            categories.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a sound, or updates it if a sound with the same id is already indexed.
+     */
+    public void put(SoundFile soundFile) {
+        Indexed next = new Indexed(soundFile);
+        lock.writeLock().lock();
+        try {
+            Indexed previous = indexed.put(next.key, next);
+            if (previous == null) {
+                all.add(next);
+                categories.computeIfAbsent(next.category, c -> new Bucket()).add(next);
+                return;
+            }
+
+            all.replace(next);
+            if (!previous.category.equals(next.category)) {
+                removeFromCategory(previous);
+                categories.computeIfAbsent(next.category, c -> new Bucket()).add(next);
+                return;
+            }
+            categories.get(next.category).replace(next);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String soundFileId) {
+        if (soundFileId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Indexed previous = indexed.remove(soundFileId.toLowerCase(Locale.ROOT));
+            if (previous != null) {
+                all.remove(previous.key);
+                removeFromCategory(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Picks a random sound.
+     *
+     * @param mode     - How to weight the pick.
+     * @param category - Only pick from this category (case-insensitive), or null for the whole library.
+     * @param random   - Source of randomness.
+     * @return The picked sound, or null if there is nothing to pick from.
+     */
+    public SoundFile pick(RandomMode mode, String category, RandomGenerator random) {
+        String categoryKey = category == null ? null : category.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            Bucket bucket = categoryKey == null ? all : categories.get(categoryKey);
+            if (bucket == null || bucket.keys.isEmpty()) {
+                return null;
+            }
+            return bucket.pick(mode, random);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double weight(RandomMode mode, Indexed entry) {
+        return switch (mode) {
+            case FAVORITES -> entry.favorite ? FAVORITE_WEIGHT : 1;
+            case LEAST_PLAYED -> 1.0 / (1 + entry.timesPlayed);
+            case UNIFORM -> 1;
+        };
+    }
+
+    private void removeFromCategory(Indexed entry) {
+        Bucket bucket = categories.get(entry.category);
+        if (bucket != null) {
+            bucket.remove(entry.key);
+            if (bucket.keys.isEmpty()) {
+                categories.remove(entry.category);
+            }
+        }
+    }
+
+    /**
+     * The values a sound was indexed with, so a later put can tell which weights changed.
+     */
+    private static final class Indexed {
+        private final String key;
+        private final String category;
+        private final boolean favorite;
+        private final int timesPlayed;
+        private final SoundFile soundFile;
+
+        private Indexed(SoundFile soundFile) {
+            this.soundFile = soundFile;
+            key = soundFile.getSoundFileId().toLowerCase(Locale.ROOT);
+            category = soundFile.getCategory() == null ? "" : soundFile.getCategory().toLowerCase(Locale.ROOT);
+            favorite = Boolean.TRUE.equals(soundFile.getFavorite());
+            timesPlayed = soundFile.getTimesPlayed() == null ? 0 : Math.max(0, soundFile.getTimesPlayed());
+        }
+    }
+
+    /**
+     * Array of sounds with O(1) add, replace and swap-remove by key, plus a weight tree per weighted mode that is kept
+     * in the same order.
+     */
+    private static final class Bucket {
+        private final List<String> keys = new ArrayList<>();
+        private final List<SoundFile> sounds = new ArrayList<>();
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final Map<RandomMode, WeightTree> weights = new EnumMap<>(RandomMode.class);
+
+        private Bucket() {
+            for (RandomMode mode : RandomMode.values()) {
+                if (mode != RandomMode.UNIFORM) {
+                    weights.put(mode, new WeightTree());
+                }
+            }
+        }
+
+        private void add(Indexed entry) {
+            positions.put(entry.key, keys.size());
+            keys.add(entry.key);
+            sounds.add(entry.soundFile);
+            weights.forEach((mode, tree) -> tree.add(weight(mode, entry)));
+        }
+
+        private void replace(Indexed entry) {
+            int position = positions.get(entry.key);
+            sounds.set(position, entry.soundFile);
+            weights.forEach((mode, tree) -> tree.set(position, weight(mode, entry)));
+        }
+
+        private void remove(String key) {
+            Integer position = positions.remove(key);
+            if (position == null) {
+                return;
+            }
+            int last = keys.size() - 1;
+            if (position != last) {
+                String movedKey = keys.get(last);
+                keys.set(position, movedKey);
+                sounds.set(position, sounds.get(last));
+                positions.put(movedKey, position);
+                weights.values().forEach(tree -> tree.set(position, tree.weight(last)));
+            }
+            keys.remove(last);
+            sounds.remove(last);
+            weights.values().forEach(WeightTree::removeLast);
+        }
+
+        private SoundFile pick(RandomMode mode, RandomGenerator random) {
+            WeightTree tree = mode == null ? null : weights.get(mode);
+            if (tree == null) {
+                return sounds.get(random.nextInt(sounds.size()));
+            }
+            return sounds.get(tree.find(random.nextDouble() * tree.total()));
+        }
+
+        private void clear() {
+            keys.clear();
+            sounds.clear();
+            positions.clear();
+            weights.values().forEach(WeightTree::clear);
+        }
+    }
+
+    /**
+     * Fenwick tree over a list of weights: appending, removing the last weight, changing a weight, the total and
+     * finding the position a running total falls in are all O(log n).
+     */
+    static final class WeightTree {
+        private double[] weights = new double[16];
+        // 1-based; node i holds the sum of the weights at positions i - lowestOneBit(i) up to i - 1
+        private double[] tree = new double[17];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        double weight(int position) {
+            return weights[position];
+        }
+
+        void add(double weight) {
+            if (size == weights.length) {
+                weights = Arrays.copyOf(weights, size * 2);
+                tree = Arrays.copyOf(tree, size * 2 + 1);
+            }
+            weights[size] = weight;
+            int node = ++size;
+            int rangeStart = node - Integer.lowestOneBit(node);
+            double sum = weight;
+            // Sum of the nodes that together cover the rest of this node's range
+            for (int child = node - 1; child > rangeStart; child -= Integer.lowestOneBit(child)) {
+                sum += tree[child];
+            }
+            tree[node] = sum;
+        }
+
+        void set(int position, double weight) {
+            double delta = weight - weights[position];
+            weights[position] = weight;
+            for (int node = position + 1; node <= size; node += Integer.lowestOneBit(node)) {
+                tree[node] += delta;
+            }
+        }
+
+        void removeLast() {
+            // The nodes left only cover positions before the removed one
+            size--;
+        }
+
+        double total() {
+            double total = 0;
+            for (int node = size; node > 0; node -= Integer.lowestOneBit(node)) {
+                total += tree[node];
+            }
+            return total;
+        }
+
+        /**
+         * Finds the position whose weight covers the given point of the running total.
+         *
+         * @param target - A value from 0 (inclusive) to {@link #total()} (exclusive).
+         * @return The position, from 0 to size - 1.
+         */
+        int find(double target) {
+            int node = 0;
+            for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+                int next = node + step;
+                if (next <= size && tree[next] <= target) {
+                    node = next;
+                    target -= tree[next];
+                }
+            }
+            // Rounding in the running sums can walk past the last weight
+            return Math.min(node, size - 1);
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
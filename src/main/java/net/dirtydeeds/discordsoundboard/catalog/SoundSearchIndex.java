@@ -0,0 +1,463 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Search index over soundFileId, displayName and category. Combines a prefix trie over the normalized field values
+ * and their words (for type-ahead) with a trigram inverted index (for typos and partial matches). It is updated one
+ * sound at a time as the catalog changes, so it never has to be rebuilt.
+ * <p>
+ * Sounds are addressed internally by small int document ids so postings and per-query counters are plain int arrays.
+ */
+public class SoundSearchIndex {
+
+    // Weights for where a match was found. The id is what users type in chat, so it counts the most.
+    private static final double ID_WEIGHT = 1.0;
+    private static final double DISPLAY_NAME_WEIGHT = 0.9;
+    private static final double CATEGORY_WEIGHT = 0.5;
+
+    // Minimum Dice similarity for a trigram-only match to be returned
+    private static final double MIN_SIMILARITY = 0.3;
+    // A trigram-only match never scores above this, so prefix matches above it can't be displaced
+    private static final double MAX_TRIGRAM_SCORE = 200;
+
+    // Cap on prefix candidates collected from the trie, so one-letter queries stay cheap on big libraries
+    private static final int MAX_PREFIX_CANDIDATES = 512;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<Entry> docs = new ArrayList<>();
+    private final IntList freeDocIds = new IntList();
+    private final Map<String, IntList> trigramPostings = new HashMap<>();
+    private final TrieNode trieRoot = new TrieNode();
+
+    /**
+     * A ranked search result.
+     *
+     * @param soundFileId - The id of the matching sound.
+     * @param score       - Higher is better.
+     */
+    public record Match(String soundFileId, double score) {
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            docIds.clear();
+            docs.clear();
+            freeDocIds.clear();
+            trigramPostings.clear();
+            trieRoot.children.clear();
+            trieRoot.docs.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a sound to the index, replacing whatever was indexed for the same id before.
+     */
+    public void put(SoundFile soundFile) {
+        Entry entry = new Entry(soundFile);
+        lock.writeLock().lock();
+        try {
+            Integer existing = docIds.get(entry.key);
+            int doc;
+            if (existing != null) {
+                doc = existing;
+                unindex(doc, docs.get(doc));
+                docs.set(doc, entry);
+            } else if (!freeDocIds.isEmpty()) {
+                doc = freeDocIds.removeLast();
+                docs.set(doc, entry);
+            } else {
+                doc = docs.size();
+                docs.add(entry);
+            }
+            docIds.put(entry.key, doc);
+            index(doc, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String soundFileId) {
+        if (soundFileId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.remove(normalize(soundFileId));
+            if (doc != null) {
+                unindex(doc, docs.get(doc));
+                docs.set(doc, null);
+                freeDocIds.add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the sounds that best match the query. Exact and prefix matches on the id rank first, then prefix matches
+     * on words of the display name and category, then fuzzy trigram matches.
+     *
+     * @param query - What the user typed.
+     * @param limit - Maximum number of results.
+     * @return Matches ordered best first.
+     */
+    public List<Match> search(String query, int limit) {
+        String normalizedQuery = normalize(query).trim();
+        if (normalizedQuery.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            double[] scores = new double[docs.size()];
+            IntList scored = new IntList();
+
+            // Prefix candidates, shortest completions first
+            int strongPrefixMatches = 0;
+            IntList prefixCandidates = prefixCandidates(normalizedQuery);
+            for (int i = 0; i < prefixCandidates.size; i++) {
+                int doc = prefixCandidates.values[i];
+                double score = docs.get(doc).prefixScore(normalizedQuery);
+                if (score > 0 && scores[doc] == 0) {
+                    scores[doc] = score;
+                    scored.add(doc);
+                    if (score > MAX_TRIGRAM_SCORE) {
+                        strongPrefixMatches++;
+                    }
+                }
+            }
+
+            // Fuzzy matches can only fill in below the prefix matches, so skip them when there are already enough
+            Set<String> queryTrigrams = strongPrefixMatches >= limit ? Set.of() : trigrams(normalizedQuery);
+            if (!queryTrigrams.isEmpty()) {
+                int[] shared = new int[docs.size()];
+                IntList touched = new IntList();
+                for (String trigram : queryTrigrams) {
+                    IntList postings = trigramPostings.get(trigram);
+                    if (postings != null) {
+                        for (int i = 0; i < postings.size; i++) {
+                            int doc = postings.values[i];
+                            if (shared[doc]++ == 0) {
+                                touched.add(doc);
+                            }
+                        }
+                    }
+                }
+                // Libraries have few categories shared by many sounds, so each category is compared only once
+                Map<String, Double> categorySimilarity = new HashMap<>();
+                int minShared = Math.max(1, (int) Math.ceil(queryTrigrams.size() * MIN_SIMILARITY));
+                for (int i = 0; i < touched.size; i++) {
+                    int doc = touched.values[i];
+                    Entry entry = docs.get(doc);
+                    // The shared count bounds the similarity, so most candidates are dropped without comparing sets
+                    if (shared[doc] >= minShared && entry.maxSimilarity(shared[doc], queryTrigrams.size()) >= MIN_SIMILARITY) {
+                        double score = entry.trigramScore(queryTrigrams, shared[doc], categorySimilarity);
+                        if (score > scores[doc]) {
+                            if (scores[doc] == 0) {
+                                scored.add(doc);
+                            }
+                            scores[doc] = score;
+                        }
+                    }
+                }
+            }
+
+            return topMatches(scores, scored, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Match> topMatches(double[] scores, IntList scored, int limit) {
+        Comparator<Integer> ranking = Comparator.<Integer>comparingDouble(doc -> scores[doc])
+                .thenComparing(doc -> docs.get(doc).soundFileId.length(), Comparator.reverseOrder())
+                .thenComparing(doc -> docs.get(doc).key, Comparator.reverseOrder());
+
+        // Min-heap of the best results so far, so only `limit` candidates are ever ordered
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, ranking);
+        for (int i = 0; i < scored.size; i++) {
+            best.add(scored.values[i]);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            int doc = best.poll();
+            matches.add(new Match(docs.get(doc).soundFileId, scores[doc]));
+        }
+        Collections.reverse(matches);
+        return matches;
+    }
+
+    private void index(int doc, Entry entry) {
+        for (String trigram : entry.allTrigrams) {
+            trigramPostings.computeIfAbsent(trigram, t -> new IntList()).add(doc);
+        }
+        for (String term : entry.terms) {
+            TrieNode node = trieRoot;
+            for (int i = 0; i < term.length(); i++) {
+                node = node.children.computeIfAbsent(term.charAt(i), c -> new TrieNode());
+            }
+            node.docs.add(doc);
+        }
+    }
+
+    private void unindex(int doc, Entry entry) {
+        for (String trigram : entry.allTrigrams) {
+            IntList postings = trigramPostings.get(trigram);
+            if (postings != null) {
+                postings.remove(doc);
+                if (postings.isEmpty()) {
+                    trigramPostings.remove(trigram);
+                }
+            }
+        }
+        for (String term : entry.terms) {
+            removeTerm(trieRoot, term, 0, doc);
+        }
+    }
+
+    // Returns true when the node is empty and can be pruned from its parent
+    private boolean removeTerm(TrieNode node, String term, int depth, int doc) {
+        if (depth == term.length()) {
+            node.docs.remove(doc);
+        } else {
+            TrieNode child = node.children.get(term.charAt(depth));
+            if (child != null && removeTerm(child, term, depth + 1, doc)) {
+                node.children.remove(term.charAt(depth));
+            }
+        }
+        return node.docs.isEmpty() && node.children.isEmpty();
+    }
+
+    private IntList prefixCandidates(String prefix) {
+        IntList candidates = new IntList();
+        TrieNode node = trieRoot;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return candidates;
+        }
+        // Breadth first so the shortest completions are collected before the cap is hit
+        Deque<TrieNode> queue = new ArrayDeque<>();
+        queue.add(node);
+        while (!queue.isEmpty() && candidates.size < MAX_PREFIX_CANDIDATES) {
+            TrieNode current = queue.poll();
+            for (int i = 0; i < current.docs.size && candidates.size < MAX_PREFIX_CANDIDATES; i++) {
+                candidates.add(current.docs.values[i]);
+            }
+            queue.addAll(current.children.values());
+        }
+        return candidates;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : words(normalized)) {
+            // Pad so the start and end of each word produce their own trigrams
+            String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private static double dice(Set<String> query, Set<String> field) {
+        if (query.isEmpty() || field.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String trigram : query) {
+            if (field.contains(trigram)) {
+                shared++;
+            }
+        }
+        return 2.0 * shared / (query.size() + field.size());
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>(4);
+        private final IntList docs = new IntList();
+    }
+
+    /**
+     * Growable list of ints, used for postings so they don't box every document id.
+     */
+    private static final class IntList {
+        private int[] values = new int[2];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // Order does not matter for postings, so the last value fills the gap
+        private void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return;
+                }
+            }
+        }
+
+        private int removeLast() {
+            return values[--size];
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void clear() {
+            size = 0;
+        }
+    }
+
+    /**
+     * What was indexed for one sound, kept so the same terms can be removed when the sound changes.
+     */
+    private static final class Entry {
+        private final String key;
+        private final String soundFileId;
+        private final String displayName;
+        private final String category;
+        private final List<String> idWords;
+        private final List<String> displayNameWords;
+        private final List<String> categoryWords;
+        private final Set<String> idTrigrams;
+        private final Set<String> displayNameTrigrams;
+        private final Set<String> categoryTrigrams;
+        private final Set<String> allTrigrams = new HashSet<>();
+        private final Set<String> terms = new HashSet<>();
+
+        private Entry(SoundFile soundFile) {
+            soundFileId = soundFile.getSoundFileId();
+            key = normalize(soundFileId);
+            displayName = normalize(soundFile.getDisplayName());
+            category = normalize(soundFile.getCategory());
+
+            idWords = words(key);
+            displayNameWords = words(displayName);
+            categoryWords = words(category);
+
+            idTrigrams = trigrams(key);
+            displayNameTrigrams = trigrams(displayName);
+            categoryTrigrams = trigrams(category);
+            allTrigrams.addAll(idTrigrams);
+            allTrigrams.addAll(displayNameTrigrams);
+            allTrigrams.addAll(categoryTrigrams);
+
+            addTerms(key, idWords);
+            addTerms(displayName, displayNameWords);
+            addTerms(category, categoryWords);
+        }
+
+        private void addTerms(String field, List<String> fieldWords) {
+            if (!field.isEmpty()) {
+                terms.add(field);
+                terms.addAll(fieldWords);
+            }
+        }
+
+        private double prefixScore(String query) {
+            if (key.equals(query)) {
+                return 1000;
+            }
+            double score = 0;
+            // Closer to a full match ranks higher among prefix matches
+            if (key.startsWith(query)) {
+                score = 500 + 100.0 * query.length() / key.length();
+            }
+            score = Math.max(score, wordPrefixScore(key, idWords, query, ID_WEIGHT));
+            score = Math.max(score, wordPrefixScore(displayName, displayNameWords, query, DISPLAY_NAME_WEIGHT));
+            score = Math.max(score, wordPrefixScore(category, categoryWords, query, CATEGORY_WEIGHT));
+            return score;
+        }
+
+        private static double wordPrefixScore(String field, List<String> fieldWords, String query, double weight) {
+            if (field.isEmpty()) {
+                return 0;
+            }
+            if (field.startsWith(query)) {
+                return weight * (400 + 100.0 * query.length() / field.length());
+            }
+            for (String word : fieldWords) {
+                if (word.startsWith(query)) {
+                    return weight * (300 + 100.0 * query.length() / word.length());
+                }
+            }
+            return 0;
+        }
+
+        private double maxSimilarity(int shared, int queryTrigramCount) {
+            return Math.max(ID_WEIGHT * maxDice(shared, queryTrigramCount, idTrigrams.size()),
+                    Math.max(DISPLAY_NAME_WEIGHT * maxDice(shared, queryTrigramCount, displayNameTrigrams.size()),
+                            CATEGORY_WEIGHT * maxDice(shared, queryTrigramCount, categoryTrigrams.size())));
+        }
+
+        private static double maxDice(int shared, int queryTrigramCount, int fieldTrigramCount) {
+            if (fieldTrigramCount == 0) {
+                return 0;
+            }
+            return 2.0 * Math.min(shared, fieldTrigramCount) / (queryTrigramCount + fieldTrigramCount);
+        }
+
+        private double trigramScore(Set<String> queryTrigrams, int shared, Map<String, Double> categorySimilarity) {
+            double best = CATEGORY_WEIGHT
+                    * categorySimilarity.computeIfAbsent(category, c -> dice(queryTrigrams, categoryTrigrams));
+            // Only compare a field's trigrams when it could still beat the best field so far
+            if (DISPLAY_NAME_WEIGHT * maxDice(shared, queryTrigrams.size(), displayNameTrigrams.size()) > best) {
+                best = Math.max(best, DISPLAY_NAME_WEIGHT * dice(queryTrigrams, displayNameTrigrams));
+            }
+            if (ID_WEIGHT * maxDice(shared, queryTrigrams.size(), idTrigrams.size()) > best) {
+                best = Math.max(best, ID_WEIGHT * dice(queryTrigrams, idTrigrams));
+            }
+            return best >= MIN_SIMILARITY ? MAX_TRIGRAM_SCORE * best : 0;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable copy of a {@link SoundFile} as it was last published to clients. SoundFile instances are mutated in place
+ * (e.g. when a play count is bumped), so the catalog keeps these to work out which fields actually changed.
+ * Serializes with the same property names as SoundFile.
+ */
+public record SoundSnapshot(String soundFileId,
+                            String soundFileLocation,
+                            String category,
+                            Integer timesPlayed,
+                            ZonedDateTime dateAdded,
+                            Boolean favorite,
+                            String displayName,
+                            Integer volumeOffsetPercentage) {
+
+    public static SoundSnapshot of(SoundFile soundFile) {
+        return new SoundSnapshot(soundFile.getSoundFileId(), soundFile.getSoundFileLocation(), soundFile.getCategory(),
+                soundFile.getTimesPlayed(), soundFile.getDateAdded(), soundFile.getFavorite(),
+                soundFile.getDisplayName(), soundFile.getVolumeOffsetPercentage());
+    }
+
+    /**
+     * Gets the fields that differ in a newer version of this sound.
+     *
+     * @param newer - The newer version.
+     * @return Changed property names mapped to their new values (which may be null). Empty if nothing changed.
+     */
+    public Map<String, Object> changesTo(SoundSnapshot newer) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfChanged(changes, "soundFileId", soundFileId, newer.soundFileId);
+        putIfChanged(changes, "soundFileLocation", soundFileLocation, newer.soundFileLocation);
+        putIfChanged(changes, "category", category, newer.category);
+        putIfChanged(changes, "timesPlayed", timesPlayed, newer.timesPlayed);
+        putIfChanged(changes, "dateAdded", dateAdded, newer.dateAdded);
+        putIfChanged(changes, "favorite", favorite, newer.favorite);
+        putIfChanged(changes, "displayName", displayName, newer.displayName);
+        putIfChanged(changes, "volumeOffsetPercentage", volumeOffsetPercentage, newer.volumeOffsetPercentage);
+        return changes;
+    }
+
+    private static void putIfChanged(Map<String, Object> changes, String field, Object before, Object after) {
+        if (!Objects.equals(before, after)) {
+            changes.put(field, after);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+/**
+ * Orders sounds can be paged in. Sounds that compare equal are ordered by id, so every order is stable.
+ */
+public enum SoundSort {
+    /** By display name, or by id (with "_" read as a space) for sounds without one; ignoring case. */
+    NAME("name"),
+    /** By play count; sounds never played count as 0. */
+    TIMES_PLAYED("timesPlayed"),
+    /** By the date the sound was added; sounds without one come before all others. */
+    DATE_ADDED("dateAdded");
+
+    private final String param;
+
+    SoundSort(String param) {
+        this.param = param;
+    }
+
+    /**
+     * @return Name of the sort as used in request parameters and cursors, e.g. "timesPlayed".
+     */
+    public String param() {
+        return param;
+    }
+
+    /**
+     * @param value - Name of the sort, ignoring case (e.g. "timesplayed").
+     * @return The sort, or null if the value is not a sort name.
+     */
+    public static SoundSort fromParam(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (SoundSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value.trim())) {
+                return sort;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,260 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the sounds sorted in every {@link SoundSort}, for the whole library and per category, so pages can be read
+ * with keyset pagination: a page starts right after the last sound of the previous page, which the cursor describes.
+ * Finding that spot is one tree lookup however deep the page is. Only the favorite and text filters are checked sound
+ * by sound.
+ * <p>
+ * Cursors hold the sort values of the last sound rather than its position, so a page never skips or repeats sounds
+ * because others were added or removed in front of it.
+ */
+public class SoundSortIndex {
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Indexed> indexed = new HashMap<>();
+    private final Sorted all = new Sorted();
+    private final Map<String, Sorted> categories = new HashMap<>();
+
+    /**
+     * Ids of the sounds on one page, and the cursor of the next page (null if there is none).
+     */
+    public record Result(List<String> soundFileIds, String nextCursor) {
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            indexed.clear();
+            all.clear();
+            categories.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a sound, or updates it if a sound with the same id is already indexed.
+     */
+    public void put(SoundFile soundFile) {
+        Indexed next = new Indexed(soundFile);
+        lock.writeLock().lock();
+        try {
+            Indexed previous = indexed.put(next.key(), next);
+            if (next.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                unsort(previous);
+            }
+            all.add(next);
+            categories.computeIfAbsent(next.category(), c -> new Sorted()).add(next);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String soundFileId) {
+        if (soundFileId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Indexed previous = indexed.remove(soundFileId.toLowerCase(Locale.ROOT));
+            if (previous != null) {
+                unsort(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param query - The page to read.
+     * @return The page.
+     * @throws IllegalArgumentException If the cursor is not one this index handed out for the same sort.
+     */
+    public Result page(SoundQuery query) {
+        Indexed after = query.cursor() == null ? null : fromCursor(query.sort(), query.cursor());
+        String text = query.text() == null || query.text().isBlank()
+                ? null : query.text().trim().toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            Sorted sorted = query.category() == null ? all : categories.get(query.category().toLowerCase(Locale.ROOT));
+            if (sorted == null) {
+                return new Result(List.of(), null);
+            }
+            NavigableSet<Indexed> sounds = sorted.by(query.sort());
+            if (query.descending()) {
+                sounds = sounds.descendingSet();
+            }
+            if (after != null) {
+                sounds = sounds.tailSet(after, false);
+            }
+
+            List<String> soundFileIds = new ArrayList<>(Math.min(query.limit(), indexed.size()));
+            Indexed last = null;
+            for (Indexed sound : sounds) {
+                if (query.favorite() != null && sound.favorite() != query.favorite()) {
+                    continue;
+                }
+                if (text != null && !sound.lowerCaseName().contains(text)) {
+                    continue;
+                }
+                if (soundFileIds.size() == query.limit()) {
+                    return new Result(soundFileIds, toCursor(query.sort(), last));
+                }
+                soundFileIds.add(sound.soundFileId());
+                last = sound;
+            }
+            return new Result(soundFileIds, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indexed.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unsort(Indexed sound) {
+        all.remove(sound);
+        Sorted category = categories.get(sound.category());
+        if (category != null) {
+            category.remove(sound);
+            if (category.isEmpty()) {
+                categories.remove(sound.category());
+            }
+        }
+    }
+
+    // Cursor layout: sort, key and the sort value of the last sound on the page, separated by newlines
+    private static String toCursor(SoundSort sort, Indexed last) {
+        String value = switch (sort) {
+            case NAME -> last.name();
+            case TIMES_PLAYED -> Integer.toString(last.timesPlayed());
+            case DATE_ADDED -> Long.toString(last.dateAdded());
+        };
+        String cursor = sort.param() + "\n" + last.key() + "\n" + value;
+        return CURSOR_ENCODER.encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException If the cursor is not one an index handed out for this sort.
+     */
+    static void checkCursor(SoundSort sort, String cursor) {
+        fromCursor(sort, cursor);
+    }
+
+    private static Indexed fromCursor(SoundSort sort, String cursor) {
+        String[] parts = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8).split("\n", 3);
+        if (parts.length != 3 || !parts[0].equals(sort.param())) {
+            throw new IllegalArgumentException("Not a cursor for sort " + sort.param());
+        }
+        String key = parts[1];
+        try {
+            // Only the key and the value of this sort are compared, so the other fields can be anything
+            return switch (sort) {
+                case NAME -> new Indexed(key, key, "", parts[2], false, 0, 0);
+                case TIMES_PLAYED -> new Indexed(key, key, "", "", false, Integer.parseInt(parts[2]), 0);
+                case DATE_ADDED -> new Indexed(key, key, "", "", false, 0, Long.parseLong(parts[2]));
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a cursor for sort " + sort.param(), e);
+        }
+    }
+
+    private static Comparator<Indexed> comparator(SoundSort sort) {
+        Comparator<Indexed> bySort = switch (sort) {
+            case NAME -> Comparator.comparing(Indexed::name, String.CASE_INSENSITIVE_ORDER);
+            case TIMES_PLAYED -> Comparator.comparingInt(Indexed::timesPlayed);
+            case DATE_ADDED -> Comparator.comparingLong(Indexed::dateAdded);
+        };
+        return bySort.thenComparing(Indexed::key);
+    }
+
+    /**
+     * What the index knows about a sound, copied so the sort order can't change when the SoundFile is mutated.
+     */
+    private record Indexed(String key,
+                           String soundFileId,
+                           String category,
+                           String name,
+                           boolean favorite,
+                           int timesPlayed,
+                           long dateAdded) {
+
+        private Indexed(SoundFile soundFile) {
+            this(soundFile.getSoundFileId().toLowerCase(Locale.ROOT),
+                    soundFile.getSoundFileId(),
+                    soundFile.getCategory() == null ? "" : soundFile.getCategory().toLowerCase(Locale.ROOT),
+                    nameOf(soundFile),
+                    Boolean.TRUE.equals(soundFile.getFavorite()),
+                    soundFile.getTimesPlayed() == null ? 0 : soundFile.getTimesPlayed(),
+                    soundFile.getDateAdded() == null ? Long.MIN_VALUE
+                            : soundFile.getDateAdded().toInstant().toEpochMilli());
+        }
+
+        // Same name the web UI shows
+        private static String nameOf(SoundFile soundFile) {
+            String displayName = soundFile.getDisplayName();
+            if (displayName != null && !displayName.isEmpty()) {
+                return displayName;
+            }
+            return soundFile.getSoundFileId().replace('_', ' ');
+        }
+
+        private String lowerCaseName() {
+            return name.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * The same sounds in every sort order.
+     */
+    private static final class Sorted {
+        private final Map<SoundSort, NavigableSet<Indexed>> bySort = new EnumMap<>(SoundSort.class);
+
+        private Sorted() {
+            for (SoundSort sort : SoundSort.values()) {
+                bySort.put(sort, new TreeSet<>(comparator(sort)));
+            }
+        }
+
+        private NavigableSet<Indexed> by(SoundSort sort) {
+            return bySort.get(sort);
+        }
+
+        private void add(Indexed sound) {
+            bySort.values().forEach(sounds -> sounds.add(sound));
+        }
+
+        private void remove(Indexed sound) {
+            bySort.values().forEach(sounds -> sounds.remove(sound));
+        }
+
+        private boolean isEmpty() {
+            return bySort.get(SoundSort.NAME).isEmpty();
+        }
+
+        private void clear() {
+            bySort.values().forEach(Set::clear);
+        }
+    }
+}
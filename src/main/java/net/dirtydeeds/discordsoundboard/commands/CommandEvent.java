@@ -16,19 +16,22 @@ public class CommandEvent {
 
     private static final Logger LOG = LoggerFactory.getLogger(CommandEvent.class);
 
+    // A word, or a quoted phrase that may hold spaces
+    private static final Pattern ARGUMENT = Pattern.compile("([^\"]\\S*|\".+?\")\\s*");
+
     private final MessageReceivedEvent messageReceivedEvent;
     private final LinkedList<String> arguments = new LinkedList<>();
     private String commandString = "";
     private String prefix = "";
 
     public CommandEvent(MessageReceivedEvent messageReceivedEvent) {
-        LOG.debug("Message received: {}", messageReceivedEvent.getMessage().getContentRaw());
         this.messageReceivedEvent = messageReceivedEvent;
         String input = messageReceivedEvent.getMessage().getContentRaw();
+        LOG.debug("Message received: {}", input);
         if (!input.isEmpty()) {
             this.prefix = input.substring(0, 1);
             String theRest = input.substring(1);
-            Matcher m = Pattern.compile("([^\"]\\S*|\".+?\")\\s*").matcher(theRest);
+            Matcher m = ARGUMENT.matcher(theRest);
             while (m.find()) {
                 this.arguments.add(m.group(1).replace("\"", "")); // Add .replace("\"", "") to remove surrounding quotes.
             }
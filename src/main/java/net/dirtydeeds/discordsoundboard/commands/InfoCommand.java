@@ -84,7 +84,7 @@ public class InfoCommand extends Command {
                 "\nVersion: " + version +
                 "\nSoundFiles: " + soundPlayer.getAvailableSoundFiles().size() +
                 "\nCommand Prefix: " + botConfig.getCommandCharacter() +
-                "\nSound File Path: " + botConfig.getSoundFileDir() +
+                "\nSound File Paths: " + String.join(", ", botConfig.getSoundFileDirs()) +
                 "\nWeb UI URL: localhost:" + soundPlayer.getApplicationContext().getWebServer().getPort() +
                 "\nSwagger URL: localhost:" + soundPlayer.getApplicationContext().getWebServer().getPort() + "/swagger-ui/index.html" +
                 "```");
@@ -4,6 +4,8 @@ import net.dirtydeeds.discordsoundboard.SoundPlayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 /**
  * @author Dave Furrer
  * <p>
@@ -11,6 +13,7 @@ import org.slf4j.LoggerFactory;
  */
 public class PlayCommand extends Command {
     private static final Logger LOG = LoggerFactory.getLogger(PlayCommand.class);
+    private static final int MAX_SUGGESTIONS = 3;
 
     private final SoundPlayer soundPlayer;
 
@@ -38,6 +41,14 @@ public class PlayCommand extends Command {
                     repeatNumber = Integer.parseInt(original.substring(repeatIndex + 1).trim()); // +1 to ignore the ~ character
                 }
             }
+
+            List<String> suggestions = soundPlayer.suggestSoundFiles(fileNameRequested, MAX_SUGGESTIONS);
+            if (!suggestions.isEmpty()) {
+                event.replyByPrivateMessage("Could not find sound to play. Requested sound: " + fileNameRequested
+                        + ". Did you mean: " + String.join(", ", suggestions) + "?");
+                return;
+            }
+
             LOG.info("Attempting to play file: {} {} times. Requested by {}.", fileNameRequested, repeatNumber, event.getRequestingUser());
 
             soundPlayer.playForUser(fileNameRequested, event.getAuthor().getName(), repeatNumber, null, event.getAuthor().getName());
@@ -2,6 +2,9 @@ package net.dirtydeeds.discordsoundboard.commands;
 
 import net.dirtydeeds.discordsoundboard.SoundPlaybackException;
 import net.dirtydeeds.discordsoundboard.SoundPlayer;
+import net.dirtydeeds.discordsoundboard.catalog.RandomMode;
+
+import java.util.LinkedList;
 
 /**
  * @author Dave Furrer
@@ -15,15 +18,32 @@ public class RandomCommand extends Command {
     public RandomCommand(SoundPlayer soundPlayer) {
         this.soundPlayer = soundPlayer;
         this.name = "random";
-        this.help = "Plays a random sound from the list";
+        this.help = "Plays a random sound from the list. Optionally add favorites or leastplayed to weight the pick, " +
+                "and/or a category to pick from";
     }
 
     @Override
     protected void execute(CommandEvent event) {
         try {
-            soundPlayer.playRandomSoundFile(event.getRequestingUser(), event.getMessageReceivedEvent(), event.getRequestingUser());
+            LinkedList<String> arguments = event.getArguments();
+            if (arguments.isEmpty()) {
+                soundPlayer.playRandomSoundFile(event.getRequestingUser(), event.getMessageReceivedEvent(), event.getRequestingUser());
+                return;
+            }
+
+            // Arguments are [mode] [category]; either can be left out
+            RandomMode mode = RandomMode.fromString(arguments.getFirst());
+            if (mode != null) {
+                arguments.removeFirst();
+            } else {
+                mode = RandomMode.UNIFORM;
+            }
+            String category = arguments.isEmpty() ? null : String.join(" ", arguments);
+
+            soundPlayer.playRandomSoundFile(event.getRequestingUser(), event.getMessageReceivedEvent(),
+                    event.getRequestingUser(), mode, category);
         } catch (SoundPlaybackException e) {
             event.replyByPrivateMessage("Problem playing random file:" + e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package net.dirtydeeds.discordsoundboard.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills the normalized lookup columns for rows written before those columns existed. New and updated rows get
+ * them from the entity callbacks, so after the first run on an existing database this is a no-op.
+ * <p>
+ * Runs after Hibernate has updated the schema and before the services that query the normalized columns are created.
+ */
+@Component("normalizedKeyMigration")
+@DependsOn("entityManagerFactory")
+public class NormalizedKeyMigration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NormalizedKeyMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NormalizedKeyMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        int users = jdbcTemplate.update(
+                "UPDATE discord_user SET normalized_username = LOWER(username) " +
+                        "WHERE normalized_username IS NULL AND username IS NOT NULL");
+        if (users > 0) {
+            LOG.info("Backfilled normalized lookup keys for {} discord users", users);
+        }
+    }
+}
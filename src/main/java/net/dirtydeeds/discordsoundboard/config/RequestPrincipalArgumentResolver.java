@@ -0,0 +1,41 @@
+package net.dirtydeeds.discordsoundboard.config;
+
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Passes the {@link RequestPrincipal} the {@link RequestPrincipalFilter} attached to the request to controller methods
+ * that take one. Requests that bypassed the filter get one resolved here.
+ */
+public class RequestPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final UserRoleConfig userRoleConfig;
+
+    public RequestPrincipalArgumentResolver(UserRoleConfig userRoleConfig) {
+        this.userRoleConfig = userRoleConfig;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return RequestPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object principal = webRequest.getAttribute(RequestPrincipal.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (principal instanceof RequestPrincipal requestPrincipal) {
+            return requestPrincipal;
+        }
+        RequestPrincipal resolved = userRoleConfig.resolvePrincipal(webRequest.getHeader(HttpHeaders.AUTHORIZATION));
+        webRequest.setAttribute(RequestPrincipal.ATTRIBUTE, resolved, RequestAttributes.SCOPE_REQUEST);
+        return resolved;
+    }
+}
@@ -0,0 +1,36 @@
+package net.dirtydeeds.discordsoundboard.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filter that attaches a {@link RequestPrincipal} for the Authorization header to every request, so the token is
+ * verified and the user and their permissions are loaded at most once however many checks a controller makes.
+ */
+public class RequestPrincipalFilter extends OncePerRequestFilter {
+
+    private final UserRoleConfig userRoleConfig;
+
+    public RequestPrincipalFilter(UserRoleConfig userRoleConfig) {
+        this.userRoleConfig = userRoleConfig;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, @NotNull HttpServletResponse response,
+                                    @NotNull FilterChain filterChain)
+            throws ServletException, IOException {
+        // Nothing is looked up yet; requests that never ask who sent them cost nothing
+        request.setAttribute(RequestPrincipal.ATTRIBUTE,
+                userRoleConfig.resolvePrincipal(request.getHeader(HttpHeaders.AUTHORIZATION)));
+        filterChain.doFilter(request, response);
+    }
+}
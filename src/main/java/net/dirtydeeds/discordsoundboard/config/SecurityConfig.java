@@ -1,6 +1,7 @@
 package net.dirtydeeds.discordsoundboard.config;
 
 import net.dirtydeeds.discordsoundboard.util.OAuth2LoginSuccessHandler;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,6 +20,9 @@ public class SecurityConfig {
     @Autowired
     private OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler;
 
+    @Autowired
+    private UserRoleConfig userRoleConfig;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         CookieCsrfTokenRepository tokenRepository = CookieCsrfTokenRepository.withHttpOnlyFalse();
@@ -33,6 +37,7 @@ public class SecurityConfig {
                     .csrfTokenRequestHandler(requestHandler)
             )
             .addFilterAfter(new CsrfCookieFilter(), CsrfFilter.class)
+            .addFilterAfter(new RequestPrincipalFilter(userRoleConfig), CsrfCookieFilter.class)
             .oauth2Login(oauth2 -> oauth2
                     .successHandler(oAuth2LoginSuccessHandler)
             )
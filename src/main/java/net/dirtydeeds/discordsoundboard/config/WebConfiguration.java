@@ -1,12 +1,22 @@
 package net.dirtydeeds.discordsoundboard.config;
 
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfiguration implements WebMvcConfigurer {
 
+    private final UserRoleConfig userRoleConfig;
+
+    public WebConfiguration(UserRoleConfig userRoleConfig) {
+        this.userRoleConfig = userRoleConfig;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -17,4 +27,9 @@ public class WebConfiguration implements WebMvcConfigurer {
                 .maxAge(3600);
     }
 
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new RequestPrincipalArgumentResolver(userRoleConfig));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package net.dirtydeeds.discordsoundboard.config;
+
+import net.dirtydeeds.discordsoundboard.websocket.ControlSocketHandler;
+import net.dirtydeeds.discordsoundboard.websocket.CsrfCookieHandshakeInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final ControlSocketHandler controlSocketHandler;
+
+    public WebSocketConfig(ControlSocketHandler controlSocketHandler) {
+        this.controlSocketHandler = controlSocketHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Same origins as the REST endpoints (see WebConfiguration); hello's CSRF check keeps other sites out
+        registry.addHandler(controlSocketHandler, ControlSocketHandler.PATH)
+                .addInterceptors(new CsrfCookieHandshakeInterceptor())
+                .setAllowedOriginPatterns("*");
+    }
+}
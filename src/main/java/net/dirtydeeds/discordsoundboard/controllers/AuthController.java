@@ -2,7 +2,7 @@ package net.dirtydeeds.discordsoundboard.controllers;
 
 import io.jsonwebtoken.Claims;
 import net.dirtydeeds.discordsoundboard.util.JwtUtil;
-import org.jetbrains.annotations.NotNull;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.web.csrf.CsrfToken;
@@ -54,7 +54,7 @@ public class AuthController {
             userResponse.put("roles", claims.get("roles", List.class));
 
             // Convert the permissions list to a boolean map
-            Map<String, Boolean> permissions = getStringBooleanMap(permissionsList);
+            Map<String, Boolean> permissions = UserPermission.flagsOf(UserPermission.maskOf(permissionsList));
 
             userResponse.put("permissions", permissions);
 
@@ -84,7 +84,7 @@ public class AuthController {
 
             // Re-fetch roles from UserRoleConfig (which now checks DB)
             java.util.List<String> roles = userRoleConfig.getUserRoles(userId);
-            java.util.Set<String> permissions = userRoleConfig.getUserPermissions(userId);
+            java.util.Set<String> permissions = userRoleConfig.getUserPermissions(userId, roles);
 
             // Preserve existing claims, update roles/permissions
             Map<String, Object> newClaims = new HashMap<>();
@@ -110,27 +110,14 @@ public class AuthController {
     @GetMapping("/default-permissions")
     public ResponseEntity<Map<String, Object>> getDefaultPermissions(CsrfToken csrfToken) {
         // Get permissions for unauthenticated users (default role)
-        java.util.Set<String> permissions = userRoleConfig.getUserPermissions(null);
+        int permissions = userRoleConfig.getPermissionMask(null);
 
         // Convert to boolean map
-        Map<String, Boolean> permissionsMap = getStringBooleanMap(new ArrayList<>(permissions));
+        Map<String, Boolean> permissionsMap = UserPermission.flagsOf(permissions);
 
         Map<String, Object> response = new HashMap<>();
         response.put("permissions", permissionsMap);
 
         return ResponseEntity.ok(response);
     }
-
-    @NotNull
-    private static Map<String, Boolean> getStringBooleanMap(List<String> permissionsList) {
-        Map<String, Boolean> permissions = new HashMap<>();
-        permissions.put("upload", permissionsList.contains("upload"));
-        permissions.put("delete", permissionsList.contains("delete-sounds"));
-        permissions.put("manageUsers", permissionsList.contains("manage-users"));
-        permissions.put("editSounds", permissionsList.contains("edit-sounds"));
-        permissions.put("playSounds", permissionsList.contains("play-sounds"));
-        permissions.put("downloadSounds", permissionsList.contains("download-sounds"));
-        permissions.put("updateVolume", permissionsList.contains("update-volume"));
-        return permissions;
-    }
 }
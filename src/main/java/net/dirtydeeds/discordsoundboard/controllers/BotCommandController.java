@@ -1,16 +1,22 @@
 package net.dirtydeeds.discordsoundboard.controllers;
 
 import io.swagger.v3.oas.annotations.Hidden;
-import net.dirtydeeds.discordsoundboard.SoundPlaybackException;
+import net.dirtydeeds.discordsoundboard.PlayRequestUpdate;
 import net.dirtydeeds.discordsoundboard.SoundPlayer;
 import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import net.dirtydeeds.discordsoundboard.catalog.RandomMode;
 import net.dirtydeeds.discordsoundboard.controllers.response.ChannelResponse;
-import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
-import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import net.dirtydeeds.discordsoundboard.controllers.response.PlayRequestResponse;
+import net.dirtydeeds.discordsoundboard.service.PlayRequestService;
+import net.dirtydeeds.discordsoundboard.service.SoundService;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 
 @Hidden
@@ -20,19 +26,15 @@ import java.util.List;
 public class BotCommandController {
 
     private final SoundPlayer soundPlayer;
-    private final BotVolumeController botVolumeController;
-    private final UserRoleConfig userRoleConfig;
-    private final DiscordUserService discordUserService;
+    private final PlayRequestService playRequestService;
+    private final SoundService soundService;
 
     @Autowired
-    public BotCommandController(SoundPlayer soundPlayer,
-                                BotVolumeController botVolumeController,
-                                UserRoleConfig userRoleConfig,
-                                DiscordUserService discordUserService) {
+    public BotCommandController(SoundPlayer soundPlayer, PlayRequestService playRequestService,
+                                SoundService soundService) {
         this.soundPlayer = soundPlayer;
-        this.botVolumeController = botVolumeController;
-        this.userRoleConfig = userRoleConfig;
-        this.discordUserService = discordUserService;
+        this.playRequestService = playRequestService;
+        this.soundService = soundService;
     }
 
     @PostMapping(value = "/playFile")
@@ -40,87 +42,83 @@ public class BotCommandController {
                             @RequestParam String username,
                             @RequestParam(defaultValue = "1") Integer repeatTimes,
                             @RequestParam(defaultValue = "") String voiceChannelId,
-                            @RequestHeader(value = "Authorization", required = false) String authorization) {
-        String requestingUser = "anonymous";
-        String requestingUserId = null;
-
-        if (authorization != null) {
-            requestingUserId = userRoleConfig.getUserIdFromAuth(authorization);
-            if (requestingUserId != null) {
-                requestingUser = discordUserService.findOneByIdOrUsernameIgnoreCase(requestingUserId, requestingUserId).getUsername();
-            }
-        }
-
+                            RequestPrincipal principal) {
         // Check permission for both authenticated and unauthenticated users
-        if (!userRoleConfig.hasPermission(requestingUserId, "play-sounds")) {
+        if (!principal.hasPermission(UserPermission.PLAY_SOUNDS)) {
             return ResponseEntity.status(403).body("You don't have permission to play sounds");
         }
 
-        soundPlayer.playForUser(soundFileId, username, repeatTimes, voiceChannelId, requestingUser);
-        return ResponseEntity.ok().build();
+        return accepted(playRequestService.submit(soundFileId, username, repeatTimes, voiceChannelId,
+                principal.getUsername()));
     }
 
     @PostMapping(value = "/playUrl")
     public ResponseEntity<?> playSoundUrl(@RequestParam String url, @RequestParam String username,
                         @RequestParam(defaultValue = "") String voiceChannelId,
-                        @RequestHeader(value = "Authorization", required = false) String authorization) {
-        String requestingUser = "anonymous";
-        String requestingUserId = null;
-
-        if (authorization != null) {
-            requestingUserId = userRoleConfig.getUserIdFromAuth(authorization);
-            if (requestingUserId != null) {
-                requestingUser = discordUserService.findOneByIdOrUsernameIgnoreCase(requestingUserId, requestingUserId).getUsername();
-            }
-        }
-
+                        RequestPrincipal principal) {
         // Check permission for both authenticated and unauthenticated users
-        if (!userRoleConfig.hasPermission(requestingUserId, "play-sounds")) {
+        if (!principal.hasPermission(UserPermission.PLAY_SOUNDS)) {
             return ResponseEntity.status(403).body("You don't have permission to play URL");
         }
 
-        soundPlayer.playForUser(url, username, 1, voiceChannelId, requestingUser);
-        return ResponseEntity.ok().build();
+        return accepted(playRequestService.submit(url, username, 1, voiceChannelId, principal.getUsername()));
+    }
+
+    @GetMapping(value = "/requests/{requestId}")
+    public ResponseEntity<PlayRequestUpdate> getPlayRequest(@PathVariable String requestId,
+                                                            RequestPrincipal principal) {
+        if (!principal.hasPermission(UserPermission.PLAY_SOUNDS)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        PlayRequestUpdate update = playRequestService.getUpdate(requestId);
+        if (update == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(update);
+    }
+
+    // Play requests are answered as soon as they're queued; the sound plays once the bot has joined the channel
+    private ResponseEntity<?> accepted(String requestId) {
+        if (requestId == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("Too many sounds waiting to play, try again shortly");
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/bot/requests/" + requestId))
+                .body(new PlayRequestResponse(requestId));
     }
 
     @PostMapping(value = "/random")
     public ResponseEntity<?> playRandom(@RequestParam String username,
                                            @RequestParam(defaultValue = "") String voiceChannelId,
-                                           @RequestHeader(value = "Authorization", required = false) String authorization) {
-        try {
-            String requestingUser = "anonymous";
-            String requestingUserId = null;
-
-            if (authorization != null) {
-                requestingUserId = userRoleConfig.getUserIdFromAuth(authorization);
-                if (requestingUserId != null) {
-                    requestingUser = discordUserService.findOneByIdOrUsernameIgnoreCase(requestingUserId, requestingUserId).getUsername();
-                }
-            }
-
-            // Check permission for both authenticated and unauthenticated users
-            if (!userRoleConfig.hasPermission(requestingUserId, "play-sounds")) {
-                return ResponseEntity.status(403).body("You don't have permission to play sounds");
-            }
-
-            SoundFile soundFile = soundPlayer.playRandomSoundFile(username, null, requestingUser);
-        } catch (SoundPlaybackException e) {
-            return ResponseEntity.internalServerError().build();
+                                           @RequestParam(required = false) String mode,
+                                           @RequestParam(required = false) String category,
+                                           RequestPrincipal principal) {
+        // Check permission for both authenticated and unauthenticated users
+        if (!principal.hasPermission(UserPermission.PLAY_SOUNDS)) {
+            return ResponseEntity.status(403).body("You don't have permission to play sounds");
         }
-        return ResponseEntity.ok().build();
+
+        RandomMode randomMode = mode == null ? RandomMode.UNIFORM : RandomMode.fromString(mode);
+        if (randomMode == null) {
+            return ResponseEntity.badRequest().body("Unknown random mode: " + mode);
+        }
+        // Picked here, then queued like any other sound so the request doesn't wait for the bot to join
+        SoundFile soundFile = soundService.getRandomSoundFile(randomMode, category);
+        if (soundFile == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(category == null ? "No sounds to pick from" : "No sounds in category " + category);
+        }
+        return accepted(playRequestService.submit(soundFile.getSoundFileId(), username, 1, voiceChannelId,
+                principal.getUsername()));
     }
 
     @PostMapping(value = "/stop")
     public ResponseEntity<?> stopPlayback(@RequestParam String username,
                                 @RequestParam(defaultValue = "") String voiceChannelId,
-                                @RequestHeader(value = "Authorization", required = false) String authorization) {
-        String userId = null;
-        if (authorization != null) {
-            userId = userRoleConfig.getUserIdFromAuth(authorization);
-        }
-
+                                RequestPrincipal principal) {
         // Check permission for both authenticated and unauthenticated users
-        if (!userRoleConfig.hasPermission(userId, "play-sounds")) {
+        if (!principal.hasPermission(UserPermission.PLAY_SOUNDS)) {
             return ResponseEntity.status(403).body("You don't have permission to stop sounds");
         }
 
@@ -132,19 +130,14 @@ public class BotCommandController {
     @PostMapping(value = "/volume")
     public ResponseEntity<?> setVolume(@RequestParam Integer volume, @RequestParam String username,
                                 @RequestParam(defaultValue = "") String voiceChannelId,
-                                @RequestHeader(value = "Authorization", required = false) String authorization) {
-        String userId = null;
-        if (authorization != null) {
-            userId = userRoleConfig.getUserIdFromAuth(authorization);
-        }
-
+                                RequestPrincipal principal) {
         // Check permission for both authenticated and unauthenticated users
-        if (!userRoleConfig.hasPermission(userId, "update-volume")) {
+        if (!principal.hasPermission(UserPermission.UPDATE_VOLUME)) {
             return ResponseEntity.status(403).body("You don't have permission to update volume");
         }
 
+        // Broadcasts the new volume to the guild's clients
         soundPlayer.setGlobalVolume(volume, username, null);
-        botVolumeController.broadcastUpdate(username);
         return ResponseEntity.ok().build();
     }
 
@@ -1,66 +1,72 @@
 package net.dirtydeeds.discordsoundboard.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Hidden;
-import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.Setter;
+import net.dirtydeeds.discordsoundboard.GuildVolume;
 import net.dirtydeeds.discordsoundboard.SoundPlayer;
-import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
-import org.springframework.beans.factory.annotation.Autowired;
+import net.dirtydeeds.discordsoundboard.sse.SseEventHub;
+import net.dirtydeeds.discordsoundboard.sse.SseFrame;
+import net.dirtydeeds.discordsoundboard.sse.ThrottledTopic;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Hidden
 @RestController
 @RequestMapping("/api/volume")
 public class BotVolumeController {
 
-    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // Topic of the bot volume on the SSE hub
+    public static final String SSE_TOPIC = "volume";
+
+    // Subscriber parameter naming the user whose volume is sent on connect
+    public static final String USERNAME_PARAM = "username";
+
+    // Subscriber parameter holding the volume the stream endpoint looked up, so it isn't looked up again on connect
+    public static final String VOLUME_PARAM = "volume";
+
+    private static final Logger log = LoggerFactory.getLogger(BotVolumeController.class);
 
     @Setter
     private SoundPlayer soundPlayer;
-    @Autowired
-    private final UserRoleConfig userRoleConfig;
+    private final ObjectMapper objectMapper;
 
-    // Store all active SSE connections
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final SseEventHub sseEventHub;
+    private final ThrottledTopic volumeUpdates;
 
-    private final ScheduledExecutorService sseHeartbeatExecutor =
-            Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "sse-heartbeat");
-                t.setDaemon(true);
-                return t;
-            });
+    // Latest volume of each guild that changed since the last throttled publish
+    private final Map<String, GuildVolume> pendingVolumes = new ConcurrentHashMap<>();
 
     @Inject
-    private BotVolumeController (UserRoleConfig userRoleConfig) {
-        this.userRoleConfig = userRoleConfig;
-
-        // Send a heartbeat every 25 seconds (tweak as needed)
-        sseHeartbeatExecutor.scheduleAtFixedRate(
-                this::broadcastHeartbeatSafely,
-                25, 25, TimeUnit.SECONDS
-        );
+    private BotVolumeController (ObjectMapper objectMapper, SseEventHub sseEventHub) {
+        this.objectMapper = objectMapper;
+        this.sseEventHub = sseEventHub;
+
+        sseEventHub.registerTopic(SSE_TOPIC, this::latestVolumeFrame);
+        this.volumeUpdates = sseEventHub.throttleGuildEvents(SSE_TOPIC, this::pendingVolumeFrames);
     }
 
     @PostMapping(value = "")
     public ResponseEntity<Void> setVolume(@RequestParam Integer volume, @RequestParam String username,
                                           @RequestParam(defaultValue = "") String voiceChannelId,
-                                          @RequestHeader(value = "Authorization", required = false) String authorization) {
+                                          RequestPrincipal principal) {
 
-        String userId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (userId == null || !userRoleConfig.hasPermission(userId, "update-volume")) {
+        if (!principal.isAuthenticated() || !principal.hasPermission(UserPermission.UPDATE_VOLUME)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -80,82 +86,60 @@ public class BotVolumeController {
         response.setHeader("Connection", "keep-alive");
         response.setHeader("X-Accel-Buffering", "no");
 
-        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
-
-        // Add emitter to the list
-        emitters.add(emitter);
-
-        // Remove emitter when completed or timed out
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> {
-            emitters.remove(emitter);
-            emitter.complete();
-        });
-        emitter.onError((e) -> {
-            emitters.remove(emitter);
-            emitter.complete();
-        });
-
-        // Send initial data immediately
-        try {
-            Float globalVolume = soundPlayer.getGlobalVolume(username, null);
-            emitter.send(SseEmitter.event()
-                    .name("globalVolume")
-                    .data(globalVolume));
-        } catch (IOException e) {
-            emitter.complete();
+        // The user's current volume is sent immediately, and later only the volume of the user's guild. A user who
+        // isn't in a voice channel has no guild yet and follows every guild.
+        Map<String, String> params = new HashMap<>();
+        params.put(USERNAME_PARAM, username);
+        GuildVolume volume = soundPlayer.getGuildVolume(username);
+        if (volume != null) {
+            params.put(SseEventHub.GUILDS_PARAM, volume.guildId());
+            params.put(VOLUME_PARAM, Float.toString(volume.volume()));
         }
-
-        return emitter;
+        return sseEventHub.subscribe(List.of(SSE_TOPIC), params);
     }
 
-    // Helper method to broadcast updates to all connected clients
-    public void broadcastUpdate(String username) {
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-        emitters.forEach(emitter -> {
-            try {
-                emitter.send(SseEmitter.event()
-                        .name("globalVolume")
-                        .data(soundPlayer.getGlobalVolume(username, null)));
-            } catch (IOException | IllegalStateException ex) {
-                deadEmitters.add(emitter);
-                try {
-                    emitter.complete();
-                } catch (Exception ignored) {
-                    // best-effort cleanup
-                }
-            }
-        });
+    // Sends a guild's new volume to the clients following that guild. Dragging the volume slider sends many changes;
+    // only the latest of each guild is sent, once per throttle interval.
+    public void broadcastUpdate(GuildVolume volume) {
+        if (volume == null || !sseEventHub.shouldPublish(SSE_TOPIC)) return;
 
-        // Remove dead emitters
-        emitters.removeAll(deadEmitters);
+        pendingVolumes.put(volume.guildId(), volume);
+        volumeUpdates.markDirty();
     }
 
-    private void broadcastHeartbeatSafely() {
-        if (emitters.isEmpty()) return;
-
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-        emitters.forEach(emitter -> {
-            try {
-                // Keep the payload tiny; event name can be anything
-                emitter.send(SseEmitter.event()
-                        .name("heartbeat")
-                        .data("ping"));
-            } catch (IOException | IllegalStateException ex) {
-                deadEmitters.add(emitter);
-                try {
-                    emitter.complete();
-                } catch (Exception ignored) {
-                    // best-effort cleanup
-                }
+    private Map<String, SseFrame> pendingVolumeFrames() {
+        Map<String, SseFrame> frames = new HashMap<>();
+        for (String guildId : List.copyOf(pendingVolumes.keySet())) {
+            GuildVolume volume = pendingVolumes.remove(guildId);
+            SseFrame frame = volume == null ? null : volumeFrame(volume);
+            if (frame != null) {
+                frames.put(guildId, frame);
             }
-        });
+        }
+        return frames;
+    }
 
-        emitters.removeAll(deadEmitters);
+    private SseFrame volumeFrame(GuildVolume volume) {
+        try {
+            return SseFrame.of(objectMapper, "globalVolume", volume);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize volume", e);
+            return null;
+        }
     }
 
-    @PreDestroy
-    public void shutdownHeartbeat() {
-        sseHeartbeatExecutor.shutdownNow();
+    // The volume stream already looked the volume up to pick the guild. Subscribers of the combined stream may not
+    // name a user, in which case there is no volume to send yet.
+    private SseFrame latestVolumeFrame(Map<String, String> params) {
+        String volume = params.get(VOLUME_PARAM);
+        if (volume != null) {
+            return volumeFrame(new GuildVolume(params.get(SseEventHub.GUILDS_PARAM), Float.parseFloat(volume)));
+        }
+        String username = params.get(USERNAME_PARAM);
+        if (username == null) {
+            return null;
+        }
+        GuildVolume current = soundPlayer.getGuildVolume(username);
+        return current == null ? null : volumeFrame(current);
     }
 }
@@ -0,0 +1,63 @@
+package net.dirtydeeds.discordsoundboard.controllers;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import net.dirtydeeds.discordsoundboard.ChatAccessList;
+import net.dirtydeeds.discordsoundboard.ChatAccessList.ChatAccessStats;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@Hidden
+@RestController
+@RequestMapping("/api/chatAccess")
+public class ChatAccessController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChatAccessController.class);
+
+    private final ChatAccessList chatAccessList;
+
+    public ChatAccessController(ChatAccessList chatAccessList) {
+        this.chatAccessList = chatAccessList;
+    }
+
+    /**
+     * Gets how many users the allowed and banned chat command lists hold and when they were loaded.
+     */
+    @GetMapping
+    public ResponseEntity<ChatAccessStats> getStats(RequestPrincipal principal) {
+        if (!principal.isAuthenticated() || !principal.hasPermission(UserPermission.MANAGE_USERS)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(chatAccessList.stats());
+    }
+
+    /**
+     * Reads allowedUsers and bannedUsers again from the config file, so edits apply without a restart.
+     *
+     * @return The sizes of the reloaded lists, 409 if the file no longer sets a list, or 500 if it can't be read.
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<ChatAccessStats> reload(RequestPrincipal principal) {
+        if (!principal.isAuthenticated() || !principal.hasPermission(UserPermission.MANAGE_USERS)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return ResponseEntity.ok(chatAccessList.reload());
+        } catch (IOException e) {
+            LOG.error("Could not reload chat access lists", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (IllegalStateException e) {
+            LOG.warn("Not reloading chat access lists: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package net.dirtydeeds.discordsoundboard.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Hidden;
-import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletResponse;
 import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
 import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
-import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import net.dirtydeeds.discordsoundboard.sse.SseEventHub;
+import net.dirtydeeds.discordsoundboard.sse.SseFrame;
+import net.dirtydeeds.discordsoundboard.sse.ThrottledTopic;
+import net.dirtydeeds.discordsoundboard.util.ConditionalGet;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -15,14 +24,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Set;
 
 @Hidden
 @RestController
@@ -30,49 +37,58 @@ import java.util.concurrent.TimeUnit;
 @SuppressWarnings("unused")
 public class DiscordUserController {
 
-    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // Topic of the in-voice/selected users on the SSE hub
+    public static final String SSE_TOPIC = "discordUsers";
 
-    @Autowired
-    private final UserRoleConfig userRoleConfig;
+    // User listings are tagged with the user version, see DiscordUserService#getVersion()
+    private static final String ETAG_NAME = "users";
 
-    private final DiscordUserService discordUserService;
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private static final Logger log = LoggerFactory.getLogger(DiscordUserController.class);
 
-    private final ScheduledExecutorService sseHeartbeatExecutor =
-            Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "sse-heartbeat");
-                t.setDaemon(true);
-                return t;
-            });
+    private final DiscordUserService discordUserService;
+    private final ObjectMapper objectMapper;
+    private final SseEventHub sseEventHub;
+    private final ThrottledTopic discordUsersUpdates;
 
     @Autowired
-    public DiscordUserController(DiscordUserService discordUserService, UserRoleConfig userRoleConfig) {
+    public DiscordUserController(DiscordUserService discordUserService, ObjectMapper objectMapper,
+                                 SseEventHub sseEventHub) {
         this.discordUserService = discordUserService;
-        this.userRoleConfig = userRoleConfig;
+        this.objectMapper = objectMapper;
+        this.sseEventHub = sseEventHub;
 
-        // Send a heartbeat every 25 seconds (tweak as needed)
-        sseHeartbeatExecutor.scheduleAtFixedRate(
-                this::broadcastHeartbeatSafely,
-                25, 25, TimeUnit.SECONDS
-        );
+        // Clients that picked guilds only see the users in voice there
+        sseEventHub.registerTopic(SSE_TOPIC, params -> latestDiscordUsersFrame(SseEventHub.guilds(params)));
+        this.discordUsersUpdates = sseEventHub.throttleByGuild(SSE_TOPIC, this::findDiscordUsers,
+                this::discordUsersFrame);
     }
 
+    /**
+     * Gets a page of users. Answers 304 when the client's copy (see If-None-Match) is still current.
+     */
     @GetMapping()
-    public Page<DiscordUser> getAll(@RequestParam(defaultValue = "1") int page,
-                                    @RequestParam(defaultValue = "20") int size,
-                                    @RequestParam(defaultValue = "username") String sortBy,
-                                    @RequestParam(defaultValue = "asc") String sortDir) {
+    public ResponseEntity<Page<DiscordUser>> getAll(@RequestParam(defaultValue = "1") int page,
+                                                    @RequestParam(defaultValue = "20") int size,
+                                                    @RequestParam(defaultValue = "username") String sortBy,
+                                                    @RequestParam(defaultValue = "asc") String sortDir,
+                                                    WebRequest request) {
         Sort.Order sortOrder = Sort.Order.asc(sortBy);
         if (sortDir.equalsIgnoreCase("desc")) {
             sortOrder = Sort.Order.desc(sortBy);
         }
-        return discordUserService.findAll(PageRequest.of(page,size, Sort.by(sortOrder, Sort.Order.asc("username"))));
+        Pageable pageable = PageRequest.of(page,size, Sort.by(sortOrder, Sort.Order.asc("username")));
+        String etag = ConditionalGet.etag(ETAG_NAME, discordUserService.getVersion(), request);
+        return ConditionalGet.respond(request, etag, discordUserService.getLastModified(),
+                () -> discordUserService.findAll(pageable));
     }
 
     @GetMapping("/invoiceorselected")
-    public Page<DiscordUser> getInvoice(@RequestParam(defaultValue = "0") int page,
-                                    @RequestParam(defaultValue = "200") int size) {
-        return discordUserService.findByInVoiceIsTrue(Pageable.ofSize(size).withPage(page));
+    public ResponseEntity<Page<DiscordUser>> getInvoice(@RequestParam(defaultValue = "0") int page,
+                                                        @RequestParam(defaultValue = "200") int size,
+                                                        WebRequest request) {
+        String etag = ConditionalGet.etag(ETAG_NAME, discordUserService.getVersion(), request);
+        return ConditionalGet.respond(request, etag, discordUserService.getLastModified(),
+                () -> discordUserService.findByInVoiceIsTrue(Pageable.ofSize(size).withPage(page)));
     }
 
     @PatchMapping("/{userId}")
@@ -80,10 +96,9 @@ public class DiscordUserController {
                         @PathVariable String userId,
                         @RequestParam(required = false) String entranceSound,
                         @RequestParam(required = false) String leaveSound,
-                        @RequestHeader(value = "Authorization", required = false) String authorization) {
+                        RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (userId == null || !userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (userId == null || !principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -105,96 +120,50 @@ public class DiscordUserController {
         response.setHeader("Connection", "keep-alive");
         response.setHeader("X-Accel-Buffering", "no");
 
-        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
-
-        // Add emitter to the list
-        emitters.add(emitter);
-
-        // Remove emitter when completed or timed out
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> {
-            emitters.remove(emitter);
-            emitter.complete();
-        });
-        emitter.onError((e) -> {
-            emitters.remove(emitter);
-            emitter.complete();
-        });
+        // The current users are sent immediately
+        return sseEventHub.subscribe(List.of(SSE_TOPIC), Map.of());
+    }
 
-        // Send initial data immediately
-        try {
-            Page<DiscordUser> discordUsers = discordUserService.findByInVoiceIsTrue(
-                    Pageable.ofSize(200).withPage(0));
-            emitter.send(SseEmitter.event()
-                    .name("discordUsers")
-                    .data(discordUsers));
-        } catch (IOException e) {
-            emitter.complete();
-        }
+    // Helper method to broadcast updates to all connected clients. Bursts of changes (e.g. several users joining at
+    // once) are collected, and the users are queried and serialized once for all of them.
+    public void broadcastUpdate() {
+        if (!sseEventHub.shouldPublish(SSE_TOPIC)) return;
 
-        return emitter;
+        discordUsersUpdates.markDirty();
     }
 
-    // Helper method to broadcast updates to all connected clients
-    public void broadcastUpdate() {
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-        Page<DiscordUser> discordUsers = discordUserService.findByInVoiceIsTrue(
-                Pageable.ofSize(200).withPage(0));
-        emitters.forEach(emitter -> {
-            try {
-                emitter.send(SseEmitter.event()
-                        .name("discordUsers")
-                        .data(discordUsers));
-            } catch (IOException | IllegalStateException ex) {
-                deadEmitters.add(emitter);
-                try {
-                    emitter.complete();
-                } catch (Exception ignored) {
-                    // best-effort cleanup
-                }
-            }
-        });
-
-        // Remove dead emitters
-        emitters.removeAll(deadEmitters);
+    private Page<DiscordUser> findDiscordUsers() {
+        return discordUserService.findByInVoiceIsTrue(Pageable.ofSize(200).withPage(0));
     }
 
-    private void broadcastHeartbeatSafely() {
-        if (emitters.isEmpty()) return;
-
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-        emitters.forEach(emitter -> {
-            try {
-                // Keep the payload tiny; event name can be anything
-                emitter.send(SseEmitter.event()
-                        .name("heartbeat")
-                        .data("ping"));
-            } catch (IOException | IllegalStateException ex) {
-                deadEmitters.add(emitter);
-                try {
-                    emitter.complete();
-                } catch (Exception ignored) {
-                    // best-effort cleanup
-                }
-            }
-        });
-
-        emitters.removeAll(deadEmitters);
+    // The users for clients following the given guilds, or every guild when empty
+    private SseFrame discordUsersFrame(Page<DiscordUser> discordUsers, Set<String> guilds) {
+        Page<DiscordUser> shown = discordUsers;
+        if (!guilds.isEmpty()) {
+            List<DiscordUser> inGuilds = discordUsers.getContent().stream()
+                    .filter(user -> guilds.contains(user.getGuildInAudioId()))
+                    .toList();
+            shown = new PageImpl<>(inGuilds, discordUsers.getPageable(), inGuilds.size());
+        }
+        try {
+            return SseFrame.of(objectMapper, "discordUsers", shown);
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize discord users", e);
+            return null;
+        }
     }
 
-    @PreDestroy
-    public void shutdownHeartbeat() {
-        sseHeartbeatExecutor.shutdownNow();
+    private SseFrame latestDiscordUsersFrame(Set<String> guilds) {
+        return discordUsersFrame(findDiscordUsers(), guilds);
     }
 
     @GetMapping("/roles")
     public ResponseEntity<Page<DiscordUser>> getUsersWithRoles(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -206,21 +175,20 @@ public class DiscordUserController {
     public ResponseEntity<DiscordUser> assignRole(
             @PathVariable String userId,
             @RequestParam String role,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
         // Prevent self-demotion if removing admin role
-        if (authId != null && authId.equals(userId) &&
-                userRoleConfig.hasRole(authId, "admin") && !role.equals("admin")) {
+        if (userId.equals(principal.getUserId()) &&
+                principal.hasRole("admin") && !role.equals("admin")) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
 
         try {
-            DiscordUser user = discordUserService.assignRole(userId, role, authId);
+            DiscordUser user = discordUserService.assignRole(userId, role, principal.getUserId());
 
             // Broadcast update via SSE
             broadcastUpdate();
@@ -234,20 +202,19 @@ public class DiscordUserController {
     @DeleteMapping("/{userId}/role")
     public ResponseEntity<DiscordUser> removeRole(
             @PathVariable String userId,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
         // Prevent self-removal of admin role
-        if (authId != null && authId.equals(userId) && userRoleConfig.hasRole(authId, "admin")) {
+        if (userId.equals(principal.getUserId()) && principal.hasRole("admin")) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
 
         try {
-            DiscordUser user = discordUserService.removeRole(userId, authId);
+            DiscordUser user = discordUserService.removeRole(userId, principal.getUserId());
 
             // Broadcast update via SSE
             broadcastUpdate();
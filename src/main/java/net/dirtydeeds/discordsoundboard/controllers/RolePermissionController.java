@@ -3,6 +3,8 @@ package net.dirtydeeds.discordsoundboard.controllers;
 import io.swagger.v3.oas.annotations.Hidden;
 import net.dirtydeeds.discordsoundboard.beans.RolePermission;
 import net.dirtydeeds.discordsoundboard.service.RolePermissionService;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
 import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -37,10 +39,9 @@ public class RolePermissionController {
      */
     @GetMapping("/configured")
     public ResponseEntity<Set<String>> getConfiguredRoles(
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -59,10 +60,9 @@ public class RolePermissionController {
      */
     @GetMapping()
     public ResponseEntity<List<RolePermission>> getAllRolePermissions(
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -106,10 +106,9 @@ public class RolePermissionController {
     @GetMapping("/{role}")
     public ResponseEntity<Set<String>> getPermissionsForRole(
             @PathVariable String role,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -168,10 +167,9 @@ public class RolePermissionController {
     public ResponseEntity<List<RolePermission>> setPermissionsForRole(
             @PathVariable String role,
             @RequestBody Set<String> permissions,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -181,7 +179,8 @@ public class RolePermissionController {
         }
 
         try {
-            List<RolePermission> rolePermissions = rolePermissionService.setPermissionsForRole(role, permissions, authId);
+            List<RolePermission> rolePermissions = rolePermissionService.setPermissionsForRole(role, permissions,
+                    principal.getUserId());
             return ResponseEntity.ok(rolePermissions);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -196,10 +195,9 @@ public class RolePermissionController {
     public ResponseEntity<RolePermission> addPermissionToRole(
             @PathVariable String role,
             @RequestBody Map<String, String> body,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -214,7 +212,8 @@ public class RolePermissionController {
         }
 
         try {
-            RolePermission rolePermission = rolePermissionService.addPermissionToRole(role, permission, authId);
+            RolePermission rolePermission = rolePermissionService.addPermissionToRole(role, permission,
+                    principal.getUserId());
             return ResponseEntity.ok(rolePermission);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -229,10 +228,9 @@ public class RolePermissionController {
     public ResponseEntity<Void> removePermissionFromRole(
             @PathVariable String role,
             @PathVariable String permission,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -256,10 +254,9 @@ public class RolePermissionController {
     @DeleteMapping("/{role}")
     public ResponseEntity<Void> deleteAllPermissionsForRole(
             @PathVariable String role,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -269,7 +266,7 @@ public class RolePermissionController {
         }
 
         try {
-            rolePermissionService.setPermissionsForRole(role, Set.of(), authId);
+            rolePermissionService.setPermissionsForRole(role, Set.of(), principal.getUserId());
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
@@ -283,10 +280,9 @@ public class RolePermissionController {
     @PostMapping("/{role}/reset")
     public ResponseEntity<Void> resetRoleToDefaults(
             @PathVariable String role,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String authId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(authId, "manage-users")) {
+        if (!principal.hasPermission(UserPermission.MANAGE_USERS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -1,15 +1,30 @@
 package net.dirtydeeds.discordsoundboard.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Hidden;
-import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.Setter;
 import net.dirtydeeds.discordsoundboard.beans.SoundFile;
 import net.dirtydeeds.discordsoundboard.SoundPlayer;
+import net.dirtydeeds.discordsoundboard.catalog.CatalogSnapshot;
+import net.dirtydeeds.discordsoundboard.catalog.ColumnarCatalogSnapshot;
+import net.dirtydeeds.discordsoundboard.catalog.SoundCatalogBatch;
+import net.dirtydeeds.discordsoundboard.catalog.SoundCatalogEvent;
+import net.dirtydeeds.discordsoundboard.catalog.SoundPage;
+import net.dirtydeeds.discordsoundboard.catalog.SoundQuery;
+import net.dirtydeeds.discordsoundboard.catalog.SoundSort;
 import net.dirtydeeds.discordsoundboard.service.SoundService;
-import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
-import org.springframework.beans.factory.annotation.Autowired;
+import net.dirtydeeds.discordsoundboard.sse.SseEventHub;
+import net.dirtydeeds.discordsoundboard.sse.SseFrame;
+import net.dirtydeeds.discordsoundboard.sse.ThrottledTopic;
+import net.dirtydeeds.discordsoundboard.util.ConditionalGet;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.data.domain.Page;
@@ -20,22 +35,21 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.HtmlUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.ZonedDateTime;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,15 +64,15 @@ import org.slf4j.LoggerFactory;
 @SuppressWarnings("unused")
 public class SoundController {
 
-    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // Topic of the sound catalog on the SSE hub
+    public static final String SSE_TOPIC = "sounds";
 
     private static final Logger log = LoggerFactory.getLogger(SoundController.class);
 
-    @Autowired
-    private final UserRoleConfig userRoleConfig;
     @Setter
     private SoundPlayer soundPlayer;
     private final SoundService soundService;
+    private final ObjectMapper objectMapper;
 
     // Allowed MIME types for sound files
     private static final Set<String> ALLOWED_MIME_TYPES = new HashSet<>(Arrays.asList(
@@ -75,35 +89,101 @@ public class SoundController {
             "mp3", "wav", "ogg", "m4a"
     ));
 
+    // Max results returned by a single search
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    // Max sounds on one page of /page
+    private static final int MAX_PAGE_SIZE = 500;
+
     // Max file size (10 MB)
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
 
-    // Store all active SSE connections
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final SseEventHub sseEventHub;
+    private final ThrottledTopic soundsUpdates;
 
-    private final ScheduledExecutorService sseHeartbeatExecutor =
-        Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "sse-heartbeat");
-            t.setDaemon(true);
-            return t;
-        });
+    // Catalog changes and snapshot requests waiting for the next throttled publish; guarded by itself
+    private final List<SoundCatalogEvent> pendingEvents = new ArrayList<>();
+    private boolean snapshotPending;
+
+    // Serialized catalog snapshot, reused for every client that connects until the catalog changes
+    private volatile VersionedFrame snapshotFrame;
 
     @Inject
-    public SoundController (SoundService soundService, UserRoleConfig userRoleConfig) {
+    public SoundController (SoundService soundService, ObjectMapper objectMapper, SseEventHub sseEventHub) {
         this.soundService = soundService;
-        this.userRoleConfig = userRoleConfig;
+        this.objectMapper = objectMapper;
+        this.sseEventHub = sseEventHub;
+
+        // New subscribers and clients that fell behind get the whole catalog
+        sseEventHub.registerTopic(SSE_TOPIC, params -> latestSnapshotFrame());
+        this.soundsUpdates = sseEventHub.throttle(SSE_TOPIC, this::pendingFrame);
 
-        // Send a heartbeat every 25 seconds (tweak as needed)
-        sseHeartbeatExecutor.scheduleAtFixedRate(
-                this::broadcastHeartbeatSafely,
-                25, 25, TimeUnit.SECONDS
-        );
+        // Push each catalog change to clients as it happens instead of resending the whole library
+        soundService.addCatalogListener(this::broadcastCatalogEvent);
     }
 
+    /**
+     * Gets every sound. Answers 304 when the client's copy (see If-None-Match) is still current.
+     */
     @GetMapping("/findAll")
-    public Page<SoundFile> getAll() {
+    public ResponseEntity<Page<SoundFile>> getAll(WebRequest request) {
         Pageable wholePage = Pageable.unpaged();
-        return soundService.findAll(wholePage);
+        String etag = ConditionalGet.etag("sounds", soundService.getCatalogVersion(), request);
+        return ConditionalGet.respond(request, etag, soundService.getCatalogLastModified(),
+                () -> soundService.findAll(wholePage));
+    }
+
+    /**
+     * Gets every sound together with the catalog version. SSE clients use this to resync when they miss an event.
+     * Sent as JSON, or as CBOR to clients that accept application/cbor. Answers 304 when the client's copy is still
+     * current.
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<CatalogSnapshot> getSnapshot(WebRequest request) {
+        String etag = ConditionalGet.etag("snapshot", soundService.getCatalogVersion(), request);
+        return ConditionalGet.respond(request, etag, soundService.getCatalogLastModified(),
+                soundService::getCatalogSnapshot);
+    }
+
+    /**
+     * Same as {@link #getSnapshot(WebRequest)}, laid out by column for clients that ask for
+     * {@value ColumnarCatalogSnapshot#MEDIA_TYPE}.
+     */
+    @GetMapping(value = "/snapshot", produces = ColumnarCatalogSnapshot.MEDIA_TYPE)
+    public ResponseEntity<ColumnarCatalogSnapshot> getColumnarSnapshot(WebRequest request) {
+        String etag = ConditionalGet.etag("snapshot", soundService.getCatalogVersion(), request);
+        return ConditionalGet.respond(request, etag, soundService.getCatalogLastModified(),
+                () -> ColumnarCatalogSnapshot.of(soundService.getCatalogSnapshot()));
+    }
+
+    /**
+     * Exports every sound as newline delimited JSON (one sound per line), e.g. for backups. Rows are read from the
+     * database and written to the response one at a time, so memory use doesn't grow with the size of the library.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        // Flushing after every sound would send each one in its own chunk; let the generator fill its buffer
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // Each line ends itself, so an empty library exports nothing at all
+                generator.setRootValueSeparator(null);
+                soundService.forEachSoundFile(soundFile -> {
+                    try {
+                        writer.writeValue(generator, soundFile);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"sounds.ndjson\"")
+                .body(body);
     }
 
     @GetMapping(value = "/categories")
@@ -114,14 +194,57 @@ public class SoundController {
                 .collect(Collectors.toSet());
     }
 
+    @GetMapping("/search")
+    public List<SoundFile> search(@RequestParam("q") String query,
+                                  @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return soundService.search(query, Math.clamp(limit, 1, MAX_SEARCH_RESULTS));
+    }
+
+    /**
+     * Gets one page of sounds, sorted and filtered on the server, so clients don't need the whole library.
+     *
+     * @param sortBy   - name, timesPlayed or dateAdded.
+     * @param sortDir  - asc or desc.
+     * @param category - Only sounds in this category. Optional.
+     * @param favorite - Only favorites (true) or only other sounds (false). Optional.
+     * @param search   - Only sounds whose name contains this text. Optional.
+     * @param cursor   - nextCursor of the previous page; omit for the first page.
+     * @param size     - Maximum number of sounds on the page.
+     * @return The page, or 400 if the sort or the cursor is not valid.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<SoundPage> getPage(@RequestParam(defaultValue = "name") String sortBy,
+                                             @RequestParam(defaultValue = "asc") String sortDir,
+                                             @RequestParam(required = false) String category,
+                                             @RequestParam(required = false) Boolean favorite,
+                                             @RequestParam(required = false) String search,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "100") int size,
+                                             WebRequest request) {
+        SoundSort sort = SoundSort.fromParam(sortBy);
+        if (sort == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        // The cursor is checked here, as a request for an unchanged catalog never reaches the lookup
+        SoundQuery query;
+        try {
+            query = new SoundQuery(sort, sortDir.equalsIgnoreCase("desc"), category, favorite, search, cursor,
+                    Math.clamp(size, 1, MAX_PAGE_SIZE));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = ConditionalGet.etag("page", soundService.getCatalogVersion(), request);
+        return ConditionalGet.respond(request, etag, soundService.getCatalogLastModified(),
+                () -> soundService.findPage(query));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteSoundFile(
             @PathVariable String id,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
         try {
-            String userId = userRoleConfig.getUserIdFromAuth(authorization);
-            if (userId == null || !userRoleConfig.hasPermission(userId, "delete-sounds")) {
+            if (!principal.isAuthenticated() || !principal.hasPermission(UserPermission.DELETE_SOUNDS)) {
                 return ResponseEntity.status(403).body("You don't have permission to delete sounds");
             }
 
@@ -152,11 +275,10 @@ public class SoundController {
     @GetMapping(value = "/download/{soundId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public ResponseEntity<Resource> downloadFile(
             @PathVariable String soundId,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
         try {
             // Check permission for both authenticated and unauthenticated users
-            String userId = userRoleConfig.getUserIdFromAuth(authorization);
-            if (!userRoleConfig.hasPermission(userId, "download-sounds")) {
+            if (!principal.hasPermission(UserPermission.DOWNLOAD_SOUNDS)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
@@ -185,9 +307,8 @@ public class SoundController {
     @PostMapping(value = "/favorite/{soundId}")
     public ResponseEntity<Void> setFavorite(@PathVariable String soundId,
                                     @RequestParam(defaultValue = "false") Boolean favorite,
-                                    @RequestHeader(value = "Authorization", required = false) String authorization) {
-        String userId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (userId == null || !userRoleConfig.hasPermission(userId, "edit-sounds")) {
+                                    RequestPrincipal principal) {
+        if (!principal.isAuthenticated() || !principal.hasPermission(UserPermission.EDIT_SOUNDS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         SoundFile soundFile = soundService.findOneBySoundFileIdIgnoreCase(soundId);
@@ -196,8 +317,6 @@ public class SoundController {
 
         soundService.save(soundFile);
 
-        broadcastUpdate();
-
         return ResponseEntity.ok().build();
     }
 
@@ -206,10 +325,9 @@ public class SoundController {
             @PathVariable String soundId,
             @RequestParam(defaultValue = "0") Integer volumeOffsetPercentage,
             @RequestParam String displayName,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
 
-        String userId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (userId == null || !userRoleConfig.hasPermission(userId, "edit-sounds")) {
+        if (!principal.isAuthenticated() || !principal.hasPermission(UserPermission.EDIT_SOUNDS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -222,18 +340,15 @@ public class SoundController {
 
         soundService.save(soundFile);
 
-        broadcastUpdate();
-
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/upload")
     public ResponseEntity<String> uploadFile(
             @RequestParam("file") MultipartFile file,
-            @RequestHeader(value = "Authorization", required = false) String authorization) {
+            RequestPrincipal principal) {
         try {
-            String userId = userRoleConfig.getUserIdFromAuth(authorization);
-            if (userId == null || !userRoleConfig.hasPermission(userId, "upload")) {
+            if (!principal.isAuthenticated() || !principal.hasPermission(UserPermission.UPLOAD)) {
                 return ResponseEntity.status(403).body("You don't have permission to upload sounds");
             }
 
@@ -275,8 +390,6 @@ public class SoundController {
                                             ZonedDateTime.now(),false, null, 0));
             log.error("Failed to upload file");
 
-            broadcastUpdate();
-
             return ResponseEntity.ok("File uploaded successfully: " + HtmlUtils.htmlEscape(originalFilename));
 
         } catch (Exception e) {
@@ -288,10 +401,9 @@ public class SoundController {
     @GetMapping(value = "/{soundFileId}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
     public ResponseEntity<Resource> getAudioFile(
             @PathVariable String soundFileId,
-            @RequestHeader(value = "Authorization", required = false) String authorization) throws IOException {
+            RequestPrincipal principal) throws IOException {
         // Check permission for both authenticated and unauthenticated users
-        String userId = userRoleConfig.getUserIdFromAuth(authorization);
-        if (!userRoleConfig.hasPermission(userId, "download-sounds")) {
+        if (!principal.hasPermission(UserPermission.DOWNLOAD_SOUNDS)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -316,62 +428,105 @@ public class SoundController {
         response.setHeader("Connection", "keep-alive");
         response.setHeader("X-Accel-Buffering", "no");
 
-        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
-
-        // Add emitter to the list
-        emitters.add(emitter);
+        // Sends the whole catalog once; after that clients only get soundAdded/soundUpdated/soundRemoved events
+        return sseEventHub.subscribe(List.of(SSE_TOPIC), Map.of());
+    }
 
-        // Remove emitter when completed or timed out
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> {
-            emitters.remove(emitter);
-            emitter.complete();
-        });
-        emitter.onError((e) -> {
-            emitters.remove(emitter);
-            emitter.complete();
-        });
+    // Sends the whole catalog to all connected clients, e.g. after it was reloaded without change events
+    public void broadcastUpdate() {
+        if (!sseEventHub.shouldPublish(SSE_TOPIC)) return;
 
-        // Send initial data immediately
-        try {
-            Page<SoundFile> sounds = soundService.findAll(Pageable.unpaged());
-            emitter.send(SseEmitter.event()
-                    .name("sounds")
-                    .data(sounds));
-        } catch (IOException e) {
-            emitter.completeWithError(e);
+        synchronized (pendingEvents) {
+            snapshotPending = true;
         }
+        soundsUpdates.markDirty();
+    }
 
-        return emitter;
+    // Queues a single catalog change for all connected clients
+    private void broadcastCatalogEvent(SoundCatalogEvent event) {
+        if (!sseEventHub.shouldPublish(SSE_TOPIC)) return;
+
+        synchronized (pendingEvents) {
+            int last = pendingEvents.size() - 1;
+            SoundCatalogEvent merged = last < 0 ? null : pendingEvents.get(last).mergeWith(event);
+            if (merged != null) {
+                pendingEvents.set(last, merged);
+            } else {
+                pendingEvents.add(event);
+            }
+        }
+        soundsUpdates.markDirty();
     }
 
-    // Helper method to broadcast updates to all connected clients
-    public void broadcastUpdate() {
-        Page<SoundFile> sounds = soundService.findAll(Pageable.unpaged());
+    // Everything that changed since the last publish as one event: the change itself if there was only one, a batch of
+    // the changes if there were more, or the whole catalog when that is what clients need
+    private SseFrame pendingFrame() {
+        List<SoundCatalogEvent> events;
+        boolean snapshot;
+        synchronized (pendingEvents) {
+            events = List.copyOf(pendingEvents);
+            snapshot = snapshotPending;
+            pendingEvents.clear();
+            snapshotPending = false;
+        }
+        if (!snapshot) {
+            if (events.isEmpty()) {
+                return null;
+            }
+            SseFrame delta = deltaFrame(events);
+            if (delta != null) {
+                return delta;
+            }
+        }
+        return latestSnapshotFrame();
+    }
 
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-        emitters.forEach(emitter -> {
-            try {
-                emitter.send(SseEmitter.event()
-                        .name("sounds")
-                        .data(sounds));
-            } catch (IOException | IllegalStateException ex) {
-                deadEmitters.add(emitter);
-                try {
-                    emitter.complete();
-                } catch (Exception ignored) {
-                    // best-effort cleanup
-                }
+    // The changes as one event, or null when they can't be sent as a delta or the catalog would be smaller
+    private SseFrame deltaFrame(List<SoundCatalogEvent> events) {
+        try {
+            if (events.size() == 1) {
+                SoundCatalogEvent event = events.getFirst();
+                return SseFrame.of(objectMapper, event.type().eventName(), event);
             }
-        });
+            // More changes than sounds: the catalog is no bigger and clients don't have to apply each one
+            SoundCatalogBatch batch = SoundCatalogBatch.of(events);
+            if (batch == null || events.size() >= soundService.getCatalog().size()) {
+                return null;
+            }
+            SseFrame frame = SseFrame.of(objectMapper, SoundCatalogBatch.EVENT_NAME, batch);
+            VersionedFrame cached = snapshotFrame;
+            if (cached != null && cached.version() == batch.version() && cached.frame().size() <= frame.size()) {
+                return null;
+            }
+            return frame;
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize sound catalog changes up to {}", events.getLast().version(), e);
+            return null;
+        }
+    }
 
-        // Remove dead emitters
-        emitters.removeAll(deadEmitters);
+    private SseFrame snapshotFrame() throws JsonProcessingException {
+        VersionedFrame cached = snapshotFrame;
+        if (cached != null && cached.version() == soundService.getCatalogVersion()) {
+            return cached.frame();
+        }
+        CatalogSnapshot snapshot = soundService.getCatalogSnapshot();
+        SseFrame frame = SseFrame.of(objectMapper, "sounds", snapshot);
+        snapshotFrame = new VersionedFrame(snapshot.version(), frame);
+        return frame;
     }
 
-    @PreDestroy
-    public void shutdownHeartbeat() {
-        sseHeartbeatExecutor.shutdownNow();
+    // Sent instead of queued changes to a client that fell too far behind
+    private SseFrame latestSnapshotFrame() {
+        try {
+            return snapshotFrame();
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize sound catalog", e);
+            return null;
+        }
+    }
+
+    private record VersionedFrame(long version, SseFrame frame) {
     }
 
     private String getFileExtension(String filename) {
@@ -399,27 +554,4 @@ public class SoundController {
         // OGG: starts with "OggS"
         return header[0] == 'O' && header[1] == 'g' && header[2] == 'g' && header[3] == 'S';
     }
-
-    private void broadcastHeartbeatSafely() {
-        if (emitters.isEmpty()) return;
-
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-        emitters.forEach(emitter -> {
-            try {
-                // Keep the payload tiny; event name can be anything
-                emitter.send(SseEmitter.event()
-                        .name("heartbeat")
-                        .data("ping"));
-            } catch (IOException | IllegalStateException ex) {
-                deadEmitters.add(emitter);
-                try {
-                    emitter.complete();
-                } catch (Exception ignored) {
-                    // best-effort cleanup
-                }
-            }
-        });
-
-        emitters.removeAll(deadEmitters);
-    }
 }
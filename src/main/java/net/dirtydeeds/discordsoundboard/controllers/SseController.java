@@ -0,0 +1,81 @@
+package net.dirtydeeds.discordsoundboard.controllers;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.servlet.http.HttpServletResponse;
+import net.dirtydeeds.discordsoundboard.sse.SseEventHub;
+import net.dirtydeeds.discordsoundboard.sse.SseTopicStats;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+
+@Hidden
+@RestController
+@RequestMapping("/api")
+public class SseController {
+
+    private final SseEventHub sseEventHub;
+
+    public SseController(SseEventHub sseEventHub) {
+        this.sseEventHub = sseEventHub;
+    }
+
+    /**
+     * One stream for every kind of live update, so a browser needs a single connection instead of one per stream.
+     *
+     * @param topics      - Topics to follow, comma separated (e.g. sounds,playback). All topics when omitted.
+     * @param username    - User whose volume is sent on connect. Optional.
+     * @param guilds      - Only send playback and in-voice users of these guilds, comma separated. All guilds when
+     *                    omitted.
+     * @param lastEventId - Id of the last event the browser got before reconnecting; only what it missed is sent.
+     * @return The stream, or 400 if a topic doesn't exist.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestParam(required = false) List<String> topics,
+                                                   @RequestParam(required = false) String username,
+                                                   @RequestParam(required = false) List<String> guilds,
+                                                   @RequestHeader(value = "Last-Event-ID", required = false)
+                                                   String lastEventId,
+                                                   HttpServletResponse response) {
+        Set<String> requested = new LinkedHashSet<>();
+        if (topics != null) {
+            topics.stream().map(String::trim).filter(topic -> !topic.isEmpty()).forEach(requested::add);
+        }
+        if (requested.isEmpty()) {
+            requested.addAll(sseEventHub.getTopicNames());
+        }
+        if (!requested.stream().allMatch(sseEventHub::hasTopic)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("Connection", "keep-alive");
+        response.setHeader("X-Accel-Buffering", "no");
+
+        Map<String, String> params = new HashMap<>();
+        if (username != null && !username.isBlank()) {
+            params.put(BotVolumeController.USERNAME_PARAM, username);
+        }
+        if (guilds != null && !guilds.isEmpty()) {
+            params.put(SseEventHub.GUILDS_PARAM, String.join(",", guilds));
+        }
+        return ResponseEntity.ok(sseEventHub.subscribe(requested, params, lastEventId));
+    }
+
+    /**
+     * Gets subscriber counts, queue depths and drop counters for every SSE topic.
+     */
+    @GetMapping("/sse/metrics")
+    public ResponseEntity<List<SseTopicStats>> getMetrics(
+            RequestPrincipal principal) {
+        if (!principal.isAuthenticated() || !principal.hasPermission(UserPermission.MANAGE_USERS)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(sseEventHub.stats());
+    }
+}
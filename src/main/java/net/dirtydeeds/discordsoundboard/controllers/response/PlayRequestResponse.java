@@ -0,0 +1,7 @@
+package net.dirtydeeds.discordsoundboard.controllers.response;
+
+/**
+ * Body of a 202 from the play endpoints. Progress of the request comes as playRequest events carrying the same id.
+ */
+public record PlayRequestResponse(String requestId) {
+}
@@ -2,6 +2,7 @@ package net.dirtydeeds.discordsoundboard.listeners;
 
 import lombok.Getter;
 import net.dirtydeeds.discordsoundboard.BotConfig;
+import net.dirtydeeds.discordsoundboard.ChatAccessList;
 import net.dirtydeeds.discordsoundboard.commands.Command;
 import net.dirtydeeds.discordsoundboard.commands.CommandEvent;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
@@ -12,7 +13,10 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -26,33 +30,36 @@ public class CommandListener extends ListenerAdapter {
     private static final Logger LOG = LoggerFactory.getLogger(CommandListener.class);
 
     private final BotConfig botConfig;
+    private final ChatAccessList chatAccessList;
     @Getter
     private final Set<Command> commands = new HashSet<>();
+    // Lowercased command name to its command, so a command is found with one hash lookup in any case
+    private final Map<String, Command> commandsByName = new HashMap<>();
 
-    public CommandListener(BotConfig botConfig) {
+    public CommandListener(BotConfig botConfig, ChatAccessList chatAccessList) {
         this.botConfig = botConfig;
+        this.chatAccessList = chatAccessList;
     }
 
     public void addCommand(Command command) {
         commands.add(command);
+        commandsByName.putIfAbsent(command.getName().toLowerCase(Locale.ROOT), command);
     }
 
     private Optional<Command> findCommand(String name) {
-        return commands.stream()
-                .filter(c -> c.getName().equalsIgnoreCase(name))
-                .findFirst();
+        return Optional.ofNullable(commandsByName.get(name.toLowerCase(Locale.ROOT)));
     }
 
     @Override
     public void onMessageReceived(@NotNull MessageReceivedEvent event) {
-        CommandEvent commandEvent = new CommandEvent(event);
         if (botConfig.isRespondToChatCommands() &&
                 !event.getAuthor().isBot() &&
                 ((botConfig.isRespondToDmsString() && event.isFromType(ChannelType.PRIVATE)) ||
                 !event.isFromType(ChannelType.PRIVATE))) {
 
-            String message = commandEvent.getMessage();
-            if (message.startsWith(botConfig.getCommandCharacter())) {
+            // Most messages aren't commands, so check the prefix before parsing the message
+            if (isCommand(event.getMessage().getContentRaw(), botConfig.getCommandCharacter())) {
+                CommandEvent commandEvent = new CommandEvent(event);
                 if (isUserAllowed(commandEvent.getRequestingUser()) &&
                         !isUserBanned(commandEvent.getRequestingUser())) {
 
@@ -77,17 +84,28 @@ public class CommandListener extends ListenerAdapter {
         }
     }
 
+    /**
+     * Whether the trimmed message starts with the command character. Works on the raw message, so it doesn't copy
+     * messages that turn out not to be commands.
+     */
+    static boolean isCommand(String message, String commandCharacter) {
+        int start = 0;
+        int end = message.length();
+        while (start < end && message.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && message.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end - start >= commandCharacter.length() && message.startsWith(commandCharacter, start);
+    }
+
     public boolean isUserAllowed(String username) {
-        if (botConfig.getAllowedUsersList() == null) {
-            return true;
-        } else if (botConfig.getAllowedUsersList().isEmpty()) {
-            return true;
-        } else return botConfig.getAllowedUsersList().contains(username);
+        return chatAccessList.isUserAllowed(username);
     }
 
     public boolean isUserBanned(String username) {
-        return botConfig.getBannedUsersList() != null && !botConfig.getBannedUsersList().isEmpty()
-                && botConfig.getBannedUsersList().contains(username);
+        return chatAccessList.isUserBanned(username);
     }
 
     private void afterMessageReceived(@NotNull MessageReceivedEvent event) {
@@ -7,7 +7,11 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 public interface DiscordUserRepository extends PagingAndSortingRepository<DiscordUser, String>, CrudRepository<DiscordUser, String> {
-    DiscordUser findOneByIdOrUsernameIgnoreCase(String id, String userName);
+    /**
+     * Looks up a user by id or by indexed lower case user name. Pass the name through
+     * {@link net.dirtydeeds.discordsoundboard.util.LookupKeys#normalize(String)} first.
+     */
+    DiscordUser findOneByIdOrNormalizedUsername(String id, String normalizedUsername);
 
     Page<DiscordUser> findByInVoiceIsTrue(Pageable pageable);
 }
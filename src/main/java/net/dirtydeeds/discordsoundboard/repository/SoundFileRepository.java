@@ -1,12 +1,28 @@
 package net.dirtydeeds.discordsoundboard.repository;
 
+import jakarta.persistence.QueryHint;
 import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.stream.Stream;
+
 /**
  * @author dfurrer.
  */
 public interface SoundFileRepository extends PagingAndSortingRepository<SoundFile, String>, CrudRepository<SoundFile, String> {
-    SoundFile findOneBySoundFileIdIgnoreCase(String name);
+    // Rows fetched per database round trip when streaming
+    String STREAM_FETCH_SIZE = "256";
+
+    /**
+     * Streams every sound ordered by id, read-only and {@value #STREAM_FETCH_SIZE} rows at a time, so the whole table
+     * never has to be in memory. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<SoundFile> streamAllByOrderBySoundFileIdAsc();
 }
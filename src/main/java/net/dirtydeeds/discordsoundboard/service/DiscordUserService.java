@@ -5,6 +5,7 @@ import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public interface DiscordUserService {
@@ -28,4 +29,14 @@ public interface DiscordUserService {
     DiscordUser assignRole(String userId, String role, String assignedByUserId) throws Exception;
 
     DiscordUser removeRole(String userId, String removedByUserId) throws Exception;
+
+    /**
+     * Gets a counter that increases every time a user is saved or deleted through this service.
+     */
+    long getVersion();
+
+    /**
+     * Gets the time the version last changed.
+     */
+    Instant getLastModified();
 }
@@ -0,0 +1,24 @@
+package net.dirtydeeds.discordsoundboard.service;
+
+import net.dirtydeeds.discordsoundboard.PlayRequestUpdate;
+
+/**
+ * Plays sounds requested through the web UI off the request thread. Joining a voice channel can take seconds, so a
+ * request is only queued and answered with an id; its progress is sent as playRequest events on the playback topic.
+ */
+public interface PlayRequestService {
+
+    /**
+     * Queues a sound (or URL) to be played for a user, see
+     * {@link net.dirtydeeds.discordsoundboard.SoundPlayer#playForUser(String, String, Integer, String, String)}.
+     * Requests for the same user or channel are played in the order they came in.
+     *
+     * @return Id of the request, or null if too many requests are waiting already.
+     */
+    String submit(String sound, String username, int repeatTimes, String voiceChannelId, String requestingUser);
+
+    /**
+     * @return The latest update of a recent request, or null if the id is unknown or too old.
+     */
+    PlayRequestUpdate getUpdate(String requestId);
+}
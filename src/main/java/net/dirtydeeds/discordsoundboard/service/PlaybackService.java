@@ -1,7 +1,11 @@
 package net.dirtydeeds.discordsoundboard.service;
 
+import net.dirtydeeds.discordsoundboard.PlayRequestUpdate;
+import net.dirtydeeds.discordsoundboard.PlaybackEvent;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.function.BiConsumer;
+
 public interface PlaybackService {
 
     SseEmitter createEmitter();
@@ -9,4 +13,18 @@ public interface PlaybackService {
     void sendTrackStart(String soundFileId, String displayName, String user, String guildId);
 
     void sendTrackEnd(String soundFileId, String guildId);
+
+    /**
+     * Sends the progress of a play request as a playRequest event. Updates whose guild isn't known yet go to every
+     * client; clients pick out their own requests by id.
+     */
+    void sendPlayRequestUpdate(PlayRequestUpdate update);
+
+    /**
+     * Registers a listener that is told about every playback event, whether or not anyone follows the SSE topic.
+     * Called on the thread sending the event, so it must be quick.
+     *
+     * @param listener - Called with the event name (trackStart or trackEnd) and the event.
+     */
+    void addListener(BiConsumer<String, PlaybackEvent> listener);
 }
@@ -1,9 +1,19 @@
 package net.dirtydeeds.discordsoundboard.service;
 
 import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import net.dirtydeeds.discordsoundboard.catalog.CatalogSnapshot;
+import net.dirtydeeds.discordsoundboard.catalog.RandomMode;
+import net.dirtydeeds.discordsoundboard.catalog.SoundCatalogEvent;
+import net.dirtydeeds.discordsoundboard.catalog.SoundPage;
+import net.dirtydeeds.discordsoundboard.catalog.SoundQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.function.Consumer;
+
 public interface SoundService {
 
     Page<SoundFile> findAll(Pageable pageable);
@@ -17,4 +27,66 @@ public interface SoundService {
     SoundFile updateSoundPlayed(SoundFile soundFile);
 
     SoundFile initializeDateAdded(SoundFile soundFile);
+
+    /**
+     * Gets the in-memory catalog of sound files keyed case-insensitively by soundFileId. Reads do not touch the
+     * database.
+     */
+    NavigableMap<String, SoundFile> getCatalog();
+
+    /**
+     * Gets a counter that increases every time a sound file is saved or deleted.
+     */
+    long getCatalogVersion();
+
+    /**
+     * Gets the time the catalog version last changed.
+     */
+    Instant getCatalogLastModified();
+
+    /**
+     * Reads every sound file from the database one at a time, without building the whole list. Sound files are
+     * detached once the action returns, so it must not keep them around to change them.
+     *
+     * @param action - Called for each sound file, in soundFileId order.
+     */
+    void forEachSoundFile(Consumer<SoundFile> action);
+
+    /**
+     * Searches sound files by id, display name and category. Prefix matches rank above fuzzy matches.
+     *
+     * @param query - Search text.
+     * @param limit - Maximum number of results.
+     * @return Matching sound files, best match first.
+     */
+    List<SoundFile> search(String query, int limit);
+
+    /**
+     * Reads one page of sound files with keyset pagination. Served from memory; deep pages cost the same as the first.
+     *
+     * @param query - Sort, filters, cursor and page size.
+     * @return The page, with the cursor of the next one.
+     * @throws IllegalArgumentException If the query's cursor is not valid for its sort.
+     */
+    SoundPage findPage(SoundQuery query);
+
+    /**
+     * Picks a random sound file without copying the catalog.
+     *
+     * @param mode     - How to weight the pick.
+     * @param category - Only pick from this category, or null for any category.
+     * @return The picked sound file, or null if there is nothing to pick from.
+     */
+    SoundFile getRandomSoundFile(RandomMode mode, String category);
+
+    /**
+     * Gets every sound file together with the catalog version it belongs to, for clients that follow catalog changes.
+     */
+    CatalogSnapshot getCatalogSnapshot();
+
+    /**
+     * Registers a listener that is told about every sound file that is added, changed or removed. Events arrive in
+     * version order on the thread that made the change.
+     */
+    void addCatalogListener(Consumer<SoundCatalogEvent> listener);
 }
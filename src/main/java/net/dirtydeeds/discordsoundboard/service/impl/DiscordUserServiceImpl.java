@@ -5,23 +5,36 @@ import net.dirtydeeds.discordsoundboard.SoundPlayer;
 import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
 import net.dirtydeeds.discordsoundboard.repository.DiscordUserRepository;
 import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
+import net.dirtydeeds.discordsoundboard.util.LookupKeys;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
+@DependsOn("normalizedKeyMigration")
 @SuppressWarnings("unused")
 public class DiscordUserServiceImpl implements DiscordUserService {
 
     @Autowired
     private DiscordUserRepository discordUserRepository;
 
+    @Autowired
+    private UserRoleConfig userRoleConfig;
+
     @Setter
     private SoundPlayer soundPlayer;
 
+    // Every write goes through this service, so these describe the state of the whole table
+    private final AtomicLong version = new AtomicLong();
+    private volatile Instant lastModified = Instant.now();
+
     @Override
     public Optional<DiscordUser> findById(String id) {
         return discordUserRepository.findById(id);
@@ -29,12 +42,14 @@ public class DiscordUserServiceImpl implements DiscordUserService {
 
     @Override
     public DiscordUser findOneByIdOrUsernameIgnoreCase(String userId, String userName) {
-        return discordUserRepository.findOneByIdOrUsernameIgnoreCase(userId, userName);
+        return discordUserRepository.findOneByIdOrNormalizedUsername(userId, LookupKeys.normalize(userName));
     }
 
     @Override
     public DiscordUser save(DiscordUser discordUser) {
-        return discordUserRepository.save(discordUser);
+        DiscordUser saved = discordUserRepository.save(discordUser);
+        changed();
+        return saved;
     }
 
     @Override
@@ -43,7 +58,11 @@ public class DiscordUserServiceImpl implements DiscordUserService {
     }
 
     @Override
-    public void delete(DiscordUser discordUser) { discordUserRepository.delete(discordUser); }
+    public void delete(DiscordUser discordUser) {
+        discordUserRepository.delete(discordUser);
+        changed();
+        userRoleConfig.invalidatePermissions();
+    }
 
     @Override
     public Page<DiscordUser> findByInVoiceIsTrue(Pageable pageable) {
@@ -72,6 +91,7 @@ public class DiscordUserServiceImpl implements DiscordUserService {
             }
 
             discordUserRepository.save(discordUser);
+            changed();
 
             return discordUser;
         }
@@ -95,6 +115,8 @@ public class DiscordUserServiceImpl implements DiscordUserService {
             discordUser.setRoleAssignedBy(assignedByUserId);
 
             discordUserRepository.save(discordUser);
+            changed();
+            userRoleConfig.invalidatePermissions();
 
             return discordUser;
         }
@@ -113,10 +135,28 @@ public class DiscordUserServiceImpl implements DiscordUserService {
             discordUser.setRoleAssignedBy(null);
 
             discordUserRepository.save(discordUser);
+            changed();
+            userRoleConfig.invalidatePermissions();
 
             return discordUser;
         }
 
         throw new Exception("Could not load discord user");
     }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    private void changed() {
+        // Set the time first so it is never older than the version a reader sees
+        lastModified = Instant.now();
+        version.incrementAndGet();
+    }
 }
@@ -0,0 +1,130 @@
+package net.dirtydeeds.discordsoundboard.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import net.dirtydeeds.discordsoundboard.PlayRequestStatus;
+import net.dirtydeeds.discordsoundboard.PlayRequestUpdate;
+import net.dirtydeeds.discordsoundboard.SoundPlayer;
+import net.dirtydeeds.discordsoundboard.service.PlayRequestService;
+import net.dirtydeeds.discordsoundboard.service.PlaybackService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs play requests on virtual threads, so a request waiting on a voice connection parks nothing but itself. Requests
+ * for the same target (voice channel, or user when no channel is given) are chained one after the other, so the sound
+ * clicked last is the one still playing.
+ */
+@Service
+public class PlayRequestServiceImpl implements PlayRequestService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PlayRequestServiceImpl.class);
+
+    // How many finished requests can still be looked up by id
+    private static final int RECENT_REQUESTS = 1024;
+
+    private static final CompletableFuture<Void> IDLE = CompletableFuture.completedFuture(null);
+
+    private final SoundPlayer soundPlayer;
+    private final PlaybackService playbackService;
+    private final int queueLimit;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("play-request-", 0).factory());
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    // Last request queued for each target; the next request for it runs when that one is done
+    private final Map<String, CompletableFuture<Void>> lanes = new ConcurrentHashMap<>();
+
+    private final Map<String, PlayRequestUpdate> recent = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PlayRequestUpdate> eldest) {
+            return size() > RECENT_REQUESTS;
+        }
+    };
+
+    public PlayRequestServiceImpl(SoundPlayer soundPlayer,
+                                  PlaybackService playbackService,
+                                  @Value("${play_request_queue_limit:256}") int queueLimit) {
+        this.soundPlayer = soundPlayer;
+        this.playbackService = playbackService;
+        this.queueLimit = queueLimit;
+    }
+
+    @Override
+    public String submit(String sound, String username, int repeatTimes, String voiceChannelId,
+                         String requestingUser) {
+        if (waiting.incrementAndGet() > queueLimit) {
+            waiting.decrementAndGet();
+            LOG.warn("Rejecting play request for {}, {} requests are waiting already", sound, queueLimit);
+            return null;
+        }
+
+        String requestId = UUID.randomUUID().toString();
+        update(requestId, sound, PlayRequestStatus.QUEUED, null, null);
+
+        Runnable play = () -> {
+            try {
+                soundPlayer.playForUser(sound, username, repeatTimes, voiceChannelId, requestingUser,
+                        (status, guildId, message) -> update(requestId, sound, status, guildId, message));
+            } catch (RuntimeException e) {
+                LOG.warn("Play request {} failed", requestId, e);
+                update(requestId, sound, PlayRequestStatus.FAILED, null, "Playback failed: " + e.getMessage());
+            } finally {
+                waiting.decrementAndGet();
+            }
+        };
+
+        String target = voiceChannelId == null || voiceChannelId.isBlank()
+                ? "user:" + (username == null ? "" : username.toLowerCase(Locale.ROOT))
+                : "channel:" + voiceChannelId;
+        CompletableFuture<Void> lane = lanes.compute(target,
+                (key, last) -> (last == null ? IDLE : last).thenRunAsync(play, executor));
+        lane.whenComplete((result, error) -> lanes.remove(target, lane));
+        return requestId;
+    }
+
+    @Override
+    public PlayRequestUpdate getUpdate(String requestId) {
+        synchronized (recent) {
+            return recent.get(requestId);
+        }
+    }
+
+    private void update(String requestId, String sound, PlayRequestStatus status, String guildId, String message) {
+        PlayRequestUpdate update;
+        synchronized (recent) {
+            PlayRequestUpdate previous = recent.get(requestId);
+            // The first PLAYING or FAILED settles a request; the audio and request threads may both report one
+            if (previous != null && previous.status().isFinal()) {
+                return;
+            }
+            // A failure on the request thread doesn't know the guild an earlier update found
+            String guild = guildId == null && previous != null ? previous.guildId() : guildId;
+            update = new PlayRequestUpdate(requestId, sound, status, guild, message, Instant.now());
+            recent.put(requestId, update);
+        }
+        // The playback topic would send an update without a guild to every client; until the guild is known only the
+        // requester cares, and it can look the request up by id
+        if (update.guildId() != null) {
+            playbackService.sendPlayRequestUpdate(update);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -2,60 +2,44 @@ package net.dirtydeeds.discordsoundboard.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PreDestroy;
+import net.dirtydeeds.discordsoundboard.PlayRequestUpdate;
 import net.dirtydeeds.discordsoundboard.PlaybackEvent;
 import net.dirtydeeds.discordsoundboard.service.PlaybackService;
+import net.dirtydeeds.discordsoundboard.sse.SseEventHub;
+import net.dirtydeeds.discordsoundboard.sse.SseFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 @Service
 public class PlaybackServiceImpl implements PlaybackService {
 
-    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // Topic of playback notifications on the SSE hub
+    public static final String SSE_TOPIC = "playback";
 
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
-    private final ObjectMapper objectMapper;
+    private static final Logger LOG = LoggerFactory.getLogger(PlaybackServiceImpl.class);
 
-    private final ScheduledExecutorService sseHeartbeatExecutor =
-            Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "sse-heartbeat");
-                t.setDaemon(true);
-                return t;
-            });
+    private final ObjectMapper objectMapper;
+    private final SseEventHub sseEventHub;
+    private final List<BiConsumer<String, PlaybackEvent>> listeners = new CopyOnWriteArrayList<>();
 
-    public PlaybackServiceImpl(ObjectMapper objectMapper) {
+    public PlaybackServiceImpl(ObjectMapper objectMapper, SseEventHub sseEventHub) {
         this.objectMapper = objectMapper;
+        this.sseEventHub = sseEventHub;
 
-        // Send a heartbeat every 25 seconds (tweak as needed)
-        sseHeartbeatExecutor.scheduleAtFixedRate(
-                this::broadcastHeartbeatSafely,
-                25, 25, TimeUnit.SECONDS
-        );
+        // Playback events stand on their own, so there is no state to send on connect
+        sseEventHub.registerTopic(SSE_TOPIC);
     }
 
     @Override
     public SseEmitter createEmitter() {
-        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
-        emitters.add(emitter);
-
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> {
-            emitters.remove(emitter);
-            emitter.complete();
-        });
-        emitter.onError((e) -> {
-            emitters.remove(emitter);
-            emitter.complete();
-        });
-
-        return emitter;
+        return sseEventHub.subscribe(List.of(SSE_TOPIC), Map.of());
     }
 
     @Override
@@ -70,62 +54,41 @@ public class PlaybackServiceImpl implements PlaybackService {
         sendEventToAll("trackEnd", event);
     }
 
-    private void sendEventToAll(String eventName, PlaybackEvent event) {
-        if (emitters.isEmpty()) return;
+    @Override
+    public void sendPlayRequestUpdate(PlayRequestUpdate update) {
+        if (!sseEventHub.shouldPublish(SSE_TOPIC)) return;
 
-        final String json;
         try {
-            json = objectMapper.writeValueAsString(event);
+            sseEventHub.publish(SSE_TOPIC, update.guildId(), SseFrame.of(objectMapper, "playRequest", update));
         } catch (JsonProcessingException e) {
-            // If we can't serialize, there's nothing to send (and retrying won't help).
-            return;
+            LOG.error("Could not serialize play request update", e);
         }
-
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-
-        emitters.forEach(emitter -> {
-            try {
-                emitter.send(SseEmitter.event()
-                        .name(eventName)
-                        .data(json));
-            } catch (IOException | IllegalStateException e) {
-                deadEmitters.add(emitter);
-                try {
-                    emitter.complete();
-                } catch (Exception ignored) {
-                    // best-effort cleanup
-                }
-            }
-        });
-
-        emitters.removeAll(deadEmitters);
     }
 
-    private void broadcastHeartbeatSafely() {
-        if (emitters.isEmpty()) return;
+    @Override
+    public void addListener(BiConsumer<String, PlaybackEvent> listener) {
+        listeners.add(listener);
+    }
 
-        List<SseEmitter> deadEmitters = new CopyOnWriteArrayList<>();
-        emitters.forEach(emitter -> {
+    private void sendEventToAll(String eventName, PlaybackEvent event) {
+        for (BiConsumer<String, PlaybackEvent> listener : listeners) {
             try {
-                // Keep the payload tiny; event name can be anything
-                emitter.send(SseEmitter.event()
-                        .name("heartbeat")
-                        .data("ping"));
-            } catch (IOException | IllegalStateException ex) {
-                deadEmitters.add(emitter);
-                try {
-                    emitter.complete();
-                } catch (Exception ignored) {
-                    // best-effort cleanup
-                }
+                listener.accept(eventName, event);
+            } catch (RuntimeException e) {
+                LOG.warn("Playback listener failed for {}", eventName, e);
             }
-        });
+        }
+        if (!sseEventHub.shouldPublish(SSE_TOPIC)) return;
 
-        emitters.removeAll(deadEmitters);
-    }
+        final String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            // If we can't serialize, there's nothing to send (and retrying won't help).
+            return;
+        }
 
-    @PreDestroy
-    public void shutdownHeartbeat() {
-        sseHeartbeatExecutor.shutdownNow();
+        // Only clients following the guild (or every guild) get it
+        sseEventHub.publish(SSE_TOPIC, event.getGuildId(), SseFrame.text(eventName, json));
     }
 }
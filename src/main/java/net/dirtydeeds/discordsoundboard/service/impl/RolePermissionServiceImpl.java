@@ -3,6 +3,7 @@ package net.dirtydeeds.discordsoundboard.service.impl;
 import net.dirtydeeds.discordsoundboard.beans.RolePermission;
 import net.dirtydeeds.discordsoundboard.repository.RolePermissionRepository;
 import net.dirtydeeds.discordsoundboard.service.RolePermissionService;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +24,9 @@ public class RolePermissionServiceImpl implements RolePermissionService {
     @Autowired
     private RolePermissionRepository rolePermissionRepository;
 
+    @Autowired
+    private UserRoleConfig userRoleConfig;
+
     @Override
     public List<RolePermission> getPermissionsForRole(String role) {
         return rolePermissionRepository.findByRole(role);
@@ -53,13 +57,16 @@ public class RolePermissionServiceImpl implements RolePermissionService {
         rolePermission.setAssignedAt(Instant.now());
         rolePermission.setAssignedBy(assignedBy);
 
-        return rolePermissionRepository.save(rolePermission);
+        RolePermission saved = rolePermissionRepository.save(rolePermission);
+        userRoleConfig.invalidatePermissions();
+        return saved;
     }
 
     @Override
     @Transactional
     public void removePermissionFromRole(String role, String permission) {
         rolePermissionRepository.deleteByRoleAndPermission(role, permission);
+        userRoleConfig.invalidatePermissions();
     }
 
     @Override
@@ -67,6 +74,7 @@ public class RolePermissionServiceImpl implements RolePermissionService {
     public List<RolePermission> setPermissionsForRole(String role, Set<String> permissions, String assignedBy) {
         // Delete all existing permissions for this role
         rolePermissionRepository.deleteByRole(role);
+        userRoleConfig.invalidatePermissions();
 
         // If empty permissions, save a sentinel record to mark as "explicitly configured as empty"
         if (permissions.isEmpty()) {
@@ -106,5 +114,6 @@ public class RolePermissionServiceImpl implements RolePermissionService {
     public void resetRoleToDefaults(String role) {
         // Delete all permissions including sentinel - this removes all customization
         rolePermissionRepository.deleteByRole(role);
+        userRoleConfig.invalidatePermissions();
     }
 }
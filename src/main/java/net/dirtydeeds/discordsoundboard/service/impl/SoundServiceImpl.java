@@ -1,14 +1,30 @@
 package net.dirtydeeds.discordsoundboard.service.impl;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import net.dirtydeeds.discordsoundboard.catalog.CatalogSnapshot;
+import net.dirtydeeds.discordsoundboard.catalog.RandomMode;
+import net.dirtydeeds.discordsoundboard.catalog.SoundCatalog;
+import net.dirtydeeds.discordsoundboard.catalog.SoundCatalogEvent;
+import net.dirtydeeds.discordsoundboard.catalog.SoundPage;
+import net.dirtydeeds.discordsoundboard.catalog.SoundQuery;
 import net.dirtydeeds.discordsoundboard.repository.SoundFileRepository;
 import net.dirtydeeds.discordsoundboard.service.SoundService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @SuppressWarnings("unused")
@@ -17,24 +33,41 @@ public class SoundServiceImpl implements SoundService {
     @Autowired
     SoundFileRepository soundRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final SoundCatalog catalog = new SoundCatalog();
+    private volatile boolean catalogLoaded = false;
+
     @Override
     public Page<SoundFile> findAll(Pageable pageable) {
+        // The whole library is served from memory; only paged or sorted requests go to the database
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(new ArrayList<>(loadedCatalog().view().values()));
+        }
         return soundRepository.findAll(pageable);
     }
 
     @Override
     public SoundFile findOneBySoundFileIdIgnoreCase(String fileName) {
-        return soundRepository.findOneBySoundFileIdIgnoreCase(fileName);
+        return loadedCatalog().get(fileName);
     }
 
     @Override
     public SoundFile save(SoundFile soundFile) {
-        return soundRepository.save(soundFile);
+        SoundCatalog soundCatalog = loadedCatalog();
+        SoundFile saved = soundRepository.save(soundFile);
+        if (saved != null) {
+            soundCatalog.put(saved);
+        }
+        return saved;
     }
 
     @Override
     public void delete(SoundFile soundFile) {
+        SoundCatalog soundCatalog = loadedCatalog();
         soundRepository.delete(soundFile);
+        soundCatalog.remove(soundFile.getSoundFileId());
     }
 
     @Override
@@ -55,4 +88,73 @@ public class SoundServiceImpl implements SoundService {
         }
         return soundFile;
     }
+
+    @Override
+    public NavigableMap<String, SoundFile> getCatalog() {
+        return loadedCatalog().view();
+    }
+
+    @Override
+    public long getCatalogVersion() {
+        return loadedCatalog().getVersion();
+    }
+
+    @Override
+    public Instant getCatalogLastModified() {
+        return loadedCatalog().getLastModified();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachSoundFile(Consumer<SoundFile> action) {
+        try (Stream<SoundFile> soundFiles = soundRepository.streamAllByOrderBySoundFileIdAsc()) {
+            soundFiles.forEach(soundFile -> {
+                action.accept(soundFile);
+                // Otherwise the persistence context holds on to every row read so far
+                entityManager.detach(soundFile);
+            });
+        }
+    }
+
+    @Override
+    public List<SoundFile> search(String query, int limit) {
+        return loadedCatalog().search(query, limit);
+    }
+
+    @Override
+    public SoundPage findPage(SoundQuery query) {
+        return loadedCatalog().page(query);
+    }
+
+    @Override
+    public SoundFile getRandomSoundFile(RandomMode mode, String category) {
+        return loadedCatalog().random(mode, category);
+    }
+
+    @Override
+    public CatalogSnapshot getCatalogSnapshot() {
+        return loadedCatalog().snapshot();
+    }
+
+    @Override
+    public void addCatalogListener(Consumer<SoundCatalogEvent> listener) {
+        // Registering doesn't need the catalog loaded; the first load is not published as events anyway
+        catalog.addListener(listener);
+    }
+
+    /**
+     * Loads the catalog from the database the first time it is needed. After that every write goes through this
+     * service, so the catalog never has to be reloaded.
+     */
+    private SoundCatalog loadedCatalog() {
+        if (!catalogLoaded) {
+            synchronized (catalog) {
+                if (!catalogLoaded) {
+                    catalog.load(soundRepository.findAll());
+                    catalogLoaded = true;
+                }
+            }
+        }
+        return catalog;
+    }
 }
@@ -0,0 +1,32 @@
+package net.dirtydeeds.discordsoundboard.sse;
+
+import java.util.Locale;
+
+/**
+ * What to do when a client's outbound queue is full because it isn't reading fast enough.
+ */
+public enum OverflowPolicy {
+    /** Drop the oldest queued event to make room. Clients that track versions resync when they notice the gap. */
+    DROP_OLDEST,
+    /** Drop everything queued and send the latest state instead (or just the newest event if there is no state). */
+    COALESCE,
+    /** Close the connection. The browser reconnects and starts from a fresh snapshot. */
+    DISCONNECT;
+
+    /**
+     * Parses a policy name, ignoring case and accepting "-" in place of "_".
+     *
+     * @param value        - The policy name.
+     * @param defaultValue - Returned when the value is blank or not a policy name.
+     */
+    public static OverflowPolicy fromString(String value, OverflowPolicy defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return defaultValue;
+        }
+    }
+}
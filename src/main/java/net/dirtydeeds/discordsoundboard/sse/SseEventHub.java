@@ -0,0 +1,731 @@
+package net.dirtydeeds.discordsoundboard.sse;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Every SSE stream goes through this hub. Producers publish pre-serialized {@link SseFrame}s to named topics and each
+ * client connection subscribes to one or more topics, so a browser needs a single connection no matter how many kinds
+ * of updates it follows. All connections share one scheduler thread for heartbeats and throttled topics.
+ * <p>
+ * Publishing never blocks the caller: each connection has one bounded queue that is drained by a virtual thread, so a
+ * slow client only ever delays itself. What happens when a queue fills up is decided by the {@link OverflowPolicy}.
+ * <p>
+ * Every published event gets an id and is kept in a bounded history of its topic. A browser that reconnects sends the
+ * last id it saw as Last-Event-ID and is replayed only what it missed; it gets the topic's state instead when some of
+ * those events have already left the history.
+ * <p>
+ * Clients can limit themselves to some guilds with the {@value #GUILDS_PARAM} parameter. Topics index their
+ * subscribers by guild, so an event of one guild is only handed to the clients that want it.
+ */
+@Component
+public class SseEventHub {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SseEventHub.class);
+
+    /**
+     * Subscriber parameter with the comma separated ids of the guilds a client wants events of. Clients without it get
+     * every guild.
+     */
+    public static final String GUILDS_PARAM = "guilds";
+
+    static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final long HEARTBEAT_INTERVAL_SECONDS = 25;
+
+    private static final SseFrame HEARTBEAT = SseFrame.text("heartbeat", "ping");
+
+    // How long after its last client left a topic keeps recording events for a reconnect
+    private static final long REPLAY_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    // Upper bound on the history of one topic, however many events the buffer size allows
+    private static final long MAX_HISTORY_BYTES = 1024 * 1024;
+
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long throttleMillis;
+    private final int replayBufferSize;
+    // Ids restart with the application, so they carry its start time to recognize a Last-Event-ID from before
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Object historyLock = new Object();
+    // Guarded by historyLock
+    private long lastEventId;
+    private final Map<String, Topic> topics = new ConcurrentSkipListMap<>();
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "sse-scheduler");
+                t.setDaemon(true);
+                return t;
+            });
+
+    public SseEventHub(@Value("${sse_queue_capacity:64}") int queueCapacity,
+                       @Value("${sse_overflow_policy:coalesce}") String overflowPolicy,
+                       @Value("${sse_throttle_millis:250}") long throttleMillis,
+                       @Value("${sse_replay_buffer_size:256}") int replayBufferSize) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.overflowPolicy = OverflowPolicy.fromString(overflowPolicy, OverflowPolicy.COALESCE);
+        this.throttleMillis = Math.max(0, throttleMillis);
+        this.replayBufferSize = Math.max(0, replayBufferSize);
+
+        scheduler.scheduleAtFixedRate(this::sendHeartbeat,
+                HEARTBEAT_INTERVAL_SECONDS, HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Registers a topic whose events each stand on their own, e.g. playback notifications.
+     */
+    public void registerTopic(String name) {
+        registerTopic(name, null);
+    }
+
+    /**
+     * Registers a topic with state that is sent to every subscriber as soon as it connects.
+     *
+     * @param name  - Name of the topic.
+     * @param state - Builds a frame with the current state for a subscriber's parameters, or returns null when there
+     *              is nothing to send. Under {@link OverflowPolicy#COALESCE} it also replaces the events a client fell
+     *              too far behind on.
+     */
+    public void registerTopic(String name, Function<Map<String, String>, SseFrame> state) {
+        topics.put(name, new Topic(name, state));
+    }
+
+    /**
+     * @return Names of every registered topic, sorted.
+     */
+    public Set<String> getTopicNames() {
+        return Collections.unmodifiableSet(topics.keySet());
+    }
+
+    public boolean hasTopic(String name) {
+        return name != null && topics.containsKey(name);
+    }
+
+    /**
+     * Opens a client connection that follows the given topics. The current state of each topic is sent first.
+     *
+     * @param topicNames - Topics to follow.
+     * @param params     - Subscriber parameters handed to the topics' state functions, e.g. a username.
+     * @return The emitter to return from the controller.
+     * @throws IllegalArgumentException if a topic isn't registered.
+     */
+    public SseEmitter subscribe(Collection<String> topicNames, Map<String, String> params) {
+        return subscribe(topicNames, params, null);
+    }
+
+    /**
+     * Opens a client connection for a browser that may be reconnecting. Events it missed since the last one it saw are
+     * replayed first, in the order they were published; topics that can't be replayed send their current state.
+     *
+     * @param topicNames  - Topics to follow.
+     * @param params      - Subscriber parameters handed to the topics' state functions, e.g. a username.
+     * @param lastEventId - The Last-Event-ID header, or null on a first connect.
+     * @return The emitter to return from the controller.
+     * @throws IllegalArgumentException if a topic isn't registered.
+     */
+    public SseEmitter subscribe(Collection<String> topicNames, Map<String, String> params, String lastEventId) {
+        return subscribe(new SseEmitter(EMITTER_TIMEOUT_MILLIS), topicNames, params, lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Collection<String> topicNames, Map<String, String> params) {
+        return subscribe(emitter, topicNames, params, null);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Collection<String> topicNames, Map<String, String> params,
+                         String lastEventId) {
+        List<Topic> subscribed = new ArrayList<>();
+        for (String topicName : new LinkedHashSet<>(topicNames)) {
+            Topic topic = topics.get(topicName);
+            if (topic == null) {
+                throw new IllegalArgumentException("Unknown SSE topic: " + topicName);
+            }
+            subscribed.add(topic);
+        }
+
+        Connection connection = new Connection(emitter, subscribed, Map.copyOf(params));
+        connections.add(connection);
+
+        emitter.onCompletion(connection::remove);
+        emitter.onTimeout(connection::close);
+        emitter.onError((e) -> connection.close());
+
+        // Nothing is published while the connection catches up, so it can't miss or reorder an event
+        synchronized (historyLock) {
+            subscribed.forEach(topic -> topic.add(connection));
+
+            long seen = parseEventId(lastEventId);
+            List<Recorded> missed = new ArrayList<>();
+            List<Topic> stale = new ArrayList<>();
+            for (Topic topic : subscribed) {
+                // Topics without state have nothing better to offer than what's left of their history
+                boolean replayable = seen >= 0 && (seen >= topic.horizon || topic.state == null);
+                if (!replayable || !topic.replay(connection, seen, missed)) {
+                    stale.add(topic);
+                }
+            }
+            missed.sort(Comparator.comparingLong(Recorded::id));
+            for (Recorded event : missed) {
+                event.topic().replayed.increment();
+                connection.offer(event.topic(), event.frameFor(connection.guilds));
+            }
+
+            // Building a state can take a query and serializing the catalog, so it's left to the connection's drain
+            // thread rather than done here while every publisher waits. It's sent ahead of everything published from
+            // here on and includes every event published so far, so it carries the id of the latest.
+            String stateId = eventId(this.lastEventId);
+            for (Topic topic : stale) {
+                connection.resync(topic, stateId);
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Queues a frame for every client following a topic.
+     *
+     * @throws IllegalArgumentException if the topic isn't registered.
+     */
+    public void publish(String topicName, SseFrame frame) {
+        publish(topicName, null, frame);
+    }
+
+    /**
+     * Queues a frame for the clients following a topic that want events of a guild: those that picked it and those
+     * following every guild.
+     *
+     * @param guildId - Guild the event belongs to, or null if it is for every client.
+     * @throws IllegalArgumentException if the topic isn't registered.
+     */
+    public void publish(String topicName, String guildId, SseFrame frame) {
+        Topic topic = topic(topicName);
+        topic.updates.increment();
+        emit(topic, guildId, frame);
+    }
+
+    /**
+     * Creates a throttle for a topic that changes in bursts. Changes are only marked; the frame is built and published
+     * once at the end of each interval (sse_throttle_millis), so a burst costs one query and one broadcast.
+     *
+     * @param topicName - The topic to publish to.
+     * @param frame     - Builds the frame to publish from the latest state, or returns null when there is nothing to
+     *                  send. Only called when {@link #shouldPublish} says someone will get it.
+     * @throws IllegalArgumentException if the topic isn't registered.
+     */
+    public ThrottledTopic throttle(String topicName, Supplier<SseFrame> frame) {
+        Topic topic = topic(topicName);
+        return new ThrottledTopic(this, topic.name, () -> {
+            SseFrame next = frame.get();
+            if (next != null) {
+                emit(topic, null, next);
+            }
+        }, scheduler, throttleMillis);
+    }
+
+    /**
+     * Creates a throttle for a topic whose state depends on the guilds a client picked. The state is loaded once per
+     * publish and rendered once for each distinct choice of guilds among the subscribers.
+     *
+     * @param topicName - The topic to publish to.
+     * @param load      - Loads the latest state, or returns null when there is nothing to send.
+     * @param render    - Builds the frame for clients following the given guilds (empty for every guild), or returns
+     *                  null to send them nothing.
+     * @throws IllegalArgumentException if the topic isn't registered.
+     */
+    public <T> ThrottledTopic throttleByGuild(String topicName, Supplier<T> load,
+                                              BiFunction<T, Set<String>, SseFrame> render) {
+        Topic topic = topic(topicName);
+        return new ThrottledTopic(this, topic.name, () -> {
+            T state = load.get();
+            if (state != null) {
+                emitByGuild(topic, state, render);
+            }
+        }, scheduler, throttleMillis);
+    }
+
+    /**
+     * Creates a throttle for a topic whose events each belong to one guild, e.g. a guild's volume. Every publish sends
+     * the latest event of each guild that changed to the clients following that guild.
+     *
+     * @param topicName - The topic to publish to.
+     * @param frames    - Builds the latest frame of every guild that changed since the last publish, keyed by guild id.
+     * @throws IllegalArgumentException if the topic isn't registered.
+     */
+    public ThrottledTopic throttleGuildEvents(String topicName, Supplier<Map<String, SseFrame>> frames) {
+        Topic topic = topic(topicName);
+        return new ThrottledTopic(this, topic.name,
+                () -> frames.get().forEach((guildId, frame) -> emit(topic, guildId, frame)),
+                scheduler, throttleMillis);
+    }
+
+    void recordUpdate(String topicName) {
+        topic(topicName).updates.increment();
+    }
+
+    private void emit(Topic topic, String guildId, SseFrame frame) {
+        topic.published.increment();
+        synchronized (historyLock) {
+            long id = ++lastEventId;
+            SseFrame event = frame.withId(eventId(id));
+            topic.record(new Recorded(id, topic, guildId, event, null), replayBufferSize);
+            topic.forEachRecipient(guildId, connection -> connection.offer(topic, event));
+        }
+    }
+
+    private <T> void emitByGuild(Topic topic, T state, BiFunction<T, Set<String>, SseFrame> render) {
+        topic.published.increment();
+        synchronized (historyLock) {
+            long id = ++lastEventId;
+            String eventId = eventId(id);
+            Map<Set<String>, SseFrame> views = new HashMap<>();
+            for (Connection connection : topic.subscribers) {
+                SseFrame view = views.computeIfAbsent(connection.guilds, guilds -> {
+                    SseFrame frame = render.apply(state, guilds);
+                    return frame == null ? null : frame.withId(eventId);
+                });
+                if (view != null) {
+                    connection.offer(topic, view);
+                }
+            }
+            topic.record(new Recorded(id, topic, null, null, Map.copyOf(views)), replayBufferSize);
+        }
+    }
+
+    private String eventId(long id) {
+        return epoch + "-" + id;
+    }
+
+    // Sequence number of an id handed out by this hub, or -1 if it's missing, malformed or from before a restart
+    private long parseEventId(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int dash = id.lastIndexOf('-');
+        if (dash < 0 || !id.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            long sequence = Long.parseLong(id.substring(dash + 1));
+            return sequence >= 0 && sequence <= lastEventId ? sequence : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Topic topic(String topicName) {
+        Topic topic = topics.get(topicName);
+        if (topic == null) {
+            throw new IllegalArgumentException("Unknown SSE topic: " + topicName);
+        }
+        return topic;
+    }
+
+    /**
+     * @return Whether any client follows the topic right now.
+     */
+    public boolean hasSubscribers(String topicName) {
+        Topic topic = topics.get(topicName);
+        return topic != null && !topic.subscribers.isEmpty();
+    }
+
+    /**
+     * Whether an event published now would reach anyone: a subscriber, or a client that left moments ago and may
+     * reconnect to have it replayed. Producers can skip building frames when it returns false; clients that reconnect
+     * later then get the topic's state, since the change isn't in its history.
+     */
+    public boolean shouldPublish(String topicName) {
+        Topic topic = topics.get(topicName);
+        if (topic == null) {
+            return false;
+        }
+        if (!topic.subscribers.isEmpty()
+                || System.currentTimeMillis() - topic.lastUnsubscribed < REPLAY_WINDOW_MILLIS) {
+            return true;
+        }
+        synchronized (historyLock) {
+            topic.forget(++lastEventId);
+        }
+        return false;
+    }
+
+    /**
+     * @return Number of open client connections, whatever topics they follow.
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * @return Current counters of every topic, sorted by name.
+     */
+    public List<SseTopicStats> stats() {
+        return topics.values().stream().map(Topic::stats).toList();
+    }
+
+    /**
+     * @return Guilds a subscriber picked with {@value #GUILDS_PARAM}, or an empty set if it follows every guild.
+     */
+    public static Set<String> guilds(Map<String, String> params) {
+        String value = params.get(GUILDS_PARAM);
+        if (value == null) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(guildId -> !guildId.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    // Idle connections get a heartbeat so proxies don't close them; busy ones are already sending
+    void sendHeartbeat() {
+        connections.forEach(Connection::offerHeartbeat);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        connections.forEach(Connection::close);
+    }
+
+    private static final class Topic {
+        private final String name;
+        private final Function<Map<String, String>, SseFrame> state;
+        private final List<Connection> subscribers = new CopyOnWriteArrayList<>();
+        // The same subscribers indexed by the guilds they picked
+        private final List<Connection> everyGuild = new CopyOnWriteArrayList<>();
+        private final Map<String, List<Connection>> byGuild = new ConcurrentHashMap<>();
+        private volatile long lastUnsubscribed;
+
+        // Recent events for reconnecting clients, oldest first; guarded by historyLock
+        private final ArrayDeque<Recorded> history = new ArrayDeque<>();
+        private long historyBytes;
+        // Latest event id that may be missing from the history; clients that haven't seen it need the state
+        private long horizon;
+
+        private final LongAdder updates = new LongAdder();
+        private final LongAdder published = new LongAdder();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder replayed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder disconnected = new LongAdder();
+
+        private Topic(String name, Function<Map<String, String>, SseFrame> state) {
+            this.name = name;
+            this.state = state;
+        }
+
+        private SseFrame state(Map<String, String> params) {
+            if (state == null) {
+                return null;
+            }
+            try {
+                return state.apply(params);
+            } catch (RuntimeException e) {
+                LOG.warn("Could not build state of SSE topic {}", name, e);
+                return null;
+            }
+        }
+
+        private void add(Connection connection) {
+            subscribers.add(connection);
+            if (connection.guilds.isEmpty()) {
+                everyGuild.add(connection);
+                return;
+            }
+            for (String guildId : connection.guilds) {
+                byGuild.compute(guildId, (key, list) -> {
+                    List<Connection> following = list == null ? new CopyOnWriteArrayList<>() : list;
+                    following.add(connection);
+                    return following;
+                });
+            }
+        }
+
+        private boolean remove(Connection connection) {
+            if (!subscribers.remove(connection)) {
+                return false;
+            }
+            everyGuild.remove(connection);
+            for (String guildId : connection.guilds) {
+                byGuild.computeIfPresent(guildId, (key, list) -> {
+                    list.remove(connection);
+                    return list.isEmpty() ? null : list;
+                });
+            }
+            return true;
+        }
+
+        private void forEachRecipient(String guildId, Consumer<Connection> action) {
+            if (guildId == null) {
+                subscribers.forEach(action);
+                return;
+            }
+            everyGuild.forEach(action);
+            byGuild.getOrDefault(guildId, List.of()).forEach(action);
+        }
+
+        // Collects the events a connection missed since the given id; false if the history can't make up for them
+        private boolean replay(Connection connection, long seen, List<Recorded> missed) {
+            List<Recorded> pending = new ArrayList<>();
+            for (Recorded event : history) {
+                if (event.id() <= seen || !connection.accepts(event.guildId())) {
+                    continue;
+                }
+                if (event.frameFor(connection.guilds) == null) {
+                    return false;
+                }
+                pending.add(event);
+            }
+            missed.addAll(pending);
+            return true;
+        }
+
+        private void record(Recorded event, int capacity) {
+            history.addLast(event);
+            historyBytes += event.size();
+            while (!history.isEmpty() && (history.size() > capacity || historyBytes > MAX_HISTORY_BYTES)) {
+                Recorded evicted = history.pollFirst();
+                historyBytes -= evicted.size();
+                horizon = evicted.id();
+            }
+        }
+
+        private void forget(long id) {
+            history.clear();
+            historyBytes = 0;
+            horizon = id;
+        }
+
+        private SseTopicStats stats() {
+            int queued = 0;
+            int maxDepth = 0;
+            for (Connection connection : subscribers) {
+                queued += connection.depth(this);
+                maxDepth = Math.max(maxDepth, connection.depth(null));
+            }
+            return new SseTopicStats(name, subscribers.size(), queued, maxDepth, updates.sum(), published.sum(),
+                    sent.sum(), replayed.sum(), dropped.sum(), coalesced.sum(), disconnected.sum());
+        }
+    }
+
+    /**
+     * A queued frame and the topic it was published to; heartbeats have no topic.
+     */
+    private record Event(Topic topic, SseFrame frame) {
+    }
+
+    /**
+     * A published event kept for replay: either one frame, for every client or the clients of one guild, or a frame
+     * per choice of guilds.
+     */
+    private record Recorded(long id, Topic topic, String guildId, SseFrame frame, Map<Set<String>, SseFrame> views) {
+
+        private SseFrame frameFor(Set<String> guilds) {
+            return views == null ? frame : views.get(guilds);
+        }
+
+        private int size() {
+            return views == null ? frame.size() : views.values().stream().mapToInt(SseFrame::size).sum();
+        }
+    }
+
+    private final class Connection {
+        private final SseEmitter emitter;
+        private final List<Topic> topics;
+        private final Map<String, String> params;
+        private final Set<String> guilds;
+        // Guarded by this
+        private final ArrayDeque<Event> queue = new ArrayDeque<>();
+        // Topics whose state is sent before the queue, with the id to send it with (null for none)
+        private final Map<Topic, String> resync = new LinkedHashMap<>();
+        private boolean draining;
+        private boolean closed;
+
+        private Connection(SseEmitter emitter, List<Topic> topics, Map<String, String> params) {
+            this.emitter = emitter;
+            this.topics = topics;
+            this.params = params;
+            this.guilds = guilds(params);
+        }
+
+        private boolean accepts(String guildId) {
+            return guildId == null || guilds.isEmpty() || guilds.contains(guildId);
+        }
+
+        private void offer(Topic topic, SseFrame frame) {
+            boolean startDrain = false;
+            boolean overflowed = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() >= queueCapacity) {
+                    switch (overflowPolicy) {
+                        case DROP_OLDEST -> countDropped(queue.pollFirst());
+                        case COALESCE -> {
+                            for (Event event : queue) {
+                                countDropped(event);
+                                // The state is built on the drain thread, never the publisher's
+                                if (event.topic() != null && event.topic().state != null
+                                        && !resync.containsKey(event.topic())) {
+                                    resync.put(event.topic(), null);
+                                    event.topic().coalesced.increment();
+                                }
+                            }
+                            queue.clear();
+                        }
+                        case DISCONNECT -> {
+                            queue.forEach(this::countDropped);
+                            topic.dropped.increment();
+                            topics.forEach(t -> t.disconnected.increment());
+                            overflowed = true;
+                        }
+                    }
+                }
+                if (!overflowed) {
+                    queue.addLast(new Event(topic, frame));
+                    startDrain = !draining;
+                    draining = true;
+                }
+            }
+            if (overflowed) {
+                close();
+            } else if (startDrain) {
+                Thread.ofVirtual().name("sse-drain").start(this::drain);
+            }
+        }
+
+        // Sends the topic's state before anything queued after this call; the state is built on the drain thread
+        private void resync(Topic topic, String stateId) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                resync.putIfAbsent(topic, stateId);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            Thread.ofVirtual().name("sse-drain").start(this::drain);
+        }
+
+        private void offerHeartbeat() {
+            synchronized (this) {
+                if (closed || draining) {
+                    return;
+                }
+                queue.addLast(new Event(null, HEARTBEAT));
+                draining = true;
+            }
+            Thread.ofVirtual().name("sse-drain").start(this::drain);
+        }
+
+        private void countDropped(Event event) {
+            if (event != null && event.topic() != null) {
+                event.topic().dropped.increment();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Event next;
+                Topic resyncTopic = null;
+                String resyncId = null;
+                synchronized (this) {
+                    Iterator<Map.Entry<Topic, String>> pending = resync.entrySet().iterator();
+                    if (pending.hasNext()) {
+                        Map.Entry<Topic, String> entry = pending.next();
+                        resyncTopic = entry.getKey();
+                        resyncId = entry.getValue();
+                        pending.remove();
+                        next = null;
+                    } else {
+                        next = queue.pollFirst();
+                        if (next == null) {
+                            draining = false;
+                            return;
+                        }
+                    }
+                }
+                if (resyncTopic != null) {
+                    SseFrame state = resyncTopic.state(params);
+                    if (state == null) {
+                        continue;
+                    }
+                    next = new Event(resyncTopic, resyncId == null ? state : state.withId(resyncId));
+                }
+                try {
+                    emitter.send(next.frame().parts());
+                    if (next.topic() != null) {
+                        next.topic().sent.increment();
+                    }
+                } catch (IOException | IllegalStateException ex) {
+                    LOG.debug("Dropping SSE client after failed send", ex);
+                    close();
+                    return;
+                }
+            }
+        }
+
+        // Queued events of one topic, or of all topics when null
+        private synchronized int depth(Topic topic) {
+            if (topic == null) {
+                return queue.size();
+            }
+            int depth = 0;
+            for (Event event : queue) {
+                if (event.topic() == topic) {
+                    depth++;
+                }
+            }
+            return depth;
+        }
+
+        private void remove() {
+            connections.remove(this);
+            long now = System.currentTimeMillis();
+            topics.forEach(topic -> {
+                if (topic.remove(this)) {
+                    topic.lastUnsubscribed = now;
+                }
+            });
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                queue.clear();
+                resync.clear();
+                draining = false;
+            }
+            remove();
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                // best-effort cleanup
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package net.dirtydeeds.discordsoundboard.sse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * A server-sent event that has already been serialized, framing included. Sending its {@link #parts()} to an
+ * {@link SseEmitter} only copies the bytes, so the same frame can be written to any number of clients without running the message
+ * converters (and Jackson) once per client.
+ * <p>
+ * Payloads follow the same rules as {@link SseEmitter#event()}: strings are sent as-is and anything else is written as
+ * JSON.
+ */
+public final class SseFrame {
+
+    private final byte[] bytes;
+    private final boolean hasId;
+    private final Set<DataWithMediaType> parts;
+
+    private SseFrame(byte[] bytes, boolean hasId) {
+        this.bytes = bytes;
+        this.hasId = hasId;
+        // ByteArrayHttpMessageConverter writes byte[] straight to the response regardless of media type
+        this.parts = Set.of(new DataWithMediaType(bytes, MediaType.TEXT_PLAIN));
+    }
+
+    /**
+     * Serializes an event.
+     *
+     * @param objectMapper - Mapper used for non-string data; use the application's so the JSON matches REST responses.
+     * @param name         - Event name, or null for an unnamed event.
+     * @param id           - Event id, or null for none.
+     * @param data         - The payload.
+     * @return The frame, ready to be sent to any number of emitters.
+     * @throws JsonProcessingException If the data cannot be serialized.
+     */
+    public static SseFrame of(ObjectMapper objectMapper, String name, String id, Object data)
+            throws JsonProcessingException {
+        byte[] payload = data instanceof String text
+                ? text.getBytes(StandardCharsets.UTF_8)
+                : objectMapper.writeValueAsBytes(data);
+        return new SseFrame(frame(name, id, payload), id != null);
+    }
+
+    public static SseFrame of(ObjectMapper objectMapper, String name, Object data) throws JsonProcessingException {
+        return of(objectMapper, name, null, data);
+    }
+
+    /**
+     * Creates an event with a plain text payload, which cannot fail to serialize.
+     */
+    public static SseFrame text(String name, String data) {
+        return new SseFrame(frame(name, null, data.getBytes(StandardCharsets.UTF_8)), false);
+    }
+
+    /**
+     * Copies the event with an id, which the browser sends back as Last-Event-ID when it reconnects.
+     *
+     * @throws IllegalStateException if the event already has an id.
+     */
+    public SseFrame withId(String id) {
+        if (hasId) {
+            throw new IllegalStateException("SseFrame already has an id");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + 32);
+        writeField(out, "id:", id);
+        out.writeBytes(bytes);
+        return new SseFrame(out.toByteArray(), true);
+    }
+
+    /**
+     * @return Size of the serialized event in bytes.
+     */
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * The serialized event, in the form {@link SseEmitter#send(Set)} takes. Always the same set, so sending a frame to
+     * many emitters allocates nothing per emitter.
+     */
+    public Set<DataWithMediaType> parts() {
+        return parts;
+    }
+
+    private static byte[] frame(String name, String id, byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length + 64);
+        if (id != null) {
+            writeField(out, "id:", id);
+        }
+        if (name != null) {
+            writeField(out, "event:", name);
+        }
+        out.writeBytes("data:".getBytes(StandardCharsets.US_ASCII));
+        // A line break inside the payload would end the field, so continue it on another data line like Spring does
+        for (byte b : payload) {
+            if (b == '\n') {
+                out.writeBytes("\ndata:".getBytes(StandardCharsets.US_ASCII));
+            } else {
+                out.write(b);
+            }
+        }
+        out.write('\n');
+        out.write('\n');
+        return out.toByteArray();
+    }
+
+    private static void writeField(ByteArrayOutputStream out, String field, String value) {
+        out.writeBytes(field.getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+}
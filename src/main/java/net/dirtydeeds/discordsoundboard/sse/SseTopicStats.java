@@ -0,0 +1,29 @@
+package net.dirtydeeds.discordsoundboard.sse;
+
+/**
+ * Point-in-time counters for one {@link SseEventHub} topic.
+ *
+ * @param name          - Name of the topic.
+ * @param subscribers   - Connected clients following the topic.
+ * @param queuedFrames  - Events of this topic waiting to be written, across all clients.
+ * @param maxQueueDepth - Longest queue of any single client following the topic.
+ * @param updates       - Changes reported to the topic since startup, before throttling.
+ * @param published     - Events published to the topic's subscribers since startup, after throttling.
+ * @param sent          - Events written to clients since startup.
+ * @param replayed      - Missed events queued again for clients that reconnected.
+ * @param dropped       - Events discarded because a client's queue was full.
+ * @param coalesced     - Times dropped events were replaced with the latest state.
+ * @param disconnected  - Clients closed because their queue was full.
+ */
+public record SseTopicStats(String name,
+                            int subscribers,
+                            int queuedFrames,
+                            int maxQueueDepth,
+                            long updates,
+                            long published,
+                            long sent,
+                            long replayed,
+                            long dropped,
+                            long coalesced,
+                            long disconnected) {
+}
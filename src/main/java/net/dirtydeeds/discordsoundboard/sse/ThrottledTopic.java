@@ -0,0 +1,66 @@
+package net.dirtydeeds.discordsoundboard.sse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces bursts of changes to one {@link SseEventHub} topic. {@link #markDirty()} is cheap and can be called for
+ * every change; the frame is built from the latest state and published at most once per interval, at the end of it,
+ * so the last change of a burst is never lost.
+ */
+public final class ThrottledTopic {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThrottledTopic.class);
+
+    private final SseEventHub hub;
+    private final String topic;
+    // Builds the latest state and hands it to the hub
+    private final Runnable publish;
+    private final ScheduledExecutorService scheduler;
+    private final long intervalMillis;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    ThrottledTopic(SseEventHub hub, String topic, Runnable publish, ScheduledExecutorService scheduler,
+                   long intervalMillis) {
+        this.hub = hub;
+        this.topic = topic;
+        this.publish = publish;
+        this.scheduler = scheduler;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Notes that the topic changed. Publishes right away when throttling is off, otherwise at the end of the current
+     * interval.
+     */
+    public void markDirty() {
+        hub.recordUpdate(topic);
+        if (intervalMillis <= 0) {
+            flush();
+        } else if (scheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(this::flush, intervalMillis, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // Shutting down
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void flush() {
+        // Cleared first so a change made while the frame is being built schedules another flush
+        scheduled.set(false);
+        if (!hub.shouldPublish(topic)) {
+            return;
+        }
+        try {
+            publish.run();
+        } catch (RuntimeException e) {
+            LOG.warn("Could not publish SSE topic {}", topic, e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package net.dirtydeeds.discordsoundboard.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Answers GET requests for listings that are versioned in memory. The ETag is derived from the version counter, so a
+ * client whose copy is still current gets a 304 without the listing being loaded or serialized.
+ */
+public final class ConditionalGet {
+
+    // Version counters start over when the application restarts; the start time keeps old tags from matching
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * @param name    - Name of the listing, e.g. "sounds".
+     * @param version - Version of the data the listing is built from.
+     * @param request - The request; its Accept header is part of the tag, as it decides the encoding (JSON, CBOR, ...).
+     * @return Strong ETag for that version of the listing in the encoding the request gets.
+     */
+    public static String etag(String name, long version, WebRequest request) {
+        String etag = name + "-" + EPOCH + "-" + version;
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null) {
+            etag += "-" + Integer.toHexString(accept.hashCode());
+        }
+        return "\"" + etag + "\"";
+    }
+
+    /**
+     * Read the version (and so the tag) before calling this, so the tag is never newer than the body it is sent with.
+     *
+     * @param request      - The request, checked for If-None-Match and If-Modified-Since.
+     * @param etag         - Tag of the current version, see {@link #etag(String, long, WebRequest)}.
+     * @param lastModified - When the version last changed.
+     * @param body         - Builds the listing; only called when the client's copy is out of date.
+     * @return 304 if the client's copy is current, otherwise 200 with the listing.
+     */
+    public static <T> ResponseEntity<T> respond(WebRequest request, String etag, Instant lastModified,
+                                                Supplier<T> body) {
+        // Browsers must revalidate, but may keep the copy around to do so
+        CacheControl cacheControl = CacheControl.noCache();
+        if (request.checkNotModified(etag, lastModified.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body.get());
+    }
+}
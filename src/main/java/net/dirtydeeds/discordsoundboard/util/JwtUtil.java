@@ -2,14 +2,17 @@ package net.dirtydeeds.discordsoundboard.util;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
@@ -20,8 +23,42 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    // Most verified tokens remembered at once
+    @Value("${jwt.cache-size:10000}")
+    private int cacheSize = 10000;
+
+    // Built from the secret on first use, both are immutable and shared by all threads
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+
+    // Token to its verified claims, until the token expires. Keyed by the whole token, so only the exact token that was
+    // verified ever matches an entry. Looking a token up takes no lock; adding one does, so that only one thread makes
+    // room when the map is full.
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+
+    // Order in which tokens were added, guarded by evictionLock
+    private long added;
+
+    private record VerifiedToken(Claims claims, long expiresAt, long order) {
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secret.getBytes());
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser jwtParser = parser;
+        if (jwtParser == null) {
+            jwtParser = Jwts.parser().verifyWith(getSigningKey()).build();
+            parser = jwtParser;
+        }
+        return jwtParser;
     }
 
     public String generateToken(String userId, Map<String, Object> claims) {
@@ -34,32 +71,71 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * Verify the token and return its claims. A token that was verified before is answered from memory until it
+     * expires, so a browser sending the same token with every request only has its signature checked once.
+     *
+     * @throws JwtException if the token is malformed, expired or not signed with our key
+     * @throws IllegalArgumentException if the token is null or empty
+     */
     public Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (token != null) {
+            VerifiedToken verified = verifiedTokens.get(token);
+            if (verified != null) {
+                if (System.currentTimeMillis() < verified.expiresAt()) {
+                    return verified.claims();
+                }
+                verifiedTokens.remove(token, verified);
+            }
+        }
+
+        Claims claims = getParser().parseSignedClaims(token).getPayload();
+        remember(token, claims);
+        return claims;
     }
 
     public String getUserIdFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return getClaimsFromToken(token).getSubject();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            getClaimsFromToken(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
+
+    private void remember(String token, Claims claims) {
+        Date expiresAt = claims.getExpiration();
+        // Tokens that never expire are verified every time rather than remembered forever
+        if (expiresAt == null) {
+            return;
+        }
+        synchronized (evictionLock) {
+            if (verifiedTokens.size() >= cacheSize && !verifiedTokens.containsKey(token)) {
+                makeRoom();
+            }
+            verifiedTokens.put(token, new VerifiedToken(claims, expiresAt.getTime(), added++));
+        }
+    }
+
+    // Drops the expired tokens, then if still full the tokens added longest ago. A tenth of the map is freed at once so
+    // the next inserts don't each have to scan it again.
+    private void makeRoom() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(verified -> now >= verified.expiresAt());
+
+        int target = cacheSize - Math.max(1, cacheSize / 10);
+        int excess = verifiedTokens.size() - target;
+        if (excess > 0) {
+            verifiedTokens.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().order()))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(verifiedTokens::remove);
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package net.dirtydeeds.discordsoundboard.util;
+
+import java.util.Locale;
+
+/**
+ * Keys for case-insensitive lookups on indexed lower case columns.
+ */
+public final class LookupKeys {
+
+    private LookupKeys() {
+    }
+
+    /**
+     * Normalizes a key the same way the normalized lookup columns are populated.
+     *
+     * @param key - The user name to normalize.
+     * @return The key in lower case, or null if the key was null.
+     */
+    public static String normalize(String key) {
+        return key == null ? null : key.toLowerCase(Locale.ROOT);
+    }
+}
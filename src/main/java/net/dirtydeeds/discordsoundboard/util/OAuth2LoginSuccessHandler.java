@@ -40,7 +40,7 @@ public class OAuth2LoginSuccessHandler extends SimpleUrlAuthenticationSuccessHan
         List<String> roles = userRoleConfig.getUserRoles(userId);
 
         // Get user's permissions from their roles
-        Set<String> permissions = userRoleConfig.getUserPermissions(userId);
+        Set<String> permissions = userRoleConfig.getUserPermissions(userId, roles);
 
         // Create claims for JWT
         Map<String, Object> claims = new HashMap<>();
@@ -0,0 +1,28 @@
+package net.dirtydeeds.discordsoundboard.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Roles and permissions worked out since role assignments or role permissions last changed.
+ * <p>
+ * Each entry is an immutable list or a {@link UserPermission} mask that is written once and never replaced. A change
+ * doesn't touch a snapshot, it replaces it with an empty one, so reading an entry is a plain map lookup without locks
+ * and never sees half of a change. Lookups that started before the change finish into the old snapshot, which nothing
+ * reads any more.
+ */
+final class PermissionSnapshot {
+
+    // User ID to the roles of that user
+    final Map<String, List<String>> userRoles = new ConcurrentHashMap<>();
+
+    // Role to the mask of the permissions it grants
+    final Map<String, Integer> rolePermissions = new ConcurrentHashMap<>();
+
+    // Mask of the permissions of requests without a signed-in user, null until first asked for
+    volatile Integer defaultPermissions;
+
+    // User ID to the mask of the permissions of all their roles together
+    final Map<String, Integer> userPermissions = new ConcurrentHashMap<>();
+}
@@ -0,0 +1,126 @@
+package net.dirtydeeds.discordsoundboard.util;
+
+import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Who sent the request being handled: their user ID, username, roles and permissions. Controllers take it as a method
+ * parameter instead of the Authorization header.
+ * <p>
+ * One is created per request and each part is looked up the first time it's asked for, so a request that checks two
+ * permissions and shows the username verifies the token once and loads the user and their role's permissions once.
+ * Roles and permissions come out of the cache in {@link UserRoleConfig} once they're in it, and then the user is only
+ * loaded for the username. It belongs to the thread handling the request and isn't meant to be shared.
+ */
+public final class RequestPrincipal {
+
+    // Request attribute the principal of the current request is kept under
+    public static final String ATTRIBUTE = RequestPrincipal.class.getName();
+
+    public static final String ANONYMOUS = "anonymous";
+
+    private final String authorization;
+    private final UserRoleConfig userRoleConfig;
+
+    private boolean userIdResolved;
+    private String userId;
+    private Optional<DiscordUser> user;
+    private String username;
+    private List<String> roles;
+    private boolean permissionsResolved;
+    private int permissions;
+
+    RequestPrincipal(String authorization, UserRoleConfig userRoleConfig) {
+        this.authorization = authorization;
+        this.userRoleConfig = userRoleConfig;
+    }
+
+    private RequestPrincipal(String userId, String username, List<String> roles, Set<String> permissions) {
+        this(null, null);
+        this.userIdResolved = true;
+        this.userId = userId;
+        this.username = username;
+        this.roles = List.copyOf(roles);
+        this.permissionsResolved = true;
+        this.permissions = UserPermission.maskOf(permissions);
+    }
+
+    /**
+     * A principal that has already been resolved, for requests that didn't come in over HTTP
+     */
+    public static RequestPrincipal of(String userId, String username, List<String> roles, Set<String> permissions) {
+        return new RequestPrincipal(userId, username, roles, permissions);
+    }
+
+    /**
+     * The ID of the signed-in user, null when the request has no valid token
+     */
+    public String getUserId() {
+        if (!userIdResolved) {
+            userId = authorization == null ? null : userRoleConfig.getUserIdFromAuth(authorization);
+            userIdResolved = true;
+        }
+        return userId;
+    }
+
+    public boolean isAuthenticated() {
+        String id = getUserId();
+        return id != null && !id.isEmpty();
+    }
+
+    /**
+     * The name to credit the request to: the signed-in user's username, or "anonymous"
+     */
+    public String getUsername() {
+        if (!isAuthenticated()) {
+            return ANONYMOUS;
+        }
+        if (username == null) {
+            try {
+                username = user().map(DiscordUser::getUsername).orElse(userId);
+            } catch (Exception e) {
+                // If database lookup fails, credit the user ID for now
+                return userId;
+            }
+        }
+        return username;
+    }
+
+    public List<String> getRoles() {
+        if (roles == null) {
+            roles = isAuthenticated()
+                    ? userRoleConfig.getUserRoles(userId, this::user)
+                    : List.of();
+        }
+        return roles;
+    }
+
+    /**
+     * The permissions of the user as a {@link UserPermission} mask
+     */
+    public int getPermissions() {
+        if (!permissionsResolved) {
+            permissions = userRoleConfig.getPermissionMask(getUserId(), getRoles());
+            permissionsResolved = true;
+        }
+        return permissions;
+    }
+
+    public boolean hasPermission(UserPermission permission) {
+        return permission.in(getPermissions());
+    }
+
+    public boolean hasRole(String role) {
+        return getRoles().contains(role);
+    }
+
+    private Optional<DiscordUser> user() {
+        if (user == null) {
+            user = userRoleConfig.findUser(userId);
+        }
+        return user;
+    }
+}
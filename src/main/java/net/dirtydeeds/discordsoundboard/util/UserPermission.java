@@ -0,0 +1,107 @@
+package net.dirtydeeds.discordsoundboard.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What a role lets its users do. Roles and users carry their permissions as a bitmask with one bit per permission, so
+ * checking one is a single AND. The names are only used where permissions come in or go out: the YAML configuration,
+ * the role_permission table, tokens and the API.
+ */
+public enum UserPermission {
+    UPLOAD("upload", "upload"),
+    DELETE_SOUNDS("delete-sounds", "delete"),
+    EDIT_SOUNDS("edit-sounds", "editSounds"),
+    MANAGE_USERS("manage-users", "manageUsers"),
+    PLAY_SOUNDS("play-sounds", "playSounds"),
+    DOWNLOAD_SOUNDS("download-sounds", "downloadSounds"),
+    UPDATE_VOLUME("update-volume", "updateVolume");
+
+    public static final int NONE = 0;
+
+    private static final UserPermission[] ALL = values();
+    private static final Map<String, UserPermission> BY_NAME = new HashMap<>();
+
+    static {
+        for (UserPermission permission : ALL) {
+            BY_NAME.put(permission.permissionName, permission);
+        }
+    }
+
+    // Name in the configuration, the database and tokens
+    private final String permissionName;
+
+    // Key of the flag the web UI reads from /api/auth/default-permissions
+    private final String flagName;
+
+    private final int bit;
+
+    UserPermission(String permissionName, String flagName) {
+        this.permissionName = permissionName;
+        this.flagName = flagName;
+        this.bit = 1 << ordinal();
+    }
+
+    public String getPermissionName() {
+        return permissionName;
+    }
+
+    public int bit() {
+        return bit;
+    }
+
+    /**
+     * Whether the permission is set in the given mask
+     */
+    public boolean in(int mask) {
+        return (mask & bit) != 0;
+    }
+
+    /**
+     * The permission with the given name, null for names this version doesn't know
+     */
+    public static UserPermission fromName(String name) {
+        return name == null ? null : BY_NAME.get(name);
+    }
+
+    /**
+     * The mask of the named permissions. Names this version doesn't know grant nothing and are left out.
+     */
+    public static int maskOf(Collection<String> names) {
+        int mask = NONE;
+        for (String name : names) {
+            UserPermission permission = fromName(name);
+            if (permission != null) {
+                mask |= permission.bit;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * The names of the permissions set in the mask
+     */
+    public static Set<String> namesOf(int mask) {
+        Set<String> names = new HashSet<>();
+        for (UserPermission permission : ALL) {
+            if (permission.in(mask)) {
+                names.add(permission.permissionName);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Every permission as a flag the web UI reads, true when it is set in the mask
+     */
+    public static Map<String, Boolean> flagsOf(int mask) {
+        Map<String, Boolean> flags = new HashMap<>();
+        for (UserPermission permission : ALL) {
+            flags.put(permission.flagName, permission.in(mask));
+        }
+        return flags;
+    }
+}
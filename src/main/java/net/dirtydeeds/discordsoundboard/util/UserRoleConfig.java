@@ -2,13 +2,17 @@ package net.dirtydeeds.discordsoundboard.util;
 
 import io.jsonwebtoken.Claims;
 import lombok.Getter;
-import lombok.Setter;
+import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @Configuration
 @ConfigurationProperties(prefix = "app.users")
@@ -16,7 +20,6 @@ import java.util.*;
 public class UserRoleConfig {
 
     // Map of user ID to their roles
-    @Setter
     @Getter
     private Map<String, List<String>> roles = new HashMap<>();
 
@@ -30,10 +33,12 @@ public class UserRoleConfig {
     private List<String> djUserList = new ArrayList<>();
 
     // Map of roles to their permissions
-    @Setter
     @Getter
     private Map<String, List<String>> permissions = new HashMap<>();
 
+    // Roles and permissions resolved so far, replaced whenever they change
+    private final AtomicReference<PermissionSnapshot> snapshot = new AtomicReference<>(new PermissionSnapshot());
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -45,23 +50,60 @@ public class UserRoleConfig {
     @org.springframework.context.annotation.Lazy
     private net.dirtydeeds.discordsoundboard.service.RolePermissionService rolePermissionService;
 
+    public void setRoles(Map<String, List<String>> roles) {
+        this.roles = roles;
+        invalidatePermissions();
+    }
+
+    public void setPermissions(Map<String, List<String>> permissions) {
+        this.permissions = permissions;
+        invalidatePermissions();
+    }
+
     /**
      * Get roles for a specific user
      * Database roles take precedence over configuration file roles
      * Default "user" role is only assigned to authenticated users (non-null/non-empty userId)
      */
     public List<String> getUserRoles(String userId) {
-        List<String> returnRoles = new ArrayList<>();
+        return getUserRoles(userId, () -> findUser(userId));
+    }
 
-        // 1. Check database FIRST - takes precedence
-        try {
-            java.util.Optional<net.dirtydeeds.discordsoundboard.beans.DiscordUser> dbUser = discordUserService.findById(userId);
-            if (dbUser.isPresent() && dbUser.get().getAssignedRole() != null) {
-                returnRoles.add(dbUser.get().getAssignedRole());
-                return returnRoles;  // DB role wins, ignore properties
+    /**
+     * Get roles for a user, loading their database record through the given lookup when they aren't cached yet
+     */
+    public List<String> getUserRoles(String userId, Supplier<Optional<DiscordUser>> dbUser) {
+        boolean authenticated = userId != null && !userId.isEmpty();
+        PermissionSnapshot current = snapshot.get();
+        if (authenticated) {
+            List<String> cached = current.userRoles.get(userId);
+            if (cached != null) {
+                return cached;
             }
+        }
+
+        List<String> returnRoles;
+        try {
+            returnRoles = List.copyOf(resolveUserRoles(userId, dbUser.get()));
         } catch (Exception e) {
-            // If database lookup fails, fall back to properties
+            // If database lookup fails, fall back to properties and look again next time
+            return List.copyOf(resolveUserRoles(userId, Optional.empty()));
+        }
+
+        if (!authenticated) {
+            return returnRoles;
+        }
+        List<String> raced = current.userRoles.putIfAbsent(userId, returnRoles);
+        return raced != null ? raced : returnRoles;
+    }
+
+    private List<String> resolveUserRoles(String userId, Optional<DiscordUser> dbUser) {
+        List<String> returnRoles = new ArrayList<>();
+
+        // 1. Check database FIRST - takes precedence
+        if (dbUser.isPresent() && dbUser.get().getAssignedRole() != null) {
+            returnRoles.add(dbUser.get().getAssignedRole());
+            return returnRoles;  // DB role wins, ignore properties
         }
 
         // 2. Fallback to properties-based roles
@@ -99,65 +141,115 @@ public class UserRoleConfig {
      * Unauthenticated users (null/empty userId) get "default" role permissions
      */
     public Set<String> getUserPermissions(String userId) {
-        Set<String> userPermissions = new HashSet<>();
+        return UserPermission.namesOf(getPermissionMask(userId));
+    }
 
-        // Handle unauthenticated users - check for custom default permissions
+    /**
+     * Get all permissions for a user whose roles have already been looked up
+     */
+    public Set<String> getUserPermissions(String userId, List<String> userRoles) {
+        return UserPermission.namesOf(getPermissionMask(userId, userRoles));
+    }
+
+    /**
+     * Get all permissions for a user as a {@link UserPermission} mask
+     */
+    public int getPermissionMask(String userId) {
         if (userId == null || userId.isEmpty()) {
-            try {
-                if (rolePermissionService.hasCustomPermissions("default")) {
-                    userPermissions.addAll(rolePermissionService.getPermissionNamesForRole("default"));
-                    return userPermissions;
-                }
-            } catch (Exception e) {
-                // If database lookup fails, fall back to YAML
-            }
+            return getPermissionMask(userId, List.of());
+        }
 
-            // Fallback to YAML default-permissions
-            List<String> defaultPerms = permissions.get("default-permissions");
-            if (defaultPerms != null) {
-                userPermissions.addAll(defaultPerms);
-            }
-            return userPermissions;
+        PermissionSnapshot current = snapshot.get();
+        Integer cached = current.userPermissions.get(userId);
+        if (cached != null) {
+            return cached;
         }
 
         List<String> userRoles = getUserRoles(userId);
+        int userPermissions = getPermissionMask(userId, userRoles);
+
+        // Only keep the result when every part of it came out of this snapshot, not out of a fallback after a failed
+        // database lookup
+        if (userRoles == current.userRoles.get(userId)
+                && userRoles.stream().allMatch(current.rolePermissions::containsKey)) {
+            current.userPermissions.putIfAbsent(userId, userPermissions);
+        }
+        return userPermissions;
+    }
 
+    /**
+     * Get all permissions for a user whose roles have already been looked up, as a {@link UserPermission} mask
+     */
+    public int getPermissionMask(String userId, List<String> userRoles) {
+        // Handle unauthenticated users - check for custom default permissions
+        if (userId == null || userId.isEmpty()) {
+            return getDefaultPermissions();
+        }
+
+        int userPermissions = UserPermission.NONE;
         for (String role : userRoles) {
-            // Admin always gets all permissions, cannot be customized
-            if ("admin".equals(role)) {
-                List<String> adminPerms = permissions.get("admin");
-                if (adminPerms != null) {
-                    userPermissions.addAll(adminPerms);
-                }
-                continue;
-            }
+            userPermissions |= getRolePermissions(role);
+        }
+        return userPermissions;
+    }
 
-            // 1. Check database for custom permissions first
+    private int getDefaultPermissions() {
+        PermissionSnapshot current = snapshot.get();
+        Integer cached = current.defaultPermissions;
+        if (cached != null) {
+            return cached;
+        }
+
+        int defaultPermissions;
+        try {
+            defaultPermissions = rolePermissionService.hasCustomPermissions("default")
+                    ? UserPermission.maskOf(rolePermissionService.getPermissionNamesForRole("default"))
+                    : configuredPermissions("default-permissions");
+        } catch (Exception e) {
+            // If database lookup fails, fall back to YAML and look again next time
+            return configuredPermissions("default-permissions");
+        }
+        current.defaultPermissions = defaultPermissions;
+        return defaultPermissions;
+    }
+
+    private int getRolePermissions(String role) {
+        PermissionSnapshot current = snapshot.get();
+        Integer cached = current.rolePermissions.get(role);
+        if (cached != null) {
+            return cached;
+        }
+
+        int rolePermissions;
+        if ("admin".equals(role)) {
+            // Admin always gets all permissions, cannot be customized
+            rolePermissions = configuredPermissions("admin");
+        } else {
             try {
-                if (rolePermissionService.hasCustomPermissions(role)) {
-                    userPermissions.addAll(rolePermissionService.getPermissionNamesForRole(role));
-                    continue; // Skip YAML config for this role
-                }
+                // 1. Check database for custom permissions first, 2. fallback to YAML permissions
+                rolePermissions = rolePermissionService.hasCustomPermissions(role)
+                        ? UserPermission.maskOf(rolePermissionService.getPermissionNamesForRole(role))
+                        : configuredPermissions(role);
             } catch (Exception e) {
-                // If database lookup fails, fall back to YAML
-            }
-
-            // 2. Fallback to YAML permissions
-            List<String> rolePerms = permissions.get(role);
-            if (rolePerms != null) {
-                userPermissions.addAll(rolePerms);
+                // If database lookup fails, fall back to YAML and look again next time
+                return configuredPermissions(role);
             }
         }
 
-        return userPermissions;
+        current.rolePermissions.putIfAbsent(role, rolePermissions);
+        return rolePermissions;
+    }
+
+    private int configuredPermissions(String key) {
+        List<String> configured = permissions.get(key);
+        return configured != null ? UserPermission.maskOf(configured) : UserPermission.NONE;
     }
 
     /**
      * Check if the user has a specific permission
      */
-    public boolean hasPermission(String userId, String permission) {
-        Set<String> userPermissions = getUserPermissions(userId);
-        return userPermissions.contains(permission);
+    public boolean hasPermission(String userId, UserPermission permission) {
+        return permission.in(getPermissionMask(userId));
     }
 
     /**
@@ -168,6 +260,37 @@ public class UserRoleConfig {
         return userRoles.contains(role);
     }
 
+    /**
+     * Forget the cached roles and permissions, called whenever role assignments or role permissions change. Inside a
+     * transaction this waits for the commit, so the next lookup reads the new data rather than caching the old.
+     */
+    public void invalidatePermissions() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshot.set(new PermissionSnapshot());
+                }
+            });
+            return;
+        }
+        snapshot.set(new PermissionSnapshot());
+    }
+
+    /**
+     * Look up the database record of a user. Throws if the database can't be reached.
+     */
+    public Optional<DiscordUser> findUser(String userId) {
+        return discordUserService.findById(userId);
+    }
+
+    /**
+     * Start resolving who sent a request. Nothing is looked up until it's first asked for, and then only once.
+     */
+    public RequestPrincipal resolvePrincipal(String authorization) {
+        return new RequestPrincipal(authorization, this);
+    }
+
     /**
      * Extract user ID from JWT token
      */
@@ -179,10 +302,7 @@ public class UserRoleConfig {
         try {
             String token = authorization.replace("Bearer ", "");
 
-            if (!jwtUtil.validateToken(token)) {
-                return null;
-            }
-
+            // Verifies the token, or answers from the tokens verified before
             Claims claims = jwtUtil.getClaimsFromToken(token);
             return claims.getSubject();
         } catch (Exception e) {
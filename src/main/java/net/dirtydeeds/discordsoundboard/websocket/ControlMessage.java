@@ -0,0 +1,35 @@
+package net.dirtydeeds.discordsoundboard.websocket;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * A message a client sends on the control socket. Which fields are used depends on the type:
+ * <ul>
+ *     <li>hello: token (optional, the JWT), csrf (the XSRF-TOKEN cookie) and guilds (optional, to limit the playback
+ *     events sent to the socket)</li>
+ *     <li>play: sound, username, repeat (optional) and channel (optional)</li>
+ *     <li>stop: username and channel (optional)</li>
+ *     <li>volume: username, volume and channel (optional)</li>
+ * </ul>
+ *
+ * @param id - Chosen by the client and sent back in the reply, so it can tell replies apart.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ControlMessage(String type,
+                             Long id,
+                             String token,
+                             String csrf,
+                             List<String> guilds,
+                             String sound,
+                             String username,
+                             Integer repeat,
+                             String channel,
+                             Integer volume) {
+
+    public static final String HELLO = "hello";
+    public static final String PLAY = "play";
+    public static final String STOP = "stop";
+    public static final String VOLUME = "volume";
+}
@@ -0,0 +1,26 @@
+package net.dirtydeeds.discordsoundboard.websocket;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The reply to a {@link ControlMessage}: an ack once the command was carried out (for play, once it was queued), or an
+ * error with the HTTP status the matching REST endpoint would have answered with.
+ *
+ * @param id        - Id of the message this replies to, null if the message couldn't be read.
+ * @param requestId - For play, the id its playRequest progress events carry.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ControlReply(String type, Long id, Integer status, String message, String requestId) {
+
+    public static ControlReply ack(Long id) {
+        return new ControlReply("ack", id, null, null, null);
+    }
+
+    public static ControlReply queued(Long id, String requestId) {
+        return new ControlReply("ack", id, null, null, requestId);
+    }
+
+    public static ControlReply error(Long id, int status, String message) {
+        return new ControlReply("error", id, status, message, null);
+    }
+}
@@ -0,0 +1,298 @@
+package net.dirtydeeds.discordsoundboard.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PreDestroy;
+import net.dirtydeeds.discordsoundboard.PlaybackEvent;
+import net.dirtydeeds.discordsoundboard.SoundPlayer;
+import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
+import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
+import net.dirtydeeds.discordsoundboard.service.PlayRequestService;
+import net.dirtydeeds.discordsoundboard.service.PlaybackService;
+import net.dirtydeeds.discordsoundboard.util.JwtUtil;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Control channel for the web UI at {@value #PATH}. A browser connects once, says hello with its JWT
+ * and then sends small play, stop and volume messages over the open socket instead of one HTTP request each. Every
+ * message carries an id that comes back in an ack or error reply, and the start and end of every sound are pushed to
+ * the socket as they happen.
+ * <p>
+ * The token is verified once, on hello, where the REST endpoints parse it on every request. Each command checks the
+ * user's permissions against {@link UserRoleConfig}'s cached snapshot, the same ones the REST endpoints check, so a
+ * revoked role or permission applies to the socket at once. Hello must also carry
+ * the XSRF-TOKEN cookie value, which a page from another origin can't read, so the socket is as safe from cross-site
+ * use as the CSRF protected endpoints.
+ */
+@Component
+public class ControlSocketHandler extends TextWebSocketHandler {
+
+    public static final String PATH = "/ws/control";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ControlSocketHandler.class);
+
+    private static final int SEND_TIME_LIMIT_MILLIS = 5_000;
+    private static final int SEND_BUFFER_SIZE_LIMIT = 64 * 1024;
+
+    private final SoundPlayer soundPlayer;
+    private final PlayRequestService playRequestService;
+    private final UserRoleConfig userRoleConfig;
+    private final DiscordUserService discordUserService;
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+
+    // Playback events arrive on the audio threads; sending them to every socket happens here instead
+    private final ExecutorService broadcaster = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("ws-broadcast").factory());
+
+    public ControlSocketHandler(SoundPlayer soundPlayer,
+                                PlayRequestService playRequestService,
+                                UserRoleConfig userRoleConfig,
+                                DiscordUserService discordUserService,
+                                JwtUtil jwtUtil,
+                                ObjectMapper objectMapper,
+                                PlaybackService playbackService) {
+        this.soundPlayer = soundPlayer;
+        this.playRequestService = playRequestService;
+        this.userRoleConfig = userRoleConfig;
+        this.discordUserService = discordUserService;
+        this.jwtUtil = jwtUtil;
+        this.objectMapper = objectMapper;
+
+        playbackService.addListener(this::onPlaybackEvent);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        clients.put(session.getId(), new Client(new ConcurrentWebSocketSessionDecorator(session,
+                SEND_TIME_LIMIT_MILLIS, SEND_BUFFER_SIZE_LIMIT)));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        clients.remove(session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Client client = clients.get(session.getId());
+        if (client == null) {
+            return;
+        }
+
+        ControlMessage command;
+        try {
+            command = objectMapper.readValue(message.getPayload(), ControlMessage.class);
+        } catch (JsonProcessingException e) {
+            client.send(objectMapper, ControlReply.error(null, 400, "Malformed message"));
+            return;
+        }
+        client.send(objectMapper, handle(client, command));
+    }
+
+    ControlReply handle(Client client, ControlMessage command) {
+        if (command.type() == null) {
+            return ControlReply.error(command.id(), 400, "Missing message type");
+        }
+        if (command.type().equals(ControlMessage.HELLO)) {
+            return hello(client, command);
+        }
+        if (!client.greeted) {
+            return ControlReply.error(command.id(), 401, "Send hello first");
+        }
+        return switch (command.type()) {
+            case ControlMessage.PLAY -> play(client, command);
+            case ControlMessage.STOP -> stop(client, command);
+            case ControlMessage.VOLUME -> volume(client, command);
+            default -> ControlReply.error(command.id(), 400, "Unknown message type: " + command.type());
+        };
+    }
+
+    private ControlReply hello(Client client, ControlMessage hello) {
+        Object expectedCsrf = client.session.getAttributes().get(CsrfCookieHandshakeInterceptor.CSRF_TOKEN_ATTRIBUTE);
+        if (!(expectedCsrf instanceof String expected) || hello.csrf() == null
+                || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                hello.csrf().getBytes(StandardCharsets.UTF_8))) {
+            return ControlReply.error(hello.id(), 403, "Invalid CSRF token");
+        }
+
+        String userId = null;
+        long tokenExpiry = Long.MAX_VALUE;
+        if (hello.token() != null) {
+            try {
+                Claims claims = jwtUtil.getClaimsFromToken(hello.token());
+                userId = claims.getSubject();
+                if (claims.getExpiration() != null) {
+                    tokenExpiry = claims.getExpiration().getTime();
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                return ControlReply.error(hello.id(), 401, "Invalid token");
+            }
+        }
+
+        String requestingUser = "anonymous";
+        if (userId != null) {
+            DiscordUser user = discordUserService.findOneByIdOrUsernameIgnoreCase(userId, userId);
+            if (user != null) {
+                requestingUser = user.getUsername();
+            }
+        }
+
+        client.userId = userId;
+        client.tokenExpiry = tokenExpiry;
+        client.requestingUser = requestingUser;
+        client.guilds = hello.guilds() == null || hello.guilds().isEmpty() ? null : Set.copyOf(hello.guilds());
+        client.greeted = true;
+        return ControlReply.ack(hello.id());
+    }
+
+    private ControlReply play(Client client, ControlMessage play) {
+        if (play.sound() == null || play.username() == null) {
+            return ControlReply.error(play.id(), 400, "sound and username are required");
+        }
+        if (!hasPermission(client, UserPermission.PLAY_SOUNDS)) {
+            return ControlReply.error(play.id(), 403, "You don't have permission to play sounds");
+        }
+        int repeat = play.repeat() == null ? 1 : play.repeat();
+        String requestId = playRequestService.submit(play.sound(), play.username(), repeat, channelOf(play),
+                client.requestingUser());
+        if (requestId == null) {
+            return ControlReply.error(play.id(), 503, "Too many sounds waiting to play, try again shortly");
+        }
+        return ControlReply.queued(play.id(), requestId);
+    }
+
+    private ControlReply stop(Client client, ControlMessage stop) {
+        if (stop.username() == null) {
+            return ControlReply.error(stop.id(), 400, "username is required");
+        }
+        if (!hasPermission(client, UserPermission.PLAY_SOUNDS)) {
+            return ControlReply.error(stop.id(), 403, "You don't have permission to stop sounds");
+        }
+        soundPlayer.stop(stop.username(), channelOf(stop));
+        return ControlReply.ack(stop.id());
+    }
+
+    private ControlReply volume(Client client, ControlMessage volume) {
+        if (volume.username() == null || volume.volume() == null) {
+            return ControlReply.error(volume.id(), 400, "username and volume are required");
+        }
+        // Like /api/volume, only signed-in users may change the volume
+        if (client.userId() == null || !hasPermission(client, UserPermission.UPDATE_VOLUME)) {
+            return ControlReply.error(volume.id(), 403, "You don't have permission to change the volume");
+        }
+        soundPlayer.setGlobalVolume(volume.volume(), volume.username(), channelOf(volume));
+        return ControlReply.ack(volume.id());
+    }
+
+    private boolean hasPermission(Client client, UserPermission permission) {
+        return permission.in(userRoleConfig.getPermissionMask(client.userId()));
+    }
+
+    private static String channelOf(ControlMessage command) {
+        return command.channel() == null ? "" : command.channel();
+    }
+
+    private void onPlaybackEvent(String eventName, PlaybackEvent event) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        broadcaster.execute(() -> broadcast(eventName, event));
+    }
+
+    private void broadcast(String eventName, PlaybackEvent event) {
+        TextMessage message;
+        try {
+            // Serialized once for every socket
+            ObjectNode node = objectMapper.valueToTree(event);
+            node.put("type", eventName);
+            message = new TextMessage(objectMapper.writeValueAsString(node));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            LOG.error("Could not serialize {} event", eventName, e);
+            return;
+        }
+        for (Client client : clients.values()) {
+            if (client.greeted && client.follows(event.getGuildId())) {
+                client.send(message);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        broadcaster.shutdownNow();
+    }
+
+    /**
+     * What the handler knows about one open socket. Messages of a session are handled one at a time, so the fields are
+     * only written by one thread at a time; they're volatile because broadcasts read them from another.
+     */
+    static final class Client {
+        private final WebSocketSession session;
+        private volatile boolean greeted;
+        private volatile String userId;
+        private volatile long tokenExpiry = Long.MAX_VALUE;
+        private volatile String requestingUser = "anonymous";
+        private volatile Set<String> guilds;
+
+        Client(WebSocketSession session) {
+            this.session = session;
+        }
+
+        // An expired token stops counting, just like an expired Authorization header: the socket carries on anonymous
+        private String userId() {
+            return System.currentTimeMillis() < tokenExpiry ? userId : null;
+        }
+
+        private String requestingUser() {
+            return userId() == null ? "anonymous" : requestingUser;
+        }
+
+        private boolean follows(String guildId) {
+            Set<String> followed = guilds;
+            return followed == null || guildId == null || followed.contains(guildId);
+        }
+
+        private void send(ObjectMapper objectMapper, ControlReply reply) {
+            try {
+                send(new TextMessage(objectMapper.writeValueAsString(reply)));
+            } catch (JsonProcessingException e) {
+                LOG.error("Could not serialize control reply", e);
+            }
+        }
+
+        private void send(TextMessage message) {
+            if (!session.isOpen()) {
+                return;
+            }
+            try {
+                session.sendMessage(message);
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Could not send to control socket {}", session.getId(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package net.dirtydeeds.discordsoundboard.websocket;
+
+import jakarta.servlet.http.Cookie;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import java.util.Map;
+
+/**
+ * Keeps the XSRF-TOKEN cookie the browser sent with the handshake, so {@link ControlSocketHandler} can check that the
+ * hello message repeats it. Browsers send the cookie along whatever page opens the socket, but only pages of this
+ * origin can read it.
+ */
+public class CsrfCookieHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String CSRF_TOKEN_ATTRIBUTE = "csrfToken";
+
+    private static final String CSRF_COOKIE_NAME = "XSRF-TOKEN";
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            Cookie cookie = WebUtils.getCookie(servletRequest.getServletRequest(), CSRF_COOKIE_NAME);
+            if (cookie != null) {
+                attributes.put(CSRF_TOKEN_ATTRIBUTE, cookie.getValue());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
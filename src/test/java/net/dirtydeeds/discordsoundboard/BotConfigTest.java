@@ -9,52 +9,37 @@ import static org.junit.jupiter.api.Assertions.*;
 class BotConfigTest {
 
     @Test
-    void allowedUsers_empty_or_null_returns_empty_list() {
-        BotConfig cfg = new BotConfig();
-        cfg.allowedUsersString = null;
-        assertTrue(cfg.getAllowedUsersList().isEmpty());
-
-        cfg.allowedUsersString = "";
-        assertTrue(cfg.getAllowedUsersList().isEmpty());
-    }
-
-    @Test
-    void allowedUsers_parses_comma_separated_values() {
+    void default_sound_dir_is_user_dir_sounds_when_unset() {
         BotConfig cfg = new BotConfig();
-        cfg.allowedUsersString = "alice,bob,carol";
-        List<String> list = cfg.getAllowedUsersList();
-        assertEquals(3, list.size());
-        assertTrue(list.contains("alice"));
-        assertTrue(list.contains("bob"));
-        assertTrue(list.contains("carol"));
+        cfg.soundFileDir = ""; // unset
+        String expected = System.getProperty("user.dir") + "/sounds";
+        assertEquals(expected, cfg.getSoundFileDir());
     }
 
     @Test
-    void bannedUsers_empty_or_null_returns_empty_list() {
+    void sound_dirs_parses_comma_separated_roots_in_order() {
         BotConfig cfg = new BotConfig();
-        cfg.bannedUsersString = null;
-        assertTrue(cfg.getBannedUsersList().isEmpty());
-
-        cfg.bannedUsersString = "";
-        assertTrue(cfg.getBannedUsersList().isEmpty());
+        cfg.soundFileDir = "/ssd/sounds, /hdd/archive,,/ssd/sounds";
+        assertEquals(List.of("/ssd/sounds", "/hdd/archive"), cfg.getSoundFileDirs());
+        assertEquals("/ssd/sounds", cfg.getSoundFileDir());
     }
 
     @Test
-    void bannedUsers_parses_comma_separated_values() {
+    void upload_dir_is_used_for_uploads_and_appended_as_last_root() {
         BotConfig cfg = new BotConfig();
-        cfg.bannedUsersString = "mallory,oscar,peggy";
-        List<String> list = cfg.getBannedUsersList();
-        assertEquals(3, list.size());
-        assertTrue(list.contains("mallory"));
-        assertTrue(list.contains("oscar"));
-        assertTrue(list.contains("peggy"));
+        cfg.soundFileDir = "/ssd/sounds,/hdd/archive";
+        cfg.uploadSoundFileDir = "/uploads";
+        assertEquals("/uploads", cfg.getSoundFileDir());
+        assertEquals(List.of("/ssd/sounds", "/hdd/archive", "/uploads"), cfg.getSoundFileDirs());
     }
 
     @Test
-    void default_sound_dir_is_user_dir_sounds_when_unset() {
+    void rescan_minutes_line_up_with_roots_and_default_to_zero() {
         BotConfig cfg = new BotConfig();
-        cfg.soundFileDir = ""; // unset
-        String expected = System.getProperty("user.dir") + "/sounds";
-        assertEquals(expected, cfg.getSoundFileDir());
+        cfg.soundFileDirRescanMinutes = "0, 60,abc";
+        assertEquals(0, cfg.getSoundFileDirRescanMinutes(0));
+        assertEquals(60, cfg.getSoundFileDirRescanMinutes(1));
+        assertEquals(0, cfg.getSoundFileDirRescanMinutes(2));
+        assertEquals(0, cfg.getSoundFileDirRescanMinutes(3));
     }
 }
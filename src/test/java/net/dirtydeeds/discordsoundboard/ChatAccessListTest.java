@@ -0,0 +1,123 @@
+package net.dirtydeeds.discordsoundboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatAccessListTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void empty_allowed_list_allows_everyone() {
+        BotConfig cfg = new BotConfig();
+
+        ChatAccessList access = new ChatAccessList(cfg, new MockEnvironment());
+
+        assertTrue(access.isUserAllowed("anyone"));
+        assertFalse(access.isUserBanned("anyone"));
+        assertEquals(0, access.stats().allowedUsers());
+        assertEquals(0, access.stats().bannedUsers());
+    }
+
+    @Test
+    void lists_are_trimmed_and_blank_entries_dropped() {
+        BotConfig cfg = new BotConfig();
+        cfg.allowedUsersString = " alice, bob ,,";
+        cfg.bannedUsersString = "mallory";
+
+        ChatAccessList access = new ChatAccessList(cfg, new MockEnvironment());
+
+        assertTrue(access.isUserAllowed("alice"));
+        assertTrue(access.isUserAllowed("bob"));
+        assertFalse(access.isUserAllowed("eve"));
+        assertTrue(access.isUserBanned("mallory"));
+        assertEquals(2, access.stats().allowedUsers());
+        assertEquals(1, access.stats().bannedUsers());
+    }
+
+    @Test
+    void reload_reads_the_lists_from_the_config_file_they_came_from() throws IOException {
+        BotConfig cfg = new BotConfig();
+        cfg.bannedUsersString = "mallory";
+        Path file = tempDir.resolve("application.properties");
+        Files.writeString(file, "allowedUsers=\nbannedUsers=mallory\n");
+        MockEnvironment environment = environmentWithFile(file);
+        ChatAccessList access = new ChatAccessList(cfg, environment);
+        Files.writeString(file, "allowedUsers=alice\nbannedUsers=eve,trudy\n");
+
+        ChatAccessList.ChatAccessStats stats = access.reload();
+
+        assertEquals(1, stats.allowedUsers());
+        assertEquals(2, stats.bannedUsers());
+        assertFalse(access.isUserAllowed("bob"));
+        assertFalse(access.isUserBanned("mallory"));
+        assertTrue(access.isUserBanned("trudy"));
+    }
+
+    @Test
+    void reload_keeps_lists_set_outside_config_files() throws IOException {
+        BotConfig cfg = new BotConfig();
+        cfg.bannedUsersString = "mallory";
+        Path file = tempDir.resolve("application.properties");
+        Files.writeString(file, "allowedUsers=alice\n");
+        MockEnvironment environment = environmentWithFile(file);
+        // Set like on the command line: in a source ahead of the file, with no file to read it from again
+        environment.setProperty("bannedUsers", "mallory");
+        ChatAccessList access = new ChatAccessList(cfg, environment);
+
+        access.reload();
+
+        assertTrue(access.isUserBanned("mallory"));
+        assertTrue(access.isUserAllowed("alice"));
+        assertFalse(access.isUserAllowed("bob"));
+    }
+
+    @Test
+    void reload_refuses_when_the_file_no_longer_sets_a_list() throws IOException {
+        BotConfig cfg = new BotConfig();
+        cfg.bannedUsersString = "mallory";
+        Path file = tempDir.resolve("application.properties");
+        Files.writeString(file, "allowedUsers=\nbannedUsers=mallory\n");
+        ChatAccessList access = new ChatAccessList(cfg, environmentWithFile(file));
+        Files.writeString(file, "allowedUsers=\n");
+
+        assertThrows(IllegalStateException.class, access::reload);
+
+        assertTrue(access.isUserBanned("mallory"));
+    }
+
+    @Test
+    void failed_reload_keeps_the_lists_in_use() throws IOException {
+        BotConfig cfg = new BotConfig();
+        cfg.bannedUsersString = "mallory";
+        Path file = tempDir.resolve("application.properties");
+        Files.writeString(file, "bannedUsers=mallory\n");
+        ChatAccessList access = new ChatAccessList(cfg, environmentWithFile(file));
+        Files.delete(file);
+
+        assertThrows(IOException.class, access::reload);
+
+        assertTrue(access.isUserBanned("mallory"));
+    }
+
+    // An environment holding the file the way Spring loads a config file, with the file as the origin of its values
+    private static MockEnvironment environmentWithFile(Path file) throws IOException {
+        MockEnvironment environment = new MockEnvironment();
+        for (PropertySource<?> source : new PropertiesPropertySourceLoader()
+                .load("config", new FileSystemResource(file))) {
+            environment.getPropertySources().addLast(source);
+        }
+        return environment;
+    }
+}
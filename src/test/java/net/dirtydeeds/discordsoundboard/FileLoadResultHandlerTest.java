@@ -185,4 +185,29 @@ class FileLoadResultHandlerTest {
 
         assertDoesNotThrow(() -> resultHandler.loadFailed(ex));
     }
+
+    // ──────────────────────── progress ────────────────────────
+
+    @Test
+    void trackLoaded_tellsProgressListenerItIsPlaying() {
+        setupGuildAudioManager();
+        when(guild.getId()).thenReturn("guild1");
+        PlayProgressListener progress = mock(PlayProgressListener.class);
+        FileLoadResultHandler resultHandler = new FileLoadResultHandler(guild, 1, progress);
+
+        resultHandler.trackLoaded(mock(AudioTrack.class));
+
+        verify(progress).onProgress(PlayRequestStatus.PLAYING, "guild1", null);
+    }
+
+    @Test
+    void noMatches_tellsProgressListenerItFailed() {
+        when(guild.getId()).thenReturn("guild1");
+        PlayProgressListener progress = mock(PlayProgressListener.class);
+        FileLoadResultHandler resultHandler = new FileLoadResultHandler(guild, 1, progress);
+
+        resultHandler.noMatches();
+
+        verify(progress).onProgress(eq(PlayRequestStatus.FAILED), eq("guild1"), anyString());
+    }
 }
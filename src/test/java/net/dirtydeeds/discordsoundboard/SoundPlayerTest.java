@@ -1,16 +1,37 @@
 package net.dirtydeeds.discordsoundboard;
 
 import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import net.dirtydeeds.discordsoundboard.controllers.BotVolumeController;
+import net.dirtydeeds.discordsoundboard.controllers.DiscordUserController;
+import net.dirtydeeds.discordsoundboard.controllers.SoundController;
 import net.dirtydeeds.discordsoundboard.repository.SoundFileRepository;
 import net.dirtydeeds.discordsoundboard.repository.DiscordUserRepository;
+import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
+import net.dirtydeeds.discordsoundboard.service.PlaybackService;
+import net.dirtydeeds.discordsoundboard.service.SoundService;
+import net.dirtydeeds.discordsoundboard.util.ShutdownManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
 
-import static org.mockito.Mockito.verify;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
 
@@ -21,15 +42,122 @@ class SoundPlayerTest {
     @Mock private MainWatch watch;
     @Mock private SoundFileRepository soundFileRepository;
     @Mock private DiscordUserRepository discordUserRepository;
+    @Mock private SoundService soundService;
+    @Mock private DiscordUserService discordUserService;
+    @Mock private ShutdownManager shutdownManager;
+    @Mock private BotConfig botConfig;
+    @Mock private ServletWebServerApplicationContext webServerApplicationContext;
+    @Mock private DiscordUserController discordUserController;
+    @Mock private SoundController soundController;
+    @Mock private PlaybackService playbackService;
+    @Mock private BotVolumeController botVolumeController;
+    @Mock private ChatAccessList chatAccessList;
+
+    @TempDir
+    Path tempDir;
+
+    // What the database holds, kept by the stubbed SoundService
+    private final NavigableMap<String, SoundFile> database = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
 
     private SoundPlayer soundPlayer;
 
     @BeforeEach
     void init() {
         openMocks(this);
+        lenient().when(soundService.save(any())).thenAnswer(invocation -> {
+            SoundFile soundFile = invocation.getArgument(0);
+            database.put(soundFile.getSoundFileId(), soundFile);
+            return soundFile;
+        });
+        lenient().doAnswer(invocation -> database.remove(invocation.<SoundFile>getArgument(0).getSoundFileId()))
+                .when(soundService).delete(any());
+        lenient().when(soundService.findOneBySoundFileIdIgnoreCase(anyString()))
+                .thenAnswer(invocation -> database.get(invocation.<String>getArgument(0)));
+        lenient().when(soundService.getCatalog()).thenAnswer(invocation -> new TreeMap<>(database));
+
+        // Without a bot token the bot doesn't connect, leaving only the sound library to test
+        soundPlayer = new SoundPlayer(watch, soundService, discordUserService, shutdownManager, botConfig,
+                webServerApplicationContext, discordUserController, soundController, playbackService,
+                botVolumeController, chatAccessList);
     }
 
     @Test
     void updateFileListTest() {
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateFileList_sameSoundInTwoRoots_usesTheRootListedFirst() throws IOException {
+        // Arrange
+        Path ssd = tempDir.resolve("ssd");
+        Path hdd = tempDir.resolve("hdd");
+        Path preferred = createSound(ssd, "memes", "airhorn.mp3");
+        createSound(hdd, "archive", "AIRHORN.wav");
+        Path other = createSound(hdd, "archive", "beep.wav");
+        when(botConfig.getSoundFileDirs()).thenReturn(List.of(ssd.toString(), hdd.toString()));
+
+        // Act
+        soundPlayer.updateFileList();
+
+        // Assert
+        assertEquals(2, database.size());
+        assertEquals(preferred.toString(), database.get("airhorn").getSoundFileLocation());
+        assertEquals("memes", database.get("airhorn").getCategory());
+        assertEquals(other.toString(), database.get("beep").getSoundFileLocation());
+    }
+
+    @Test
+    void updateFileList_withRoot_rescansOnlyThatRoot() throws IOException {
+        // Arrange
+        Path ssd = tempDir.resolve("ssd");
+        Path hdd = tempDir.resolve("hdd");
+        createSound(ssd, "memes", "airhorn.mp3");
+        Path removed = createSound(hdd, "archive", "beep.wav");
+        when(botConfig.getSoundFileDirs()).thenReturn(List.of(ssd.toString(), hdd.toString()));
+        soundPlayer.updateFileList();
+        createSound(ssd, "memes", "unseen.mp3");
+        createSound(hdd, "archive", "added.wav");
+        Files.delete(removed);
+
+        // Act
+        soundPlayer.updateFileList(hdd);
+
+        // Assert - the other root's last scan is still used, so its new sound waits for its own rescan
+        assertTrue(database.containsKey("airhorn"));
+        assertTrue(database.containsKey("added"));
+        assertFalse(database.containsKey("beep"));
+        assertFalse(database.containsKey("unseen"));
+    }
+
+    @Test
+    void updateFileList_rootThatCannotBeScanned_keepsItsSounds() throws IOException {
+        // Arrange - a root below a regular file can neither be created nor walked
+        Path ssd = tempDir.resolve("ssd");
+        Path unmounted = Files.createFile(tempDir.resolve("share")).resolve("sounds");
+        createSound(ssd, "memes", "airhorn.mp3");
+        database.put("remote", soundAt("remote", unmounted.resolve("archive").resolve("remote.mp3")));
+        database.put("gone", soundAt("gone", ssd.resolve("memes").resolve("gone.mp3")));
+        when(botConfig.getSoundFileDirs()).thenReturn(List.of(ssd.toString(), unmounted.toString()));
+
+        // Act
+        soundPlayer.updateFileList();
+
+        // Assert
+        assertTrue(database.containsKey("airhorn"));
+        assertTrue(database.containsKey("remote"));
+        assertFalse(database.containsKey("gone"));
+    }
+
+    private static Path createSound(Path root, String category, String fileName) throws IOException {
+        Path directory = Files.createDirectories(root.resolve(category));
+        return Files.createFile(directory.resolve(fileName));
+    }
+
+    private static SoundFile soundAt(String soundFileId, Path location) {
+        SoundFile soundFile = new SoundFile();
+        soundFile.setSoundFileId(soundFileId);
+        soundFile.setSoundFileLocation(location.toString());
+        soundFile.setCategory(location.getParent().getFileName().toString());
+        soundFile.setDateAdded(ZonedDateTime.now());
+        return soundFile;
+    }
+}
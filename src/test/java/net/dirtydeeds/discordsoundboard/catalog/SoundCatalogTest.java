@@ -0,0 +1,149 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoundCatalogTest {
+
+    private SoundCatalog catalog;
+    private List<SoundCatalogEvent> events;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new SoundCatalog();
+        catalog.load(List.of(sound("airhorn", "memes")));
+        events = new ArrayList<>();
+        catalog.addListener(events::add);
+    }
+
+    @Test
+    void put_newSoundPublishesAdded() {
+        catalog.put(sound("wilhelm", "classics"));
+
+        assertEquals(1, events.size());
+        SoundCatalogEvent event = events.get(0);
+        assertEquals(SoundCatalogEvent.Type.ADDED, event.type());
+        assertEquals(2, event.version());
+        assertEquals(1, event.baseVersion());
+        assertEquals("wilhelm", event.sound().soundFileId());
+        assertNull(event.changes());
+    }
+
+    @Test
+    void put_changedSoundPublishesOnlyChangedFields() {
+        // Same instance mutated in place, like SoundService.updateSoundPlayed followed by save
+        SoundFile airhorn = catalog.get("airhorn");
+        airhorn.setTimesPlayed(1);
+        catalog.put(airhorn);
+
+        assertEquals(1, events.size());
+        SoundCatalogEvent event = events.get(0);
+        assertEquals(SoundCatalogEvent.Type.UPDATED, event.type());
+        assertEquals("airhorn", event.soundFileId());
+        assertEquals(Map.of("timesPlayed", 1), event.changes());
+        assertNull(event.sound());
+    }
+
+    @Test
+    void put_unchangedSoundPublishesNothing() {
+        catalog.put(catalog.get("airhorn"));
+
+        assertTrue(events.isEmpty());
+        assertEquals(1, catalog.getVersion());
+    }
+
+    @Test
+    void put_renamedSoundIsStillSearchable() {
+        SoundFile airhorn = catalog.get("airhorn");
+        airhorn.setDisplayName("Foghorn");
+        catalog.put(airhorn);
+
+        assertEquals(Map.of("displayName", "Foghorn"), events.get(0).changes());
+        assertEquals(List.of(airhorn), catalog.search("foghorn", 5));
+    }
+
+    @Test
+    void remove_publishesRemovedOnlyForKnownSounds() {
+        catalog.remove("missing");
+        catalog.remove("AIRHORN");
+
+        assertEquals(1, events.size());
+        assertEquals(SoundCatalogEvent.Type.REMOVED, events.get(0).type());
+        assertEquals("airhorn", events.get(0).soundFileId());
+        assertEquals(2, events.get(0).version());
+    }
+
+    @Test
+    void events_haveConsecutiveVersions() {
+        catalog.put(sound("a", "memes"));
+        catalog.put(sound("b", "memes"));
+        catalog.remove("a");
+
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(events.get(i).baseVersion() + 1, events.get(i).version());
+            if (i > 0) {
+                assertEquals(events.get(i - 1).version(), events.get(i).baseVersion());
+            }
+        }
+    }
+
+    @Test
+    void snapshot_matchesVersionAndContent() {
+        catalog.put(sound("Wilhelm", "classics"));
+
+        CatalogSnapshot snapshot = catalog.snapshot();
+
+        assertEquals(catalog.getVersion(), snapshot.version());
+        assertEquals(List.of("airhorn", "Wilhelm"),
+                snapshot.content().stream().map(SoundSnapshot::soundFileId).toList());
+    }
+
+    @Test
+    void mergeWith_combinesConsecutiveUpdatesOfOneSound() {
+        SoundCatalogEvent first = SoundCatalogEvent.updated(2, "airhorn", Map.of("timesPlayed", 1));
+        SoundCatalogEvent second = SoundCatalogEvent.updated(3, "airhorn", Map.of("timesPlayed", 2, "favorite", true));
+
+        SoundCatalogEvent merged = first.mergeWith(second);
+
+        assertNotNull(merged);
+        assertEquals(3, merged.version());
+        assertEquals(1, merged.baseVersion());
+        assertEquals(Map.of("timesPlayed", 2, "favorite", true), merged.changes());
+    }
+
+    @Test
+    void mergeWith_keepsChangesToOtherSoundsApart() {
+        SoundCatalogEvent first = SoundCatalogEvent.updated(2, "airhorn", Map.of("timesPlayed", 1));
+
+        assertNull(first.mergeWith(SoundCatalogEvent.updated(3, "wilhelm", Map.of("timesPlayed", 1))));
+        assertNull(first.mergeWith(SoundCatalogEvent.removed(3, "airhorn")));
+        assertNull(SoundCatalogEvent.updated(2, "airhorn", Map.of("soundFileId", "Airhorn"))
+                .mergeWith(SoundCatalogEvent.updated(3, "airhorn", Map.of("timesPlayed", 1))));
+    }
+
+    @Test
+    void listenerFailureDoesNotStopTheChange() {
+        catalog.addListener(event -> {
+            throw new IllegalStateException("boom");
+        });
+
+        catalog.put(sound("wilhelm", "classics"));
+
+        assertNotNull(catalog.get("wilhelm"));
+        assertEquals(1, events.size());
+    }
+
+    private static SoundFile sound(String id, String category) {
+        SoundFile soundFile = new SoundFile(id, "/sounds/" + id + ".mp3", category);
+        soundFile.setTimesPlayed(0);
+        soundFile.setFavorite(false);
+        return soundFile;
+    }
+}
@@ -0,0 +1,190 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoundRandomIndexTest {
+
+    private static final int PICKS = 20_000;
+
+    private SoundRandomIndex index;
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        index = new SoundRandomIndex();
+        random = new Random(42);
+    }
+
+    @Test
+    void pick_emptyIndexReturnsNull() {
+        assertNull(index.pick(RandomMode.UNIFORM, null, random));
+        assertNull(index.pick(RandomMode.FAVORITES, null, random));
+    }
+
+    @Test
+    void pick_uniformReturnsEverySound() {
+        index.put(sound("a", "memes", false, 0));
+        index.put(sound("b", "memes", false, 0));
+        index.put(sound("c", "music", false, 0));
+
+        Map<String, Integer> counts = pickMany(RandomMode.UNIFORM, null);
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertEquals(PICKS / 3.0, count, PICKS * 0.03));
+    }
+
+    @Test
+    void pick_categoryOnlyReturnsThatCategory() {
+        index.put(sound("a", "memes", false, 0));
+        index.put(sound("b", "Music", false, 0));
+
+        Map<String, Integer> counts = pickMany(RandomMode.UNIFORM, "music");
+
+        assertEquals(Map.of("b", PICKS), counts);
+        assertNull(index.pick(RandomMode.UNIFORM, "missing", random));
+    }
+
+    @Test
+    void pick_favoritesAreWeighted() {
+        index.put(sound("fav", "memes", true, 0));
+        index.put(sound("other", "memes", false, 0));
+
+        Map<String, Integer> counts = pickMany(RandomMode.FAVORITES, null);
+
+        double expected = PICKS * SoundRandomIndex.FAVORITE_WEIGHT / (SoundRandomIndex.FAVORITE_WEIGHT + 1);
+        assertEquals(expected, counts.get("fav"), PICKS * 0.02);
+    }
+
+    @Test
+    void pick_leastPlayedFavorsUnplayedSounds() {
+        index.put(sound("fresh", "memes", false, 0));
+        index.put(sound("stale", "memes", false, 9));
+
+        Map<String, Integer> counts = pickMany(RandomMode.LEAST_PLAYED, null);
+
+        // Weights are 1 and 1/10
+        assertEquals(PICKS * 10 / 11.0, counts.get("fresh"), PICKS * 0.02);
+    }
+
+    @Test
+    void put_invalidatesWeightsWhenTheyChange() {
+        SoundFile first = sound("first", "memes", false, 0);
+        index.put(first);
+        index.put(sound("second", "memes", false, 0));
+        pickMany(RandomMode.FAVORITES, null);
+
+        // Same instance mutated in place, like SoundService.updateSoundPlayed followed by save
+        first.setFavorite(true);
+        index.put(first);
+
+        Map<String, Integer> counts = pickMany(RandomMode.FAVORITES, null);
+        assertTrue(counts.get("first") > counts.get("second") * 5);
+    }
+
+    @Test
+    void remove_dropsSoundFromAllBuckets() {
+        index.put(sound("a", "memes", true, 0));
+        index.put(sound("b", "memes", false, 0));
+        index.put(sound("c", "music", false, 0));
+
+        index.remove("A");
+
+        assertFalse(pickMany(RandomMode.UNIFORM, null).containsKey("a"));
+        assertFalse(pickMany(RandomMode.FAVORITES, "memes").containsKey("a"));
+        assertEquals(Map.of("b", PICKS), pickMany(RandomMode.UNIFORM, "memes"));
+    }
+
+    @Test
+    void put_movesSoundBetweenCategories() {
+        SoundFile soundFile = sound("a", "memes", false, 0);
+        index.put(soundFile);
+
+        index.put(sound("a", "music", false, 0));
+
+        assertNull(index.pick(RandomMode.UNIFORM, "memes", random));
+        assertEquals("a", index.pick(RandomMode.UNIFORM, "music", random).getSoundFileId());
+    }
+
+    @Test
+    void weightTree_matchesWeights() {
+        SoundRandomIndex.WeightTree tree = new SoundRandomIndex.WeightTree();
+        for (double weight : new double[]{1, 2, 3, 4}) {
+            tree.add(weight);
+        }
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = 0; i < PICKS; i++) {
+            counts.merge(tree.find(random.nextDouble() * tree.total()), 1, Integer::sum);
+        }
+
+        assertEquals(10, tree.total(), 1e-9);
+        assertEquals(PICKS * 0.1, counts.get(0), PICKS * 0.02);
+        assertEquals(PICKS * 0.4, counts.get(3), PICKS * 0.02);
+    }
+
+    @Test
+    void weightTree_tracksSetsAndRemovals() {
+        SoundRandomIndex.WeightTree tree = new SoundRandomIndex.WeightTree();
+        for (int i = 0; i < 40; i++) {
+            tree.add(1);
+        }
+
+        tree.set(7, 5);
+        tree.set(39, 0.5);
+        tree.removeLast();
+        tree.add(2);
+
+        assertEquals(40, tree.size());
+        assertEquals(45, tree.total(), 1e-9);
+        // Positions 0-6 cover 0 up to 7, position 7 covers 7 up to 12
+        assertEquals(6, tree.find(6.5));
+        assertEquals(7, tree.find(7));
+        assertEquals(7, tree.find(11.9));
+        assertEquals(8, tree.find(12));
+        assertEquals(39, tree.find(tree.total() - 0.1));
+    }
+
+    @Test
+    void pick_leastPlayedFollowsPlays() {
+        SoundFile played = sound("played", "memes", false, 0);
+        index.put(played);
+        index.put(sound("other", "memes", false, 0));
+
+        played.setTimesPlayed(9);
+        index.put(played);
+
+        Map<String, Integer> counts = pickMany(RandomMode.LEAST_PLAYED, "memes");
+        assertEquals(PICKS * 10 / 11.0, counts.get("other"), PICKS * 0.02);
+    }
+
+    @Test
+    void randomMode_fromStringAcceptsVariants() {
+        assertEquals(RandomMode.LEAST_PLAYED, RandomMode.fromString("leastplayed"));
+        assertEquals(RandomMode.LEAST_PLAYED, RandomMode.fromString("Least-Played"));
+        assertEquals(RandomMode.FAVORITES, RandomMode.fromString("favorites"));
+        assertNull(RandomMode.fromString("memes"));
+    }
+
+    private Map<String, Integer> pickMany(RandomMode mode, String category) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < PICKS; i++) {
+            counts.merge(index.pick(mode, category, random).getSoundFileId(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static SoundFile sound(String id, String category, boolean favorite, int timesPlayed) {
+        SoundFile soundFile = new SoundFile(id, "/sounds/" + id + ".mp3", category);
+        soundFile.setFavorite(favorite);
+        soundFile.setTimesPlayed(timesPlayed);
+        return soundFile;
+    }
+}
@@ -0,0 +1,100 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoundSearchIndexTest {
+
+    private SoundSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SoundSearchIndex();
+        index.put(sound("airhorn", "Air Horn", "memes"));
+        index.put(sound("airhorn_long", null, "memes"));
+        index.put(sound("sadtrombone", "Sad Trombone", "fails"));
+        index.put(sound("wilhelm", "Wilhelm Scream", "classics"));
+    }
+
+    @Test
+    void search_exactIdRanksFirst() {
+        List<String> ids = ids(index.search("airhorn", 10));
+
+        assertEquals("airhorn", ids.getFirst());
+        assertTrue(ids.contains("airhorn_long"));
+    }
+
+    @Test
+    void search_isCaseInsensitive() {
+        assertEquals("wilhelm", ids(index.search("WILHELM", 10)).getFirst());
+    }
+
+    @Test
+    void search_matchesWordPrefixOfDisplayName() {
+        assertEquals(List.of("wilhelm"), ids(index.search("scre", 10)));
+    }
+
+    @Test
+    void search_toleratesTypos() {
+        assertEquals("sadtrombone", ids(index.search("sadtrombon", 10)).getFirst());
+        assertEquals("wilhelm", ids(index.search("wilhlem", 10)).getFirst());
+    }
+
+    @Test
+    void search_matchesCategoryWithLowerWeight() {
+        List<SoundSearchIndex.Match> matches = index.search("fails", 10);
+
+        assertEquals("sadtrombone", matches.getFirst().soundFileId());
+    }
+
+    @Test
+    void search_respectsLimit() {
+        assertEquals(1, index.search("air", 1).size());
+    }
+
+    @Test
+    void search_blankQueryReturnsNothing() {
+        assertTrue(index.search("  ", 10).isEmpty());
+        assertTrue(index.search(null, 10).isEmpty());
+    }
+
+    @Test
+    void put_replacesPreviouslyIndexedTerms() {
+        index.put(sound("wilhelm", "Howie Scream", "classics"));
+
+        assertTrue(ids(index.search("wilhelm", 10)).contains("wilhelm"));
+        assertEquals(List.of("wilhelm"), ids(index.search("howie", 10)));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove_dropsSoundFromResults() {
+        index.remove("SADTROMBONE");
+
+        assertTrue(index.search("trombone", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void clear_emptiesIndex() {
+        index.clear();
+
+        assertTrue(index.search("air", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private static SoundFile sound(String id, String displayName, String category) {
+        SoundFile soundFile = new SoundFile(id, "/sounds/" + id + ".mp3", category);
+        soundFile.setDisplayName(displayName);
+        return soundFile;
+    }
+
+    private static List<String> ids(List<SoundSearchIndex.Match> matches) {
+        return matches.stream().map(SoundSearchIndex.Match::soundFileId).toList();
+    }
+}
@@ -0,0 +1,135 @@
+package net.dirtydeeds.discordsoundboard.catalog;
+
+import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoundSortIndexTest {
+
+    private SoundSortIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SoundSortIndex();
+    }
+
+    @Test
+    void page_sortsByNameIgnoringCaseAndFallsBackToId() {
+        index.put(sound("zebra", "memes", null, false, 0, null));
+        index.put(sound("b_sound", "memes", null, false, 0, null));
+        index.put(sound("x", "memes", "Alpha", false, 0, null));
+
+        SoundSortIndex.Result result = index.page(query(SoundSort.NAME, false, null, null, null, null, 10));
+
+        assertEquals(List.of("x", "b_sound", "zebra"), result.soundFileIds());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void page_cursorContinuesWhereThePreviousPageEnded() {
+        for (int i = 0; i < 7; i++) {
+            index.put(sound("sound" + i, "memes", null, false, i, null));
+        }
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            SoundSortIndex.Result result = index.page(query(SoundSort.TIMES_PLAYED, true, null, null, null, cursor, 3));
+            seen.addAll(result.soundFileIds());
+            cursor = result.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of("sound6", "sound5", "sound4", "sound3", "sound2", "sound1", "sound0"), seen);
+    }
+
+    @Test
+    void page_insertBeforeCursorDoesNotShiftNextPage() {
+        index.put(sound("a", "memes", null, false, 0, null));
+        index.put(sound("b", "memes", null, false, 0, null));
+        index.put(sound("c", "memes", null, false, 0, null));
+        SoundSortIndex.Result first = index.page(query(SoundSort.NAME, false, null, null, null, null, 2));
+
+        index.put(sound("aa", "memes", null, false, 0, null));
+        String cursor = first.nextCursor();
+        SoundSortIndex.Result second = index.page(query(SoundSort.NAME, false, null, null, null, cursor, 2));
+
+        assertEquals(List.of("a", "b"), first.soundFileIds());
+        assertEquals(List.of("c"), second.soundFileIds());
+    }
+
+    @Test
+    void page_filtersByCategoryFavoriteAndText() {
+        index.put(sound("airhorn", "Memes", null, true, 0, null));
+        index.put(sound("air_raid", "memes", null, false, 0, null));
+        index.put(sound("airplane", "music", null, true, 0, null));
+        index.put(sound("bruh", "memes", null, true, 0, null));
+
+        SoundSortIndex.Result result = index.page(query(SoundSort.NAME, false, "MEMES", true, "AIR", null, 10));
+
+        assertEquals(List.of("airhorn"), result.soundFileIds());
+        assertTrue(index.page(query(SoundSort.NAME, false, "missing", null, null, null, 10)).soundFileIds().isEmpty());
+    }
+
+    @Test
+    void page_sortsByDateAddedWithUndatedSoundsFirst() {
+        ZonedDateTime now = ZonedDateTime.now();
+        index.put(sound("new", "memes", null, false, 0, now));
+        index.put(sound("old", "memes", null, false, 0, now.minusDays(1)));
+        index.put(sound("undated", "memes", null, false, 0, null));
+
+        SoundSortIndex.Result result = index.page(query(SoundSort.DATE_ADDED, false, null, null, null, null, 10));
+
+        assertEquals(List.of("undated", "old", "new"), result.soundFileIds());
+    }
+
+    @Test
+    void put_changedSoundMovesAndRemoveDropsIt() {
+        SoundFile airhorn = sound("airhorn", "memes", null, false, 1, null);
+        index.put(airhorn);
+        index.put(sound("bruh", "memes", null, false, 2, null));
+
+        airhorn.setTimesPlayed(3);
+        index.put(airhorn);
+        index.remove("BRUH");
+
+        SoundSortIndex.Result result = index.page(query(SoundSort.TIMES_PLAYED, true, null, null, null, null, 10));
+        assertEquals(List.of("airhorn"), result.soundFileIds());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void page_rejectsCursorOfAnotherSort() {
+        index.put(sound("a", "memes", null, false, 0, null));
+        index.put(sound("b", "memes", null, false, 0, null));
+        String cursor = index.page(query(SoundSort.NAME, false, null, null, null, null, 1)).nextCursor();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> index.page(query(SoundSort.TIMES_PLAYED, false, null, null, null, cursor, 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.page(query(SoundSort.NAME, false, null, null, null, "not a cursor!", 1)));
+    }
+
+    private static SoundQuery query(SoundSort sort, boolean descending, String category, Boolean favorite, String text,
+                                    String cursor, int limit) {
+        return new SoundQuery(sort, descending, category, favorite, text, cursor, limit);
+    }
+
+    private static SoundFile sound(String id, String category, String displayName, boolean favorite, int timesPlayed,
+                                   ZonedDateTime dateAdded) {
+        SoundFile soundFile = new SoundFile(id, id + ".mp3", category);
+        soundFile.setDisplayName(displayName);
+        soundFile.setFavorite(favorite);
+        soundFile.setTimesPlayed(timesPlayed);
+        soundFile.setDateAdded(dateAdded);
+        return soundFile;
+    }
+}
@@ -96,4 +96,16 @@ class PlayCommandTest {
 
         verify(soundPlayer).playForUser("beep", "Tester", 999, null, "Tester");
     }
+
+    @Test
+    void executesWithUnknownSound_repliesWithSuggestionsAndDoesNotPlay() {
+        when(event.getCommandString()).thenReturn("beeep");
+        when(event.getArguments()).thenReturn(new java.util.LinkedList<>());
+        when(soundPlayer.suggestSoundFiles("beeep", 3)).thenReturn(java.util.List.of("beep", "bleep"));
+
+        playCommand.execute(event);
+
+        verify(event).replyByPrivateMessage(contains("Did you mean: beep, bleep?"));
+        verify(soundPlayer, never()).playForUser(anyString(), anyString(), anyInt(), any(), anyString());
+    }
 }
@@ -2,6 +2,7 @@ package net.dirtydeeds.discordsoundboard.commands;
 
 import net.dirtydeeds.discordsoundboard.SoundPlaybackException;
 import net.dirtydeeds.discordsoundboard.SoundPlayer;
+import net.dirtydeeds.discordsoundboard.catalog.RandomMode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -28,6 +29,28 @@ class RandomCommandTest {
         verify(soundPlayer).playRandomSoundFile(eq("Tester"), any(), eq("Tester"));
     }
 
+    @Test
+    void executesWithModeAndCategory() throws Exception {
+        when(event.getMessageReceivedEvent()).thenReturn(null);
+        when(event.getArguments()).thenReturn(new java.util.LinkedList<>(java.util.List.of("favorites", "memes")));
+        RandomCommand cmd = new RandomCommand(soundPlayer);
+
+        cmd.execute(event);
+
+        verify(soundPlayer).playRandomSoundFile(eq("Tester"), any(), eq("Tester"), eq(RandomMode.FAVORITES), eq("memes"));
+    }
+
+    @Test
+    void executesWithCategoryOnly() throws Exception {
+        when(event.getMessageReceivedEvent()).thenReturn(null);
+        when(event.getArguments()).thenReturn(new java.util.LinkedList<>(java.util.List.of("memes")));
+        RandomCommand cmd = new RandomCommand(soundPlayer);
+
+        cmd.execute(event);
+
+        verify(soundPlayer).playRandomSoundFile(eq("Tester"), any(), eq("Tester"), eq(RandomMode.UNIFORM), eq("memes"));
+    }
+
     @Test
     void handlesPlaybackException() throws Exception {
         when(event.getMessageReceivedEvent()).thenReturn(null);
@@ -0,0 +1,88 @@
+package net.dirtydeeds.discordsoundboard.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NormalizedKeyMigrationTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void backfill_setsMissingNormalizedUsernames() {
+        // Arrange - rows written before the column existed, and one written since
+        createSchema();
+        jdbcTemplate.update("INSERT INTO discord_user (id, username) VALUES ('1', 'Alice')");
+        jdbcTemplate.update("INSERT INTO discord_user (id, username) VALUES ('2', NULL)");
+        jdbcTemplate.update("INSERT INTO discord_user (id, username, normalized_username) VALUES ('3', 'Bob', 'bob')");
+
+        // Act
+        new NormalizedKeyMigration(jdbcTemplate).backfill();
+
+        // Assert
+        Map<String, String> normalized = normalizedUsernames();
+        assertEquals("alice", normalized.get("1"));
+        assertNull(normalized.get("2"));
+        assertEquals("bob", normalized.get("3"));
+    }
+
+    @Test
+    void backfill_runsOnceTheSchemaIsUpdated() {
+        // Arrange - registered ahead of the bean that creates the schema, so only @DependsOn orders them
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(JdbcTemplate.class, () -> jdbcTemplate);
+            context.register(NormalizedKeyMigration.class);
+            // Stands in for Hibernate adding the column to a database that already has users
+            context.registerBean("entityManagerFactory", Object.class, () -> {
+                createSchema();
+                jdbcTemplate.update("INSERT INTO discord_user (id, username) VALUES ('1', 'Alice')");
+                return new Object();
+            });
+
+            // Act
+            context.refresh();
+
+            // Assert
+            assertEquals("alice", normalizedUsernames().get("1"));
+        }
+    }
+
+    // The columns of the discord_user table the migration reads and writes
+    private void createSchema() {
+        jdbcTemplate.execute("CREATE TABLE discord_user (id VARCHAR(255) PRIMARY KEY, username VARCHAR(255), " +
+                "normalized_username VARCHAR(255))");
+    }
+
+    private Map<String, String> normalizedUsernames() {
+        Map<String, String> normalized = new HashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList("SELECT id, normalized_username FROM discord_user")) {
+            normalized.put((String) row.get("ID"), (String) row.get("NORMALIZED_USERNAME"));
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,77 @@
+package net.dirtydeeds.discordsoundboard.config;
+
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestPrincipalFilterTest {
+
+    private static final RequestPrincipal PRINCIPAL =
+            RequestPrincipal.of("user123", "testuser", List.of("user"), Set.of("play-sounds"));
+
+    @Mock
+    private UserRoleConfig userRoleConfig;
+
+    @Test
+    void filter_attachesPrincipalForAuthorizationHeader() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bot/playFile");
+        request.addHeader("Authorization", "Bearer token");
+        when(userRoleConfig.resolvePrincipal("Bearer token")).thenReturn(PRINCIPAL);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        new RequestPrincipalFilter(userRoleConfig).doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertSame(PRINCIPAL, request.getAttribute(RequestPrincipal.ATTRIBUTE));
+        assertSame(request, chain.getRequest());
+    }
+
+    @Test
+    void argumentResolver_reusesPrincipalAttachedByFilter() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bot/playFile");
+        request.setAttribute(RequestPrincipal.ATTRIBUTE, PRINCIPAL);
+
+        // Act
+        Object resolved = new RequestPrincipalArgumentResolver(userRoleConfig)
+                .resolveArgument(null, null, new ServletWebRequest(request), null);
+
+        // Assert
+        assertSame(PRINCIPAL, resolved);
+        verifyNoInteractions(userRoleConfig);
+    }
+
+    @Test
+    void argumentResolver_withoutFilter_resolvesPrincipalOnce() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bot/playFile");
+        request.addHeader("Authorization", "Bearer token");
+        when(userRoleConfig.resolvePrincipal("Bearer token")).thenReturn(PRINCIPAL);
+        RequestPrincipalArgumentResolver resolver = new RequestPrincipalArgumentResolver(userRoleConfig);
+
+        // Act
+        Object first = resolver.resolveArgument(null, null, new ServletWebRequest(request), null);
+        Object second = resolver.resolveArgument(null, null, new ServletWebRequest(request), null);
+
+        // Assert
+        assertSame(PRINCIPAL, first);
+        assertSame(PRINCIPAL, second);
+        verify(userRoleConfig, times(1)).resolvePrincipal("Bearer token");
+    }
+}
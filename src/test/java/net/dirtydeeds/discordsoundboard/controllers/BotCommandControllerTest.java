@@ -1,12 +1,15 @@
 package net.dirtydeeds.discordsoundboard.controllers;
 
-import net.dirtydeeds.discordsoundboard.SoundPlaybackException;
+import net.dirtydeeds.discordsoundboard.PlayRequestStatus;
+import net.dirtydeeds.discordsoundboard.PlayRequestUpdate;
 import net.dirtydeeds.discordsoundboard.SoundPlayer;
-import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
 import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import net.dirtydeeds.discordsoundboard.catalog.RandomMode;
 import net.dirtydeeds.discordsoundboard.controllers.response.ChannelResponse;
-import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
-import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import net.dirtydeeds.discordsoundboard.controllers.response.PlayRequestResponse;
+import net.dirtydeeds.discordsoundboard.service.PlayRequestService;
+import net.dirtydeeds.discordsoundboard.service.SoundService;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,8 +18,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.net.URI;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -29,26 +35,22 @@ class BotCommandControllerTest {
     private SoundPlayer soundPlayer;
 
     @Mock
-    private BotVolumeController botVolumeController;
+    private PlayRequestService playRequestService;
 
     @Mock
-    private UserRoleConfig userRoleConfig;
-
-    @Mock
-    private DiscordUserService discordUserService;
+    private SoundService soundService;
 
     private BotCommandController botCommandController;
 
-    private DiscordUser testUser;
-
     @BeforeEach
     void setUp() {
-        botCommandController = new BotCommandController(
-                soundPlayer, botVolumeController, userRoleConfig, discordUserService);
+        botCommandController = new BotCommandController(soundPlayer, playRequestService, soundService);
+        lenient().when(playRequestService.submit(any(), any(), anyInt(), any(), any())).thenReturn("request1");
+    }
 
-        testUser = new DiscordUser();
-        testUser.setId("user123");
-        testUser.setUsername("testuser");
+    // Signed-in requests come from user123, whose username is testuser
+    private static RequestPrincipal principal(String userId, String... permissions) {
+        return RequestPrincipal.of(userId, userId == null ? null : "testuser", List.of(), Set.of(permissions));
     }
 
     @Test
@@ -56,15 +58,15 @@ class BotCommandControllerTest {
         // Arrange
         String soundFileId = "sound123";
         String username = "testuser";
-        when(userRoleConfig.hasPermission(null, "play-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal(null, "play-sounds");
 
         // Act
         ResponseEntity<?> response = botCommandController.playSoundFile(
-                soundFileId, username, 1, "", null);
+                soundFileId, username, 1, "", principal);
 
         // Assert
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(soundPlayer).playForUser(soundFileId, username, 1, "", "anonymous");
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(playRequestService).submit(soundFileId, username, 1, "", "anonymous");
     }
 
     @Test
@@ -72,52 +74,45 @@ class BotCommandControllerTest {
         // Arrange
         String soundFileId = "sound123";
         String username = "testuser";
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "play-sounds")).thenReturn(true);
-        when(discordUserService.findOneByIdOrUsernameIgnoreCase("user123", "user123")).thenReturn(testUser);
+        RequestPrincipal principal = principal("user123", "play-sounds");
 
         // Act
         ResponseEntity<?> response = botCommandController.playSoundFile(
-                soundFileId, username, 1, "", authorization);
+                soundFileId, username, 1, "", principal);
 
         // Assert
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(soundPlayer).playForUser(soundFileId, username, 1, "", "testuser");
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(playRequestService).submit(soundFileId, username, 1, "", "testuser");
     }
 
     @Test
     void playSoundFile_withoutPermission_returns403() {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(discordUserService.findOneByIdOrUsernameIgnoreCase("user123", "user123")).thenReturn(testUser);
-        when(userRoleConfig.hasPermission("user123", "play-sounds")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
         ResponseEntity<?> response = botCommandController.playSoundFile(
-                "sound123", "testuser", 1, "", authorization);
+                "sound123", "testuser", 1, "", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         assertEquals("You don't have permission to play sounds", response.getBody());
-        verify(soundPlayer, never()).playForUser(anyString(), anyString(), anyInt(), anyString(), anyString());
+        verify(playRequestService, never()).submit(anyString(), anyString(), anyInt(), anyString(), anyString());
     }
 
     @Test
     void playSoundFile_withNullUserId_returns403() {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn(null);
+        RequestPrincipal principal = principal(null);
 
         // Act
         ResponseEntity<?> response = botCommandController.playSoundFile(
-                "sound123", "testuser", 1, "", authorization);
+                "sound123", "testuser", 1, "", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
-        verify(soundPlayer, never()).playForUser(anyString(), anyString(), anyInt(), anyString(), anyString());
+        verify(playRequestService, never()).submit(anyString(), anyString(), anyInt(), anyString(), anyString());
     }
 
     @Test
@@ -126,15 +121,15 @@ class BotCommandControllerTest {
         String soundFileId = "sound123";
         String username = "testuser";
         int repeatTimes = 3;
-        when(userRoleConfig.hasPermission(null, "play-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal(null, "play-sounds");
 
         // Act
         ResponseEntity<?> response = botCommandController.playSoundFile(
-                soundFileId, username, repeatTimes, "", null);
+                soundFileId, username, repeatTimes, "", principal);
 
         // Assert
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(soundPlayer).playForUser(soundFileId, username, repeatTimes, "", "anonymous");
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(playRequestService).submit(soundFileId, username, repeatTimes, "", "anonymous");
     }
 
     @Test
@@ -143,14 +138,14 @@ class BotCommandControllerTest {
         String url = "http://example.com/sound.mp3";
         String username = "testuser";
 
-        when(userRoleConfig.hasPermission(null, "play-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal(null, "play-sounds");
 
         // Act
-        ResponseEntity<?> response = botCommandController.playSoundUrl(url, username, "", null);
+        ResponseEntity<?> response = botCommandController.playSoundUrl(url, username, "", principal);
 
         // Assert
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(soundPlayer).playForUser(url, username, 1, "", "anonymous");
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(playRequestService).submit(url, username, 1, "", "anonymous");
     }
 
     @Test
@@ -158,86 +153,100 @@ class BotCommandControllerTest {
         // Arrange
         String url = "http://example.com/sound.mp3";
         String username = "testuser";
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "play-sounds")).thenReturn(true);
-        when(discordUserService.findOneByIdOrUsernameIgnoreCase("user123", "user123")).thenReturn(testUser);
+        RequestPrincipal principal = principal("user123", "play-sounds");
 
         // Act
-        ResponseEntity<?> response = botCommandController.playSoundUrl(url, username, "", authorization);
+        ResponseEntity<?> response = botCommandController.playSoundUrl(url, username, "", principal);
 
         // Assert
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(soundPlayer).playForUser(url, username, 1, "", "testuser");
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(playRequestService).submit(url, username, 1, "", "testuser");
     }
 
     @Test
     void playSoundUrl_withoutPermission_returns403() {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(discordUserService.findOneByIdOrUsernameIgnoreCase("user123", "user123")).thenReturn(testUser);
-        when(userRoleConfig.hasPermission("user123", "play-sounds")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
         ResponseEntity<?> response = botCommandController.playSoundUrl(
-                "http://example.com/sound.mp3", "testuser", "", authorization);
+                "http://example.com/sound.mp3", "testuser", "", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         assertEquals("You don't have permission to play URL", response.getBody());
-        verify(soundPlayer, never()).playForUser(anyString(), anyString(), anyInt(), anyString(), anyString());
+        verify(playRequestService, never()).submit(anyString(), anyString(), anyInt(), anyString(), anyString());
     }
 
     @Test
-    void playRandom_withoutAuthorization_playsRandom() throws SoundPlaybackException {
+    void playRandom_withoutAuthorization_queuesRandomSound() {
         // Arrange
         String username = "testuser";
-        SoundFile soundFile = new SoundFile();
+        when(soundService.getRandomSoundFile(RandomMode.UNIFORM, null)).thenReturn(sound("airhorn"));
+        RequestPrincipal principal = principal(null, "play-sounds");
 
-        when(userRoleConfig.hasPermission(null, "play-sounds")).thenReturn(true);
-        when(soundPlayer.playRandomSoundFile(username, null, "anonymous")).thenReturn(soundFile);
+        // Act
+        ResponseEntity<?> response = botCommandController.playRandom(username, "", null, null, principal);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(URI.create("/bot/requests/request1"), response.getHeaders().getLocation());
+        verify(playRequestService).submit("airhorn", username, 1, "", "anonymous");
+        verifyNoInteractions(soundPlayer);
+    }
+
+    @Test
+    void playRandom_withAuthorization_queuesRandomSound() {
+        // Arrange
+        String username = "testuser";
+        when(soundService.getRandomSoundFile(RandomMode.UNIFORM, null)).thenReturn(sound("airhorn"));
+        RequestPrincipal principal = principal("user123", "play-sounds");
 
         // Act
-        ResponseEntity<?> response = botCommandController.playRandom(username, "", null);
+        ResponseEntity<?> response = botCommandController.playRandom(username, "channel1", null, null, principal);
 
         // Assert
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(soundPlayer).playRandomSoundFile(username, null, "anonymous");
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(playRequestService).submit("airhorn", username, 1, "channel1", "testuser");
     }
 
     @Test
-    void playRandom_withAuthorization_playsRandom() throws SoundPlaybackException {
+    void playRandom_withModeAndCategory_queuesWeightedRandom() {
         // Arrange
         String username = "testuser";
-        String authorization = "Bearer token";
-        SoundFile soundFile = new SoundFile();
+        RequestPrincipal principal = principal(null, "play-sounds");
+        when(soundService.getRandomSoundFile(RandomMode.LEAST_PLAYED, "memes")).thenReturn(sound("bruh"));
+
+        // Act
+        ResponseEntity<?> response = botCommandController.playRandom(username, "", "least-played", "memes", principal);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(playRequestService).submit("bruh", username, 1, "", "anonymous");
+    }
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "play-sounds")).thenReturn(true);
-        when(discordUserService.findOneByIdOrUsernameIgnoreCase("user123", "user123")).thenReturn(testUser);
-        when(soundPlayer.playRandomSoundFile(username, null, username)).thenReturn(soundFile);
+    @Test
+    void playRandom_withUnknownMode_returns400() {
+        // Arrange
+        RequestPrincipal principal = principal(null, "play-sounds");
 
         // Act
-        ResponseEntity<?> response = botCommandController.playRandom(username, "", authorization);
+        ResponseEntity<?> response = botCommandController.playRandom("testuser", "", "loudest", null, principal);
 
         // Assert
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(soundPlayer).playRandomSoundFile(username, null, "testuser");
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(soundService);
+        verify(playRequestService, never()).submit(any(), any(), anyInt(), any(), any());
     }
 
     @Test
     void playRandom_withoutPermission_returns403() {
         // Arrange
-        String authorization = "Bearer token";
-
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(discordUserService.findOneByIdOrUsernameIgnoreCase("user123", "user123")).thenReturn(testUser);
-        when(userRoleConfig.hasPermission("user123", "play-sounds")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
-        ResponseEntity<?> response = botCommandController.playRandom("testuser", "", authorization);
+        ResponseEntity<?> response = botCommandController.playRandom("testuser", "", null, null, principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -245,18 +254,31 @@ class BotCommandControllerTest {
     }
 
     @Test
-    void playRandom_whenExceptionThrown_returns500() throws SoundPlaybackException {
+    void playRandom_withNoSoundsToPick_returns404() {
         // Arrange
-        String username = "testuser";
-        when(soundPlayer.playRandomSoundFile(username, null, "anonymous"))
-                .thenThrow(new SoundPlaybackException("Error"));
-        when(userRoleConfig.hasPermission(null, "play-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal(null, "play-sounds");
+        when(soundService.getRandomSoundFile(RandomMode.UNIFORM, "empty")).thenReturn(null);
+
+        // Act
+        ResponseEntity<?> response = botCommandController.playRandom("testuser", "", null, "empty", principal);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        verify(playRequestService, never()).submit(any(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void playRandom_whenQueueIsFull_returns503() {
+        // Arrange
+        when(soundService.getRandomSoundFile(RandomMode.UNIFORM, null)).thenReturn(sound("airhorn"));
+        when(playRequestService.submit(any(), any(), anyInt(), any(), any())).thenReturn(null);
+        RequestPrincipal principal = principal(null, "play-sounds");
 
         // Act
-        ResponseEntity<?> response = botCommandController.playRandom(username, "", null);
+        ResponseEntity<?> response = botCommandController.playRandom("testuser", "", null, null, principal);
 
         // Assert
-        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
     }
 
     @Test
@@ -264,10 +286,10 @@ class BotCommandControllerTest {
         // Arrange
         String username = "testuser";
         when(soundPlayer.stop(username, "")).thenReturn("sound123");
-        when(userRoleConfig.hasPermission(null, "play-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal(null, "play-sounds");
 
         // Act
-        ResponseEntity<?> response = botCommandController.stopPlayback(username, "", null);
+        ResponseEntity<?> response = botCommandController.stopPlayback(username, "", principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -278,14 +300,12 @@ class BotCommandControllerTest {
     void stopPlayback_withAuthorization_stopsSound() {
         // Arrange
         String username = "testuser";
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "play-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "play-sounds");
         when(soundPlayer.stop(username, "")).thenReturn("sound123");
 
         // Act
-        ResponseEntity<?> response = botCommandController.stopPlayback(username, "", authorization);
+        ResponseEntity<?> response = botCommandController.stopPlayback(username, "", principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -295,12 +315,10 @@ class BotCommandControllerTest {
     @Test
     void stopPlayback_withoutPermission_returns403() {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "play-sounds")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
-        ResponseEntity<?> response = botCommandController.stopPlayback("testuser", "", authorization);
+        ResponseEntity<?> response = botCommandController.stopPlayback("testuser", "", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -309,20 +327,20 @@ class BotCommandControllerTest {
     }
 
     @Test
-    void setVolume_setsVolumeAndBroadcasts() {
+    void setVolume_setsVolumeWhichBroadcastsIt() {
         // Arrange
         int volume = 75;
         String username = "testuser";
 
-        when(userRoleConfig.hasPermission(null, "update-volume")).thenReturn(true);
+        RequestPrincipal principal = principal(null, "update-volume");
 
         // Act
-        ResponseEntity<?> response = botCommandController.setVolume(volume, username, "", null);
+        ResponseEntity<?> response = botCommandController.setVolume(volume, username, "", principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        // SoundPlayer broadcasts the guild's new volume itself
         verify(soundPlayer).setGlobalVolume(volume, username, null);
-        verify(botVolumeController).broadcastUpdate(username);
     }
 
     @Test
@@ -376,10 +394,10 @@ class BotCommandControllerTest {
     @Test
     void setVolume_atZero_isAccepted() {
         // Arrange
-        when(userRoleConfig.hasPermission(null, "update-volume")).thenReturn(true);
+        RequestPrincipal principal = principal(null, "update-volume");
 
         // Act
-        ResponseEntity<?> response = botCommandController.setVolume(0, "testuser", "", null);
+        ResponseEntity<?> response = botCommandController.setVolume(0, "testuser", "", principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -389,10 +407,10 @@ class BotCommandControllerTest {
     @Test
     void setVolume_atHundred_isAccepted() {
         // Arrange
-        when(userRoleConfig.hasPermission(null, "update-volume")).thenReturn(true);
+        RequestPrincipal principal = principal(null, "update-volume");
 
         // Act
-        ResponseEntity<?> response = botCommandController.setVolume(100, "testuser", "", null);
+        ResponseEntity<?> response = botCommandController.setVolume(100, "testuser", "", principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -402,15 +420,15 @@ class BotCommandControllerTest {
     @Test
     void playSoundFile_withRepeatCountZero_callsPlayerWithZero() {
         // Arrange
-        when(userRoleConfig.hasPermission(null, "play-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal(null, "play-sounds");
 
         // Act
         ResponseEntity<?> response = botCommandController.playSoundFile(
-                "sound123", "testuser", 0, "", null);
+                "sound123", "testuser", 0, "", principal);
 
         // Assert
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        verify(soundPlayer).playForUser("sound123", "testuser", 0, "", "anonymous");
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(playRequestService).submit("sound123", "testuser", 0, "", "anonymous");
     }
 
     @Test
@@ -424,4 +442,69 @@ class BotCommandControllerTest {
         // Assert
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void playSoundFile_answersWithRequestIdBeforePlaying() {
+        // Arrange
+        RequestPrincipal principal = principal(null, "play-sounds");
+
+        // Act
+        ResponseEntity<?> response = botCommandController.playSoundFile("sound123", "testuser", 1, "", principal);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(new PlayRequestResponse("request1"), response.getBody());
+        assertEquals(URI.create("/bot/requests/request1"), response.getHeaders().getLocation());
+        verifyNoInteractions(soundPlayer);
+    }
+
+    @Test
+    void playSoundFile_whenQueueIsFull_returns503() {
+        // Arrange
+        RequestPrincipal principal = principal(null, "play-sounds");
+        when(playRequestService.submit("sound123", "testuser", 1, "", "anonymous")).thenReturn(null);
+
+        // Act
+        ResponseEntity<?> response = botCommandController.playSoundFile("sound123", "testuser", 1, "", principal);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void getPlayRequest_returnsLatestUpdateOr404() {
+        // Arrange
+        PlayRequestUpdate update = new PlayRequestUpdate("request1", "sound123", PlayRequestStatus.PLAYING,
+                "guild1", null, Instant.now());
+        when(playRequestService.getUpdate("request1")).thenReturn(update);
+        RequestPrincipal principal = principal("user123", "play-sounds");
+
+        // Act
+        ResponseEntity<PlayRequestUpdate> found = botCommandController.getPlayRequest("request1", principal);
+        ResponseEntity<PlayRequestUpdate> missing = botCommandController.getPlayRequest("unknown", principal);
+
+        // Assert
+        assertEquals(HttpStatus.OK, found.getStatusCode());
+        assertSame(update, found.getBody());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+    }
+
+    @Test
+    void getPlayRequest_withoutPermission_returns403() {
+        // Arrange
+        RequestPrincipal principal = principal("user123");
+
+        // Act
+        ResponseEntity<PlayRequestUpdate> response = botCommandController.getPlayRequest("request1", principal);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(playRequestService, never()).getUpdate(any());
+    }
+
+    private static SoundFile sound(String soundFileId) {
+        SoundFile soundFile = new SoundFile();
+        soundFile.setSoundFileId(soundFileId);
+        return soundFile;
+    }
+}
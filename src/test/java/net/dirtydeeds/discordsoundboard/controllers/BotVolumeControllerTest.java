@@ -1,18 +1,29 @@
 package net.dirtydeeds.discordsoundboard.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.dirtydeeds.discordsoundboard.GuildVolume;
 import net.dirtydeeds.discordsoundboard.SoundPlayer;
-import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import net.dirtydeeds.discordsoundboard.sse.SseEventHub;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,15 +32,18 @@ class BotVolumeControllerTest {
     @Mock
     private SoundPlayer soundPlayer;
 
-    @Mock
-    private UserRoleConfig userRoleConfig;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private SseEventHub sseEventHub = new SseEventHub(64, "coalesce", 0, 256);
 
     @InjectMocks
     private BotVolumeController botVolumeController;
 
     @AfterEach
     void tearDown() {
-        botVolumeController.shutdownHeartbeat();
+        sseEventHub.shutdown();
     }
 
     @BeforeEach
@@ -40,12 +54,10 @@ class BotVolumeControllerTest {
     @Test
     void setVolume_withoutPermission_returns403() {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "update-volume")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
-        ResponseEntity<Void> response = botVolumeController.setVolume(75, "testuser", "", authorization);
+        ResponseEntity<Void> response = botVolumeController.setVolume(75, "testuser", "", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -55,11 +67,10 @@ class BotVolumeControllerTest {
     @Test
     void setVolume_withNullUserId_returns403() {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn(null);
+        RequestPrincipal principal = principal(null);
 
         // Act
-        ResponseEntity<Void> response = botVolumeController.setVolume(75, "testuser", "", authorization);
+        ResponseEntity<Void> response = botVolumeController.setVolume(75, "testuser", "", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -69,15 +80,13 @@ class BotVolumeControllerTest {
     @Test
     void setVolume_withPermission_setsVolume() {
         // Arrange
-        String authorization = "Bearer token";
         String username = "testuser";
         int volume = 75;
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "update-volume")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "update-volume");
 
         // Act
-        ResponseEntity<Void> response = botVolumeController.setVolume(volume, username, "", authorization);
+        ResponseEntity<Void> response = botVolumeController.setVolume(volume, username, "", principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -87,15 +96,13 @@ class BotVolumeControllerTest {
     @Test
     void setVolume_callsBroadcastUpdate() {
         // Arrange
-        String authorization = "Bearer token";
         String username = "testuser";
         int volume = 75;
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "update-volume")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "update-volume");
 
         // Act
-        botVolumeController.setVolume(volume, username, "", authorization);
+        botVolumeController.setVolume(volume, username, "", principal);
 
         // Assert - broadcastUpdate is called internally, verify side effects
         verify(soundPlayer).setGlobalVolume(volume, username, "");
@@ -133,33 +140,88 @@ class BotVolumeControllerTest {
     @Test
     void broadcastUpdate_sendsVolumeToEmitters() {
         // Arrange
-        String username = "testuser";
+        GuildVolume volume = new GuildVolume("guild1", 50.0f);
 
         // Act & Assert - should not throw exception
-        assertDoesNotThrow(() -> botVolumeController.broadcastUpdate(username));
+        assertDoesNotThrow(() -> botVolumeController.broadcastUpdate(volume));
     }
 
     @Test
-    void broadcastUpdate_withNoEmitters_doesNotThrow() {
+    void broadcastUpdate_doesNotLookUpVolumeAgain() throws Exception {
         // Arrange
         String username = "testuser";
+        when(soundPlayer.getGuildVolume(username)).thenReturn(new GuildVolume("guild1", 50.0f));
+        botVolumeController.streamVolume(username, new MockHttpServletResponse());
+        botVolumeController.streamVolume(username, new MockHttpServletResponse());
+        // Each connection looks up the user's guild and volume once, and sends that volume on connect
+        verify(soundPlayer, times(2)).getGuildVolume(username);
+        verify(objectMapper, timeout(2000).times(2)).writeValueAsBytes(new GuildVolume("guild1", 50.0f));
+        clearInvocations(soundPlayer);
+
+        // Act
+        botVolumeController.broadcastUpdate(new GuildVolume("guild1", 60.0f));
+
+        // Assert - the broadcast sends the volume it was given
+        verify(soundPlayer, never()).getGuildVolume(username);
+        verify(soundPlayer, never()).getGlobalVolume(anyString(), any());
+        assertEquals(1, sseEventHub.stats().stream()
+                .filter(stats -> stats.name().equals(BotVolumeController.SSE_TOPIC))
+                .findFirst().orElseThrow().published());
+    }
+
+    @Test
+    void broadcastUpdate_withNoEmitters_doesNotThrow() {
+        // Arrange
+        GuildVolume volume = new GuildVolume("guild1", 50.0f);
 
         // Act & Assert - should not throw exception when no emitters exist
-        assertDoesNotThrow(() -> botVolumeController.broadcastUpdate(username));
+        assertDoesNotThrow(() -> botVolumeController.broadcastUpdate(volume));
     }
 
     @Test
-    void shutdownHeartbeat_completesSuccessfully() {
-        // Act & Assert - should not throw exception
-        assertDoesNotThrow(() -> botVolumeController.shutdownHeartbeat());
+    void streamVolume_sendsVolumeOfSubscribedUser() throws Exception {
+        // Arrange
+        String username = "testuser";
+        when(soundPlayer.getGuildVolume(username)).thenReturn(new GuildVolume("guild1", 40.0f));
+
+        // Act
+        botVolumeController.streamVolume(username, new MockHttpServletResponse());
+
+        // Assert - the volume found for the guild to follow is the one sent on connect
+        verify(objectMapper, timeout(2000)).writeValueAsBytes(new GuildVolume("guild1", 40.0f));
+        verify(soundPlayer).getGuildVolume(username);
+        assertTrue(sseEventHub.hasSubscribers(BotVolumeController.SSE_TOPIC));
     }
 
     @Test
-    void shutdownHeartbeat_canBeCalledMultipleTimes() {
-        // Act & Assert - should not throw exception when called multiple times
-        assertDoesNotThrow(() -> {
-            botVolumeController.shutdownHeartbeat();
-            botVolumeController.shutdownHeartbeat();
-        });
+    void streamVolume_followsOnlyTheUsersGuild() {
+        // Arrange
+        String username = "testuser";
+        when(soundPlayer.getGuildVolume(username)).thenReturn(new GuildVolume("guild1", 40.0f));
+
+        // Act
+        botVolumeController.streamVolume(username, new MockHttpServletResponse());
+
+        // Assert
+        verify(sseEventHub).subscribe(List.of(BotVolumeController.SSE_TOPIC),
+                Map.of(BotVolumeController.USERNAME_PARAM, username, SseEventHub.GUILDS_PARAM, "guild1",
+                        BotVolumeController.VOLUME_PARAM, "40.0"));
+    }
+
+    @Test
+    void streamVolume_userNotInVoice_followsEveryGuild() {
+        // Arrange
+        String username = "testuser";
+
+        // Act
+        botVolumeController.streamVolume(username, new MockHttpServletResponse());
+
+        // Assert
+        verify(sseEventHub).subscribe(List.of(BotVolumeController.SSE_TOPIC),
+                Map.of(BotVolumeController.USERNAME_PARAM, username));
+    }
+
+    private static RequestPrincipal principal(String userId, String... permissions) {
+        return RequestPrincipal.of(userId, userId, List.of(), Set.of(permissions));
     }
-}
\ No newline at end of file
+}
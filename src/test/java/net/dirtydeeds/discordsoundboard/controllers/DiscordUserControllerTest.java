@@ -1,8 +1,10 @@
 package net.dirtydeeds.discordsoundboard.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
 import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
-import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import net.dirtydeeds.discordsoundboard.sse.SseEventHub;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,9 +16,14 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,8 +36,7 @@ class DiscordUserControllerTest {
     @Mock
     private DiscordUserService discordUserService;
 
-    @Mock
-    private UserRoleConfig userRoleConfig;
+    private SseEventHub sseEventHub;
 
     private DiscordUserController discordUserController;
 
@@ -38,7 +44,9 @@ class DiscordUserControllerTest {
 
     @BeforeEach
     void setUp() {
-        discordUserController = new DiscordUserController(discordUserService, userRoleConfig);
+        sseEventHub = new SseEventHub(64, "coalesce", 0, 256);
+        discordUserController = new DiscordUserController(discordUserService,
+                new ObjectMapper().findAndRegisterModules(), sseEventHub);
 
         testUser = new DiscordUser();
         testUser.setId("user123");
@@ -49,7 +57,7 @@ class DiscordUserControllerTest {
 
     @AfterEach
     void tearDown() {
-        discordUserController.shutdownHeartbeat();
+        sseEventHub.shutdown();
     }
 
     @Test
@@ -57,9 +65,10 @@ class DiscordUserControllerTest {
         // Arrange
         Page<DiscordUser> expectedPage = new PageImpl<>(Collections.singletonList(testUser));
         when(discordUserService.findAll(any(Pageable.class))).thenReturn(expectedPage);
+        when(discordUserService.getLastModified()).thenReturn(Instant.EPOCH);
 
         // Act
-        Page<DiscordUser> result = discordUserController.getAll(1, 20, "username", "asc");
+        Page<DiscordUser> result = discordUserController.getAll(1, 20, "username", "asc", getRequest()).getBody();
 
         // Assert
         assertEquals(expectedPage, result);
@@ -71,9 +80,10 @@ class DiscordUserControllerTest {
         // Arrange
         Page<DiscordUser> expectedPage = new PageImpl<>(Collections.singletonList(testUser));
         when(discordUserService.findAll(any(Pageable.class))).thenReturn(expectedPage);
+        when(discordUserService.getLastModified()).thenReturn(Instant.EPOCH);
 
         // Act
-        Page<DiscordUser> result = discordUserController.getAll(1, 20, "username", "desc");
+        Page<DiscordUser> result = discordUserController.getAll(1, 20, "username", "desc", getRequest()).getBody();
 
         // Assert
         assertEquals(expectedPage, result);
@@ -85,9 +95,10 @@ class DiscordUserControllerTest {
         // Arrange
         Page<DiscordUser> expectedPage = new PageImpl<>(Collections.singletonList(testUser));
         when(discordUserService.findAll(any(Pageable.class))).thenReturn(expectedPage);
+        when(discordUserService.getLastModified()).thenReturn(Instant.EPOCH);
 
         // Act
-        Page<DiscordUser> result = discordUserController.getAll(1, 20, "username", "asc");
+        Page<DiscordUser> result = discordUserController.getAll(1, 20, "username", "asc", getRequest()).getBody();
 
         // Assert
         assertNotNull(result);
@@ -99,9 +110,10 @@ class DiscordUserControllerTest {
         // Arrange
         Page<DiscordUser> expectedPage = new PageImpl<>(Collections.singletonList(testUser));
         when(discordUserService.findByInVoiceIsTrue(any(Pageable.class))).thenReturn(expectedPage);
+        when(discordUserService.getLastModified()).thenReturn(Instant.EPOCH);
 
         // Act
-        Page<DiscordUser> result = discordUserController.getInvoice(0, 200);
+        Page<DiscordUser> result = discordUserController.getInvoice(0, 200, getRequest()).getBody();
 
         // Assert
         assertEquals(expectedPage, result);
@@ -112,13 +124,11 @@ class DiscordUserControllerTest {
     void updateUserSounds_withoutPermission_returns403() throws Exception {
         // Arrange
         String userId = "user123";
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("authUser123");
-        when(userRoleConfig.hasPermission("authUser123", "manage-users")).thenReturn(false);
+        RequestPrincipal principal = principal("authUser123");
 
         // Act
         ResponseEntity<DiscordUser> response = discordUserController.updateUserSounds(
-                userId, "new-entrance.mp3", "new-leave.mp3", authorization);
+                userId, "new-entrance.mp3", "new-leave.mp3", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -129,12 +139,11 @@ class DiscordUserControllerTest {
     void updateUserSounds_withNullAuthId_returns403() throws Exception {
         // Arrange
         String userId = "user123";
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn(null);
+        RequestPrincipal principal = principal(null);
 
         // Act
         ResponseEntity<DiscordUser> response = discordUserController.updateUserSounds(
-                userId, "new-entrance.mp3", "new-leave.mp3", authorization);
+                userId, "new-entrance.mp3", "new-leave.mp3", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -145,19 +154,17 @@ class DiscordUserControllerTest {
     void updateUserSounds_withPermission_updatesUser() throws Exception {
         // Arrange
         String userId = "user123";
-        String authorization = "Bearer token";
         String newEntranceSound = "new-entrance.mp3";
         String newLeaveSound = "new-leave.mp3";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("authUser123");
-        when(userRoleConfig.hasPermission("authUser123", "manage-users")).thenReturn(true);
+        RequestPrincipal principal = principal("authUser123", "manage-users");
         when(discordUserService.updateSounds(userId, newEntranceSound, newLeaveSound)).thenReturn(testUser);
         when(discordUserService.findByInVoiceIsTrue(any(Pageable.class)))
                 .thenReturn(new PageImpl<>(Collections.emptyList()));
 
         // Act
         ResponseEntity<DiscordUser> response = discordUserController.updateUserSounds(
-                userId, newEntranceSound, newLeaveSound, authorization);
+                userId, newEntranceSound, newLeaveSound, principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -169,16 +176,14 @@ class DiscordUserControllerTest {
     void updateUserSounds_whenServiceThrowsException_returns500() throws Exception {
         // Arrange
         String userId = "user123";
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("authUser123");
-        when(userRoleConfig.hasPermission("authUser123", "manage-users")).thenReturn(true);
+        RequestPrincipal principal = principal("authUser123", "manage-users");
         when(discordUserService.updateSounds(anyString(), anyString(), anyString()))
                 .thenThrow(new Exception("Database error"));
 
         // Act
         ResponseEntity<DiscordUser> response = discordUserController.updateUserSounds(
-                userId, "new-entrance.mp3", "new-leave.mp3", authorization);
+                userId, "new-entrance.mp3", "new-leave.mp3", principal);
 
         // Assert
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -188,18 +193,16 @@ class DiscordUserControllerTest {
     void updateUserSounds_withNullEntranceSound_updatesOnlyLeaveSound() throws Exception {
         // Arrange
         String userId = "user123";
-        String authorization = "Bearer token";
         String newLeaveSound = "new-leave.mp3";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("authUser123");
-        when(userRoleConfig.hasPermission("authUser123", "manage-users")).thenReturn(true);
+        RequestPrincipal principal = principal("authUser123", "manage-users");
         when(discordUserService.updateSounds(userId, null, newLeaveSound)).thenReturn(testUser);
         when(discordUserService.findByInVoiceIsTrue(any(Pageable.class)))
                 .thenReturn(new PageImpl<>(Collections.emptyList()));
 
         // Act
         ResponseEntity<DiscordUser> response = discordUserController.updateUserSounds(
-                userId, null, newLeaveSound, authorization);
+                userId, null, newLeaveSound, principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -210,18 +213,16 @@ class DiscordUserControllerTest {
     void updateUserSounds_withNullLeaveSound_updatesOnlyEntranceSound() throws Exception {
         // Arrange
         String userId = "user123";
-        String authorization = "Bearer token";
         String newEntranceSound = "new-entrance.mp3";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("authUser123");
-        when(userRoleConfig.hasPermission("authUser123", "manage-users")).thenReturn(true);
+        RequestPrincipal principal = principal("authUser123", "manage-users");
         when(discordUserService.updateSounds(userId, newEntranceSound, null)).thenReturn(testUser);
         when(discordUserService.findByInVoiceIsTrue(any(Pageable.class)))
                 .thenReturn(new PageImpl<>(Collections.emptyList()));
 
         // Act
         ResponseEntity<DiscordUser> response = discordUserController.updateUserSounds(
-                userId, newEntranceSound, null, authorization);
+                userId, newEntranceSound, null, principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -233,15 +234,22 @@ class DiscordUserControllerTest {
         // Arrange
         when(discordUserService.findByInVoiceIsTrue(any(Pageable.class)))
                 .thenReturn(new PageImpl<>(Collections.singletonList(testUser)));
+        discordUserController.streamInVoiceOrSelected(new MockHttpServletResponse());
+        discordUserController.streamInVoiceOrSelected(new MockHttpServletResponse());
 
         // Act & Assert - should not throw exception
         assertDoesNotThrow(() -> discordUserController.broadcastUpdate());
+        // Once per connection plus once for the broadcast, not once per connected client
+        verify(discordUserService, times(3)).findByInVoiceIsTrue(any(Pageable.class));
     }
 
     @Test
-    void shutdownHeartbeat_completesSuccessfully() {
-        // Act & Assert - should not throw exception
-        assertDoesNotThrow(() -> discordUserController.shutdownHeartbeat());
+    void broadcastUpdate_withNoEmitters_skipsQuery() {
+        // Act
+        discordUserController.broadcastUpdate();
+
+        // Assert
+        verify(discordUserService, never()).findByInVoiceIsTrue(any(Pageable.class));
     }
 
     // ──────────────────────── Role management endpoints ────────────────────────
@@ -249,14 +257,13 @@ class DiscordUserControllerTest {
     @Test
     void getRoles_withPermission_returnsUsersPage() {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("admin123");
-        when(userRoleConfig.hasPermission("admin123", "manage-users")).thenReturn(true);
+        RequestPrincipal principal = principal("admin123", "manage-users");
         Page<DiscordUser> expectedPage = new PageImpl<>(List.of(testUser));
         when(discordUserService.findAll(any(Pageable.class))).thenReturn(expectedPage);
+        when(discordUserService.getLastModified()).thenReturn(Instant.EPOCH);
 
         // Act
-        ResponseEntity<Page<DiscordUser>> response = discordUserController.getUsersWithRoles(0, 50, authorization);
+        ResponseEntity<Page<DiscordUser>> response = discordUserController.getUsersWithRoles(0, 50, principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -266,12 +273,10 @@ class DiscordUserControllerTest {
     @Test
     void getRoles_withoutPermission_returns403() {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "manage-users")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
-        ResponseEntity<Page<DiscordUser>> response = discordUserController.getUsersWithRoles(0, 50, authorization);
+        ResponseEntity<Page<DiscordUser>> response = discordUserController.getUsersWithRoles(0, 50, principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -281,12 +286,10 @@ class DiscordUserControllerTest {
     @Test
     void assignRole_withoutPermission_returns403() {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "manage-users")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
-        ResponseEntity<DiscordUser> response = discordUserController.assignRole("other-user", "dj", authorization);
+        ResponseEntity<DiscordUser> response = discordUserController.assignRole("other-user", "dj", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -295,16 +298,14 @@ class DiscordUserControllerTest {
     @Test
     void assignRole_withPermission_assignsRoleAndReturnsUser() throws Exception {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("admin123");
-        when(userRoleConfig.hasPermission("admin123", "manage-users")).thenReturn(true);
+        RequestPrincipal principal = principal("admin123", "manage-users");
         // admin123 != user123, no self-demotion check needed
         when(discordUserService.assignRole("user123", "dj", "admin123")).thenReturn(testUser);
         when(discordUserService.findByInVoiceIsTrue(any(Pageable.class)))
                 .thenReturn(new PageImpl<>(Collections.emptyList()));
 
         // Act
-        ResponseEntity<DiscordUser> response = discordUserController.assignRole("user123", "dj", authorization);
+        ResponseEntity<DiscordUser> response = discordUserController.assignRole("user123", "dj", principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -315,12 +316,10 @@ class DiscordUserControllerTest {
     @Test
     void removeRole_withoutPermission_returns403() {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "manage-users")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
-        ResponseEntity<DiscordUser> response = discordUserController.removeRole("other-user", authorization);
+        ResponseEntity<DiscordUser> response = discordUserController.removeRole("other-user", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -329,16 +328,14 @@ class DiscordUserControllerTest {
     @Test
     void removeRole_withPermission_removesRoleAndReturnsUser() throws Exception {
         // Arrange
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("admin123");
-        when(userRoleConfig.hasPermission("admin123", "manage-users")).thenReturn(true);
+        RequestPrincipal principal = principal("admin123", "manage-users");
         // admin123 != user123, so self-removal guard never fires
         when(discordUserService.removeRole("user123", "admin123")).thenReturn(testUser);
         when(discordUserService.findByInVoiceIsTrue(any(Pageable.class)))
                 .thenReturn(new PageImpl<>(Collections.emptyList()));
 
         // Act
-        ResponseEntity<DiscordUser> response = discordUserController.removeRole("user123", authorization);
+        ResponseEntity<DiscordUser> response = discordUserController.removeRole("user123", principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -350,12 +347,63 @@ class DiscordUserControllerTest {
         // Arrange
         when(discordUserService.findByInVoiceIsTrue(any(Pageable.class)))
                 .thenReturn(new PageImpl<>(Collections.emptyList()));
+        when(discordUserService.getLastModified()).thenReturn(Instant.EPOCH);
 
         // Act
-        Page<DiscordUser> result = discordUserController.getInvoice(0, 200);
+        Page<DiscordUser> result = discordUserController.getInvoice(0, 200, getRequest()).getBody();
 
         // Assert
         assertEquals(0, result.getTotalElements());
         assertTrue(result.getContent().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAll_withCurrentEtag_returns304WithoutQuerying() {
+        // Arrange
+        when(discordUserService.getVersion()).thenReturn(3L);
+        when(discordUserService.getLastModified()).thenReturn(Instant.EPOCH);
+        ResponseEntity<Page<DiscordUser>> first = discordUserController.getAll(1, 20, "username", "asc", getRequest());
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/discordUsers");
+        revalidation.addHeader("If-None-Match", first.getHeaders().getETag());
+
+        // Act
+        ResponseEntity<Page<DiscordUser>> response = discordUserController.getAll(1, 20, "username", "asc",
+                new ServletWebRequest(revalidation, new MockHttpServletResponse()));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(discordUserService, times(1)).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getInvoice_afterUsersChanged_returnsNewPage() {
+        // Arrange
+        when(discordUserService.getVersion()).thenReturn(3L, 4L);
+        when(discordUserService.getLastModified()).thenReturn(Instant.EPOCH);
+        when(discordUserService.findByInVoiceIsTrue(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Collections.singletonList(testUser)));
+        ResponseEntity<Page<DiscordUser>> first = discordUserController.getInvoice(0, 200, getRequest());
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/discordUsers/invoiceorselected");
+        revalidation.addHeader("If-None-Match", first.getHeaders().getETag());
+
+        // Act
+        ResponseEntity<Page<DiscordUser>> response = discordUserController.getInvoice(0, 200,
+                new ServletWebRequest(revalidation, new MockHttpServletResponse()));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(first.getHeaders().getETag(), response.getHeaders().getETag());
+        assertNotNull(response.getBody());
+        verify(discordUserService, times(2)).findByInVoiceIsTrue(any(Pageable.class));
+    }
+
+    private static ServletWebRequest getRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/discordUsers"),
+                new MockHttpServletResponse());
+    }
+
+    private static RequestPrincipal principal(String userId, String... permissions) {
+        return RequestPrincipal.of(userId, userId, List.of(), Set.of(permissions));
+    }
+}
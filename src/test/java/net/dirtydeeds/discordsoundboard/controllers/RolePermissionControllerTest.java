@@ -2,8 +2,8 @@ package net.dirtydeeds.discordsoundboard.controllers;
 
 import net.dirtydeeds.discordsoundboard.beans.RolePermission;
 import net.dirtydeeds.discordsoundboard.service.RolePermissionService;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
 import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -30,22 +30,18 @@ class RolePermissionControllerTest {
     @InjectMocks
     private RolePermissionController controller;
 
-    private static final String AUTH = "Bearer valid-token";
     private static final String ADMIN_ID = "admin123";
-
-    @BeforeEach
-    void setUp() {
-        when(userRoleConfig.getUserIdFromAuth(AUTH)).thenReturn(ADMIN_ID);
-        when(userRoleConfig.hasPermission(ADMIN_ID, "manage-users")).thenReturn(true);
-    }
+    private static final RequestPrincipal ADMIN =
+            RequestPrincipal.of(ADMIN_ID, ADMIN_ID, List.of("admin"), Set.of("manage-users"));
+    private static final RequestPrincipal WITHOUT_PERMISSION =
+            RequestPrincipal.of(ADMIN_ID, ADMIN_ID, List.of("user"), Set.of());
 
     // ──────────────────────── GET /configured ────────────────────────
 
     @Test
     void getConfiguredRoles_withoutPermission_returns403() {
-        when(userRoleConfig.hasPermission(ADMIN_ID, "manage-users")).thenReturn(false);
 
-        ResponseEntity<Set<String>> response = controller.getConfiguredRoles(AUTH);
+        ResponseEntity<Set<String>> response = controller.getConfiguredRoles(WITHOUT_PERMISSION);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
         verify(rolePermissionService, never()).getAllRolePermissions();
@@ -55,7 +51,7 @@ class RolePermissionControllerTest {
     void getConfiguredRoles_emptyDb_returnsEmptySet() {
         when(rolePermissionService.getAllRolePermissions()).thenReturn(List.of());
 
-        ResponseEntity<Set<String>> response = controller.getConfiguredRoles(AUTH);
+        ResponseEntity<Set<String>> response = controller.getConfiguredRoles(ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -69,7 +65,7 @@ class RolePermissionControllerTest {
         RolePermission rp3 = new RolePermission("user", "__EMPTY__");
         when(rolePermissionService.getAllRolePermissions()).thenReturn(List.of(rp1, rp2, rp3));
 
-        ResponseEntity<Set<String>> response = controller.getConfiguredRoles(AUTH);
+        ResponseEntity<Set<String>> response = controller.getConfiguredRoles(ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         Set<String> roles = response.getBody();
@@ -83,9 +79,8 @@ class RolePermissionControllerTest {
 
     @Test
     void getAllRolePermissions_withoutPermission_returns403() {
-        when(userRoleConfig.hasPermission(ADMIN_ID, "manage-users")).thenReturn(false);
 
-        ResponseEntity<List<RolePermission>> response = controller.getAllRolePermissions(AUTH);
+        ResponseEntity<List<RolePermission>> response = controller.getAllRolePermissions(WITHOUT_PERMISSION);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
@@ -97,7 +92,7 @@ class RolePermissionControllerTest {
         when(rolePermissionService.getAllRolePermissions()).thenReturn(List.of(real, sentinel));
         when(userRoleConfig.getPermissions()).thenReturn(Map.of()); // No YAML defaults
 
-        ResponseEntity<List<RolePermission>> response = controller.getAllRolePermissions(AUTH);
+        ResponseEntity<List<RolePermission>> response = controller.getAllRolePermissions(ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         List<RolePermission> body = response.getBody();
@@ -118,7 +113,7 @@ class RolePermissionControllerTest {
         );
         when(userRoleConfig.getPermissions()).thenReturn(yamlPerms);
 
-        ResponseEntity<List<RolePermission>> response = controller.getAllRolePermissions(AUTH);
+        ResponseEntity<List<RolePermission>> response = controller.getAllRolePermissions(ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         // "user" role (no DB customization) should get YAML defaults
@@ -137,7 +132,7 @@ class RolePermissionControllerTest {
         );
         when(userRoleConfig.getPermissions()).thenReturn(yamlPerms);
 
-        ResponseEntity<List<RolePermission>> response = controller.getAllRolePermissions(AUTH);
+        ResponseEntity<List<RolePermission>> response = controller.getAllRolePermissions(ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -151,9 +146,8 @@ class RolePermissionControllerTest {
 
     @Test
     void getPermissionsForRole_withoutPermission_returns403() {
-        when(userRoleConfig.hasPermission(ADMIN_ID, "manage-users")).thenReturn(false);
 
-        ResponseEntity<Set<String>> response = controller.getPermissionsForRole("dj", AUTH);
+        ResponseEntity<Set<String>> response = controller.getPermissionsForRole("dj", WITHOUT_PERMISSION);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
@@ -163,7 +157,7 @@ class RolePermissionControllerTest {
         when(rolePermissionService.hasCustomPermissions("dj")).thenReturn(true);
         when(rolePermissionService.getPermissionNamesForRole("dj")).thenReturn(Set.of("play-sounds", "upload"));
 
-        ResponseEntity<Set<String>> response = controller.getPermissionsForRole("dj", AUTH);
+        ResponseEntity<Set<String>> response = controller.getPermissionsForRole("dj", ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -176,7 +170,7 @@ class RolePermissionControllerTest {
         when(rolePermissionService.hasCustomPermissions("user")).thenReturn(false);
         when(userRoleConfig.getPermissions()).thenReturn(Map.of("user", List.of("play-sounds", "download-sounds")));
 
-        ResponseEntity<Set<String>> response = controller.getPermissionsForRole("user", AUTH);
+        ResponseEntity<Set<String>> response = controller.getPermissionsForRole("user", ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -188,7 +182,7 @@ class RolePermissionControllerTest {
         when(rolePermissionService.hasCustomPermissions("dj")).thenThrow(new RuntimeException("db error"));
         when(userRoleConfig.getPermissions()).thenReturn(Map.of("dj", List.of("play-sounds")));
 
-        ResponseEntity<Set<String>> response = controller.getPermissionsForRole("dj", AUTH);
+        ResponseEntity<Set<String>> response = controller.getPermissionsForRole("dj", ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -199,10 +193,9 @@ class RolePermissionControllerTest {
 
     @Test
     void setPermissionsForRole_withoutPermission_returns403() {
-        when(userRoleConfig.hasPermission(ADMIN_ID, "manage-users")).thenReturn(false);
 
         ResponseEntity<List<RolePermission>> response = controller.setPermissionsForRole(
-                "dj", Set.of("play-sounds"), AUTH);
+                "dj", Set.of("play-sounds"), WITHOUT_PERMISSION);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
@@ -210,7 +203,7 @@ class RolePermissionControllerTest {
     @Test
     void setPermissionsForRole_adminRole_returns400() {
         ResponseEntity<List<RolePermission>> response = controller.setPermissionsForRole(
-                "admin", Set.of("play-sounds"), AUTH);
+                "admin", Set.of("play-sounds"), ADMIN);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         verify(rolePermissionService, never()).setPermissionsForRole(any(), any(), any());
@@ -222,7 +215,7 @@ class RolePermissionControllerTest {
                 .thenReturn(List.of(new RolePermission("dj", "__EMPTY__")));
 
         ResponseEntity<List<RolePermission>> response = controller.setPermissionsForRole(
-                "dj", Set.of(), AUTH);
+                "dj", Set.of(), ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
@@ -233,7 +226,7 @@ class RolePermissionControllerTest {
         when(rolePermissionService.setPermissionsForRole(eq("dj"), eq(perms), eq(ADMIN_ID)))
                 .thenReturn(List.of(new RolePermission("dj", "play-sounds"), new RolePermission("dj", "upload")));
 
-        ResponseEntity<List<RolePermission>> response = controller.setPermissionsForRole("dj", perms, AUTH);
+        ResponseEntity<List<RolePermission>> response = controller.setPermissionsForRole("dj", perms, ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -246,7 +239,7 @@ class RolePermissionControllerTest {
                 .thenThrow(new RuntimeException("db error"));
 
         ResponseEntity<List<RolePermission>> response = controller.setPermissionsForRole(
-                "dj", Set.of("play-sounds"), AUTH);
+                "dj", Set.of("play-sounds"), ADMIN);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -255,10 +248,9 @@ class RolePermissionControllerTest {
 
     @Test
     void addPermissionToRole_withoutPermission_returns403() {
-        when(userRoleConfig.hasPermission(ADMIN_ID, "manage-users")).thenReturn(false);
 
         ResponseEntity<RolePermission> response = controller.addPermissionToRole(
-                "dj", Map.of("permission", "play-sounds"), AUTH);
+                "dj", Map.of("permission", "play-sounds"), WITHOUT_PERMISSION);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
@@ -266,7 +258,7 @@ class RolePermissionControllerTest {
     @Test
     void addPermissionToRole_adminRole_returns400() {
         ResponseEntity<RolePermission> response = controller.addPermissionToRole(
-                "admin", Map.of("permission", "play-sounds"), AUTH);
+                "admin", Map.of("permission", "play-sounds"), ADMIN);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
@@ -274,7 +266,7 @@ class RolePermissionControllerTest {
     @Test
     void addPermissionToRole_missingPermissionKey_returns400() {
         ResponseEntity<RolePermission> response = controller.addPermissionToRole(
-                "dj", Map.of(), AUTH);
+                "dj", Map.of(), ADMIN);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
@@ -282,7 +274,7 @@ class RolePermissionControllerTest {
     @Test
     void addPermissionToRole_emptyPermissionValue_returns400() {
         ResponseEntity<RolePermission> response = controller.addPermissionToRole(
-                "dj", Map.of("permission", ""), AUTH);
+                "dj", Map.of("permission", ""), ADMIN);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
@@ -293,7 +285,7 @@ class RolePermissionControllerTest {
         when(rolePermissionService.addPermissionToRole("dj", "play-sounds", ADMIN_ID)).thenReturn(saved);
 
         ResponseEntity<RolePermission> response = controller.addPermissionToRole(
-                "dj", Map.of("permission", "play-sounds"), AUTH);
+                "dj", Map.of("permission", "play-sounds"), ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
@@ -306,7 +298,7 @@ class RolePermissionControllerTest {
                 .thenThrow(new RuntimeException("db error"));
 
         ResponseEntity<RolePermission> response = controller.addPermissionToRole(
-                "dj", Map.of("permission", "play-sounds"), AUTH);
+                "dj", Map.of("permission", "play-sounds"), ADMIN);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -318,7 +310,7 @@ class RolePermissionControllerTest {
         when(rolePermissionService.addPermissionToRole("dj", "play-sounds", ADMIN_ID)).thenReturn(existing);
 
         ResponseEntity<RolePermission> response = controller.addPermissionToRole(
-                "dj", Map.of("permission", "play-sounds"), AUTH);
+                "dj", Map.of("permission", "play-sounds"), ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
@@ -327,16 +319,15 @@ class RolePermissionControllerTest {
 
     @Test
     void removePermissionFromRole_withoutPermission_returns403() {
-        when(userRoleConfig.hasPermission(ADMIN_ID, "manage-users")).thenReturn(false);
 
-        ResponseEntity<Void> response = controller.removePermissionFromRole("dj", "play-sounds", AUTH);
+        ResponseEntity<Void> response = controller.removePermissionFromRole("dj", "play-sounds", WITHOUT_PERMISSION);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     void removePermissionFromRole_adminRole_returns400() {
-        ResponseEntity<Void> response = controller.removePermissionFromRole("admin", "play-sounds", AUTH);
+        ResponseEntity<Void> response = controller.removePermissionFromRole("admin", "play-sounds", ADMIN);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
@@ -345,7 +336,7 @@ class RolePermissionControllerTest {
     void removePermissionFromRole_success_returns200() {
         doNothing().when(rolePermissionService).removePermissionFromRole("dj", "play-sounds");
 
-        ResponseEntity<Void> response = controller.removePermissionFromRole("dj", "play-sounds", AUTH);
+        ResponseEntity<Void> response = controller.removePermissionFromRole("dj", "play-sounds", ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
@@ -355,7 +346,7 @@ class RolePermissionControllerTest {
         doThrow(new RuntimeException("db error")).when(rolePermissionService)
                 .removePermissionFromRole("dj", "play-sounds");
 
-        ResponseEntity<Void> response = controller.removePermissionFromRole("dj", "play-sounds", AUTH);
+        ResponseEntity<Void> response = controller.removePermissionFromRole("dj", "play-sounds", ADMIN);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -364,16 +355,15 @@ class RolePermissionControllerTest {
 
     @Test
     void deleteAllPermissionsForRole_withoutPermission_returns403() {
-        when(userRoleConfig.hasPermission(ADMIN_ID, "manage-users")).thenReturn(false);
 
-        ResponseEntity<Void> response = controller.deleteAllPermissionsForRole("dj", AUTH);
+        ResponseEntity<Void> response = controller.deleteAllPermissionsForRole("dj", WITHOUT_PERMISSION);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     void deleteAllPermissionsForRole_adminRole_returns400() {
-        ResponseEntity<Void> response = controller.deleteAllPermissionsForRole("admin", AUTH);
+        ResponseEntity<Void> response = controller.deleteAllPermissionsForRole("admin", ADMIN);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
@@ -383,7 +373,7 @@ class RolePermissionControllerTest {
         when(rolePermissionService.setPermissionsForRole(eq("dj"), eq(Set.of()), eq(ADMIN_ID)))
                 .thenReturn(List.of(new RolePermission("dj", "__EMPTY__")));
 
-        ResponseEntity<Void> response = controller.deleteAllPermissionsForRole("dj", AUTH);
+        ResponseEntity<Void> response = controller.deleteAllPermissionsForRole("dj", ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(rolePermissionService).setPermissionsForRole("dj", Set.of(), ADMIN_ID);
@@ -394,7 +384,7 @@ class RolePermissionControllerTest {
         when(rolePermissionService.setPermissionsForRole(any(), any(), any()))
                 .thenThrow(new RuntimeException("db error"));
 
-        ResponseEntity<Void> response = controller.deleteAllPermissionsForRole("dj", AUTH);
+        ResponseEntity<Void> response = controller.deleteAllPermissionsForRole("dj", ADMIN);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -403,16 +393,15 @@ class RolePermissionControllerTest {
 
     @Test
     void resetRoleToDefaults_withoutPermission_returns403() {
-        when(userRoleConfig.hasPermission(ADMIN_ID, "manage-users")).thenReturn(false);
 
-        ResponseEntity<Void> response = controller.resetRoleToDefaults("dj", AUTH);
+        ResponseEntity<Void> response = controller.resetRoleToDefaults("dj", WITHOUT_PERMISSION);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
 
     @Test
     void resetRoleToDefaults_adminRole_returns400() {
-        ResponseEntity<Void> response = controller.resetRoleToDefaults("admin", AUTH);
+        ResponseEntity<Void> response = controller.resetRoleToDefaults("admin", ADMIN);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
@@ -421,7 +410,7 @@ class RolePermissionControllerTest {
     void resetRoleToDefaults_success_returns200() {
         doNothing().when(rolePermissionService).resetRoleToDefaults("dj");
 
-        ResponseEntity<Void> response = controller.resetRoleToDefaults("dj", AUTH);
+        ResponseEntity<Void> response = controller.resetRoleToDefaults("dj", ADMIN);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(rolePermissionService).resetRoleToDefaults("dj");
@@ -431,7 +420,7 @@ class RolePermissionControllerTest {
     void resetRoleToDefaults_serviceThrows_returns500() {
         doThrow(new RuntimeException("db error")).when(rolePermissionService).resetRoleToDefaults("dj");
 
-        ResponseEntity<Void> response = controller.resetRoleToDefaults("dj", AUTH);
+        ResponseEntity<Void> response = controller.resetRoleToDefaults("dj", ADMIN);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
@@ -1,25 +1,47 @@
 package net.dirtydeeds.discordsoundboard.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import net.dirtydeeds.discordsoundboard.SoundPlayer;
 import net.dirtydeeds.discordsoundboard.beans.SoundFile;
+import net.dirtydeeds.discordsoundboard.catalog.CatalogSnapshot;
+import net.dirtydeeds.discordsoundboard.catalog.ColumnarCatalogSnapshot;
+import net.dirtydeeds.discordsoundboard.catalog.SoundCatalogEvent;
+import net.dirtydeeds.discordsoundboard.catalog.SoundPage;
+import net.dirtydeeds.discordsoundboard.catalog.SoundQuery;
+import net.dirtydeeds.discordsoundboard.catalog.SoundSnapshot;
+import net.dirtydeeds.discordsoundboard.catalog.SoundSort;
+import net.dirtydeeds.discordsoundboard.catalog.SoundSortIndex;
 import net.dirtydeeds.discordsoundboard.service.SoundService;
-import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import net.dirtydeeds.discordsoundboard.sse.SseEventHub;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,8 +56,7 @@ class SoundControllerTest {
     @Mock
     private SoundPlayer soundPlayer;
 
-    @Mock
-    private UserRoleConfig userRoleConfig;
+    private SseEventHub sseEventHub;
 
     private SoundController soundController;
 
@@ -43,7 +64,8 @@ class SoundControllerTest {
 
     @BeforeEach
     void setUp() {
-        soundController = new SoundController(soundService, userRoleConfig);
+        sseEventHub = new SseEventHub(64, "coalesce", 0, 256);
+        soundController = new SoundController(soundService, new ObjectMapper().findAndRegisterModules(), sseEventHub);
         soundController.setSoundPlayer(soundPlayer);
 
         testSoundFile = new SoundFile();
@@ -54,7 +76,7 @@ class SoundControllerTest {
 
     @AfterEach
     void tearDown() {
-        soundController.shutdownHeartbeat();
+        sseEventHub.shutdown();
     }
 
     @Test
@@ -62,15 +84,171 @@ class SoundControllerTest {
         // Arrange
         Page<SoundFile> expectedPage = new PageImpl<>(Collections.singletonList(testSoundFile));
         when(soundService.findAll(any(Pageable.class))).thenReturn(expectedPage);
+        when(soundService.getCatalogLastModified()).thenReturn(Instant.EPOCH);
 
         // Act
-        Page<SoundFile> result = soundController.getAll();
+        Page<SoundFile> result = soundController.getAll(getRequest()).getBody();
 
         // Assert
         assertEquals(expectedPage, result);
         verify(soundService).findAll(Pageable.unpaged());
     }
 
+    @Test
+    void getAll_withCurrentEtag_returns304WithoutLoadingSounds() {
+        // Arrange
+        when(soundService.getCatalogVersion()).thenReturn(5L);
+        when(soundService.getCatalogLastModified()).thenReturn(Instant.EPOCH);
+        when(soundService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(testSoundFile)));
+        ResponseEntity<Page<SoundFile>> first = soundController.getAll(getRequest());
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/soundFiles/findAll");
+        revalidation.addHeader("If-None-Match", first.getHeaders().getETag());
+
+        // Act
+        ResponseEntity<Page<SoundFile>> response = soundController.getAll(
+                new ServletWebRequest(revalidation, new MockHttpServletResponse()));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(Instant.EPOCH.toEpochMilli(), response.getHeaders().getLastModified());
+        verify(soundService, times(1)).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getAll_afterCatalogChanged_returnsSoundsAgain() {
+        // Arrange
+        when(soundService.getCatalogVersion()).thenReturn(5L, 6L);
+        when(soundService.getCatalogLastModified()).thenReturn(Instant.EPOCH);
+        when(soundService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(testSoundFile)));
+        ResponseEntity<Page<SoundFile>> first = soundController.getAll(getRequest());
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/soundFiles/findAll");
+        revalidation.addHeader("If-None-Match", first.getHeaders().getETag());
+
+        // Act
+        ResponseEntity<Page<SoundFile>> response = soundController.getAll(
+                new ServletWebRequest(revalidation, new MockHttpServletResponse()));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(first.getHeaders().getETag(), response.getHeaders().getETag());
+        assertNotNull(response.getBody());
+    }
+
+    @Test
+    void getPage_buildsQueryAndCapsSize() {
+        // Arrange
+        SoundPage page = new SoundPage(3, List.of(testSoundFile), "next");
+        when(soundService.findPage(any(SoundQuery.class))).thenReturn(page);
+        when(soundService.getCatalogLastModified()).thenReturn(Instant.EPOCH);
+        String cursor = cursor(SoundSort.TIMES_PLAYED);
+
+        // Act
+        ResponseEntity<SoundPage> response = soundController.getPage("timesPlayed", "desc", "music", true, "te",
+                cursor, 10_000, getRequest());
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
+        verify(soundService).findPage(new SoundQuery(SoundSort.TIMES_PLAYED, true, "music", true, "te", cursor, 500));
+    }
+
+    @Test
+    void getPage_withUnknownSort_returns400() {
+        // Act
+        ResponseEntity<SoundPage> response = soundController.getPage("loudness", "asc", null, null, null, null, 20,
+                getRequest());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(soundService, never()).findPage(any());
+    }
+
+    @Test
+    void getPage_withInvalidCursor_returns400() {
+        // Act
+        ResponseEntity<SoundPage> response = soundController.getPage("name", "asc", null, null, null, "garbage", 20,
+                getRequest());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(soundService, never()).findPage(any());
+    }
+
+    @Test
+    void getPage_withInvalidCursorAndCurrentEtag_returns400() {
+        // Arrange
+        when(soundService.getCatalogVersion()).thenReturn(5L);
+        when(soundService.getCatalogLastModified()).thenReturn(Instant.EPOCH);
+        when(soundService.findPage(any(SoundQuery.class))).thenReturn(new SoundPage(1, List.of(testSoundFile), null));
+        ResponseEntity<SoundPage> first = soundController.getPage("name", "asc", null, null, null, null, 20,
+                getRequest());
+        MockHttpServletRequest revalidation = new MockHttpServletRequest("GET", "/api/soundFiles/page");
+        revalidation.addHeader("If-None-Match", first.getHeaders().getETag());
+
+        // Act
+        ResponseEntity<SoundPage> response = soundController.getPage("name", "asc", null, null, null, "garbage", 20,
+                new ServletWebRequest(revalidation, new MockHttpServletResponse()));
+
+        // Assert - a bad cursor is an error even when the catalog hasn't changed
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(soundService, times(1)).findPage(any());
+    }
+
+    @Test
+    void export_writesOneSoundPerLine() throws IOException {
+        // Arrange
+        SoundFile other = new SoundFile();
+        other.setSoundFileId("other-sound");
+        doAnswer(invocation -> {
+            Consumer<SoundFile> action = invocation.getArgument(0);
+            action.accept(testSoundFile);
+            action.accept(other);
+            return null;
+        }).when(soundService).forEachSoundFile(any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = soundController.export();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("}\n"));
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"soundFileId\":\"test-sound\""));
+        assertTrue(lines[1].contains("\"soundFileId\":\"other-sound\""));
+    }
+
+    @Test
+    void export_withNoSounds_writesNothing() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = soundController.export();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals(0, out.size());
+        verify(soundService).forEachSoundFile(any());
+    }
+
+    @Test
+    void search_delegatesToServiceAndCapsLimit() {
+        // Arrange
+        when(soundService.search("test", 100)).thenReturn(List.of(testSoundFile));
+
+        // Act
+        List<SoundFile> result = soundController.search("test", 5000);
+
+        // Assert
+        assertEquals(List.of(testSoundFile), result);
+        verify(soundService).search("test", 100);
+    }
+
     @Test
     void getSoundCategories_returnsUniqueCategories() {
         // Arrange
@@ -101,12 +279,10 @@ class SoundControllerTest {
     void deleteSoundFile_withoutPermission_returns403() {
         // Arrange
         String soundId = "test-sound";
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "delete-sounds")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
-        ResponseEntity<?> response = soundController.deleteSoundFile(soundId, authorization);
+        ResponseEntity<?> response = soundController.deleteSoundFile(soundId, principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -118,11 +294,10 @@ class SoundControllerTest {
     void deleteSoundFile_withNullUserId_returns403() {
         // Arrange
         String soundId = "test-sound";
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn(null);
+        RequestPrincipal principal = principal(null);
 
         // Act
-        ResponseEntity<?> response = soundController.deleteSoundFile(soundId, authorization);
+        ResponseEntity<?> response = soundController.deleteSoundFile(soundId, principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -133,13 +308,11 @@ class SoundControllerTest {
     void deleteSoundFile_whenSoundNotFound_returns404() {
         // Arrange
         String soundId = "nonexistent";
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "delete-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "delete-sounds");
         when(soundService.findOneBySoundFileIdIgnoreCase(soundId)).thenThrow(new RuntimeException("Not found"));
 
         // Act
-        ResponseEntity<?> response = soundController.deleteSoundFile(soundId, authorization);
+        ResponseEntity<?> response = soundController.deleteSoundFile(soundId, principal);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -150,37 +323,33 @@ class SoundControllerTest {
     @Test
     void setFavorite_updatesSoundFile() {
         // Arrange
-        String authorization = "Bearer token";
         String soundId = "test-sound";
         when(soundService.findOneBySoundFileIdIgnoreCase(soundId)).thenReturn(testSoundFile);
         when(soundService.save(any(SoundFile.class))).thenReturn(testSoundFile);
-        when(soundService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "edit-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "edit-sounds");
 
         // Act
-        ResponseEntity<Void> response = soundController.setFavorite(soundId, true, authorization);
+        ResponseEntity<Void> response = soundController.setFavorite(soundId, true, principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(true, testSoundFile.getFavorite());
         verify(soundService).save(testSoundFile);
+        // The change reaches clients as a catalog event, not a full resend
+        verify(soundService, never()).getCatalogSnapshot();
     }
 
     @Test
     void setFavorite_withDefaultFalse_setsFavoriteToFalse() {
         // Arrange
-        String authorization = "Bearer token";
         String soundId = "test-sound";
         testSoundFile.setFavorite(true);
         when(soundService.findOneBySoundFileIdIgnoreCase(soundId)).thenReturn(testSoundFile);
         when(soundService.save(any(SoundFile.class))).thenReturn(testSoundFile);
-        when(soundService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "edit-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "edit-sounds");
 
         // Act
-        ResponseEntity<Void> response = soundController.setFavorite(soundId, false, authorization);
+        ResponseEntity<Void> response = soundController.setFavorite(soundId, false, principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -192,12 +361,10 @@ class SoundControllerTest {
     void patchSoundFile_withoutPermission_returns403() {
         // Arrange
         String soundId = "test-sound";
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "edit-sounds")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
-        ResponseEntity<Void> response = soundController.patchSoundFile(soundId, 0, "New Name", authorization);
+        ResponseEntity<Void> response = soundController.patchSoundFile(soundId, 0, "New Name", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -208,11 +375,10 @@ class SoundControllerTest {
     void patchSoundFile_withNullUserId_returns403() {
         // Arrange
         String soundId = "test-sound";
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn(null);
+        RequestPrincipal principal = principal(null);
 
         // Act
-        ResponseEntity<Void> response = soundController.patchSoundFile(soundId, 0, "New Name", authorization);
+        ResponseEntity<Void> response = soundController.patchSoundFile(soundId, 0, "New Name", principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -223,18 +389,16 @@ class SoundControllerTest {
     void patchSoundFile_withPermission_updatesSoundFile() {
         // Arrange
         String soundId = "test-sound";
-        String authorization = "Bearer token";
         String newDisplayName = "New Sound Name";
         int volumeOffset = 10;
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "edit-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "edit-sounds");
         when(soundService.findOneBySoundFileIdIgnoreCase(soundId)).thenReturn(testSoundFile);
         when(soundService.save(any(SoundFile.class))).thenReturn(testSoundFile);
-        when(soundService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
 
         // Act
-        ResponseEntity<Void> response = soundController.patchSoundFile(soundId, volumeOffset, newDisplayName, authorization);
+        ResponseEntity<Void> response =
+                soundController.patchSoundFile(soundId, volumeOffset, newDisplayName, principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -252,13 +416,11 @@ class SoundControllerTest {
                 "audio/mpeg",
                 "test content".getBytes()
         );
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "upload")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
-        ResponseEntity<String> response = soundController.uploadFile(file, authorization);
+        ResponseEntity<String> response = soundController.uploadFile(file, principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -274,13 +436,11 @@ class SoundControllerTest {
                 "audio/mpeg",
                 new byte[0]
         );
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "upload")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "upload");
 
         // Act
-        ResponseEntity<String> response = soundController.uploadFile(file, authorization);
+        ResponseEntity<String> response = soundController.uploadFile(file, principal);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -296,13 +456,11 @@ class SoundControllerTest {
                 "application/x-msdownload",
                 "test content".getBytes()
         );
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "upload")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "upload");
 
         // Act
-        ResponseEntity<String> response = soundController.uploadFile(file, authorization);
+        ResponseEntity<String> response = soundController.uploadFile(file, principal);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -319,13 +477,11 @@ class SoundControllerTest {
                 "application/pdf",
                 "test content".getBytes()
         );
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "upload")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "upload");
 
         // Act
-        ResponseEntity<String> response = soundController.uploadFile(file, authorization);
+        ResponseEntity<String> response = soundController.uploadFile(file, principal);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -343,13 +499,11 @@ class SoundControllerTest {
                 "audio/mpeg",
                 largeContent
         );
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "upload")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "upload");
 
         // Act
-        ResponseEntity<String> response = soundController.uploadFile(file, authorization);
+        ResponseEntity<String> response = soundController.uploadFile(file, principal);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -360,17 +514,183 @@ class SoundControllerTest {
     @Test
     void broadcastUpdate_sendsUpdateToAllEmitters() {
         // Arrange
-        Page<SoundFile> sounds = new PageImpl<>(Collections.singletonList(testSoundFile));
-        when(soundService.findAll(any(Pageable.class))).thenReturn(sounds);
+        when(soundService.getCatalogSnapshot())
+                .thenReturn(new CatalogSnapshot(3, List.of(SoundSnapshot.of(testSoundFile))));
+        soundController.streamSounds(new MockHttpServletResponse());
 
         // Act - should not throw exception
         assertDoesNotThrow(() -> soundController.broadcastUpdate());
     }
 
     @Test
-    void shutdownHeartbeat_completesSuccessfully() {
-        // Act & Assert - should not throw exception
-        assertDoesNotThrow(() -> soundController.shutdownHeartbeat());
+    void broadcastUpdate_withNoEmitters_doesNotReadCatalog() {
+        // Act
+        soundController.broadcastUpdate();
+
+        // Assert
+        verify(soundService, never()).getCatalogSnapshot();
+    }
+
+    @Test
+    void streamSounds_reusesSerializedSnapshotUntilCatalogChanges() {
+        // Arrange
+        when(soundService.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(3, List.of()));
+        when(soundService.getCatalogVersion()).thenReturn(3L, 3L, 4L);
+
+        // Act
+        soundController.streamSounds(new MockHttpServletResponse());
+        soundController.streamSounds(new MockHttpServletResponse());
+        soundController.streamSounds(new MockHttpServletResponse());
+
+        // Assert - first client builds it, second reuses it, third sees a new version
+        verify(soundService, times(2)).getCatalogSnapshot();
+    }
+
+    @Test
+    void streamSounds_sendsVersionedSnapshot() {
+        // Arrange
+        when(soundService.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(7, List.of()));
+
+        // Act
+        SseEmitter emitter = soundController.streamSounds(new MockHttpServletResponse());
+
+        // Assert
+        assertNotNull(emitter);
+        verify(soundService).getCatalogSnapshot();
+        verify(soundService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void catalogEvents_areSentToConnectedClients() {
+        // Arrange
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<SoundCatalogEvent>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(soundService).addCatalogListener(listener.capture());
+        when(soundService.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(7, List.of()));
+        soundController.streamSounds(new MockHttpServletResponse());
+
+        SoundCatalogEvent event = new SoundCatalogEvent(SoundCatalogEvent.Type.UPDATED, 8, 7, "test-sound",
+                null, Map.of("timesPlayed", 1));
+
+        // Act & Assert - only the change is sent, the catalog is not read again
+        assertDoesNotThrow(() -> listener.getValue().accept(event));
+        verify(soundService, times(1)).getCatalogSnapshot();
+    }
+
+    @Test
+    void catalogEvents_burstIsSentAsOneBatch() {
+        // Arrange
+        SseEventHub throttledHub = new SseEventHub(64, "coalesce", 20, 256);
+        SoundService throttledService = mock(SoundService.class);
+        new SoundController(throttledService, new ObjectMapper().findAndRegisterModules(), throttledHub);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<SoundCatalogEvent>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(throttledService).addCatalogListener(listener.capture());
+        when(throttledService.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(7, List.of()));
+        when(throttledService.getCatalog()).thenReturn(catalogOf("a", "b", "c"));
+        throttledHub.subscribe(List.of(SoundController.SSE_TOPIC), Map.of());
+
+        // Act - two different sounds change within one throttle interval
+        listener.getValue().accept(new SoundCatalogEvent(SoundCatalogEvent.Type.UPDATED, 8, 7, "a",
+                null, Map.of("timesPlayed", 1)));
+        listener.getValue().accept(new SoundCatalogEvent(SoundCatalogEvent.Type.UPDATED, 9, 8, "b",
+                null, Map.of("timesPlayed", 1)));
+
+        // Assert - the catalog is only read for the new client, the burst goes out as one delta
+        verify(throttledService, timeout(2000)).getCatalog();
+        verify(throttledService, after(100).times(1)).getCatalogSnapshot();
+        throttledHub.shutdown();
+    }
+
+    @Test
+    void catalogEvents_burstWithGapIsSentAsSnapshot() {
+        // Arrange
+        SseEventHub throttledHub = new SseEventHub(64, "coalesce", 20, 256);
+        SoundService throttledService = mock(SoundService.class);
+        new SoundController(throttledService, new ObjectMapper().findAndRegisterModules(), throttledHub);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<SoundCatalogEvent>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(throttledService).addCatalogListener(listener.capture());
+        when(throttledService.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(7, List.of()));
+        throttledHub.subscribe(List.of(SoundController.SSE_TOPIC), Map.of());
+
+        // Act - version 9 is missing, so the changes can't be applied one after another
+        listener.getValue().accept(new SoundCatalogEvent(SoundCatalogEvent.Type.UPDATED, 8, 7, "a",
+                null, Map.of("timesPlayed", 1)));
+        listener.getValue().accept(new SoundCatalogEvent(SoundCatalogEvent.Type.UPDATED, 10, 9, "b",
+                null, Map.of("timesPlayed", 1)));
+
+        // Assert - once for the new client, once for the burst
+        verify(throttledService, timeout(2000).times(2)).getCatalogSnapshot();
+        throttledHub.shutdown();
+    }
+
+    @Test
+    void getSnapshot_returnsCatalogSnapshot() {
+        // Arrange
+        CatalogSnapshot snapshot = new CatalogSnapshot(2, List.of(SoundSnapshot.of(testSoundFile)));
+        when(soundService.getCatalogSnapshot()).thenReturn(snapshot);
+        when(soundService.getCatalogLastModified()).thenReturn(Instant.EPOCH);
+
+        // Act & Assert
+        assertSame(snapshot, soundController.getSnapshot(getRequest()).getBody());
+    }
+
+    @Test
+    void getColumnarSnapshot_returnsOneColumnPerField() {
+        // Arrange
+        testSoundFile.setDateAdded(ZonedDateTime.parse("2024-01-02T03:04:05Z"));
+        SoundFile other = new SoundFile();
+        other.setSoundFileId("other-sound");
+        other.setCategory("memes");
+        when(soundService.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(2,
+                List.of(SoundSnapshot.of(testSoundFile), SoundSnapshot.of(other))));
+        when(soundService.getCatalogLastModified()).thenReturn(Instant.EPOCH);
+
+        // Act
+        ColumnarCatalogSnapshot result = soundController.getColumnarSnapshot(getRequest()).getBody();
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(2, result.version());
+        assertEquals(2, result.size());
+        assertEquals(List.of("test-sound", "other-sound"), result.soundFileId());
+        assertEquals(List.of("music", "memes"), result.category());
+        assertEquals(Arrays.asList(1704164645000L, null), result.dateAdded());
+    }
+
+    @Test
+    void getSnapshot_etagDependsOnAcceptHeader() {
+        // Arrange
+        when(soundService.getCatalogVersion()).thenReturn(5L);
+        when(soundService.getCatalogLastModified()).thenReturn(Instant.EPOCH);
+        when(soundService.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(5, List.of()));
+        MockHttpServletRequest cbor = new MockHttpServletRequest("GET", "/api/soundFiles/snapshot");
+        cbor.addHeader("Accept", "application/cbor");
+        MockHttpServletRequest columnar = new MockHttpServletRequest("GET", "/api/soundFiles/snapshot");
+        columnar.addHeader("Accept", ColumnarCatalogSnapshot.MEDIA_TYPE);
+
+        // Act
+        ResponseEntity<CatalogSnapshot> cborResponse = soundController.getSnapshot(
+                new ServletWebRequest(cbor, new MockHttpServletResponse()));
+        ResponseEntity<ColumnarCatalogSnapshot> columnarResponse = soundController.getColumnarSnapshot(
+                new ServletWebRequest(columnar, new MockHttpServletResponse()));
+
+        // Assert
+        assertNotEquals(cborResponse.getHeaders().getETag(), columnarResponse.getHeaders().getETag());
+        assertEquals(List.of("Accept"), cborResponse.getHeaders().getVary());
+    }
+
+    @Test
+    void streamSounds_subscribesToSoundsTopic() {
+        // Arrange
+        when(soundService.getCatalogSnapshot()).thenReturn(new CatalogSnapshot(1, List.of()));
+
+        // Act
+        soundController.streamSounds(new MockHttpServletResponse());
+
+        // Assert
+        assertTrue(sseEventHub.hasSubscribers(SoundController.SSE_TOPIC));
     }
 
     // ──────────────────────── Additional scenarios ────────────────────────
@@ -382,13 +702,11 @@ class SoundControllerTest {
         testSoundFile.setSoundFileLocation(tempFile.getAbsolutePath());
 
         String soundId = "test-sound";
-        String authorization = "Bearer token";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "delete-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "delete-sounds");
         when(soundService.findOneBySoundFileIdIgnoreCase(soundId)).thenReturn(testSoundFile);
 
         // Act
-        ResponseEntity<?> response = soundController.deleteSoundFile(soundId, authorization);
+        ResponseEntity<?> response = soundController.deleteSoundFile(soundId, principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -402,16 +720,13 @@ class SoundControllerTest {
         content[0] = 'I'; content[1] = 'D'; content[2] = '3';
         MockMultipartFile file = new MockMultipartFile(
                 "file", "test.mp3", "audio/mpeg", content);
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "upload")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "upload");
         when(soundPlayer.getSoundsDirectory()).thenReturn(System.getProperty("java.io.tmpdir"));
         when(soundService.save(any())).thenReturn(new SoundFile());
-        when(soundService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
 
         // Act
-        ResponseEntity<String> response = soundController.uploadFile(file, authorization);
+        ResponseEntity<String> response = soundController.uploadFile(file, principal);
 
         // Assert - should NOT be rejected for size (may be 200 or 500 due to filesystem, but not 400)
         assertNotEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -425,13 +740,11 @@ class SoundControllerTest {
         pdfContent[0] = '%'; pdfContent[1] = 'P'; pdfContent[2] = 'D'; pdfContent[3] = 'F';
         MockMultipartFile file = new MockMultipartFile(
                 "file", "test.mp3", "audio/mpeg", pdfContent);
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "upload")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "upload");
 
         // Act
-        ResponseEntity<String> response = soundController.uploadFile(file, authorization);
+        ResponseEntity<String> response = soundController.uploadFile(file, principal);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -443,17 +756,14 @@ class SoundControllerTest {
     void patchSoundFile_withNullDisplayName_updatesOnlyVolume() {
         // Arrange
         String soundId = "test-sound";
-        String authorization = "Bearer token";
         testSoundFile.setDisplayName("Original Name");
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "edit-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "edit-sounds");
         when(soundService.findOneBySoundFileIdIgnoreCase(soundId)).thenReturn(testSoundFile);
         when(soundService.save(any(SoundFile.class))).thenReturn(testSoundFile);
-        when(soundService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
 
         // Act
-        ResponseEntity<Void> response = soundController.patchSoundFile(soundId, 10, null, authorization);
+        ResponseEntity<Void> response = soundController.patchSoundFile(soundId, 10, null, principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -465,16 +775,13 @@ class SoundControllerTest {
     void patchSoundFile_withZeroVolumeOffset_isAccepted() {
         // Arrange
         String soundId = "test-sound";
-        String authorization = "Bearer token";
 
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "edit-sounds")).thenReturn(true);
+        RequestPrincipal principal = principal("user123", "edit-sounds");
         when(soundService.findOneBySoundFileIdIgnoreCase(soundId)).thenReturn(testSoundFile);
         when(soundService.save(any(SoundFile.class))).thenReturn(testSoundFile);
-        when(soundService.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
 
         // Act
-        ResponseEntity<Void> response = soundController.patchSoundFile(soundId, 0, "Sound Name", authorization);
+        ResponseEntity<Void> response = soundController.patchSoundFile(soundId, 0, "Sound Name", principal);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -484,13 +791,11 @@ class SoundControllerTest {
     @Test
     void setFavorite_withoutPermission_returns403() {
         // Arrange
-        String authorization = "Bearer token";
         String soundId = "test-sound";
-        when(userRoleConfig.getUserIdFromAuth(authorization)).thenReturn("user123");
-        when(userRoleConfig.hasPermission("user123", "edit-sounds")).thenReturn(false);
+        RequestPrincipal principal = principal("user123");
 
         // Act
-        ResponseEntity<Void> response = soundController.setFavorite(soundId, true, authorization);
+        ResponseEntity<Void> response = soundController.setFavorite(soundId, true, principal);
 
         // Assert
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -512,4 +817,35 @@ class SoundControllerTest {
         assertEquals(1, categories.size());
         assertTrue(categories.contains(null));
     }
-}
\ No newline at end of file
+
+    // A cursor the catalog hands out for the sort
+    private static String cursor(SoundSort sort) {
+        SoundSortIndex index = new SoundSortIndex();
+        for (String soundFileId : List.of("a", "b")) {
+            SoundFile soundFile = new SoundFile();
+            soundFile.setSoundFileId(soundFileId);
+            index.put(soundFile);
+        }
+        return index.page(new SoundQuery(sort, false, null, null, null, null, 1)).nextCursor();
+    }
+
+    private static ServletWebRequest getRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/soundFiles/findAll"),
+                new MockHttpServletResponse());
+    }
+
+    private static RequestPrincipal principal(String userId, String... permissions) {
+        return RequestPrincipal.of(userId, userId, List.of(), Set.of(permissions));
+    }
+
+    private static NavigableMap<String, SoundFile> catalogOf(String... ids) {
+        NavigableMap<String, SoundFile> catalog = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String id : ids) {
+            SoundFile sound = new SoundFile();
+            sound.setSoundFileId(id);
+            sound.setSoundFileLocation(id + ".mp3");
+            catalog.put(id, sound);
+        }
+        return catalog;
+    }
+}
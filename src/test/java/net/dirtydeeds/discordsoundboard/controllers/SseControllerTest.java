@@ -0,0 +1,117 @@
+package net.dirtydeeds.discordsoundboard.controllers;
+
+import net.dirtydeeds.discordsoundboard.sse.SseEventHub;
+import net.dirtydeeds.discordsoundboard.sse.SseFrame;
+import net.dirtydeeds.discordsoundboard.sse.SseTopicStats;
+import net.dirtydeeds.discordsoundboard.util.RequestPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SseControllerTest {
+
+    private SseEventHub sseEventHub;
+    private SseController sseController;
+
+    @BeforeEach
+    void setUp() {
+        sseEventHub = new SseEventHub(64, "coalesce", 0, 256);
+        sseEventHub.registerTopic("volume", params -> params.containsKey("username")
+                ? SseFrame.text("globalVolume", "50")
+                : null);
+        sseEventHub.registerTopic("sounds");
+        sseController = new SseController(sseEventHub);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sseEventHub.shutdown();
+    }
+
+    @Test
+    void streamEvents_withoutTopics_subscribesToAllTopics() {
+        // Act
+        ResponseEntity<SseEmitter> response = sseController.streamEvents(null, null, null, null,
+                new MockHttpServletResponse());
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, sseEventHub.getConnectionCount());
+        assertTrue(sseEventHub.hasSubscribers("sounds"));
+        assertTrue(sseEventHub.hasSubscribers("volume"));
+    }
+
+    @Test
+    void streamEvents_withTopics_subscribesToThoseOnly() {
+        // Arrange
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        // Act
+        ResponseEntity<SseEmitter> response = sseController.streamEvents(List.of("volume", " "), "alice", null, null,
+                servletResponse);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(sseEventHub.hasSubscribers("volume"));
+        assertFalse(sseEventHub.hasSubscribers("sounds"));
+        assertEquals("no-cache", servletResponse.getHeader("Cache-Control"));
+        assertEquals("no", servletResponse.getHeader("X-Accel-Buffering"));
+    }
+
+    @Test
+    void streamEvents_withUnknownTopic_returns400() {
+        // Act
+        ResponseEntity<SseEmitter> response = sseController.streamEvents(List.of("sounds", "missing"), null, null, null,
+                new MockHttpServletResponse());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(0, sseEventHub.getConnectionCount());
+    }
+
+    @Test
+    void getMetrics_withPermission_returnsStatsForEveryTopic() {
+        // Arrange
+        RequestPrincipal principal = principal("admin123", "manage-users");
+
+        // Act
+        ResponseEntity<List<SseTopicStats>> response = sseController.getMetrics(principal);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(List.of("sounds", "volume"), response.getBody().stream().map(SseTopicStats::name).toList());
+        assertEquals(0, response.getBody().get(0).subscribers());
+    }
+
+    @Test
+    void getMetrics_withoutPermission_returns403() {
+        // Arrange
+        RequestPrincipal principal = principal("user123");
+
+        // Act
+        ResponseEntity<List<SseTopicStats>> response = sseController.getMetrics(principal);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
+
+    private static RequestPrincipal principal(String userId, String... permissions) {
+        return RequestPrincipal.of(userId, userId, List.of(), Set.of(permissions));
+    }
+}
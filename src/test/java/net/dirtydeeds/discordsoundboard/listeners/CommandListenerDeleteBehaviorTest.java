@@ -1,6 +1,7 @@
 package net.dirtydeeds.discordsoundboard.listeners;
 
 import net.dirtydeeds.discordsoundboard.BotConfig;
+import net.dirtydeeds.discordsoundboard.ChatAccessList;
 import net.dirtydeeds.discordsoundboard.commands.Command;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.User;
@@ -11,6 +12,7 @@ import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.springframework.mock.env.MockEnvironment;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -29,7 +31,7 @@ class CommandListenerDeleteBehaviorTest {
     @BeforeEach
     void init() {
         openMocks(this);
-        listener = new CommandListener(botConfig);
+        listener = new CommandListener(botConfig, new ChatAccessList(botConfig, new MockEnvironment()));
 
         when(event.getMessage()).thenReturn(message);
         when(event.getAuthor()).thenReturn(user);
@@ -1,6 +1,7 @@
 package net.dirtydeeds.discordsoundboard.listeners;
 
 import net.dirtydeeds.discordsoundboard.BotConfig;
+import net.dirtydeeds.discordsoundboard.ChatAccessList;
 import net.dirtydeeds.discordsoundboard.SoundPlayer;
 import net.dirtydeeds.discordsoundboard.commands.HelpCommand;
 import net.dirtydeeds.discordsoundboard.commands.ListCommand;
@@ -14,7 +15,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
+import org.springframework.mock.env.MockEnvironment;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -39,7 +43,7 @@ class CommandListenerTest {
         when(help.getName()).thenReturn("help");
         when(play.getName()).thenReturn("play");
         when(list.getName()).thenReturn("list");
-        commandListener = new CommandListener(botConfig);
+        commandListener = new CommandListener(botConfig, new ChatAccessList(botConfig, new MockEnvironment()));
     }
 
     @Test
@@ -76,6 +80,44 @@ class CommandListenerTest {
         verify(help, times(1)).run(any());
     }
 
+    @Test
+    void command_names_match_in_any_case() {
+        setupWithNormalCommands();
+
+        when(message.getContentRaw()).thenReturn("?LiSt");
+
+        commandListener.onMessageReceived(messageReceivedEvent);
+
+        verify(list, times(1)).run(any());
+        verify(play, never()).run(any());
+    }
+
+    @Test
+    void message_without_command_character_is_not_parsed() {
+        setupWithNormalCommands();
+
+        when(message.getContentRaw()).thenReturn("just chatting");
+
+        commandListener.onMessageReceived(messageReceivedEvent);
+
+        verify(play, never()).run(any());
+        verify(help, never()).run(any());
+        verify(message, times(1)).getContentRaw();
+        verify(user, never()).getName();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"?help", "  ?help", "?", "?\t"})
+    void isCommand_matches_the_trimmed_message(String messageInput) {
+        assertTrue(CommandListener.isCommand(messageInput, "?"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "   ", "help?", "!help"})
+    void isCommand_rejects_other_messages(String messageInput) {
+        assertFalse(CommandListener.isCommand(messageInput, "?"));
+    }
+
     private void setupWithNormalCommands() {
         commandListener.addCommand(help);
         commandListener.addCommand(play);
@@ -128,12 +170,13 @@ class CommandListenerTest {
 
     @Test
     void user_not_in_allowed_list_is_blocked() {
+        // Simulate allowed users list does NOT contain the requesting user
+        when(botConfig.getAllowedUsersString()).thenReturn("alice, bob");
+        commandListener = new CommandListener(botConfig, new ChatAccessList(botConfig, new MockEnvironment()));
         setupWithNormalCommands();
         when(message.getContentRaw()).thenReturn("?help");
-        // Simulate allowed users list does NOT contain the requesting user
         when(messageReceivedEvent.getAuthor()).thenReturn(user);
         when(user.getName()).thenReturn("eve");
-        when(botConfig.getAllowedUsersList()).thenReturn(java.util.List.of("alice", "bob"));
 
         commandListener.onMessageReceived(messageReceivedEvent);
 
@@ -142,11 +185,12 @@ class CommandListenerTest {
 
     @Test
     void banned_user_is_blocked() {
+        when(botConfig.getBannedUsersString()).thenReturn("mallory");
+        commandListener = new CommandListener(botConfig, new ChatAccessList(botConfig, new MockEnvironment()));
         setupWithNormalCommands();
         when(message.getContentRaw()).thenReturn("?help");
         when(messageReceivedEvent.getAuthor()).thenReturn(user);
         when(user.getName()).thenReturn("mallory");
-        when(botConfig.getBannedUsersList()).thenReturn(java.util.List.of("mallory"));
 
         commandListener.onMessageReceived(messageReceivedEvent);
 
@@ -2,6 +2,7 @@ package net.dirtydeeds.discordsoundboard.service.impl;
 
 import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
 import net.dirtydeeds.discordsoundboard.repository.DiscordUserRepository;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +26,9 @@ class DiscordUserServiceImplTest {
     @Mock
     private DiscordUserRepository discordUserRepository;
 
+    @Mock
+    private UserRoleConfig userRoleConfig;
+
     @InjectMocks
     private DiscordUserServiceImpl discordUserService;
 
@@ -55,18 +59,18 @@ class DiscordUserServiceImplTest {
     }
 
     @Test
-    void findOneByIdOrUsernameIgnoreCase_delegatesToRepository() {
+    void findOneByIdOrUsernameIgnoreCase_queriesNormalizedUsername() {
         // Arrange
         String userId = "user123";
-        String userName = "testuser";
-        when(discordUserRepository.findOneByIdOrUsernameIgnoreCase(userId, userName)).thenReturn(discordUser);
+        String userName = "TestUser";
+        when(discordUserRepository.findOneByIdOrNormalizedUsername(userId, "testuser")).thenReturn(discordUser);
 
         // Act
         DiscordUser result = discordUserService.findOneByIdOrUsernameIgnoreCase(userId, userName);
 
         // Assert
         assertEquals(discordUser, result);
-        verify(discordUserRepository).findOneByIdOrUsernameIgnoreCase(userId, userName);
+        verify(discordUserRepository).findOneByIdOrNormalizedUsername(userId, "testuser");
     }
 
     @Test
@@ -280,6 +284,7 @@ class DiscordUserServiceImplTest {
         assertNotNull(result.getRoleAssignedAt());
         assertEquals("admin123", result.getRoleAssignedBy());
         verify(discordUserRepository).save(discordUser);
+        verify(userRoleConfig).invalidatePermissions();
     }
 
     @Test
@@ -292,6 +297,7 @@ class DiscordUserServiceImplTest {
                 () -> discordUserService.assignRole("nonexistent", "dj", "admin123"));
         assertEquals("Could not load discord user", ex.getMessage());
         verify(discordUserRepository, never()).save(any());
+        verifyNoInteractions(userRoleConfig);
     }
 
     @Test
@@ -334,6 +340,7 @@ class DiscordUserServiceImplTest {
         assertNull(result.getRoleAssignedAt());
         assertNull(result.getRoleAssignedBy());
         verify(discordUserRepository).save(discordUser);
+        verify(userRoleConfig).invalidatePermissions();
     }
 
     @Test
@@ -0,0 +1,160 @@
+package net.dirtydeeds.discordsoundboard.service.impl;
+
+import net.dirtydeeds.discordsoundboard.PlayProgressListener;
+import net.dirtydeeds.discordsoundboard.PlayRequestStatus;
+import net.dirtydeeds.discordsoundboard.PlayRequestUpdate;
+import net.dirtydeeds.discordsoundboard.SoundPlayer;
+import net.dirtydeeds.discordsoundboard.service.PlaybackService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PlayRequestServiceImplTest {
+
+    @Mock
+    private SoundPlayer soundPlayer;
+
+    @Mock
+    private PlaybackService playbackService;
+
+    private PlayRequestServiceImpl playRequestService;
+
+    @AfterEach
+    void tearDown() {
+        playRequestService.shutdown();
+    }
+
+    @Test
+    void submit_queuesRequestAndReportsProgress() {
+        // Arrange
+        playRequestService = new PlayRequestServiceImpl(soundPlayer, playbackService, 16);
+
+        // Act
+        String requestId = playRequestService.submit("airhorn", "bob", 1, "", "alice");
+
+        // Assert
+        assertNotNull(requestId);
+        ArgumentCaptor<PlayProgressListener> progress = ArgumentCaptor.forClass(PlayProgressListener.class);
+        verify(soundPlayer, timeout(1000)).playForUser(eq("airhorn"), eq("bob"), eq(1), eq(""), eq("alice"),
+                progress.capture());
+
+        progress.getValue().onProgress(PlayRequestStatus.PLAYING, "guild1", null);
+        progress.getValue().onProgress(PlayRequestStatus.FAILED, "guild1", "too late");
+
+        PlayRequestUpdate update = playRequestService.getUpdate(requestId);
+        assertEquals(PlayRequestStatus.PLAYING, update.status());
+        assertEquals("guild1", update.guildId());
+        // QUEUED has no guild yet, so only PLAYING goes out to the guild's clients
+        ArgumentCaptor<PlayRequestUpdate> sent = ArgumentCaptor.forClass(PlayRequestUpdate.class);
+        verify(playbackService, times(1)).sendPlayRequestUpdate(sent.capture());
+        assertEquals(List.of(PlayRequestStatus.PLAYING),
+                sent.getAllValues().stream().map(PlayRequestUpdate::status).toList());
+    }
+
+    @Test
+    void submit_failureBeforeGuildIsKnown_isOnlyKeptForLookup() {
+        // Arrange
+        playRequestService = new PlayRequestServiceImpl(soundPlayer, playbackService, 16);
+
+        // Act
+        String requestId = playRequestService.submit("airhorn", "bob", 1, "", "alice");
+        ArgumentCaptor<PlayProgressListener> progress = ArgumentCaptor.forClass(PlayProgressListener.class);
+        verify(soundPlayer, timeout(1000)).playForUser(eq("airhorn"), eq("bob"), eq(1), eq(""), eq("alice"),
+                progress.capture());
+        progress.getValue().onProgress(PlayRequestStatus.FAILED, null, "Not in voice");
+
+        // Assert
+        assertEquals(PlayRequestStatus.FAILED, playRequestService.getUpdate(requestId).status());
+        verify(playbackService, never()).sendPlayRequestUpdate(any());
+    }
+
+    @Test
+    void submit_failureAfterGuildIsKnown_keepsTheGuild() {
+        // Arrange
+        playRequestService = new PlayRequestServiceImpl(soundPlayer, playbackService, 16);
+        doAnswer(invocation -> {
+            PlayProgressListener progress = invocation.getArgument(5);
+            progress.onProgress(PlayRequestStatus.CONNECTING, "guild1", null);
+            throw new IllegalStateException("boom");
+        }).when(soundPlayer).playForUser(any(), any(), anyInt(), any(), any(), any());
+
+        // Act
+        String requestId = playRequestService.submit("airhorn", "bob", 1, "", "alice");
+
+        // Assert
+        ArgumentCaptor<PlayRequestUpdate> sent = ArgumentCaptor.forClass(PlayRequestUpdate.class);
+        verify(playbackService, timeout(1000).times(2)).sendPlayRequestUpdate(sent.capture());
+        PlayRequestUpdate failed = sent.getAllValues().getLast();
+        assertEquals(PlayRequestStatus.FAILED, failed.status());
+        assertEquals("guild1", failed.guildId());
+        assertEquals(failed, playRequestService.getUpdate(requestId));
+    }
+
+    @Test
+    void submit_whenQueueIsFull_rejectsRequest() throws InterruptedException {
+        // Arrange
+        playRequestService = new PlayRequestServiceImpl(soundPlayer, playbackService, 1);
+        CountDownLatch connecting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            connecting.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(soundPlayer).playForUser(any(), any(), anyInt(), any(), any(), any());
+
+        // Act
+        String first = playRequestService.submit("airhorn", "bob", 1, "", "alice");
+        assertTrue(connecting.await(1, TimeUnit.SECONDS));
+        String second = playRequestService.submit("bruh", "carol", 1, "", "alice");
+        release.countDown();
+
+        // Assert
+        assertNotNull(first);
+        assertNull(second);
+    }
+
+    @Test
+    void submit_playsRequestsForTheSameUserInOrder() throws InterruptedException {
+        // Arrange
+        playRequestService = new PlayRequestServiceImpl(soundPlayer, playbackService, 16);
+        List<String> played = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            Thread.sleep(10);
+            played.add(invocation.getArgument(0));
+            done.countDown();
+            return null;
+        }).when(soundPlayer).playForUser(any(), any(), anyInt(), any(), any(), any());
+
+        // Act
+        playRequestService.submit("one", "bob", 1, "", "alice");
+        playRequestService.submit("two", "Bob", 1, "", "alice");
+        playRequestService.submit("three", "bob", 1, null, "alice");
+
+        // Assert
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("one", "two", "three"), played);
+    }
+
+    @Test
+    void getUpdate_unknownRequest_returnsNull() {
+        // Arrange
+        playRequestService = new PlayRequestServiceImpl(soundPlayer, playbackService, 16);
+
+        // Act & Assert
+        assertNull(playRequestService.getUpdate("unknown"));
+    }
+}
@@ -3,6 +3,7 @@ package net.dirtydeeds.discordsoundboard.service.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.dirtydeeds.discordsoundboard.PlaybackEvent;
+import net.dirtydeeds.discordsoundboard.sse.SseEventHub;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +14,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +28,8 @@ class PlaybackServiceImplTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    private SseEventHub sseEventHub;
+
     private PlaybackServiceImpl playbackService;
 
     @BeforeEach
@@ -33,12 +38,13 @@ class PlaybackServiceImplTest {
         lenient().when(objectMapper.writeValueAsString(any(PlaybackEvent.class)))
                 .thenReturn("{\"soundFileId\":\"test\"}");
 
-        playbackService = new PlaybackServiceImpl(objectMapper);
+        sseEventHub = new SseEventHub(64, "coalesce", 0, 256);
+        playbackService = new PlaybackServiceImpl(objectMapper, sseEventHub);
     }
 
     @AfterEach
     void tearDown() {
-        playbackService.shutdownHeartbeat();
+        sseEventHub.shutdown();
     }
 
     @Test
@@ -196,13 +202,21 @@ class PlaybackServiceImplTest {
     }
 
     @Test
-    void shutdownHeartbeat_shutsDownExecutor() {
+    void sendTrackStart_withNoEmitters_skipsSerialization() throws JsonProcessingException {
+        // Act
+        playbackService.sendTrackStart("sound1", "Sound 1", "user1", "guild1");
+
+        // Assert
+        verify(objectMapper, never()).writeValueAsString(any());
+    }
+
+    @Test
+    void createEmitter_subscribesToPlaybackTopic() {
         // Act
-        playbackService.shutdownHeartbeat();
+        playbackService.createEmitter();
 
-        // Assert - if no exception is thrown, the executor shutdown successfully
-        // We can't easily verify internal state, but we ensure the method completes
-        assertDoesNotThrow(() -> playbackService.shutdownHeartbeat());
+        // Assert
+        assertTrue(sseEventHub.hasSubscribers(PlaybackServiceImpl.SSE_TOPIC));
     }
 
     @Test
@@ -268,4 +282,21 @@ class PlaybackServiceImplTest {
             playbackService.sendTrackEnd("", "");
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void sendTrackStart_withoutSubscribers_stillTellsListeners() {
+        // Arrange
+        List<String> seen = new ArrayList<>();
+        playbackService.addListener((eventName, event) -> seen.add(eventName + ":" + event.getSoundFileId()));
+        playbackService.addListener((eventName, event) -> {
+            throw new IllegalStateException("broken listener");
+        });
+
+        // Act
+        playbackService.sendTrackStart("sound1", "Sound 1", "user1", "guild1");
+        playbackService.sendTrackEnd("sound1", "guild1");
+
+        // Assert
+        assertEquals(List.of("trackStart:sound1", "trackEnd:sound1"), seen);
+    }
+}
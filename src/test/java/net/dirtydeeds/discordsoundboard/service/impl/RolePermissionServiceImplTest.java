@@ -2,6 +2,7 @@ package net.dirtydeeds.discordsoundboard.service.impl;
 
 import net.dirtydeeds.discordsoundboard.beans.RolePermission;
 import net.dirtydeeds.discordsoundboard.repository.RolePermissionRepository;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -22,6 +23,9 @@ class RolePermissionServiceImplTest {
     @Mock
     private RolePermissionRepository rolePermissionRepository;
 
+    @Mock
+    private UserRoleConfig userRoleConfig;
+
     @InjectMocks
     private RolePermissionServiceImpl service;
 
@@ -153,6 +157,7 @@ class RolePermissionServiceImplTest {
         service.removePermissionFromRole("dj", "play-sounds");
 
         verify(rolePermissionRepository).deleteByRoleAndPermission("dj", "play-sounds");
+        verify(userRoleConfig).invalidatePermissions();
     }
 
     // ──────────────────────── setPermissionsForRole ────────────────────────
@@ -192,6 +197,7 @@ class RolePermissionServiceImplTest {
 
         verify(rolePermissionRepository).deleteByRole("dj");
         verify(rolePermissionRepository, times(2)).save(any(RolePermission.class));
+        verify(userRoleConfig).invalidatePermissions();
         assertEquals(2, result.size());
     }
 
@@ -241,6 +247,7 @@ class RolePermissionServiceImplTest {
         service.resetRoleToDefaults("dj");
 
         verify(rolePermissionRepository).deleteByRole("dj");
+        verify(userRoleConfig).invalidatePermissions();
     }
 
     @Test
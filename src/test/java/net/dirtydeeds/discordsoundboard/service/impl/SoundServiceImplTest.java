@@ -1,5 +1,6 @@
 package net.dirtydeeds.discordsoundboard.service.impl;
 
+import jakarta.persistence.EntityManager;
 import net.dirtydeeds.discordsoundboard.beans.SoundFile;
 import net.dirtydeeds.discordsoundboard.repository.SoundFileRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,10 +11,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +30,9 @@ class SoundServiceImplTest {
     @Mock
     private SoundFileRepository soundRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private SoundServiceImpl soundService;
 
@@ -37,9 +46,9 @@ class SoundServiceImplTest {
     }
 
     @Test
-    void findAll_delegatesToRepository() {
+    void findAll_paged_delegatesToRepository() {
         // Arrange
-        Pageable pageable = Pageable.unpaged();
+        Pageable pageable = PageRequest.of(0, 10);
         Page<SoundFile> expectedPage = new PageImpl<>(Collections.singletonList(soundFile));
         when(soundRepository.findAll(pageable)).thenReturn(expectedPage);
 
@@ -52,17 +61,54 @@ class SoundServiceImplTest {
     }
 
     @Test
-    void findOneBySoundFileIdIgnoreCase_delegatesToRepository() {
+    void forEachSoundFile_streamsAndDetachesEachSoundThenClosesStream() {
         // Arrange
-        String fileName = "test-sound";
-        when(soundRepository.findOneBySoundFileIdIgnoreCase(fileName)).thenReturn(soundFile);
+        SoundFile other = new SoundFile();
+        other.setSoundFileId("other-sound");
+        AtomicBoolean closed = new AtomicBoolean();
+        when(soundRepository.streamAllByOrderBySoundFileIdAsc())
+                .thenReturn(Stream.of(soundFile, other).onClose(() -> closed.set(true)));
+        List<String> seen = new ArrayList<>();
 
         // Act
-        SoundFile result = soundService.findOneBySoundFileIdIgnoreCase(fileName);
+        soundService.forEachSoundFile(sound -> seen.add(sound.getSoundFileId()));
 
         // Assert
-        assertEquals(soundFile, result);
-        verify(soundRepository).findOneBySoundFileIdIgnoreCase(fileName);
+        assertEquals(List.of("test-sound", "other-sound"), seen);
+        verify(entityManager).detach(soundFile);
+        verify(entityManager).detach(other);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void findAll_unpaged_isServedFromCatalog() {
+        // Arrange
+        when(soundRepository.findAll()).thenReturn(List.of(soundFile));
+
+        // Act
+        Page<SoundFile> first = soundService.findAll(Pageable.unpaged());
+        Page<SoundFile> second = soundService.findAll(Pageable.unpaged());
+
+        // Assert
+        assertEquals(List.of(soundFile), first.getContent());
+        assertEquals(List.of(soundFile), second.getContent());
+        verify(soundRepository, times(1)).findAll();
+        verify(soundRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void findOneBySoundFileIdIgnoreCase_isServedFromCatalog() {
+        // Arrange
+        when(soundRepository.findAll()).thenReturn(List.of(soundFile));
+
+        // Act
+        SoundFile result = soundService.findOneBySoundFileIdIgnoreCase("TEST-Sound");
+        SoundFile missing = soundService.findOneBySoundFileIdIgnoreCase("other-sound");
+
+        // Assert
+        assertSame(soundFile, result);
+        assertNull(missing);
+        verify(soundRepository, times(1)).findAll();
     }
 
     @Test
@@ -78,6 +124,21 @@ class SoundServiceImplTest {
         verify(soundRepository).save(soundFile);
     }
 
+    @Test
+    void save_addsToCatalogAndBumpsVersion() {
+        // Arrange
+        when(soundRepository.findAll()).thenReturn(List.of());
+        when(soundRepository.save(soundFile)).thenReturn(soundFile);
+        long versionBefore = soundService.getCatalogVersion();
+
+        // Act
+        soundService.save(soundFile);
+
+        // Assert
+        assertSame(soundFile, soundService.getCatalog().get("TEST-SOUND"));
+        assertTrue(soundService.getCatalogVersion() > versionBefore);
+    }
+
     @Test
     void delete_delegatesToRepository() {
         // Act
@@ -87,6 +148,19 @@ class SoundServiceImplTest {
         verify(soundRepository).delete(soundFile);
     }
 
+    @Test
+    void delete_removesFromCatalog() {
+        // Arrange
+        when(soundRepository.findAll()).thenReturn(List.of(soundFile));
+
+        // Act
+        soundService.delete(soundFile);
+
+        // Assert
+        assertNull(soundService.findOneBySoundFileIdIgnoreCase("test-sound"));
+        assertTrue(soundService.getCatalog().isEmpty());
+    }
+
     @Test
     void updateSoundPlayed_whenTimesPlayedIsNull_setsToOne() {
         // Arrange
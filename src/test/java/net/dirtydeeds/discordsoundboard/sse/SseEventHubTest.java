@@ -0,0 +1,454 @@
+package net.dirtydeeds.discordsoundboard.sse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseEventHubTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private SseEventHub hub;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (hub != null) {
+            hub.shutdown();
+        }
+    }
+
+    @Test
+    void publish_deliversFramesInOrder() {
+        hub = new SseEventHub(8, "drop_oldest", 0, 256);
+        hub.registerTopic("test");
+        RecordingEmitter emitter = subscribe(new RecordingEmitter(null), "test");
+
+        hub.publish("test", SseFrame.text("n", "1"));
+        hub.publish("test", SseFrame.text("n", "2"));
+
+        await(() -> emitter.received.size() == 2);
+        assertEquals(List.of("1", "2"), emitter.received);
+        assertEquals(2, hub.stats().get(0).sent());
+    }
+
+    @Test
+    void subscribe_queuesCurrentStateOfEachTopic() {
+        hub = new SseEventHub(8, "coalesce", 0, 256);
+        hub.registerTopic("volume", params -> SseFrame.text("volume", params.get("username")));
+        hub.registerTopic("playback");
+        RecordingEmitter emitter = new RecordingEmitter(null);
+
+        hub.subscribe(emitter, List.of("volume", "playback"), Map.of("username", "alice"));
+        hub.publish("playback", SseFrame.text("trackStart", "beep"));
+
+        await(() -> emitter.received.size() == 2);
+        assertEquals(List.of("alice", "beep"), emitter.received);
+        assertEquals(1, hub.getConnectionCount());
+    }
+
+    @Test
+    void subscribe_buildsStateWithoutHoldingUpPublishers() {
+        hub = new SseEventHub(8, "coalesce", 0, 256);
+        hub.registerTopic("sounds", params -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return SseFrame.text("sounds", "catalog");
+        });
+        RecordingEmitter emitter = new RecordingEmitter(null);
+
+        // Neither call waits for the state, which is blocked until release
+        hub.subscribe(emitter, List.of("sounds"), Map.of());
+        hub.publish("sounds", SseFrame.text("soundAdded", "1"));
+
+        assertTrue(emitter.received.isEmpty());
+        release.countDown();
+        await(() -> emitter.received.size() == 2);
+        assertEquals(List.of("catalog", "1"), emitter.received);
+    }
+
+    @Test
+    void subscribe_unknownTopicThrows() {
+        hub = new SseEventHub(8, "coalesce", 0, 256);
+        hub.registerTopic("sounds");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> hub.subscribe(new RecordingEmitter(null), List.of("sounds", "missing"), Map.of()));
+        assertEquals(0, hub.getConnectionCount());
+        assertFalse(hub.hasSubscribers("sounds"));
+    }
+
+    @Test
+    void publish_onlyReachesSubscribersOfTheTopic() {
+        hub = new SseEventHub(8, "coalesce", 0, 256);
+        hub.registerTopic("sounds");
+        hub.registerTopic("playback");
+        RecordingEmitter sounds = subscribe(new RecordingEmitter(null), "sounds");
+        RecordingEmitter both = subscribe(new RecordingEmitter(null), "sounds", "playback");
+
+        hub.publish("playback", SseFrame.text("trackStart", "beep"));
+        hub.publish("sounds", SseFrame.text("soundAdded", "boop"));
+
+        await(() -> both.received.size() == 2 && sounds.received.size() == 1);
+        assertEquals(List.of("boop"), sounds.received);
+        assertEquals(List.of("beep", "boop"), both.received);
+        assertTrue(hub.hasSubscribers("playback"));
+    }
+
+    @Test
+    void heartbeat_isSentOncePerConnection() {
+        hub = new SseEventHub(8, "coalesce", 0, 256);
+        hub.registerTopic("sounds");
+        hub.registerTopic("playback");
+        RecordingEmitter emitter = subscribe(new RecordingEmitter(null), "sounds", "playback");
+
+        hub.sendHeartbeat();
+
+        await(() -> emitter.received.size() == 1);
+        assertEquals(List.of("ping"), emitter.received);
+    }
+
+    @Test
+    void publish_doesNotWaitForSlowClients() {
+        hub = new SseEventHub(8, "drop_oldest", 0, 256);
+        hub.registerTopic("test");
+        RecordingEmitter slow = subscribe(new RecordingEmitter(release), "test");
+        RecordingEmitter fast = subscribe(new RecordingEmitter(null), "test");
+
+        hub.publish("test", SseFrame.text("n", "1"));
+        hub.publish("test", SseFrame.text("n", "2"));
+
+        await(() -> fast.received.size() == 2);
+        assertTrue(slow.received.isEmpty());
+    }
+
+    @Test
+    void dropOldest_keepsNewestFrames() {
+        hub = new SseEventHub(2, "drop_oldest", 0, 256);
+        hub.registerTopic("test");
+        RecordingEmitter emitter = subscribe(new RecordingEmitter(release), "test");
+
+        hub.publish("test", SseFrame.text("n", "1"));
+        await(() -> emitter.sending);
+        for (int i = 2; i <= 5; i++) {
+            hub.publish("test", SseFrame.text("n", String.valueOf(i)));
+        }
+
+        SseTopicStats stats = hub.stats().get(0);
+        assertEquals(2, stats.maxQueueDepth());
+        assertEquals(2, stats.queuedFrames());
+        assertEquals(2, stats.dropped());
+
+        release.countDown();
+        await(() -> emitter.received.size() == 3);
+        assertEquals(List.of("1", "4", "5"), emitter.received);
+    }
+
+    @Test
+    void coalesce_replacesDroppedEventsWithState() {
+        hub = new SseEventHub(2, "coalesce", 0, 256);
+        hub.registerTopic("test", params -> SseFrame.text("snapshot", "latest"));
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        hub.subscribe(emitter, List.of("test"), Map.of());
+
+        await(() -> emitter.sending);
+        for (int i = 2; i <= 4; i++) {
+            hub.publish("test", SseFrame.text("n", String.valueOf(i)));
+        }
+
+        assertEquals(1, hub.stats().get(0).coalesced());
+        release.countDown();
+        await(() -> emitter.received.size() == 3);
+        assertEquals(List.of("latest", "latest", "4"), emitter.received);
+    }
+
+    @Test
+    void disconnect_removesClientThatFallsBehind() {
+        hub = new SseEventHub(1, "disconnect", 0, 256);
+        hub.registerTopic("test");
+        RecordingEmitter emitter = subscribe(new RecordingEmitter(release), "test");
+
+        hub.publish("test", SseFrame.text("n", "1"));
+        await(() -> emitter.sending);
+        hub.publish("test", SseFrame.text("n", "2"));
+        hub.publish("test", SseFrame.text("n", "3"));
+
+        assertFalse(hub.hasSubscribers("test"));
+        assertEquals(1, hub.stats().get(0).disconnected());
+    }
+
+    @Test
+    void failedSend_removesClient() {
+        hub = new SseEventHub(8, "drop_oldest", 0, 256);
+        hub.registerTopic("test");
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        emitter.fail = true;
+        subscribe(emitter, "test");
+
+        hub.publish("test", SseFrame.text("n", "1"));
+
+        await(() -> hub.getConnectionCount() == 0);
+        assertFalse(hub.hasSubscribers("test"));
+    }
+
+    @Test
+    void throttle_publishesLatestStateOncePerBurst() {
+        hub = new SseEventHub(8, "coalesce", 50, 256);
+        hub.registerTopic("users");
+        AtomicInteger version = new AtomicInteger();
+        AtomicInteger built = new AtomicInteger();
+        ThrottledTopic users = hub.throttle("users", () -> {
+            built.incrementAndGet();
+            return SseFrame.text("users", String.valueOf(version.get()));
+        });
+        RecordingEmitter emitter = subscribe(new RecordingEmitter(null), "users");
+
+        for (int i = 1; i <= 5; i++) {
+            version.set(i);
+            users.markDirty();
+        }
+
+        await(() -> emitter.received.size() == 1);
+        assertEquals(List.of("5"), emitter.received);
+        assertEquals(1, built.get());
+        SseTopicStats stats = hub.stats().get(0);
+        assertEquals(5, stats.updates());
+        assertEquals(1, stats.published());
+    }
+
+    @Test
+    void throttle_skipsBuildingFramesWithoutSubscribers() {
+        hub = new SseEventHub(8, "coalesce", 0, 256);
+        hub.registerTopic("users");
+        AtomicInteger built = new AtomicInteger();
+        ThrottledTopic users = hub.throttle("users", () -> {
+            built.incrementAndGet();
+            return SseFrame.text("users", "[]");
+        });
+
+        users.markDirty();
+
+        assertEquals(0, built.get());
+        assertEquals(1, hub.stats().get(0).updates());
+        assertEquals(0, hub.stats().get(0).published());
+    }
+
+    @Test
+    void overflowPolicy_fromStringFallsBackToDefault() {
+        assertEquals(OverflowPolicy.DROP_OLDEST, OverflowPolicy.fromString("drop-oldest", OverflowPolicy.COALESCE));
+        assertEquals(OverflowPolicy.COALESCE, OverflowPolicy.fromString("whatever", OverflowPolicy.COALESCE));
+        assertEquals(OverflowPolicy.COALESCE, OverflowPolicy.fromString(null, OverflowPolicy.COALESCE));
+    }
+
+    @Test
+    void reconnect_replaysOnlyMissedEvents() {
+        hub = new SseEventHub(8, "coalesce", 0, 16);
+        hub.registerTopic("sounds", params -> SseFrame.text("sounds", "catalog"));
+        hub.registerTopic("playback");
+        RecordingEmitter first = subscribe(new RecordingEmitter(null), "sounds", "playback");
+        hub.publish("playback", SseFrame.text("trackStart", "1"));
+        await(() -> first.received.size() == 2);
+        String lastSeen = first.ids.get(1);
+
+        hub.publish("sounds", SseFrame.text("soundAdded", "2"));
+        hub.publish("playback", SseFrame.text("trackEnd", "3"));
+        RecordingEmitter second = new RecordingEmitter(null);
+        hub.subscribe(second, List.of("sounds", "playback"), Map.of(), lastSeen);
+
+        await(() -> second.received.size() == 2);
+        assertEquals(List.of("2", "3"), second.received);
+        assertEquals(1, hub.stats().get(0).replayed());
+        assertEquals(1, hub.stats().get(1).replayed());
+    }
+
+    @Test
+    void reconnect_sendsStateWhenMissedEventsLeftTheBuffer() {
+        hub = new SseEventHub(8, "coalesce", 0, 2);
+        hub.registerTopic("sounds", params -> SseFrame.text("sounds", "catalog"));
+        RecordingEmitter first = subscribe(new RecordingEmitter(null), "sounds");
+        await(() -> first.received.size() == 1);
+        String lastSeen = first.ids.get(0);
+
+        for (int i = 1; i <= 3; i++) {
+            hub.publish("sounds", SseFrame.text("soundAdded", String.valueOf(i)));
+        }
+        RecordingEmitter second = new RecordingEmitter(null);
+        hub.subscribe(second, List.of("sounds"), Map.of(), lastSeen);
+
+        await(() -> second.received.size() == 1);
+        assertEquals(List.of("catalog"), second.received);
+        assertEquals(0, hub.stats().get(0).replayed());
+    }
+
+    @Test
+    void reconnect_withIdFromAnotherRunSendsState() {
+        hub = new SseEventHub(8, "coalesce", 0, 16);
+        hub.registerTopic("sounds", params -> SseFrame.text("sounds", "catalog"));
+        hub.publish("sounds", SseFrame.text("soundAdded", "1"));
+        RecordingEmitter emitter = new RecordingEmitter(null);
+
+        hub.subscribe(emitter, List.of("sounds"), Map.of(), "abc-0");
+
+        await(() -> emitter.received.size() == 1);
+        assertEquals(List.of("catalog"), emitter.received);
+    }
+
+    @Test
+    void shouldPublish_onlyWhileSomeoneCanReceiveIt() {
+        hub = new SseEventHub(8, "coalesce", 0, 16);
+        hub.registerTopic("sounds");
+
+        assertFalse(hub.shouldPublish("sounds"));
+        assertFalse(hub.shouldPublish("missing"));
+        subscribe(new RecordingEmitter(null), "sounds");
+        assertTrue(hub.shouldPublish("sounds"));
+    }
+
+    @Test
+    void publish_toGuildOnlyReachesClientsFollowingIt() {
+        hub = new SseEventHub(8, "coalesce", 0, 16);
+        hub.registerTopic("playback");
+        RecordingEmitter everyGuild = subscribe(new RecordingEmitter(null), "playback");
+        RecordingEmitter guildA = new RecordingEmitter(null);
+        hub.subscribe(guildA, List.of("playback"), Map.of(SseEventHub.GUILDS_PARAM, "a"));
+        RecordingEmitter guildsAB = new RecordingEmitter(null);
+        hub.subscribe(guildsAB, List.of("playback"), Map.of(SseEventHub.GUILDS_PARAM, "a, b"));
+
+        hub.publish("playback", "b", SseFrame.text("trackStart", "in b"));
+        hub.publish("playback", "a", SseFrame.text("trackStart", "in a"));
+
+        await(() -> everyGuild.received.size() == 2 && guildsAB.received.size() == 2 && guildA.received.size() == 1);
+        assertEquals(List.of("in a"), guildA.received);
+        assertEquals(List.of("in b", "in a"), guildsAB.received);
+    }
+
+    @Test
+    void throttleByGuild_rendersOncePerChoiceOfGuilds() {
+        hub = new SseEventHub(8, "coalesce", 0, 16);
+        hub.registerTopic("users");
+        List<Set<String>> rendered = new CopyOnWriteArrayList<>();
+        ThrottledTopic users = hub.throttleByGuild("users", () -> "alice@a,bob@b", (state, guilds) -> {
+            rendered.add(guilds);
+            String shown = Arrays.stream(state.split(","))
+                    .filter(user -> guilds.isEmpty() || guilds.contains(user.substring(user.indexOf('@') + 1)))
+                    .collect(Collectors.joining(","));
+            return SseFrame.text("users", shown);
+        });
+        RecordingEmitter everyGuild = subscribe(new RecordingEmitter(null), "users");
+        RecordingEmitter guildA = new RecordingEmitter(null);
+        hub.subscribe(guildA, List.of("users"), Map.of(SseEventHub.GUILDS_PARAM, "a"));
+        RecordingEmitter alsoGuildA = new RecordingEmitter(null);
+        hub.subscribe(alsoGuildA, List.of("users"), Map.of(SseEventHub.GUILDS_PARAM, "a"));
+
+        users.markDirty();
+
+        await(() -> everyGuild.received.size() == 1 && guildA.received.size() == 1 && alsoGuildA.received.size() == 1);
+        assertEquals(List.of("alice@a,bob@b"), everyGuild.received);
+        assertEquals(List.of("alice@a"), guildA.received);
+        assertEquals(2, rendered.size());
+    }
+
+    @Test
+    void throttleGuildEvents_sendsEachGuildItsOwnEvent() {
+        hub = new SseEventHub(8, "coalesce", 0, 16);
+        hub.registerTopic("volume");
+        ThrottledTopic volume = hub.throttleGuildEvents("volume",
+                () -> Map.of("a", SseFrame.text("globalVolume", "40"), "b", SseFrame.text("globalVolume", "70")));
+        RecordingEmitter guildA = new RecordingEmitter(null);
+        hub.subscribe(guildA, List.of("volume"), Map.of(SseEventHub.GUILDS_PARAM, "a"));
+        RecordingEmitter everyGuild = subscribe(new RecordingEmitter(null), "volume");
+
+        volume.markDirty();
+
+        await(() -> guildA.received.size() == 1 && everyGuild.received.size() == 2);
+        assertEquals(List.of("40"), guildA.received);
+        assertEquals(2, hub.stats().get(0).published());
+    }
+
+    @Test
+    void reconnect_replaysOnlyEventsOfPickedGuilds() {
+        hub = new SseEventHub(8, "coalesce", 0, 16);
+        hub.registerTopic("playback");
+        RecordingEmitter first = new RecordingEmitter(null);
+        hub.subscribe(first, List.of("playback"), Map.of(SseEventHub.GUILDS_PARAM, "a"));
+        hub.publish("playback", "a", SseFrame.text("trackStart", "1"));
+        await(() -> first.received.size() == 1);
+
+        hub.publish("playback", "b", SseFrame.text("trackStart", "2"));
+        hub.publish("playback", "a", SseFrame.text("trackEnd", "3"));
+        RecordingEmitter second = new RecordingEmitter(null);
+        hub.subscribe(second, List.of("playback"), Map.of(SseEventHub.GUILDS_PARAM, "a"), first.ids.get(0));
+
+        await(() -> second.received.size() == 1);
+        assertEquals(List.of("3"), second.received);
+    }
+
+    private RecordingEmitter subscribe(RecordingEmitter emitter, String... topics) {
+        hub.subscribe(emitter, List.of(topics), Map.of());
+        return emitter;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for condition");
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Records the data and id of every frame it is sent, optionally blocking each send until released.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch gate;
+        private final List<String> received = new CopyOnWriteArrayList<>();
+        private final List<String> ids = new CopyOnWriteArrayList<>();
+        private volatile boolean sending;
+        private volatile boolean fail;
+
+        private RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            sending = true;
+            if (fail) {
+                throw new IOException("Broken pipe");
+            }
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (DataWithMediaType item : items) {
+                String frame = new String((byte[]) item.getData(), StandardCharsets.UTF_8);
+                received.add(frame.substring(frame.indexOf("data:") + 5).trim());
+                if (frame.startsWith("id:")) {
+                    ids.add(frame.substring(3, frame.indexOf('\n')));
+                }
+            }
+        }
+    }
+}
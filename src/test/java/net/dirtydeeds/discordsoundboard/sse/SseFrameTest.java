@@ -0,0 +1,69 @@
+package net.dirtydeeds.discordsoundboard.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseFrameTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void of_writesJsonWithEventNameAndId() throws Exception {
+        SseFrame frame = SseFrame.of(objectMapper, "soundUpdated", "42", Map.of("timesPlayed", 3));
+
+        assertEquals("id:42\nevent:soundUpdated\ndata:{\"timesPlayed\":3}\n\n", text(frame));
+    }
+
+    @Test
+    void of_writesStringsAsIs() throws Exception {
+        assertEquals("event:heartbeat\ndata:ping\n\n", text(SseFrame.of(objectMapper, "heartbeat", "ping")));
+    }
+
+    @Test
+    void text_splitsLinesIntoDataFields() {
+        assertEquals("event:note\ndata:first\ndata:second\n\n", text(SseFrame.text("note", "first\nsecond")));
+    }
+
+    @Test
+    void parts_returnsSamePayloadEveryTime() throws Exception {
+        SseFrame frame = SseFrame.of(objectMapper, "globalVolume", 75.0f);
+
+        assertSame(frame.parts(), frame.parts());
+        assertEquals(text(frame).length(), frame.size());
+    }
+
+    @Test
+    void withId_prependsIdField() {
+        SseFrame frame = SseFrame.text("trackStart", "beep");
+
+        assertEquals("id:7\nevent:trackStart\ndata:beep\n\n", text(frame.withId("7")));
+        assertEquals("event:trackStart\ndata:beep\n\n", text(frame));
+    }
+
+    @Test
+    void withId_refusesSecondId() throws Exception {
+        SseFrame frame = SseFrame.of(objectMapper, "soundUpdated", "42", Map.of("timesPlayed", 3));
+
+        assertThrows(IllegalStateException.class, () -> frame.withId("43"));
+    }
+
+    @Test
+    void partsCannotBeChanged() {
+        SseFrame frame = SseFrame.text("heartbeat", "ping");
+
+        assertThrows(UnsupportedOperationException.class, () -> frame.parts().clear());
+    }
+
+    private static String text(SseFrame frame) {
+        Set<DataWithMediaType> items = frame.parts();
+        assertEquals(1, items.size());
+        return new String((byte[]) items.iterator().next().getData(), StandardCharsets.UTF_8);
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -56,6 +57,50 @@ class JwtUtilTest {
         assertFalse(jwtUtil.validateToken(token));
     }
 
+    @Test
+    void verified_token_is_answered_from_memory() {
+        String token = jwtUtil.generateToken("user-4", new HashMap<>());
+
+        Claims first = jwtUtil.getClaimsFromToken(token);
+        Claims second = jwtUtil.getClaimsFromToken(token);
+
+        assertSame(first, second);
+        assertTrue(jwtUtil.validateToken(token));
+        assertEquals("user-4", jwtUtil.getUserIdFromToken(token));
+    }
+
+    @Test
+    void full_memory_forgets_the_token_verified_longest_ago() {
+        JwtUtil small = new JwtUtil();
+        ReflectionTestUtils.setField(small, "secret",
+                "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef");
+        ReflectionTestUtils.setField(small, "expiration", 60000L);
+        ReflectionTestUtils.setField(small, "cacheSize", 2);
+        String first = small.generateToken("user-a", new HashMap<>());
+        String second = small.generateToken("user-b", new HashMap<>());
+        String third = small.generateToken("user-c", new HashMap<>());
+
+        Claims firstClaims = small.getClaimsFromToken(first);
+        Claims secondClaims = small.getClaimsFromToken(second);
+        small.getClaimsFromToken(third);
+
+        // The first token was verified before the second, so only the first had to make room
+        assertSame(secondClaims, small.getClaimsFromToken(second));
+        assertNotSame(firstClaims, small.getClaimsFromToken(first));
+    }
+
+    @Test
+    void remembered_token_is_invalid_once_expired() throws InterruptedException {
+        String token = jwtUtil.generateToken("user-5", new HashMap<>());
+        assertTrue(jwtUtil.validateToken(token));
+
+        // wait past expiration (configured to 1000ms)
+        Thread.sleep(1100);
+
+        assertFalse(jwtUtil.validateToken(token));
+        assertThrows(JwtException.class, () -> jwtUtil.getClaimsFromToken(token));
+    }
+
     @Test
     void token_with_invalid_signature_fails_validation() {
         // Create a token signed with a DIFFERENT key
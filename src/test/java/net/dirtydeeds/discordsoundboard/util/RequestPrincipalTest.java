@@ -0,0 +1,161 @@
+package net.dirtydeeds.discordsoundboard.util;
+
+import io.jsonwebtoken.Claims;
+import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
+import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
+import net.dirtydeeds.discordsoundboard.service.RolePermissionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestPrincipalTest {
+
+    private static final String AUTH = "Bearer valid.jwt.token";
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private DiscordUserService discordUserService;
+
+    @Mock
+    private RolePermissionService rolePermissionService;
+
+    @InjectMocks
+    private UserRoleConfig userRoleConfig;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userRoleConfig, "adminUserList", new ArrayList<>());
+        ReflectionTestUtils.setField(userRoleConfig, "moderatorUserList", new ArrayList<>());
+        ReflectionTestUtils.setField(userRoleConfig, "djUserList", new ArrayList<>());
+        userRoleConfig.setRoles(new HashMap<>());
+        userRoleConfig.setPermissions(new HashMap<>(Map.of("default-permissions", List.of("play-sounds"))));
+    }
+
+    @Test
+    void principal_loadsUserAndRoleOnce_laterRequestsReadCachedPermissions() {
+        // Arrange
+        signedIn("user123");
+        DiscordUser user = new DiscordUser();
+        user.setId("user123");
+        user.setUsername("testuser");
+        user.setAssignedRole("dj");
+        when(discordUserService.findById("user123")).thenReturn(Optional.of(user));
+        when(rolePermissionService.hasCustomPermissions("dj")).thenReturn(true);
+        when(rolePermissionService.getPermissionNamesForRole("dj")).thenReturn(Set.of("play-sounds", "upload"));
+
+        // Act: a request that checks two permissions and a role and credits the username
+        RequestPrincipal first = userRoleConfig.resolvePrincipal(AUTH);
+        assertEquals("testuser", first.getUsername());
+        assertTrue(first.hasPermission(UserPermission.PLAY_SOUNDS));
+        assertTrue(first.hasPermission(UserPermission.UPLOAD));
+        assertFalse(first.hasRole("admin"));
+        int firstRequestQueries = databaseQueries();
+
+        // Act: the same request again, and one that doesn't need the username
+        clearInvocations(discordUserService, rolePermissionService);
+        RequestPrincipal second = userRoleConfig.resolvePrincipal(AUTH);
+        assertEquals("testuser", second.getUsername());
+        assertTrue(second.hasPermission(UserPermission.PLAY_SOUNDS));
+        assertTrue(second.hasPermission(UserPermission.UPLOAD));
+        assertFalse(second.hasRole("admin"));
+        int secondRequestQueries = databaseQueries();
+
+        clearInvocations(discordUserService, rolePermissionService);
+        assertTrue(userRoleConfig.resolvePrincipal(AUTH).hasPermission(UserPermission.UPLOAD));
+        int permissionOnlyQueries = databaseQueries();
+
+        // Assert: user, custom role check and role permissions once, then only the user for the username
+        assertEquals(3, firstRequestQueries);
+        assertEquals(1, secondRequestQueries);
+        assertEquals(0, permissionOnlyQueries);
+    }
+
+    @Test
+    void principal_verifiesTokenOnce() {
+        // Arrange
+        signedIn("user123");
+        RequestPrincipal principal = userRoleConfig.resolvePrincipal(AUTH);
+
+        // Act
+        principal.getUserId();
+        principal.isAuthenticated();
+        principal.getUserId();
+
+        // Assert
+        verify(jwtUtil, times(1)).getClaimsFromToken("valid.jwt.token");
+    }
+
+    @Test
+    void principal_withoutAuthorization_isAnonymousWithDefaultPermissions() {
+        // Act
+        RequestPrincipal principal = userRoleConfig.resolvePrincipal(null);
+
+        // Assert
+        assertFalse(principal.isAuthenticated());
+        assertEquals(RequestPrincipal.ANONYMOUS, principal.getUsername());
+        assertTrue(principal.hasPermission(UserPermission.PLAY_SOUNDS));
+        assertTrue(principal.getRoles().isEmpty());
+        verifyNoInteractions(jwtUtil);
+        verify(discordUserService, never()).findById(any());
+    }
+
+    @Test
+    void principal_userMissingFromDatabase_isCreditedByUserId() {
+        // Arrange
+        signedIn("user123");
+        when(discordUserService.findById("user123")).thenReturn(Optional.empty());
+
+        // Act
+        RequestPrincipal principal = userRoleConfig.resolvePrincipal(AUTH);
+
+        // Assert
+        assertEquals("user123", principal.getUsername());
+        assertEquals(List.of("user"), principal.getRoles());
+    }
+
+    @Test
+    void principal_databaseDown_creditsUserIdAndFallsBackToConfiguredRoles() {
+        // Arrange
+        signedIn("user123");
+        when(discordUserService.findById("user123")).thenThrow(new RuntimeException("db error"));
+
+        // Act
+        RequestPrincipal principal = userRoleConfig.resolvePrincipal(AUTH);
+
+        // Assert
+        assertEquals("user123", principal.getUsername());
+        assertEquals(List.of("user"), principal.getRoles());
+    }
+
+    @Test
+    void resolvePrincipal_looksNothingUpUntilAsked() {
+        // Act
+        userRoleConfig.resolvePrincipal(AUTH);
+
+        // Assert
+        verifyNoInteractions(jwtUtil, discordUserService, rolePermissionService);
+    }
+
+    private void signedIn(String userId) {
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn(userId);
+        when(jwtUtil.getClaimsFromToken("valid.jwt.token")).thenReturn(claims);
+    }
+
+    private int databaseQueries() {
+        return mockingDetails(discordUserService).getInvocations().size()
+                + mockingDetails(rolePermissionService).getInvocations().size();
+    }
+}
@@ -0,0 +1,47 @@
+package net.dirtydeeds.discordsoundboard.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPermissionTest {
+
+    @Test
+    void maskOf_setsOneBitPerNamedPermission() {
+        int mask = UserPermission.maskOf(List.of("play-sounds", "upload"));
+
+        assertTrue(UserPermission.PLAY_SOUNDS.in(mask));
+        assertTrue(UserPermission.UPLOAD.in(mask));
+        assertFalse(UserPermission.MANAGE_USERS.in(mask));
+        assertEquals(UserPermission.PLAY_SOUNDS.bit() | UserPermission.UPLOAD.bit(), mask);
+    }
+
+    @Test
+    void maskOf_unknownNames_grantNothing() {
+        assertEquals(UserPermission.NONE, UserPermission.maskOf(List.of("fly", "__EMPTY__")));
+        assertNull(UserPermission.fromName("fly"));
+    }
+
+    @Test
+    void namesOf_roundTripsEveryPermission() {
+        Set<String> names = Set.of("upload", "delete-sounds", "edit-sounds", "manage-users", "play-sounds",
+                "download-sounds", "update-volume");
+
+        assertEquals(names, UserPermission.namesOf(UserPermission.maskOf(names)));
+        assertTrue(UserPermission.namesOf(UserPermission.NONE).isEmpty());
+    }
+
+    @Test
+    void flagsOf_coversEveryPermission() {
+        Map<String, Boolean> flags = UserPermission.flagsOf(UserPermission.DELETE_SOUNDS.bit());
+
+        assertEquals(7, flags.size());
+        assertTrue(flags.get("delete"));
+        assertFalse(flags.get("upload"));
+        assertFalse(flags.get("updateVolume"));
+    }
+}
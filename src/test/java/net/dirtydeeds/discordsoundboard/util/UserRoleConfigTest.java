@@ -1,6 +1,7 @@
 package net.dirtydeeds.discordsoundboard.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
 import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
 import net.dirtydeeds.discordsoundboard.service.RolePermissionService;
@@ -55,7 +56,7 @@ class UserRoleConfigTest {
 
     @Test
     void getUserIdFromAuth_withOnlyBearerPrefix_returnsNull() {
-        when(jwtUtil.validateToken("")).thenReturn(false);
+        when(jwtUtil.getClaimsFromToken("")).thenThrow(new IllegalArgumentException("empty token"));
         assertNull(userRoleConfig.getUserIdFromAuth("Bearer "));
     }
 
@@ -63,17 +64,18 @@ class UserRoleConfigTest {
     void getUserIdFromAuth_withValidToken_returnsUserId() {
         String token = "valid.jwt.token";
         Claims claims = mock(Claims.class);
-        when(jwtUtil.validateToken(token)).thenReturn(true);
         when(jwtUtil.getClaimsFromToken(token)).thenReturn(claims);
         when(claims.getSubject()).thenReturn("user-123");
 
         assertEquals("user-123", userRoleConfig.getUserIdFromAuth("Bearer " + token));
+        verify(jwtUtil, times(1)).getClaimsFromToken(token);
+        verify(jwtUtil, never()).validateToken(any());
     }
 
     @Test
     void getUserIdFromAuth_withInvalidToken_returnsNull() {
         String token = "invalid.jwt.token";
-        when(jwtUtil.validateToken(token)).thenReturn(false);
+        when(jwtUtil.getClaimsFromToken(token)).thenThrow(new JwtException("bad signature"));
 
         assertNull(userRoleConfig.getUserIdFromAuth("Bearer " + token));
     }
@@ -81,7 +83,7 @@ class UserRoleConfigTest {
     @Test
     void getUserIdFromAuth_whenJwtThrowsException_returnsNull() {
         String token = "malformed";
-        when(jwtUtil.validateToken(token)).thenThrow(new RuntimeException("parse error"));
+        when(jwtUtil.getClaimsFromToken(token)).thenThrow(new RuntimeException("parse error"));
 
         assertNull(userRoleConfig.getUserIdFromAuth("Bearer " + token));
     }
@@ -284,7 +286,7 @@ class UserRoleConfigTest {
         permissions.put("dj", List.of("play-sounds", "upload"));
         userRoleConfig.setPermissions(permissions);
 
-        assertTrue(userRoleConfig.hasPermission("dj-user-id", "play-sounds"));
+        assertTrue(userRoleConfig.hasPermission("dj-user-id", UserPermission.PLAY_SOUNDS));
     }
 
     @Test
@@ -296,7 +298,7 @@ class UserRoleConfigTest {
         permissions.put("user", List.of("play-sounds"));
         userRoleConfig.setPermissions(permissions);
 
-        assertFalse(userRoleConfig.hasPermission("regular-user", "delete-sounds"));
+        assertFalse(userRoleConfig.hasPermission("regular-user", UserPermission.DELETE_SOUNDS));
     }
 
     // ──────────────────────── hasRole ────────────────────────
@@ -317,4 +319,49 @@ class UserRoleConfigTest {
 
         assertFalse(userRoleConfig.hasRole("regular-user", "admin"));
     }
+
+    // ──────────────────────── Cached permissions ────────────────────────
+
+    @Test
+    void hasPermission_repeatedChecks_readCachedPermissions() {
+        when(discordUserService.findById("dj-user-id")).thenReturn(Optional.empty());
+        when(rolePermissionService.hasCustomPermissions("dj")).thenReturn(true);
+        when(rolePermissionService.getPermissionNamesForRole("dj")).thenReturn(Set.of("play-sounds"));
+
+        assertTrue(userRoleConfig.hasPermission("dj-user-id", UserPermission.PLAY_SOUNDS));
+        assertTrue(userRoleConfig.hasPermission("dj-user-id", UserPermission.PLAY_SOUNDS));
+        assertFalse(userRoleConfig.hasPermission("dj-user-id", UserPermission.UPLOAD));
+        assertTrue(userRoleConfig.hasRole("dj-user-id", "dj"));
+
+        verify(discordUserService, times(1)).findById("dj-user-id");
+        verify(rolePermissionService, times(1)).getPermissionNamesForRole("dj");
+    }
+
+    @Test
+    void invalidatePermissions_nextCheckSeesChangedRole() {
+        DiscordUser dbUser = new DiscordUser();
+        dbUser.setId("regular-user");
+        when(discordUserService.findById("regular-user")).thenReturn(Optional.of(dbUser));
+        userRoleConfig.setPermissions(new HashMap<>(Map.of("dj", List.of("play-sounds"))));
+        assertFalse(userRoleConfig.hasPermission("regular-user", UserPermission.PLAY_SOUNDS));
+
+        dbUser.setAssignedRole("dj");
+        assertFalse(userRoleConfig.hasPermission("regular-user", UserPermission.PLAY_SOUNDS));
+        userRoleConfig.invalidatePermissions();
+
+        assertTrue(userRoleConfig.hasPermission("regular-user", UserPermission.PLAY_SOUNDS));
+    }
+
+    @Test
+    void getUserRoles_dbThrows_isNotCached() {
+        DiscordUser dbUser = new DiscordUser();
+        dbUser.setId("regular-user");
+        dbUser.setAssignedRole("moderator");
+        when(discordUserService.findById("regular-user"))
+                .thenThrow(new RuntimeException("db error"))
+                .thenReturn(Optional.of(dbUser));
+
+        assertEquals(List.of("user"), userRoleConfig.getUserRoles("regular-user"));
+        assertEquals(List.of("moderator"), userRoleConfig.getUserRoles("regular-user"));
+    }
 }
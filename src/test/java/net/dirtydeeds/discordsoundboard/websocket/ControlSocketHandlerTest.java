@@ -0,0 +1,228 @@
+package net.dirtydeeds.discordsoundboard.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import net.dirtydeeds.discordsoundboard.PlaybackEvent;
+import net.dirtydeeds.discordsoundboard.SoundPlayer;
+import net.dirtydeeds.discordsoundboard.beans.DiscordUser;
+import net.dirtydeeds.discordsoundboard.service.DiscordUserService;
+import net.dirtydeeds.discordsoundboard.service.PlayRequestService;
+import net.dirtydeeds.discordsoundboard.service.PlaybackService;
+import net.dirtydeeds.discordsoundboard.util.JwtUtil;
+import net.dirtydeeds.discordsoundboard.util.UserPermission;
+import net.dirtydeeds.discordsoundboard.util.UserRoleConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ControlSocketHandlerTest {
+
+    private static final String CSRF = "csrf-token";
+
+    @Mock
+    private SoundPlayer soundPlayer;
+
+    @Mock
+    private PlayRequestService playRequestService;
+
+    @Mock
+    private UserRoleConfig userRoleConfig;
+
+    @Mock
+    private DiscordUserService discordUserService;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private PlaybackService playbackService;
+
+    @Mock
+    private WebSocketSession session;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ControlSocketHandler handler;
+
+    private BiConsumer<String, PlaybackEvent> playbackListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        handler = new ControlSocketHandler(soundPlayer, playRequestService, userRoleConfig, discordUserService, jwtUtil,
+                objectMapper, playbackService);
+        ArgumentCaptor<BiConsumer<String, PlaybackEvent>> listener = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(playbackService).addListener(listener.capture());
+        playbackListener = listener.getValue();
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(CsrfCookieHandshakeInterceptor.CSRF_TOKEN_ATTRIBUTE, CSRF);
+        lenient().when(session.getId()).thenReturn("session1");
+        lenient().when(session.getAttributes()).thenReturn(attributes);
+        lenient().when(session.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session);
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown();
+    }
+
+    @Test
+    void play_afterHello_queuesSoundAndAcksWithRequestId() throws Exception {
+        // Arrange
+        signIn("user123");
+        when(userRoleConfig.getPermissionMask("user123")).thenReturn(UserPermission.PLAY_SOUNDS.bit());
+        when(playRequestService.submit("airhorn", "bob", 2, "", "testuser")).thenReturn("request1");
+
+        // Act
+        send("{\"type\":\"play\",\"id\":2,\"sound\":\"airhorn\",\"username\":\"bob\",\"repeat\":2}");
+
+        // Assert
+        JsonNode reply = lastReply();
+        assertEquals("ack", reply.get("type").asText());
+        assertEquals(2, reply.get("id").asLong());
+        assertEquals("request1", reply.get("requestId").asText());
+    }
+
+    @Test
+    void play_withoutPermission_repliesForbidden() throws Exception {
+        // Arrange
+        send("{\"type\":\"hello\",\"id\":1,\"csrf\":\"" + CSRF + "\"}");
+        when(userRoleConfig.getPermissionMask(null)).thenReturn(UserPermission.NONE);
+
+        // Act
+        send("{\"type\":\"play\",\"id\":2,\"sound\":\"airhorn\",\"username\":\"bob\"}");
+
+        // Assert
+        verifyNoInteractions(playRequestService);
+        JsonNode reply = lastReply();
+        assertEquals("error", reply.get("type").asText());
+        assertEquals(403, reply.get("status").asInt());
+    }
+
+    @Test
+    void commands_checkPermissionsEveryTime() throws Exception {
+        // Arrange - the user's role is taken away after the first command
+        signIn("user123");
+        when(userRoleConfig.getPermissionMask("user123"))
+                .thenReturn(UserPermission.PLAY_SOUNDS.bit(), UserPermission.NONE);
+        when(playRequestService.submit("airhorn", "bob", 1, "", "testuser")).thenReturn("request1");
+
+        // Act
+        send("{\"type\":\"play\",\"id\":2,\"sound\":\"airhorn\",\"username\":\"bob\"}");
+        send("{\"type\":\"stop\",\"id\":3,\"username\":\"bob\"}");
+
+        // Assert - the token is only verified on hello, the revoked permission applies straight away
+        verify(jwtUtil, times(1)).getClaimsFromToken("jwt");
+        verify(userRoleConfig, times(2)).getPermissionMask("user123");
+        verify(soundPlayer, never()).stop(any(), any());
+        assertEquals(403, lastReply().get("status").asInt());
+    }
+
+    @Test
+    void volume_anonymous_repliesForbidden() throws Exception {
+        // Arrange
+        send("{\"type\":\"hello\",\"id\":1,\"csrf\":\"" + CSRF + "\"}");
+
+        // Act
+        send("{\"type\":\"volume\",\"id\":2,\"username\":\"bob\",\"volume\":50}");
+
+        // Assert
+        verify(soundPlayer, never()).setGlobalVolume(anyInt(), any(), any());
+        assertEquals(403, lastReply().get("status").asInt());
+    }
+
+    @Test
+    void hello_withInvalidToken_repliesUnauthorized() throws Exception {
+        // Arrange
+        when(jwtUtil.getClaimsFromToken("bad")).thenThrow(new JwtException("bad token"));
+
+        // Act
+        send("{\"type\":\"hello\",\"id\":1,\"token\":\"bad\",\"csrf\":\"" + CSRF + "\"}");
+
+        // Assert
+        JsonNode reply = lastReply();
+        assertEquals("error", reply.get("type").asText());
+        assertEquals(401, reply.get("status").asInt());
+    }
+
+    @Test
+    void hello_withWrongCsrfToken_repliesForbidden() throws Exception {
+        // Act
+        send("{\"type\":\"hello\",\"id\":1,\"csrf\":\"guess\"}");
+
+        // Assert
+        assertEquals(403, lastReply().get("status").asInt());
+        verifyNoInteractions(jwtUtil);
+    }
+
+    @Test
+    void command_beforeHello_repliesUnauthorized() throws Exception {
+        // Act
+        send("{\"type\":\"stop\",\"id\":1,\"username\":\"bob\"}");
+
+        // Assert
+        assertEquals(401, lastReply().get("status").asInt());
+        verifyNoInteractions(soundPlayer);
+    }
+
+    @Test
+    void playbackEvent_isPushedToSocketsFollowingTheGuild() throws Exception {
+        // Arrange
+        send("{\"type\":\"hello\",\"id\":1,\"csrf\":\"" + CSRF + "\",\"guilds\":[\"guild1\"]}");
+
+        // Act
+        playbackListener.accept("trackStart", new PlaybackEvent("airhorn", "Airhorn", "bob", "guild2"));
+        playbackListener.accept("trackStart", new PlaybackEvent("bruh", "Bruh", "bob", "guild1"));
+
+        // Assert
+        ArgumentCaptor<TextMessage> messages = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, timeout(1000).times(2)).sendMessage(messages.capture());
+        List<TextMessage> sent = messages.getAllValues();
+        JsonNode event = objectMapper.readTree(sent.get(1).getPayload());
+        assertEquals("trackStart", event.get("type").asText());
+        assertEquals("bruh", event.get("soundFileId").asText());
+    }
+
+    private void signIn(String userId) throws Exception {
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn(userId);
+        when(jwtUtil.getClaimsFromToken("jwt")).thenReturn(claims);
+        DiscordUser user = new DiscordUser();
+        user.setId(userId);
+        user.setUsername("testuser");
+        when(discordUserService.findOneByIdOrUsernameIgnoreCase(userId, userId)).thenReturn(user);
+
+        send("{\"type\":\"hello\",\"id\":1,\"token\":\"jwt\",\"csrf\":\"" + CSRF + "\"}");
+        assertEquals("ack", lastReply().get("type").asText());
+    }
+
+    private void send(String payload) throws Exception {
+        handler.handleTextMessage(session, new TextMessage(payload));
+    }
+
+    private JsonNode lastReply() throws Exception {
+        ArgumentCaptor<TextMessage> messages = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeastOnce()).sendMessage(messages.capture());
+        return objectMapper.readTree(messages.getValue().getPayload());
+    }
+}